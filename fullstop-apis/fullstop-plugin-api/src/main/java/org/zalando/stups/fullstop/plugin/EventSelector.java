@@ -0,0 +1,92 @@
+package org.zalando.stups.fullstop.plugin;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Declares which {@link com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent}s a
+ * {@link FullstopPlugin} is interested in, so events can be routed to plugins without asking every plugin.
+ * <p>
+ * The selector only narrows down the candidates, {@link FullstopPlugin#supports(Object)} still has the final word.
+ *
+ * @see FullstopPlugin#getEventSelector()
+ */
+public final class EventSelector {
+
+    private static final EventSelector ANY = new EventSelector(null, Collections.emptySet());
+
+    private final String eventSource;
+
+    private final Set<String> eventNames;
+
+    private EventSelector(final String eventSource, final Set<String> eventNames) {
+        this.eventSource = eventSource;
+        this.eventNames = eventNames;
+    }
+
+    /**
+     * Matches every event, the plugin gets asked for every single event.
+     */
+    public static EventSelector any() {
+        return ANY;
+    }
+
+    /**
+     * Matches every event emitted by the given source, e.g. "ec2.amazonaws.com".
+     */
+    public static EventSelector source(final String eventSource) {
+        return new EventSelector(Objects.requireNonNull(eventSource), Collections.emptySet());
+    }
+
+    public static EventSelector of(final String eventSource, final String... eventNames) {
+        return of(eventSource, Arrays.asList(eventNames));
+    }
+
+    public static EventSelector of(final String eventSource, final Collection<String> eventNames) {
+        return new EventSelector(Objects.requireNonNull(eventSource), unmodifiableSet(new HashSet<>(eventNames)));
+    }
+
+    public boolean isAny() {
+        return eventSource == null;
+    }
+
+    public boolean isAnyEventName() {
+        return eventNames.isEmpty();
+    }
+
+    public String getEventSource() {
+        return eventSource;
+    }
+
+    public Set<String> getEventNames() {
+        return eventNames;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final EventSelector that = (EventSelector) o;
+        return Objects.equals(eventSource, that.eventSource) && Objects.equals(eventNames, that.eventNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventSource, eventNames);
+    }
+
+    @Override
+    public String toString() {
+        return "EventSelector{eventSource='" + eventSource + "', eventNames=" + eventNames + '}';
+    }
+}
@@ -13,4 +13,14 @@ public interface FullstopPlugin extends Plugin<CloudTrailEvent>, MetadataProvide
 
     void processEvent(CloudTrailEvent event);
 
+    /**
+     * Describes the events this plugin may support. Evaluated once when the routing table is built.
+     * Plugins not overriding this are treated as catch-all and asked for every event.
+     *
+     * @return the events this plugin is interested in, never null
+     */
+    default EventSelector getEventSelector() {
+        return EventSelector.any();
+    }
+
 }
@@ -1,25 +1,46 @@
 package org.zalando.stups.fullstop.aws;
 
 import com.amazonaws.AmazonWebServiceClient;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
 import com.amazonaws.regions.Region;
 import com.google.common.base.MoreObjects;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nonnull;
-import javax.annotation.PostConstruct;
-import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
+ * Caches on two levels: one assumed role per account, shared by the clients of all types and regions of that
+ * account, and the clients on top of it. The role is assumed again in the background before its session expires,
+ * as long as the account is in use.
+ *
  * @author jbellmann
  */
 @Service
-public class CachingClientProvider implements ClientProvider {
+public class CachingClientProvider implements ClientProvider, PublicMetrics {
 
     private static final String ROLE_SESSION_NAME = "fullstop";
 
@@ -27,43 +48,125 @@ public class CachingClientProvider implements ClientProvider {
 
     private static final String ROLE_ARN_LAST = ":role/fullstop";
 
-    private LoadingCache<Key<?>, ? extends AmazonWebServiceClient> cache = null;
+    private final Logger log = LoggerFactory.getLogger(CachingClientProvider.class);
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "aws-credentials-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ClientConfiguration clientConfiguration;
+
+    private final LoadingCache<String, AWSCredentialsProvider> credentials;
+
+    private final LoadingCache<Key<?>, AmazonWebServiceClient> clients;
+
+    @Autowired
+    public CachingClientProvider(final ClientProviderProperties properties) {
+        clientConfiguration = clientConfiguration(properties);
+
+        credentials = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaxAccounts())
+                .expireAfterAccess(properties.getIdleMinutes(), MINUTES)
+                .refreshAfterWrite(properties.getCredentialsRefreshSeconds(), SECONDS)
+                .recordStats()
+                .build(new CacheLoader<String, AWSCredentialsProvider>() {
+                    @Override
+                    public AWSCredentialsProvider load(@Nonnull final String accountId) {
+                        log.debug("Assuming role in account {}", accountId);
+                        return createCredentialsProvider(accountId);
+                    }
 
-    public CachingClientProvider() {
+                    @Override
+                    public ListenableFuture<AWSCredentialsProvider> reload(@Nonnull final String accountId,
+                                                                           @Nonnull final AWSCredentialsProvider old) {
+                        // the clients hold on to the provider, so it is refreshed instead of replaced
+                        final ListenableFutureTask<AWSCredentialsProvider> task = ListenableFutureTask.create(() -> {
+                            log.debug("Refreshing assumed role in account {}", accountId);
+                            old.refresh();
+                            return old;
+                        });
+                        refresher.execute(task);
+                        return task;
+                    }
+                });
+
+        clients = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getIdleMinutes(), MINUTES)
+                .recordStats()
+                .<Key<?>, AmazonWebServiceClient>removalListener(notification -> {
+                    // expired or evicted as the least recently used one, release its connections and deregister it
+                    // from the connection reaper. Clients are never invalidated explicitly or replaced.
+                    if (notification.wasEvicted()) {
+                        notification.getValue().shutdown();
+                    }
+                })
+                .build(new CacheLoader<Key<?>, AmazonWebServiceClient>() {
+                    @Override
+                    public AmazonWebServiceClient load(@Nonnull final Key<?> key) {
+                        log.debug("Creating client for {}", key);
+                        return key.region.createClient(key.type, credentials.getUnchecked(key.accountId),
+                                clientConfiguration);
+                    }
+                });
     }
 
     @Override
     public <T extends AmazonWebServiceClient> T getClient(final Class<T> type, final String accountId, final Region region) {
-        @SuppressWarnings("unchecked")
-        final Key k = new Key(type, accountId, region);
-        return type.cast(cache.getUnchecked(k));
+        // keeps the role of the account fresh, even if all its clients are cached already
+        credentials.getUnchecked(accountId);
+        return type.cast(clients.getUnchecked(new Key<>(type, accountId, region)));
     }
 
-    @PostConstruct
-    public void init() {
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+        addMetrics(metrics, "aws.credentials", credentials.size(), credentials.stats());
+        addMetrics(metrics, "aws.clients", clients.size(), clients.stats());
+        return metrics;
+    }
 
-        // TODO
-        // this parameters have to be configurable
-        cache = CacheBuilder.newBuilder().maximumSize(500).expireAfterWrite(50, TimeUnit.MINUTES).build(
-                new CacheLoader<Key<?>, AmazonWebServiceClient>() {
-                    private final Logger logger = LoggerFactory.getLogger(CacheLoader.class);
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
 
-                    @Override
-                    public AmazonWebServiceClient load(@Nonnull final Key<?> key) throws Exception {
-                        logger.debug("CacheLoader active for Key : {}", key);
-                        return key.region.createClient(
-                                key.type,
-                                new STSAssumeRoleSessionCredentialsProvider(
-                                        buildRoleArn(key.accountId),
-                                        ROLE_SESSION_NAME), null);
-                    }
-                });
+    protected AWSCredentialsProvider createCredentialsProvider(final String accountId) {
+        return new STSAssumeRoleSessionCredentialsProvider(new DefaultAWSCredentialsProviderChain(),
+                buildRoleArn(accountId), ROLE_SESSION_NAME, clientConfiguration);
     }
 
     protected String buildRoleArn(final String accountId) {
         return ROLE_ARN_FIRST + accountId + ROLE_ARN_LAST;
     }
 
+    /**
+     * Shared by all clients, including those assuming the roles. Idle connections are closed early and no connection
+     * is kept forever, so that thousands of clients do not pile up open or half-closed sockets.
+     */
+    static ClientConfiguration clientConfiguration(final ClientProviderProperties properties) {
+        return new ClientConfiguration()
+                .withMaxConnections(properties.getMaxConnections())
+                .withConnectionTimeout(properties.getConnectionTimeoutMillis())
+                .withSocketTimeout(properties.getSocketTimeoutMillis())
+                .withConnectionMaxIdleMillis(properties.getConnectionMaxIdleMillis())
+                .withConnectionTTL(properties.getConnectionTtlMillis())
+                .withReaper(true)
+                .withTcpKeepAlive(properties.isTcpKeepAlive());
+    }
+
+    private static void addMetrics(final List<Metric<?>> metrics, final String prefix, final long size,
+                                   final CacheStats stats) {
+        metrics.add(new Metric<>(prefix + ".size", size));
+        metrics.add(new Metric<>(prefix + ".hits", stats.hitCount()));
+        metrics.add(new Metric<>(prefix + ".misses", stats.missCount()));
+        metrics.add(new Metric<>(prefix + ".loads.failed", stats.loadExceptionCount()));
+        metrics.add(new Metric<>(prefix + ".loads.avgMillis", NANOSECONDS.toMillis((long) stats.averageLoadPenalty())));
+        metrics.add(new Metric<>(prefix + ".evictions", stats.evictionCount()));
+    }
+
     static final class Key<K extends AmazonWebServiceClient> {
         private final Class<K> type;
 
@@ -0,0 +1,104 @@
+package org.zalando.stups.fullstop.aws;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizing of the {@link CachingClientProvider} and the http settings of all AWS clients it creates.
+ */
+@ConfigurationProperties(prefix = "fullstop.aws.clients")
+@Component
+public class ClientProviderProperties {
+    private long maxAccounts = 1000;
+    private long maxClients = 10000;
+    private long idleMinutes = 60;
+    // has to be shorter than the session duration of the assumed role, 15 minutes by default
+    private long credentialsRefreshSeconds = 600;
+    // every client has a pool of its own, keep them small
+    private int maxConnections = 10;
+    private int connectionTimeoutMillis = 10000;
+    private int socketTimeoutMillis = 50000;
+    private long connectionMaxIdleMillis = 30000;
+    private long connectionTtlMillis = 300000;
+    private boolean tcpKeepAlive = true;
+
+    public long getMaxAccounts() {
+        return maxAccounts;
+    }
+
+    public void setMaxAccounts(final long maxAccounts) {
+        this.maxAccounts = maxAccounts;
+    }
+
+    public long getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(final long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public long getIdleMinutes() {
+        return idleMinutes;
+    }
+
+    public void setIdleMinutes(final long idleMinutes) {
+        this.idleMinutes = idleMinutes;
+    }
+
+    public long getCredentialsRefreshSeconds() {
+        return credentialsRefreshSeconds;
+    }
+
+    public void setCredentialsRefreshSeconds(final long credentialsRefreshSeconds) {
+        this.credentialsRefreshSeconds = credentialsRefreshSeconds;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(final int connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    public void setSocketTimeoutMillis(final int socketTimeoutMillis) {
+        this.socketTimeoutMillis = socketTimeoutMillis;
+    }
+
+    public long getConnectionMaxIdleMillis() {
+        return connectionMaxIdleMillis;
+    }
+
+    public void setConnectionMaxIdleMillis(final long connectionMaxIdleMillis) {
+        this.connectionMaxIdleMillis = connectionMaxIdleMillis;
+    }
+
+    public long getConnectionTtlMillis() {
+        return connectionTtlMillis;
+    }
+
+    public void setConnectionTtlMillis(final long connectionTtlMillis) {
+        this.connectionTtlMillis = connectionTtlMillis;
+    }
+
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    public void setTcpKeepAlive(final boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+    }
+}
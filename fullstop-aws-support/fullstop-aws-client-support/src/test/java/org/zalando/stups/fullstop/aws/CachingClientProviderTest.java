@@ -1,6 +1,11 @@
 package org.zalando.stups.fullstop.aws;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonWebServiceClient;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.internal.StaticCredentialsProvider;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.ec2.AmazonEC2Client;
@@ -15,18 +20,26 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 
 /**
  * @author jbellmann
  */
-@Ignore
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration
 public class CachingClientProviderTest {
 
+    private static final Region EU_CENTRAL_1 = Region.getRegion(Regions.EU_CENTRAL_1);
+
+    private static final Region EU_WEST_1 = Region.getRegion(Regions.EU_WEST_1);
+
     @Autowired
     private ClientProvider provider;
 
+    @Ignore
     @Test
     public void testCachingClientProvider() throws InterruptedException {
         final AmazonWebServiceClient client = provider.getClient(
@@ -49,12 +62,74 @@ public class CachingClientProviderTest {
 
     }
 
+    @Test
+    public void testRoleIsAssumedOncePerAccount() throws Exception {
+        final CountingClientProvider countingProvider = new CountingClientProvider(new ClientProviderProperties());
+
+        final AmazonEC2Client client = countingProvider.getClient(AmazonEC2Client.class, "123", EU_CENTRAL_1);
+        assertThat(countingProvider.getClient(AmazonEC2Client.class, "123", EU_CENTRAL_1)).isSameAs(client);
+        assertThat(countingProvider.getClient(AmazonEC2Client.class, "123", EU_WEST_1)).isNotSameAs(client);
+        countingProvider.getClient(AmazonEC2Client.class, "456", EU_CENTRAL_1);
+
+        assertThat(countingProvider.assumedRoles.get()).isEqualTo(2);
+        assertThat(countingProvider.metrics())
+                .filteredOn(metric -> metric.getName().equals("aws.clients.size"))
+                .extracting(metric -> metric.getValue().longValue())
+                .containsExactly(3L);
+    }
+
+    @Test
+    public void testShutsDownEvictedClients() throws Exception {
+        final ClientProviderProperties properties = new ClientProviderProperties();
+        properties.setMaxClients(1);
+        final CountingClientProvider countingProvider = new CountingClientProvider(properties);
+
+        final AmazonEC2Client evicted = countingProvider.getClient(AmazonEC2Client.class, "123", EU_CENTRAL_1);
+        countingProvider.getClient(AmazonEC2Client.class, "123", EU_WEST_1);
+
+        try {
+            evicted.describeInstances();
+            failBecauseExceptionWasNotThrown(AmazonClientException.class);
+        } catch (final AmazonClientException e) {
+            assertThat(e).hasMessageContaining("shut down");
+        }
+    }
+
+    @Test
+    public void testClientConfiguration() throws Exception {
+        final ClientProviderProperties properties = new ClientProviderProperties();
+        properties.setMaxConnections(5);
+        properties.setTcpKeepAlive(false);
+
+        final ClientConfiguration configuration = CachingClientProvider.clientConfiguration(properties);
+
+        assertThat(configuration.getMaxConnections()).isEqualTo(5);
+        assertThat(configuration.useTcpKeepAlive()).isFalse();
+        assertThat(configuration.getConnectionMaxIdleMillis()).isEqualTo(properties.getConnectionMaxIdleMillis());
+        assertThat(configuration.getConnectionTTL()).isEqualTo(properties.getConnectionTtlMillis());
+    }
+
+    private static class CountingClientProvider extends CachingClientProvider {
+
+        private final AtomicInteger assumedRoles = new AtomicInteger();
+
+        CountingClientProvider(final ClientProviderProperties properties) {
+            super(properties);
+        }
+
+        @Override
+        protected AWSCredentialsProvider createCredentialsProvider(final String accountId) {
+            assumedRoles.incrementAndGet();
+            return new StaticCredentialsProvider(new BasicAWSCredentials("key", "secret"));
+        }
+    }
+
     @Configuration
     static class TestConfig {
 
         @Bean
         public ClientProvider cachingClientProvider() {
-            return new CachingClientProvider();
+            return new CachingClientProvider(new ClientProviderProperties());
         }
     }
 
@@ -53,6 +53,15 @@ public abstract class CloudTrailEventSupport {
 
     private static final String CLOUD_TRAIL_EVENT_SHOULD_NEVER_BE_NULL = "CloudTrailEvent should never be null";
 
+    private static final JsonPath INSTANCE_JSON = JsonDocuments.compile(INSTANCE_JSON_PATH);
+
+    private static final JsonPath INSTANCE_LAUNCH_TIME_JSON = JsonDocuments.compile(INSTANCE_LAUNCH_TIME);
+
+    private static final JsonPath RUN_INSTANCE_DATE_JSON = JsonDocuments.compile(RUN_INSTANCE_DATE_JSON_PATH);
+
+    // thread safe, so there is no need for one per call
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     /**
      * Extracts list of instanceIds from {@link CloudTrailEvent}s 'responseElements'.
      */
@@ -100,7 +109,7 @@ public abstract class CloudTrailEventSupport {
         }
 
         try {
-            return JsonPath.read(responseElements, pattern);
+            return JsonDocuments.read(responseElements, pattern);
         } catch (final PathNotFoundException e) {
             if (emptyListOnNullOrEmptyResponse) {
                 return emptyList();
@@ -130,7 +139,7 @@ public abstract class CloudTrailEventSupport {
 
         final String responseElements = eventData.getResponseElements();
 
-        return JsonPath.read(responseElements, INSTANCE_LAUNCH_TIME);
+        return JsonDocuments.read(responseElements, INSTANCE_LAUNCH_TIME_JSON);
     }
 
     public static Region getRegion(final CloudTrailEvent cloudTrailEvent) {
@@ -163,17 +172,19 @@ public abstract class CloudTrailEventSupport {
 
     public static List<String> getInstances(final CloudTrailEvent event) {
         final CloudTrailEventData eventData = getEventData(event);
-        final ObjectMapper mapper = new ObjectMapper();
         final List<String> instances = newArrayList();
         final String responseElements = eventData.getResponseElements();
         if (isNullOrEmpty(responseElements)) {
             return newArrayList();
         }
 
-        final JSONArray items = JsonPath.read(responseElements, INSTANCE_JSON_PATH);
+        final JSONArray items = JsonDocuments.read(responseElements, INSTANCE_JSON);
         for (final Object item : items) {
             try {
-                instances.add(mapper.writeValueAsString(item));
+                final String instance = MAPPER.writeValueAsString(item);
+                // the item is already parsed, reading from the instance json must not parse it again
+                JsonDocuments.register(instance, item);
+                instances.add(instance);
             } catch (final JsonProcessingException e) {
                 LOG.warn(e.getMessage(), e);
             }
@@ -183,7 +194,7 @@ public abstract class CloudTrailEventSupport {
     }
 
     public static DateTime getRunInstanceTime(final String instance) {
-        return new DateTime((Long) JsonPath.read(instance, RUN_INSTANCE_DATE_JSON_PATH));
+        return new DateTime((Long) JsonDocuments.read(instance, RUN_INSTANCE_DATE_JSON));
     }
 
     public static DateTime getEventTime(CloudTrailEvent event) {
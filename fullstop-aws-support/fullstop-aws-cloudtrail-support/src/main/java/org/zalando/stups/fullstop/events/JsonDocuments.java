@@ -0,0 +1,77 @@
+package org.zalando.stups.fullstop.events;
+
+import com.google.common.cache.Cache;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.cache.CacheBuilder.newBuilder;
+
+/**
+ * Parses the json strings of CloudTrail events, like 'responseElements' or 'requestParameters', only once.
+ * <p>
+ * The parsed documents are kept as long as the string they were parsed from is reachable, so all plugins
+ * processing the same event share one document. Documents are shared, so they must never be modified.
+ */
+public final class JsonDocuments {
+
+    private static final JsonProvider JSON_PROVIDER = Configuration.defaultConfiguration().jsonProvider();
+
+    // weak keys are compared by identity, so equal strings of different events never share an entry
+    private static final Cache<String, Object> DOCUMENTS = newBuilder().weakKeys().build();
+
+    private static final ConcurrentMap<String, JsonPath> PATHS = new ConcurrentHashMap<>();
+
+    private JsonDocuments() {
+    }
+
+    /**
+     * @return the parsed document of the given json, which must not be modified
+     * @throws IllegalArgumentException if json is null or empty
+     */
+    public static Object parse(final String json) {
+        if (isNullOrEmpty(json)) {
+            throw new IllegalArgumentException("json string can not be null or empty");
+        }
+
+        final Object cached = DOCUMENTS.getIfPresent(json);
+        if (cached != null) {
+            return cached;
+        }
+
+        // parsing the same json twice in a race is cheaper than locking, and invalid json is reported unwrapped
+        final Object document = JSON_PROVIDER.parse(json);
+        DOCUMENTS.put(json, document);
+        return document;
+    }
+
+    /**
+     * Remembers an already parsed document for the given json, e.g. of a json written from a part of another document.
+     */
+    static void register(final String json, final Object document) {
+        DOCUMENTS.put(json, document);
+    }
+
+    /**
+     * @return the compiled path, every expression is compiled only once
+     */
+    public static JsonPath compile(final String path) {
+        return PATHS.computeIfAbsent(path, JsonPath::compile);
+    }
+
+    /**
+     * Same as {@link JsonPath#read(String, String, com.jayway.jsonpath.Predicate...)}, but neither parses the json
+     * nor compiles the path again.
+     */
+    public static <T> T read(final String json, final String path) {
+        return read(json, compile(path));
+    }
+
+    public static <T> T read(final String json, final JsonPath path) {
+        return path.read(parse(json));
+    }
+}
@@ -0,0 +1,64 @@
+package org.zalando.stups.fullstop.events;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.PathNotFoundException;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getInstances;
+import static org.zalando.stups.fullstop.events.TestCloudTrailEventSerializer.createCloudTrailEvent;
+
+public class JsonDocumentsTest {
+
+    @Test
+    public void testParsesSameJsonOnce() throws Exception {
+        final String json = new String("{\"instanceId\":\"i-1\"}");
+
+        assertThat(JsonDocuments.parse(json)).isSameAs(JsonDocuments.parse(json));
+        assertThat(JsonDocuments.<String>read(json, "$.instanceId")).isEqualTo("i-1");
+    }
+
+    @Test
+    public void testEqualJsonOfDifferentEventsIsParsedSeparately() throws Exception {
+        final String json = new String("{\"instanceId\":\"i-1\"}");
+        final String copy = new String(json);
+
+        assertThat(JsonDocuments.parse(json)).isNotSameAs(JsonDocuments.parse(copy));
+    }
+
+    @Test
+    public void testCompilesPathOnce() throws Exception {
+        assertThat(JsonDocuments.compile("$.keyName")).isSameAs(JsonDocuments.compile("$.keyName"));
+    }
+
+    @Test
+    public void testInstancesAreNotParsedAgain() throws Exception {
+        final CloudTrailEvent event = createCloudTrailEvent("/responseElements.json");
+        final List<String> instances = getInstances(event);
+
+        final List<Object> items = JsonDocuments.read(event.getEventData().getResponseElements(),
+                CloudTrailEventSupport.INSTANCE_JSON_PATH);
+
+        assertThat(instances).isNotEmpty();
+        assertThat(JsonDocuments.parse(instances.get(0))).isSameAs(items.get(0));
+        assertThat(JsonDocuments.<String>read(instances.get(0), "$.instanceId")).isNotEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyJson() throws Exception {
+        JsonDocuments.parse("");
+    }
+
+    @Test(expected = InvalidJsonException.class)
+    public void testInvalidJson() throws Exception {
+        JsonDocuments.parse(new String("{\"instanceId\":"));
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void testMissingPath() throws Exception {
+        JsonDocuments.read(new String("{}"), "$.instanceId");
+    }
+}
@@ -0,0 +1,183 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link PluginEventsProcessor} that fans out a single {@link CloudTrailEvent} to all matching plugins in parallel on a
+ * bounded pool. An event is completed (or timed out) by all plugins before the next event of the batch is started, so
+ * every plugin still sees the events in their original order.
+ * <p>
+ * A plugin that runs into its timeout is interrupted. Its next event does not start before the interrupted one ended,
+ * and is skipped, if that does not happen within the timeout of the next event.
+ */
+public class ConcurrentPluginEventsProcessor extends PluginEventsProcessor implements DisposableBean {
+
+    static final String QUEUE_DEPTH_GAUGE = "plugins.processor.queue.depth";
+
+    static final String ACTIVE_THREADS_GAUGE = "plugins.processor.threads.active";
+
+    static final String TIMEOUT_COUNTER = "plugins.processor.timeout.";
+
+    private final Logger log = LoggerFactory.getLogger(ConcurrentPluginEventsProcessor.class);
+
+    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+
+    private final PluginProcessingProperties properties;
+
+    private final GaugeService gaugeService;
+
+    private final CounterService counterService;
+
+    /**
+     * Per plugin, completes once the last submitted event ended, or was skipped after all previous ones ended.
+     */
+    private final Map<FullstopPlugin, CompletableFuture<Void>> lastEvents = new ConcurrentHashMap<>();
+
+    public ConcurrentPluginEventsProcessor(final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry,
+                                           final PluginProcessingProperties properties,
+                                           final GaugeService gaugeService,
+                                           final CounterService counterService) {
+        super(fullstopPluginRegistry);
+        this.properties = properties;
+        this.gaugeService = gaugeService;
+        this.counterService = counterService;
+
+        threadPoolTaskExecutor.setCorePoolSize(properties.getCorePoolSize());
+        threadPoolTaskExecutor.setMaxPoolSize(properties.getMaxPoolSize());
+        threadPoolTaskExecutor.setQueueCapacity(properties.getQueueCapacity());
+        threadPoolTaskExecutor.setAllowCoreThreadTimeOut(true);
+        threadPoolTaskExecutor.setKeepAliveSeconds(30);
+        threadPoolTaskExecutor.setThreadGroupName("plugin-processor-group");
+        threadPoolTaskExecutor.setThreadNamePrefix("plugin-processor-");
+        threadPoolTaskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        threadPoolTaskExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        threadPoolTaskExecutor.afterPropertiesSet();
+    }
+
+    /**
+     * Submits the event to every supporting plugin and waits until all of them are done or their timeout elapsed.
+     */
+    @Override
+    protected void doProcess(final CloudTrailEvent event) {
+        final List<FullstopPlugin> plugins = getPluginsForEvent(event);
+        if (plugins.size() <= 1 && plugins.stream().allMatch(this::isIdle)) {
+            // nothing to parallelize, avoid the thread hop
+            plugins.forEach(plugin -> doProcess(event, plugin));
+            return;
+        }
+
+        final long submitted = currentTimeMillis();
+        final Map<FullstopPlugin, PluginTask> tasks = new LinkedHashMap<>();
+        for (final FullstopPlugin plugin : plugins) {
+            tasks.put(plugin, submit(event, plugin));
+        }
+        reportPoolMetrics();
+
+        for (final Map.Entry<FullstopPlugin, PluginTask> entry : tasks.entrySet()) {
+            final Class<?> pluginClass = AopUtils.getTargetClass(entry.getKey());
+            final PluginTask task = entry.getValue();
+            final long remaining = submitted + properties.getTimeoutMillis(pluginClass) - currentTimeMillis();
+            try {
+                task.future.get(Math.max(remaining, 0), MILLISECONDS);
+            } catch (final TimeoutException e) {
+                task.cancel();
+                counterService.increment(TIMEOUT_COUNTER + pluginClass.getSimpleName());
+                log.warn("Plugin {} did not finish event {} in time, cancelled it",
+                        pluginClass.getSimpleName(), event.getEventData().getEventId());
+            } catch (final ExecutionException e) {
+                log.error(e.getMessage(), e.getCause());
+            } catch (final InterruptedException e) {
+                tasks.values().forEach(PluginTask::cancel);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean isIdle(final FullstopPlugin plugin) {
+        final CompletableFuture<Void> lastEvent = lastEvents.get(plugin);
+        return lastEvent == null || lastEvent.isDone();
+    }
+
+    /**
+     * The task waits for the previous event of the plugin, a plugin that ignores the interrupt after its timeout must
+     * not process two events at the same time or out of order.
+     */
+    private PluginTask submit(final CloudTrailEvent event, final FullstopPlugin plugin) {
+        final Class<?> pluginClass = AopUtils.getTargetClass(plugin);
+        final CompletableFuture<Void> previous = lastEvents.getOrDefault(plugin, completedFuture(null));
+        final PluginTask task = new PluginTask();
+        lastEvents.put(plugin, previous.isDone() ? task.ended : CompletableFuture.allOf(previous, task.ended));
+        task.future = threadPoolTaskExecutor.submit(() -> {
+            if (!task.started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                previous.get(properties.getTimeoutMillis(pluginClass), MILLISECONDS);
+                doProcess(event, plugin);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException | TimeoutException e) {
+                log.warn("Skipped event {} for plugin {}, its previous event did not end in time",
+                        event.getEventData().getEventId(), pluginClass.getSimpleName());
+            } finally {
+                task.ended.complete(null);
+            }
+        });
+        return task;
+    }
+
+    private void reportPoolMetrics() {
+        final ThreadPoolExecutor executor = threadPoolTaskExecutor.getThreadPoolExecutor();
+        gaugeService.submit(QUEUE_DEPTH_GAUGE, executor.getQueue().size());
+        gaugeService.submit(ACTIVE_THREADS_GAUGE, executor.getActiveCount());
+    }
+
+    @Override
+    public void destroy() {
+        threadPoolTaskExecutor.shutdown();
+    }
+
+    private static final class PluginTask {
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private final CompletableFuture<Void> ended = new CompletableFuture<>();
+
+        private Future<?> future;
+
+        /**
+         * Interrupts the running task. A task that did not start yet never runs, it ended right away.
+         */
+        void cancel() {
+            future.cancel(true);
+            if (started.compareAndSet(false, true)) {
+                ended.complete(null);
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package org.zalando.stups.fullstop;
 import com.amazonaws.services.cloudtrail.processinglibrary.AWSCloudTrailProcessingExecutor;
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,7 +12,8 @@ import org.springframework.plugin.core.PluginRegistry;
 import org.zalando.stups.fullstop.plugin.FullstopPlugin;
 
 @Configuration
-@EnableConfigurationProperties({ FullstopContainerProperties.class, CloudTrailProcessingLibraryProperties.class })
+@EnableConfigurationProperties({ FullstopContainerProperties.class, CloudTrailProcessingLibraryProperties.class,
+                                 PluginProcessingProperties.class })
 public class FullstopConfig {
 
     @Autowired
@@ -19,8 +22,24 @@ public class FullstopConfig {
     @Autowired
     private CloudTrailProcessingLibraryProperties cloudTrailsProcessingLibraryProperties;
 
+    @Autowired
+    private PluginProcessingProperties pluginProcessingProperties;
+
+    @Autowired
+    private GaugeService gaugeService;
+
+    @Autowired
+    private CounterService counterService;
+
     @Bean
     public PluginEventsProcessor pluginEventsProcessor() {
+        if (pluginProcessingProperties.isEnabled()) {
+            return new ConcurrentPluginEventsProcessor(
+                    fullstopPluginRegistry,
+                    pluginProcessingProperties,
+                    gaugeService,
+                    counterService);
+        }
         return new PluginEventsProcessor(fullstopPluginRegistry);
 
     }
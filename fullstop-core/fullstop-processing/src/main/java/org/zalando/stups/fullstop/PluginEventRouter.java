@@ -0,0 +1,107 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.stups.fullstop.plugin.EventSelector;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Routing table from eventSource/eventName to the {@link FullstopPlugin}s declaring interest in it via
+ * {@link FullstopPlugin#getEventSelector()}. Built once, so routing an event is a single hash lookup instead of
+ * calling {@link FullstopPlugin#supports(Object)} on every registered plugin.
+ * <p>
+ * Catch-all plugins are part of every route. The candidates keep the order of the plugin list they were built from.
+ */
+class PluginEventRouter {
+
+    private static final char SEPARATOR = '#';
+
+    private final Logger log = LoggerFactory.getLogger(PluginEventRouter.class);
+
+    private final Map<String, List<FullstopPlugin>> routes = new HashMap<>();
+
+    private final List<FullstopPlugin> catchAll;
+
+    PluginEventRouter(final List<FullstopPlugin> plugins) {
+        final Map<String, List<FullstopPlugin>> byEventName = new HashMap<>();
+        final Map<String, List<FullstopPlugin>> bySource = new HashMap<>();
+
+        for (final FullstopPlugin plugin : plugins) {
+            final EventSelector selector = plugin.getEventSelector();
+            if (selector.isAny()) {
+                continue;
+            }
+            if (selector.isAnyEventName()) {
+                bySource.computeIfAbsent(selector.getEventSource(), k -> new ArrayList<>()).add(plugin);
+            } else {
+                for (final String eventName : selector.getEventNames()) {
+                    byEventName.computeIfAbsent(key(selector.getEventSource(), eventName), k -> new ArrayList<>())
+                            .add(plugin);
+                }
+            }
+        }
+
+        catchAll = Collections.unmodifiableList(
+                plugins.stream().filter(p -> p.getEventSelector().isAny()).collect(toList()));
+
+        // every route holds catch-all, source-wide and name specific plugins in registration order
+        byEventName.forEach((key, named) -> {
+            final String source = key.substring(0, key.indexOf(SEPARATOR));
+            routes.put(key, ordered(plugins, catchAll, bySource.getOrDefault(source, Collections.emptyList()), named));
+        });
+        bySource.forEach((source, sourceWide) ->
+                routes.put(source, ordered(plugins, catchAll, sourceWide, Collections.emptyList())));
+
+        log.info("Routing table built with {} routes and {} catch-all plugins", routes.size(), catchAll.size());
+    }
+
+    /**
+     * Returns the plugins that may support the given event. Callers still have to check
+     * {@link FullstopPlugin#supports(Object)}.
+     */
+    List<FullstopPlugin> candidatesFor(final CloudTrailEvent event) {
+        final CloudTrailEventData eventData = event.getEventData();
+        final String eventSource = eventData.getEventSource();
+        if (eventSource == null) {
+            return catchAll;
+        }
+
+        final List<FullstopPlugin> named = routes.get(key(eventSource, eventData.getEventName()));
+        if (named != null) {
+            return named;
+        }
+        return routes.getOrDefault(eventSource, catchAll);
+    }
+
+    private static String key(final String eventSource, final String eventName) {
+        return eventSource + SEPARATOR + eventName;
+    }
+
+    @SafeVarargs
+    private static List<FullstopPlugin> ordered(final List<FullstopPlugin> allPlugins,
+                                                final Collection<FullstopPlugin>... candidates) {
+        return Collections.unmodifiableList(
+                allPlugins.stream()
+                        .filter(p -> {
+                            for (final Collection<FullstopPlugin> c : candidates) {
+                                if (c.contains(p)) {
+                                    return true;
+                                }
+                            }
+                            return false;
+                        })
+                        .distinct()
+                        .collect(toList()));
+    }
+}
@@ -14,6 +14,8 @@ import org.zalando.stups.fullstop.plugin.FullstopPlugin;
 
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Simple {@link EventsProcessor} that delegates to {@link FullstopPlugin}s that can procces the {@link CloudTrailEvent}.
  */
@@ -24,6 +26,8 @@ public class PluginEventsProcessor implements EventsProcessor {
 
     private final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry;
 
+    private volatile PluginEventRouter router;
+
     @Autowired
     public PluginEventsProcessor(final PluginRegistry<FullstopPlugin, CloudTrailEvent> fullstopPluginRegistry) {
         this.fullstopPluginRegistry = fullstopPluginRegistry;
@@ -59,12 +63,30 @@ public class PluginEventsProcessor implements EventsProcessor {
     }
 
     /**
-     * Returns a list of plugins configured.
+     * Returns a list of plugins supporting the event. Only the plugins routed to the event by their
+     * {@link FullstopPlugin#getEventSelector()} are asked.
      *
-     * @return list of plugins configured
+     * @return list of plugins supporting the event
      */
     protected List<FullstopPlugin> getPluginsForEvent(final CloudTrailEvent event) {
-        return this.fullstopPluginRegistry.getPluginsFor(event);
+        return getRouter().candidatesFor(event).stream().filter(plugin -> plugin.supports(event)).collect(toList());
+    }
+
+    /**
+     * The registry resolves its plugins lazily, so the routing table is built on first use.
+     */
+    private PluginEventRouter getRouter() {
+        PluginEventRouter result = router;
+        if (result == null) {
+            synchronized (this) {
+                result = router;
+                if (result == null) {
+                    result = new PluginEventRouter(fullstopPluginRegistry.getPlugins());
+                    router = result;
+                }
+            }
+        }
+        return result;
     }
 
 }
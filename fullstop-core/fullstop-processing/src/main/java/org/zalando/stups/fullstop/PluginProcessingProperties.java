@@ -0,0 +1,86 @@
+package org.zalando.stups.fullstop;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the concurrent processing mode of {@link PluginEventsProcessor}.
+ */
+@ConfigurationProperties(prefix = "fullstop.processor.concurrency", ignoreUnknownFields = true)
+public class PluginProcessingProperties {
+
+    /**
+     * When disabled every plugin is called one after another on the CloudTrail callback thread.
+     */
+    private boolean enabled = false;
+
+    private int corePoolSize = 4;
+
+    private int maxPoolSize = 16;
+
+    private int queueCapacity = 100;
+
+    /**
+     * Maximum time a single plugin may spend on one event.
+     */
+    private long timeoutMillis = 30_000;
+
+    /**
+     * Overrides of {@link #timeoutMillis}, keyed by the plugins fully qualified class name.
+     */
+    private Map<String, Long> pluginTimeoutMillis = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public void setCorePoolSize(final int corePoolSize) {
+        this.corePoolSize = corePoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(final int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(final long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Map<String, Long> getPluginTimeoutMillis() {
+        return pluginTimeoutMillis;
+    }
+
+    public void setPluginTimeoutMillis(final Map<String, Long> pluginTimeoutMillis) {
+        this.pluginTimeoutMillis = pluginTimeoutMillis;
+    }
+
+    public long getTimeoutMillis(final Class<?> pluginClass) {
+        return pluginTimeoutMillis.getOrDefault(pluginClass.getName(), timeoutMillis);
+    }
+}
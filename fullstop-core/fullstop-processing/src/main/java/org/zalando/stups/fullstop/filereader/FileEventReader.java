@@ -14,28 +14,44 @@ import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressStat
 import com.amazonaws.services.cloudtrail.processinglibrary.progress.ProgressStatus;
 import com.amazonaws.services.cloudtrail.processinglibrary.serializer.DefaultEventSerializer;
 import com.amazonaws.services.cloudtrail.processinglibrary.serializer.EventSerializer;
-import com.amazonaws.services.cloudtrail.processinglibrary.serializer.RawLogDeliveryEventSerializer;
 import com.amazonaws.services.cloudtrail.processinglibrary.utils.EventBuffer;
-import com.amazonaws.services.cloudtrail.processinglibrary.utils.LibraryUtils;
-import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 
 /**
  * So we can test a bit as long no access is possible to the s3-files directly.
+ * <p>
+ * Log files are decompressed and parsed as a stream, in large chunks, and never copied into memory as a whole.
  *
  * @author jbellmann
  */
 public class FileEventReader {
 
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    // compressed bytes read from the file at once
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // thread safe and expensive to create, so it is shared by all readers
+    private static final JsonFactory JSON_FACTORY = new ObjectMapper().getFactory();
+
     private static final Logger logger = LoggerFactory.getLogger(FileEventReader.class);
 
     private final EventFilter eventFilter;
@@ -44,24 +60,29 @@ public class FileEventReader {
 
     private final ExceptionHandler exceptionHandler;
 
-    private final ObjectMapper mapper;
+    private final int batchSize;
 
-    private final boolean isEnableRawEventInfo = false;
+    private final boolean isEnableRawEventInfo;
 
-    public FileEventReader(final EventsProcessor eventsProcessor, final EventFilter eventFilter) {
+    public FileEventReader(final EventsProcessor eventsProcessor, final EventFilter eventFilter, final int batchSize,
+                           final boolean isEnableRawEventInfo) {
         this.eventsProcessor = eventsProcessor;
         this.eventFilter = eventFilter;
-        this.mapper = new ObjectMapper();
+        this.batchSize = batchSize;
+        this.isEnableRawEventInfo = isEnableRawEventInfo;
         this.exceptionHandler = new DefaultExceptionHandler();
     }
 
+    public FileEventReader(final EventsProcessor eventsProcessor, final EventFilter eventFilter) {
+        this(eventsProcessor, eventFilter, DEFAULT_BATCH_SIZE, false);
+    }
+
     public FileEventReader(final EventsProcessor eventsProcessor) {
         this(eventsProcessor, new DefaultEventFilter());
     }
 
     public void readEvents(final File file, final CloudTrailLog ctLog) throws CallbackException {
-        try {
-            final GZIPInputStream gzippedInputStream = new GZIPInputStream(new FileInputStream(file));
+        try (final InputStream gzippedInputStream = new GZIPInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
 
             final EventSerializer serializer = this.getEventSerializer(gzippedInputStream, ctLog);
 
@@ -75,33 +96,67 @@ public class FileEventReader {
         }
     }
 
+    /**
+     * Reads the files in parallel, each of them on one thread.
+     *
+     * @param parallelism number of files read at the same time
+     */
+    public void readEvents(final Collection<File> files, final int parallelism) throws CallbackException {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(files.size());
+            for (final File file : files) {
+                futures.add(executor.submit(() -> {
+                    logger.info("Process file: {}", file.getAbsolutePath());
+                    readEvents(file, null);
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+        catch (final ExecutionException e) {
+            if (e.getCause() instanceof CallbackException) {
+                throw (CallbackException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Get the EventSerializer based on user's configuration.
      *
-     * @param inputStream the Gzipped content from CloudTrail log file
+     * @param inputStream the decompressed content from CloudTrail log file
      * @param ctLog       CloudTrail log file
      * @return parser that parses CloudTrail log file
      * @throws java.io.IOException
      */
-    private EventSerializer getEventSerializer(final GZIPInputStream inputStream, final CloudTrailLog ctLog)
+    private EventSerializer getEventSerializer(final InputStream inputStream, final CloudTrailLog ctLog)
             throws IOException {
         final EventSerializer serializer;
 
         if (isEnableRawEventInfo) {
-            final String logFileContent = new String(LibraryUtils.toByteArray(inputStream), StandardCharsets.UTF_8);
-            final JsonParser jsonParser = this.mapper.getFactory().createParser(logFileContent);
-            serializer = new RawLogDeliveryEventSerializer(logFileContent, ctLog, jsonParser);
+            // the raw events are cut out of the characters while they stream by
+            serializer = StreamingRawEventSerializer.create(ctLog,
+                    new InputStreamReader(inputStream, StandardCharsets.UTF_8), JSON_FACTORY);
         }
         else {
-            final JsonParser jsonParser = this.mapper.getFactory().createParser(inputStream);
-            serializer = new DefaultEventSerializer(ctLog, jsonParser);
+            serializer = new DefaultEventSerializer(ctLog, JSON_FACTORY.createParser(inputStream));
         }
 
         return serializer;
     }
 
     private void emitEvents(final EventSerializer serializer) throws CallbackException, IOException {
-        final EventBuffer<CloudTrailEvent> eventBuffer = new EventBuffer<>(10);
+        final EventBuffer<CloudTrailEvent> eventBuffer = new EventBuffer<>(batchSize);
         while (serializer.hasNextEvent()) {
 
             final CloudTrailEvent event = serializer.getNextEvent();
@@ -0,0 +1,91 @@
+package org.zalando.stups.fullstop.filereader;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventMetadata;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailLog;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.LogDeliveryInfo;
+import com.amazonaws.services.cloudtrail.processinglibrary.serializer.AbstractEventSerializer;
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Like the RawLogDeliveryEventSerializer of the processing library, but without reading the whole log file into a
+ * String first. Only the characters of the current event (plus what the parser read ahead) are kept in memory.
+ */
+class StreamingRawEventSerializer extends AbstractEventSerializer {
+
+    private final CloudTrailLog ctLog;
+
+    private final RecordingReader reader;
+
+    private StreamingRawEventSerializer(final CloudTrailLog ctLog, final RecordingReader reader,
+                                        final JsonFactory jsonFactory) throws IOException {
+        super(jsonFactory.createParser(reader));
+        this.ctLog = ctLog;
+        this.reader = reader;
+
+        // this initializes the AbstractEventSerializer
+        readArrayHeader();
+    }
+
+    static StreamingRawEventSerializer create(final CloudTrailLog ctLog, final Reader reader,
+                                              final JsonFactory jsonFactory) throws IOException {
+        return new StreamingRawEventSerializer(ctLog, new RecordingReader(reader), jsonFactory);
+    }
+
+    @Override
+    public CloudTrailEventMetadata getMetadata(final int charStart, final int charEnd) {
+        final CloudTrailLog log = ctLog == null ? null : new CloudTrailLog(ctLog.getS3Bucket(), ctLog.getS3ObjectKey());
+        return new LogDeliveryInfo(log, charStart, charEnd, reader.take(charStart, charEnd));
+    }
+
+    /**
+     * Remembers the characters read, until they were taken.
+     */
+    static class RecordingReader extends FilterReader {
+
+        private final StringBuilder recorded = new StringBuilder();
+
+        // position of the first recorded character in the stream
+        private long offset;
+
+        RecordingReader(final Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int c = super.read();
+            if (c >= 0) {
+                recorded.append((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            final int n = super.read(cbuf, off, len);
+            if (n > 0) {
+                recorded.append(cbuf, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            throw new IOException("skip is not supported");
+        }
+
+        /**
+         * @return the characters from start to end (inclusive), everything up to end is forgotten
+         */
+        String take(final long start, final long end) {
+            final String taken = recorded.substring((int) (start - offset), (int) (end + 1 - offset));
+            recorded.delete(0, (int) (end + 1 - offset));
+            offset = end + 1;
+            return taken;
+        }
+    }
+}
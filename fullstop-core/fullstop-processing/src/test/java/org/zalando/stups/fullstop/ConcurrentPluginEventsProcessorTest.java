@@ -0,0 +1,189 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.zalando.stups.fullstop.plugin.EventSelector;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConcurrentPluginEventsProcessorTest {
+
+    private CloudTrailEvent event;
+
+    private FullstopPlugin fastPlugin;
+
+    private FullstopPlugin slowPlugin;
+
+    private GaugeService gaugeService;
+
+    private CounterService counterService;
+
+    private ConcurrentPluginEventsProcessor processor;
+
+    @Before
+    public void setUp() {
+        event = mock(CloudTrailEvent.class);
+        final CloudTrailEventData eventData = mock(CloudTrailEventData.class);
+        when(event.getEventData()).thenReturn(eventData);
+        when(eventData.getEventId()).thenReturn("event-id");
+
+        fastPlugin = mock(FullstopPlugin.class);
+        slowPlugin = mock(FullstopPlugin.class);
+        when(fastPlugin.supports(any())).thenReturn(true);
+        when(slowPlugin.supports(any())).thenReturn(true);
+        when(fastPlugin.getEventSelector()).thenReturn(EventSelector.any());
+        when(slowPlugin.getEventSelector()).thenReturn(EventSelector.any());
+
+        gaugeService = mock(GaugeService.class);
+        counterService = mock(CounterService.class);
+
+        final PluginProcessingProperties properties = new PluginProcessingProperties();
+        properties.setTimeoutMillis(200);
+
+        processor = new ConcurrentPluginEventsProcessor(
+                SimplePluginRegistry.create(asList(slowPlugin, fastPlugin)),
+                properties,
+                gaugeService,
+                counterService);
+    }
+
+    @After
+    public void tearDown() {
+        processor.destroy();
+    }
+
+    @Test
+    public void testSlowPluginDoesNotBlockOthers() throws Exception {
+        final CountDownLatch fastPluginCalled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            // only returns once the other plugin ran in parallel, otherwise runs into the timeout
+            fastPluginCalled.await();
+            return null;
+        }).when(slowPlugin).processEvent(event);
+        doAnswer(invocation -> {
+            fastPluginCalled.countDown();
+            return null;
+        }).when(fastPlugin).processEvent(event);
+
+        processor.process(singletonList(event));
+
+        verify(slowPlugin).processEvent(event);
+        verify(fastPlugin).processEvent(event);
+        verify(counterService, never()).increment(startsWith(ConcurrentPluginEventsProcessor.TIMEOUT_COUNTER));
+        verify(gaugeService, atLeastOnce()).submit(eq(ConcurrentPluginEventsProcessor.QUEUE_DEPTH_GAUGE), anyDouble());
+    }
+
+    @Test
+    public void testPluginTimeout() throws Exception {
+        final CountDownLatch neverReleased = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            neverReleased.await();
+            return null;
+        }).when(slowPlugin).processEvent(event);
+
+        final long start = System.currentTimeMillis();
+        processor.process(singletonList(event));
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(5_000);
+        verify(fastPlugin).processEvent(event);
+        verify(counterService).increment(startsWith(ConcurrentPluginEventsProcessor.TIMEOUT_COUNTER));
+    }
+
+    @Test
+    public void testPluginIgnoringInterruptsDoesNotRunItsNextEventInParallel() throws Exception {
+        final CloudTrailEvent nextEvent = mock(CloudTrailEvent.class);
+        final CloudTrailEventData eventData = event.getEventData();
+        when(nextEvent.getEventData()).thenReturn(eventData);
+
+        final CountDownLatch released = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (running.incrementAndGet() > 1) {
+                overlapped.set(true);
+            }
+            if (invocation.getArguments()[0] == event) {
+                // ignores the interrupt after its timeout
+                Uninterruptibles.awaitUninterruptibly(released);
+            }
+            running.decrementAndGet();
+            return null;
+        }).when(slowPlugin).processEvent(any());
+
+        processor.process(asList(event, nextEvent));
+
+        verify(slowPlugin).processEvent(event);
+        verify(slowPlugin, never()).processEvent(nextEvent);
+        verify(fastPlugin).processEvent(event);
+        verify(fastPlugin).processEvent(nextEvent);
+
+        released.countDown();
+        processor.process(singletonList(nextEvent));
+
+        verify(slowPlugin).processEvent(nextEvent);
+        assertThat(overlapped.get()).isFalse();
+    }
+
+    @Test
+    public void testTimeoutOfProxiedPlugin() throws Exception {
+        final PluginProcessingProperties properties = new PluginProcessingProperties();
+        properties.setTimeoutMillis(50);
+        properties.setPluginTimeoutMillis(singletonMap(SleepingPlugin.class.getName(), 5_000L));
+        final ProxyFactory proxyFactory = new ProxyFactory(new SleepingPlugin());
+        proxyFactory.setProxyTargetClass(true);
+        final ConcurrentPluginEventsProcessor proxiedProcessor = new ConcurrentPluginEventsProcessor(
+                SimplePluginRegistry.create(asList((FullstopPlugin) proxyFactory.getProxy(), fastPlugin)),
+                properties,
+                gaugeService,
+                counterService);
+
+        try {
+            proxiedProcessor.process(singletonList(event));
+        } finally {
+            proxiedProcessor.destroy();
+        }
+
+        verify(fastPlugin).processEvent(event);
+        verify(counterService, never()).increment(startsWith(ConcurrentPluginEventsProcessor.TIMEOUT_COUNTER));
+    }
+
+    static class SleepingPlugin implements FullstopPlugin {
+
+        @Override
+        public boolean supports(final CloudTrailEvent delimiter) {
+            return true;
+        }
+
+        @Override
+        public void processEvent(final CloudTrailEvent event) {
+            Uninterruptibles.sleepUninterruptibly(300, MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.zalando.stups.fullstop;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.plugin.EventSelector;
+import org.zalando.stups.fullstop.plugin.FullstopPlugin;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PluginEventRouterTest {
+
+    private FullstopPlugin catchAll;
+
+    private FullstopPlugin runInstances;
+
+    private FullstopPlugin allOfIam;
+
+    private PluginEventRouter router;
+
+    @Before
+    public void setUp() {
+        catchAll = mock(FullstopPlugin.class);
+        when(catchAll.getEventSelector()).thenReturn(EventSelector.any());
+
+        runInstances = mock(FullstopPlugin.class);
+        when(runInstances.getEventSelector()).thenReturn(EventSelector.of("ec2.amazonaws.com", "RunInstances"));
+
+        allOfIam = mock(FullstopPlugin.class);
+        when(allOfIam.getEventSelector()).thenReturn(EventSelector.source("iam.amazonaws.com"));
+
+        router = new PluginEventRouter(asList(runInstances, catchAll, allOfIam));
+    }
+
+    @Test
+    public void testNamedRouteKeepsRegistrationOrder() {
+        assertThat(router.candidatesFor(event("ec2.amazonaws.com", "RunInstances")))
+                .containsExactly(runInstances, catchAll);
+    }
+
+    @Test
+    public void testSourceRoute() {
+        assertThat(router.candidatesFor(event("iam.amazonaws.com", "CreateRole"))).containsExactly(catchAll, allOfIam);
+    }
+
+    @Test
+    public void testUnknownEventOnlyHitsCatchAll() {
+        assertThat(router.candidatesFor(event("ec2.amazonaws.com", "DescribeInstances"))).containsExactly(catchAll);
+        assertThat(router.candidatesFor(event("s3.amazonaws.com", "GetObject"))).containsExactly(catchAll);
+        assertThat(router.candidatesFor(event(null, null))).containsExactly(catchAll);
+    }
+
+    private static CloudTrailEvent event(final String eventSource, final String eventName) {
+        final CloudTrailEvent event = mock(CloudTrailEvent.class);
+        final CloudTrailEventData eventData = mock(CloudTrailEventData.class);
+        when(event.getEventData()).thenReturn(eventData);
+        when(eventData.getEventSource()).thenReturn(eventSource);
+        when(eventData.getEventName()).thenReturn(eventName);
+        return event;
+    }
+}
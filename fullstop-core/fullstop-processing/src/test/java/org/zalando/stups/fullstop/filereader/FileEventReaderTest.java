@@ -0,0 +1,86 @@
+package org.zalando.stups.fullstop.filereader;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.impl.DefaultEventFilter;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.LogDeliveryInfo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileEventReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<List<CloudTrailEvent>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void testEmitsEventsInBatches() throws Exception {
+        final File file = logFile("a", 5);
+
+        new FileEventReader(batches::add, new DefaultEventFilter(), 2, false).readEvents(file, null);
+
+        assertThat(batches).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(events()).extracting(e -> e.getEventData().getEventId())
+                .containsExactly("a-0", "a-1", "a-2", "a-3", "a-4");
+    }
+
+    @Test
+    public void testRawEventInfoContainsEachEvent() throws Exception {
+        final File file = logFile("a", 3);
+
+        new FileEventReader(batches::add, new DefaultEventFilter(), 10, true).readEvents(file, null);
+
+        assertThat(events()).extracting(e -> ((LogDeliveryInfo) e.getEventMetadata()).getRawEvent())
+                .containsExactly(record("a", 0), record("a", 1), record("a", 2));
+    }
+
+    @Test
+    public void testReadsFilesInParallel() throws Exception {
+        final List<File> files = asList(logFile("a", 3), logFile("b", 4), logFile("c", 5));
+
+        new FileEventReader(batches::add, new DefaultEventFilter(), 2, false).readEvents(files, 2);
+
+        assertThat(events()).hasSize(12);
+    }
+
+    private List<CloudTrailEvent> events() {
+        return batches.stream().flatMap(List::stream).collect(toList());
+    }
+
+    private File logFile(final String name, final int events) throws IOException {
+        final File file = folder.newFile(name + ".json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file.toPath()));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write("{\"Records\":[");
+            for (int i = 0; i < events; i++) {
+                writer.write(i == 0 ? "" : ",");
+                writer.write(record(name, i));
+            }
+            writer.write("]}");
+        }
+        return file;
+    }
+
+    private static String record(final String name, final int i) {
+        return "{\"eventVersion\":\"1.02\",\"eventID\":\"" + name + "-" + i + "\"," +
+                "\"eventTime\":\"2015-06-08T15:38:31Z\",\"eventSource\":\"ec2.amazonaws.com\"," +
+                "\"eventName\":\"RunInstances\",\"awsRegion\":\"eu-west-1\"}";
+    }
+}
@@ -0,0 +1,93 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledWhitelistRulesTest {
+
+    private WhitelistRulesEvaluator evaluator;
+
+    private ViolationEntity violationEntity;
+
+    @Before
+    public void setUp() throws Exception {
+        evaluator = new WhitelistRulesEvaluator();
+
+        final Map<String, String> metainfo = newHashMap();
+        metainfo.put("ami_name", "CD-jenkins");
+        violationEntity = new ViolationEntity(null, "1234", "eu-west-1", null, metainfo, null, null, null, null, null);
+        violationEntity.setViolationTypeEntity(new ViolationTypeEntity("WRONG_AMI"));
+    }
+
+    @Test
+    public void testFirstMatchingRuleInLoadOrderWins() throws Exception {
+        final RuleEntity byImage = rule(1L, null, null, null, ".+jenkins");
+        final RuleEntity byAccount = rule(2L, "1234", null, null, null);
+        final RuleEntity byAccountAndType = rule(3L, "1234", "WRONG_AMI", "eu-west-1", null);
+
+        final CompiledWhitelistRules rules = CompiledWhitelistRules.compile(newArrayList(byImage, byAccount, byAccountAndType), evaluator);
+
+        assertThat(rules.findMatchingRule(violationEntity)).isEqualTo(Optional.of(byImage));
+        assertThat(CompiledWhitelistRules.compile(newArrayList(byAccountAndType, byAccount), evaluator)
+                .findMatchingRule(violationEntity)).isEqualTo(Optional.of(byAccountAndType));
+    }
+
+    @Test
+    public void testIndexedCriteriaMustMatch() throws Exception {
+        final CompiledWhitelistRules rules = CompiledWhitelistRules.compile(newArrayList(
+                rule(1L, "5678", null, null, null),
+                rule(2L, "1234", "OTHER_TYPE", null, null),
+                rule(3L, "1234", "WRONG_AMI", "eu-central-1", null)), evaluator);
+
+        assertThat(rules.findMatchingRule(violationEntity)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void testRuleWithoutCriteriaNeverMatches() throws Exception {
+        final CompiledWhitelistRules rules = CompiledWhitelistRules.compile(newArrayList(rule(1L, null, null, null, " ")), evaluator);
+
+        assertThat(rules.findMatchingRule(violationEntity)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void testInvalidPatternIsIgnored() throws Exception {
+        final RuleEntity valid = rule(2L, "1234", null, null, null);
+        final CompiledWhitelistRules rules = CompiledWhitelistRules.compile(newArrayList(rule(1L, null, null, null, "(jenkins"), valid), evaluator);
+
+        assertThat(rules.size()).isEqualTo(1);
+        assertThat(rules.findMatchingRule(violationEntity)).isEqualTo(Optional.of(valid));
+    }
+
+    @Test
+    public void testExpiredRuleDoesNotMatch() throws Exception {
+        final RuleEntity expired = rule(1L, "1234", null, null, null);
+        expired.setExpiryDate(DateTime.now().minusMinutes(1));
+
+        final CompiledWhitelistRules rules = CompiledWhitelistRules.compile(newArrayList(expired), evaluator);
+
+        assertThat(rules.findMatchingRule(violationEntity)).isEqualTo(Optional.empty());
+    }
+
+    private static RuleEntity rule(final Long id, final String accountId, final String violationType, final String region,
+                                   final String imageName) {
+        final RuleEntity rule = new RuleEntity();
+        rule.setId(id);
+        rule.setAccountId(accountId);
+        rule.setViolationTypeEntityId(violationType);
+        rule.setRegion(region);
+        rule.setImageName(imageName);
+        rule.setReason("test");
+        return rule;
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.zalando.kontrolletti.HystrixKontrollettiOperations;
 import org.zalando.kontrolletti.KontrollettiOperations;
@@ -11,6 +12,9 @@ import org.zalando.kontrolletti.RestTemplateKontrollettiOperations;
 import org.zalando.stups.clients.kio.KioOperations;
 import org.zalando.stups.clients.kio.spring.KioClientResponseErrorHandler;
 import org.zalando.stups.clients.kio.spring.RestTemplateKioOperations;
+import org.zalando.stups.fullstop.hystrix.HystrixKioOperations;
+import org.zalando.stups.fullstop.kio.CachingKioOperations;
+import org.zalando.stups.fullstop.kio.KioCacheProperties;
 import org.zalando.stups.fullstop.teams.RestTemplateTeamOperations;
 import org.zalando.stups.fullstop.teams.TeamOperations;
 import org.zalando.stups.oauth2.spring.client.StupsOAuth2RestTemplate;
@@ -32,17 +36,35 @@ public class ClientConfig {
     @Value("${fullstop.clients.teamService.url}")
     private String teamServiceBaseUrl;
 
+    /**
+     * Cached by application, so that the jobs share the lookups of one application.
+     */
     @Bean
-    KioOperations kioOperations() {
+    @Primary
+    CachingKioOperations kioOperations() {
+        return new CachingKioOperations(hystrixKioOperations(), kioCacheProperties());
+    }
+
+    /**
+     * A bean of its own, so that the hystrix aspect applies.
+     */
+    @Bean
+    KioOperations hystrixKioOperations() {
         final StupsOAuth2RestTemplate restTemplate = new StupsOAuth2RestTemplate(new StupsTokensAccessTokenProvider("kio", accessTokens));
         final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
         requestFactory.setConnectTimeout(4 * 1000);
         requestFactory.setReadTimeout(4 * 1000);
         restTemplate.setRequestFactory(requestFactory);
         restTemplate.setErrorHandler(new KioClientResponseErrorHandler());
-        return new RestTemplateKioOperations(
-                restTemplate,
-                kioBaseUrl);
+        return new HystrixKioOperations(
+                new RestTemplateKioOperations(
+                        restTemplate,
+                        kioBaseUrl));
+    }
+
+    @Bean
+    KioCacheProperties kioCacheProperties() {
+        return new KioCacheProperties();
     }
 
     @Bean
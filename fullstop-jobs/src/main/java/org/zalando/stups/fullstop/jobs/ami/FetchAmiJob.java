@@ -1,15 +1,7 @@
 package org.zalando.stups.fullstop.jobs.ami;
 
-import com.amazonaws.AmazonClientException;
-import com.amazonaws.AmazonServiceException;
-import com.amazonaws.services.ec2.AmazonEC2Client;
-import com.amazonaws.services.ec2.model.DescribeImagesRequest;
-import com.amazonaws.services.ec2.model.DescribeImagesResult;
-import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
-import com.amazonaws.services.ec2.model.DescribeInstancesResult;
 import com.amazonaws.services.ec2.model.Image;
 import com.amazonaws.services.ec2.model.Instance;
-import com.amazonaws.services.ec2.model.Reservation;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
@@ -19,10 +11,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
+import org.zalando.stups.fullstop.jobs.common.FingerprintStore;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.taupage.TaupageYaml;
 import org.zalando.stups.fullstop.violation.ViolationBuilder;
@@ -31,6 +26,7 @@ import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import javax.annotation.PostConstruct;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -39,9 +35,9 @@ import static com.amazonaws.regions.Region.getRegion;
 import static com.amazonaws.regions.Regions.fromName;
 import static java.time.LocalDate.now;
 import static java.time.format.DateTimeFormatter.ofPattern;
-import static java.util.Optional.empty;
-import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.EC2;
 import static org.zalando.stups.fullstop.violation.ViolationType.OUTDATED_TAUPAGE;
 
 @Component
@@ -57,7 +53,7 @@ public class FetchAmiJob implements FullstopJob {
 
     private final ViolationSink violationSink;
 
-    private final ClientProvider clientProvider;
+    private final AwsInventory awsInventory;
 
     private final AccountIdSupplier allAccountIds;
 
@@ -66,24 +62,33 @@ public class FetchAmiJob implements FullstopJob {
     private final FetchTaupageYaml fetchTaupageYaml;
 
     private final ViolationService violationService;
+
+    private final ScanExecutor scanExecutor;
+
+    private final FingerprintStore fingerprintStore;
+
     private static final Splitter TAUPAGE_NAME_SPLITTER = Splitter.on('-');
 
     @Autowired
     public FetchAmiJob(final ViolationSink violationSink,
-                       final ClientProvider clientProvider,
+                       final AwsInventory awsInventory,
                        final AccountIdSupplier allAccountIds,
                        final JobsProperties jobsProperties,
                        final ViolationService violationService,
                        final FetchTaupageYaml fetchTaupageYaml,
+                       final ScanExecutor scanExecutor,
+                       final FingerprintStore fingerprintStore,
                        @Value("${FULLSTOP_TAUPAGE_NAME_PREFIX}") final String taupageNamePrefix,
                        @Value("${FULLSTOP_TAUPAGE_OWNERS}") final String taupageOwners) {
         this.violationSink = violationSink;
-        this.clientProvider = clientProvider;
+        this.awsInventory = awsInventory;
         this.allAccountIds = allAccountIds;
         this.jobsProperties = jobsProperties;
         this.violationService = violationService;
         this.taupageNamePrefix = taupageNamePrefix;
         this.fetchTaupageYaml = fetchTaupageYaml;
+        this.scanExecutor = scanExecutor;
+        this.fingerprintStore = fingerprintStore;
         this.taupageOwners = Stream.of(taupageOwners.split(",")).filter(s -> !s.isEmpty()).collect(toList());
     }
 
@@ -95,70 +100,83 @@ public class FetchAmiJob implements FullstopJob {
     @Scheduled(fixedRate = 60_000 * 60 * 4, initialDelay = -1) // ((1 min * 60) * 4) = 4 hours rate, 0 min delay
     public void run() {
         log.info("Running job {}", getClass().getSimpleName());
-        for (final String account : allAccountIds.get()) {
-            for (final String region : jobsProperties.getWhitelistedRegions()) {
-                runOn(account, region);
-            }
-        }
+        scanExecutor.scan(getClass().getSimpleName(), EC2, allAccountIds.get(), jobsProperties.getWhitelistedRegions(), this::runOn);
     }
 
     private void runOn(final String account, final String region) {
-        try {
-            log.info("Scanning EC2 instances to fetch AMIs {}/{}", account, region);
-            final DescribeInstancesResult describeEC2Result = getDescribeEC2Result(account, region);
-            for (final Reservation reservation : describeEC2Result.getReservations()) {
-                for (final Instance instance : reservation.getInstances()) {
-                    if (violationService.violationExists(account, region, EVENT_ID, instance.getInstanceId(), OUTDATED_TAUPAGE)) {
-                        continue;
-                    }
-
-                    final Optional<Image> optionalImage = getAmiFromEC2Api(account, region, instance.getImageId());
-                    final Optional<Boolean> isTaupageAmi = optionalImage
-                            .filter(img -> img.getName().startsWith(taupageNamePrefix))
-                            .map(Image::getOwnerId)
-                            .map(taupageOwners::contains);
-
-                    // will not check for all non taupage ami
-                    // or images with taupage as name but created from another owner
-                    if (!isTaupageAmi.orElse(false)) {
-                        continue;
-                    }
-
-
-                    final Image image = optionalImage.get();
-                    final Optional<LocalDate> optionalExpirationDate = getExpirationDate(image);
-                    final Optional<TaupageYaml> taupageYaml = fetchTaupageYaml.getTaupageYaml(instance.getInstanceId(), account, region);
-                    if (optionalExpirationDate.isPresent()) {
-                        final LocalDate expirationDate = optionalExpirationDate.get();
-                        if (now().isAfter(expirationDate)) {
-                            violationSink.put(new ViolationBuilder()
-                                    .withAccountId(account)
-                                    .withRegion(region)
-                                    .withPluginFullyQualifiedClassName(FetchAmiJob.class)
-                                    .withEventId(EVENT_ID)
-                                    .withType(OUTDATED_TAUPAGE)
-                                    .withInstanceId(instance.getInstanceId())
-                                    .withApplicationId(taupageYaml.map(TaupageYaml::getApplicationId).map(StringUtils::trimToNull).orElse(null))
-                                    .withApplicationVersion(taupageYaml.map(TaupageYaml::getApplicationVersion).map(StringUtils::trimToNull).orElse(null))
-                                    .withMetaInfo(ImmutableMap.of(
-                                            "ami_owner_id", image.getOwnerId(),
-                                            "ami_id", image.getImageId(),
-                                            "ami_name", image.getName(),
-                                            "expiration_date", expirationDate.toString()))
-                                    .build());
-                        }
-                    } else {
-                        log.warn("Could not expiration date of taupage AMI {}", image);
-                    }
-                }
+        log.info("Scanning EC2 instances to fetch AMIs {}/{}", account, region);
+        final InventorySnapshot snapshot = awsInventory.get(account, getRegion(fromName(region)));
+        fingerprintStore.retain(getClass().getSimpleName(), account, region,
+                snapshot.getInstances().stream().map(Instance::getInstanceId).collect(toSet()));
+
+        int unchanged = 0;
+        for (final Instance instance : snapshot.getInstances()) {
+            final Optional<Image> optionalImage = snapshot.getImage(instance.getImageId());
+            // the image expires without any change on the instance
+            final String fingerprint = FingerprintStore.fingerprint(instance.getInstanceId(), instance.getImageId(),
+                    isExpired(optionalImage).orElse(null));
+            if (fingerprintStore.isUnchanged(getClass().getSimpleName(), account, region, instance.getInstanceId(), fingerprint)) {
+                unchanged++;
+                continue;
             }
-        } catch (final AmazonServiceException a) {
-            if (a.getErrorCode().equals("RequestLimitExceeded")) {
-                log.warn("RequestLimitExceeded for account: {}", account);
-            } else {
-                log.error(a.getMessage(), a);
+
+            check(account, region, instance, optionalImage);
+            fingerprintStore.checked(getClass().getSimpleName(), account, region, instance.getInstanceId(), fingerprint);
+        }
+        log.info("Skipped {} of {} EC2 instances in {}/{}, as they did not change", unchanged,
+                snapshot.getInstances().size(), account, region);
+    }
+
+    private void check(final String account, final String region, final Instance instance, final Optional<Image> optionalImage) {
+        if (violationService.violationExists(account, region, EVENT_ID, instance.getInstanceId(), OUTDATED_TAUPAGE)) {
+            return;
+        }
+
+        final Optional<Boolean> isTaupageAmi = optionalImage
+                .filter(img -> img.getName().startsWith(taupageNamePrefix))
+                .map(Image::getOwnerId)
+                .map(taupageOwners::contains);
+
+        // will not check for all non taupage ami
+        // or images with taupage as name but created from another owner
+        if (!isTaupageAmi.orElse(false)) {
+            return;
+        }
+
+
+        final Image image = optionalImage.get();
+        final Optional<LocalDate> optionalExpirationDate = getExpirationDate(image);
+        final Optional<TaupageYaml> taupageYaml = fetchTaupageYaml.getTaupageYaml(instance.getInstanceId(), account, region);
+        if (optionalExpirationDate.isPresent()) {
+            final LocalDate expirationDate = optionalExpirationDate.get();
+            if (now().isAfter(expirationDate)) {
+                violationSink.put(new ViolationBuilder()
+                        .withAccountId(account)
+                        .withRegion(region)
+                        .withPluginFullyQualifiedClassName(FetchAmiJob.class)
+                        .withEventId(EVENT_ID)
+                        .withType(OUTDATED_TAUPAGE)
+                        .withInstanceId(instance.getInstanceId())
+                        .withApplicationId(taupageYaml.map(TaupageYaml::getApplicationId).map(StringUtils::trimToNull).orElse(null))
+                        .withApplicationVersion(taupageYaml.map(TaupageYaml::getApplicationVersion).map(StringUtils::trimToNull).orElse(null))
+                        .withMetaInfo(ImmutableMap.of(
+                                "ami_owner_id", image.getOwnerId(),
+                                "ami_id", image.getImageId(),
+                                "ami_name", image.getName(),
+                                "expiration_date", expirationDate.toString()))
+                        .build());
             }
+        } else {
+            log.warn("Could not expiration date of taupage AMI {}", image);
+        }
+    }
 
+    private Optional<Boolean> isExpired(final Optional<Image> image) {
+        try {
+            return image.flatMap(this::getExpirationDate).map(now()::isAfter);
+        } catch (final DateTimeParseException e) {
+            // not a taupage image
+            return Optional.empty();
         }
     }
 
@@ -172,32 +190,4 @@ public class FetchAmiJob implements FullstopJob {
                 .map(timestamp -> LocalDate.parse(timestamp, ofPattern("yyyyMMdd")))
                 .map(creationDate -> creationDate.plusDays(60));
     }
-
-    private DescribeInstancesResult getDescribeEC2Result(final String account, final String region) {
-        final AmazonEC2Client ec2Client = clientProvider.getClient(
-                AmazonEC2Client.class,
-                account,
-                getRegion(fromName(region)));
-        return ec2Client.describeInstances(new DescribeInstancesRequest());
-    }
-
-    private Optional<Image> getAmiFromEC2Api(final String account, final String region, final String imageId) {
-        try {
-            final AmazonEC2Client ec2Client = clientProvider.getClient(
-                    AmazonEC2Client.class,
-                    account,
-                    getRegion(fromName(region)));
-
-            final DescribeImagesResult response = ec2Client.describeImages(new DescribeImagesRequest().withImageIds(imageId));
-
-            return ofNullable(response)
-                    .map(DescribeImagesResult::getImages)
-                    .map(List::stream)
-                    .flatMap(Stream::findFirst);
-
-        } catch (final AmazonClientException e) {
-            log.warn("Could not describe image " + imageId, e);
-            return empty();
-        }
-    }
 }
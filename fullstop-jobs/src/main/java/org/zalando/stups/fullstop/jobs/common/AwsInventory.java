@@ -0,0 +1,21 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import com.amazonaws.regions.Region;
+
+/**
+ * Shares the EC2, ELB and RDS resources of an account and region between all jobs, so that one job cycle describes
+ * them once instead of once per job.
+ */
+public interface AwsInventory {
+
+    /**
+     * @return the current snapshot of the account and region. A new snapshot is taken, once the previous one is older
+     * than the configured time to live.
+     */
+    InventorySnapshot get(String accountId, Region region);
+
+    /**
+     * Drops the current snapshot of the account and region, the next {@link #get(String, Region)} takes a new one.
+     */
+    void invalidate(String accountId, Region region);
+}
@@ -0,0 +1,42 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Remembers the fingerprint of every resource a job has checked, so that scheduled scans only process the resources
+ * that changed since. Fingerprints are kept in memory and persisted, a restart does not cause a full scan.
+ */
+public interface FingerprintStore {
+
+    /**
+     * @return true, if the resource has already been checked with the same fingerprint, and that check is not older
+     * than the configured maximum age
+     */
+    boolean isUnchanged(String jobName, String account, String region, String resourceId, String fingerprint);
+
+    /**
+     * Records that the resource has been checked completely with the given fingerprint.
+     */
+    void checked(String jobName, String account, String region, String resourceId, String fingerprint);
+
+    /**
+     * Forgets the fingerprints of all resources of the account and region, that are not in the given set any more.
+     */
+    void retain(String jobName, String account, String region, Set<String> resourceIds);
+
+    /**
+     * @return a hash over the string values of all parts, in the given order
+     */
+    static String fingerprint(final Object... parts) {
+        final Hasher hasher = Hashing.sha1().newHasher();
+        for (final Object part : parts) {
+            hasher.putString(String.valueOf(part), UTF_8).putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
+}
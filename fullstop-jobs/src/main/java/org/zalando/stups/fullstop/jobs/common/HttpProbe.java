@@ -0,0 +1,19 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Checks whether public endpoints answer GET / without authentication. Probes are non-blocking, the caller only waits,
+ * if the maximum number of probes is already in flight.
+ */
+public interface HttpProbe {
+
+    /**
+     * Probes all ports of one host. Ports that can not be reached are reported as not open.
+     *
+     * @return the result per port, completed on a worker thread once all ports have been probed
+     */
+    CompletableFuture<Map<Integer, HttpCallResult>> probe(String host, Collection<Integer> ports);
+}
@@ -0,0 +1,120 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.ec2.model.Image;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.SecurityGroup;
+import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription;
+import com.amazonaws.services.rds.model.DBInstance;
+import com.google.common.base.Supplier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.google.common.base.Suppliers.memoize;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * The resources of one account and region, as seen by one job cycle.
+ * <p>
+ * Every kind of resource is described on first access and then kept for the lifetime of the snapshot, so a job that
+ * only looks at databases does not pay for describing all instances. A failed lookup is not kept and will be retried
+ * on the next access.
+ */
+public class InventorySnapshot {
+
+    private final String accountId;
+
+    private final Region region;
+
+    private final long version;
+
+    private final Instant takenAt;
+
+    private final Supplier<List<Instance>> instances;
+
+    private final Supplier<Map<String, Instance>> instancesById;
+
+    private final Supplier<Map<String, Image>> imagesById;
+
+    private final Supplier<Map<String, SecurityGroup>> securityGroupsById;
+
+    private final Supplier<List<LoadBalancerDescription>> loadBalancers;
+
+    private final Supplier<List<DBInstance>> dbInstances;
+
+    public InventorySnapshot(final String accountId,
+                             final Region region,
+                             final long version,
+                             final Instant takenAt,
+                             final Supplier<List<Instance>> instances,
+                             final Function<List<Instance>, List<Image>> images,
+                             final Supplier<List<SecurityGroup>> securityGroups,
+                             final Supplier<List<LoadBalancerDescription>> loadBalancers,
+                             final Supplier<List<DBInstance>> dbInstances) {
+        this.accountId = accountId;
+        this.region = region;
+        this.version = version;
+        this.takenAt = takenAt;
+        this.instances = memoize(instances);
+        this.instancesById = memoize(() -> index(this.instances.get(), Instance::getInstanceId));
+        this.imagesById = memoize(() -> index(images.apply(this.instances.get()), Image::getImageId));
+        this.securityGroupsById = memoize(() -> index(securityGroups.get(), SecurityGroup::getGroupId));
+        this.loadBalancers = memoize(loadBalancers);
+        this.dbInstances = memoize(dbInstances);
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    /**
+     * @return increases with every snapshot taken by the same inventory
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public List<Instance> getInstances() {
+        return instances.get();
+    }
+
+    public Optional<Instance> getInstance(final String instanceId) {
+        return Optional.ofNullable(instancesById.get().get(instanceId));
+    }
+
+    /**
+     * Only the images of the instances in this snapshot are known.
+     */
+    public Optional<Image> getImage(final String imageId) {
+        return Optional.ofNullable(imagesById.get().get(imageId));
+    }
+
+    public Optional<SecurityGroup> getSecurityGroup(final String groupId) {
+        return Optional.ofNullable(securityGroupsById.get().get(groupId));
+    }
+
+    public List<LoadBalancerDescription> getLoadBalancers() {
+        return loadBalancers.get();
+    }
+
+    public List<DBInstance> getDBInstances() {
+        return dbInstances.get();
+    }
+
+    private static <T> Map<String, T> index(final List<T> items, final Function<T, String> id) {
+        return items.stream().collect(toMap(id, identity(), (first, second) -> first));
+    }
+}
@@ -0,0 +1,38 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs the units of one job run, one per account and region, in parallel and waits for all of them.
+ * <p>
+ * Units are rate limited per AWS service, limited per account, and retried with backoff if AWS throttles them.
+ * Any other exception is logged and does not affect the remaining units.
+ */
+public interface ScanExecutor {
+
+    String EC2 = "ec2";
+
+    String ELB = "elb";
+
+    String RDS = "rds";
+
+    String IAM = "iam";
+
+    /**
+     * @param jobName  a job is never scanned twice at the same time, a run is skipped while the previous one is active
+     * @param service  the AWS service whose rate limit applies to the units
+     * @param accounts the accounts to scan
+     * @param regions  the regions to scan in every account
+     * @param unit     scans one account (first argument) in one region (second argument)
+     * @return false, if the run was skipped
+     */
+    boolean scan(String jobName, String service, Collection<String> accounts, Collection<String> regions,
+                 BiConsumer<String, String> unit);
+
+    /**
+     * Like {@link #scan(String, String, Collection, Collection, BiConsumer)} for global services, one unit per account.
+     */
+    boolean scanAccounts(String jobName, String service, Collection<String> accounts, Consumer<String> unit);
+}
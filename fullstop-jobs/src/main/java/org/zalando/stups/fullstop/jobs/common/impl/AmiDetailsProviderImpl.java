@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.common.AmiDetailsProvider;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
 
 import java.util.List;
 import java.util.Map;
@@ -21,9 +22,12 @@ public class AmiDetailsProviderImpl implements AmiDetailsProvider {
 
     private final ClientProvider clientProvider;
 
+    private final AwsInventory awsInventory;
+
     @Autowired
-    public AmiDetailsProviderImpl(final ClientProvider clientProvider) {
+    public AmiDetailsProviderImpl(final ClientProvider clientProvider, final AwsInventory awsInventory) {
         this.clientProvider = clientProvider;
+        this.awsInventory = awsInventory;
     }
 
     @Override
@@ -31,15 +35,20 @@ public class AmiDetailsProviderImpl implements AmiDetailsProvider {
         final ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
         result.put("ami_id", amiId);
 
+        final Optional<Image> knownAmi = awsInventory.get(accountId, region).getImage(amiId);
+        final Optional<Image> ami = knownAmi.isPresent() ? knownAmi : describeImage(accountId, region, amiId);
+
+        ami.map(Image::getName).ifPresent(name -> result.put("ami_name", name));
+        ami.map(Image::getOwnerId).ifPresent(owner -> result.put("ami_owner_id", owner));
+        return result.build();
+    }
+
+    private Optional<Image> describeImage(final String accountId, final Region region, final String amiId) {
         final AmazonEC2Client ec2 = clientProvider.getClient(AmazonEC2Client.class, accountId, region);
-        final Optional<Image> ami = Optional.ofNullable(new DescribeImagesRequest().withImageIds(amiId))
+        return Optional.ofNullable(new DescribeImagesRequest().withImageIds(amiId))
                 .map(ec2::describeImages)
                 .map(DescribeImagesResult::getImages)
                 .map(List::stream)
                 .flatMap(Stream::findFirst);
-
-        ami.map(Image::getName).ifPresent(name -> result.put("ami_name", name));
-        ami.map(Image::getOwnerId).ifPresent(owner -> result.put("ami_owner_id", owner));
-        return result.build();
     }
 }
@@ -0,0 +1,168 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeImagesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.DescribeSecurityGroupsRequest;
+import com.amazonaws.services.ec2.model.Filter;
+import com.amazonaws.services.ec2.model.Image;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.SecurityGroup;
+import com.amazonaws.services.elasticloadbalancing.AmazonElasticLoadBalancingClient;
+import com.amazonaws.services.elasticloadbalancing.model.DescribeLoadBalancersRequest;
+import com.amazonaws.services.elasticloadbalancing.model.DescribeLoadBalancersResult;
+import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription;
+import com.amazonaws.services.rds.AmazonRDSClient;
+import com.amazonaws.services.rds.model.DBInstance;
+import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
+import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Iterables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.jobs.utils.Pages;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.amazonaws.regions.Region.getRegion;
+import static com.amazonaws.regions.Regions.fromName;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Keeps one {@link InventorySnapshot} per account and region for {@link JobsProperties#getInventoryTtlSeconds()}
+ * seconds. Concurrent jobs asking for the same account and region share the snapshot that is currently taken.
+ */
+@Component
+public class AwsInventoryImpl implements AwsInventory {
+
+    /**
+     * Page size of DescribeInstances, the maximum allowed by EC2
+     */
+    static final int MAX_INSTANCES_PER_PAGE = 1000;
+
+    /**
+     * Upper bound of image ids per DescribeImages request
+     */
+    static final int MAX_IMAGE_IDS_PER_REQUEST = 100;
+
+    private final Logger log = LoggerFactory.getLogger(AwsInventoryImpl.class);
+
+    private final ClientProvider clientProvider;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final LoadingCache<List<String>, InventorySnapshot> snapshots;
+
+    @Autowired
+    public AwsInventoryImpl(final ClientProvider clientProvider, final JobsProperties jobsProperties) {
+        this.clientProvider = clientProvider;
+        this.snapshots = CacheBuilder.newBuilder()
+                .expireAfterWrite(jobsProperties.getInventoryTtlSeconds(), SECONDS)
+                .build(new CacheLoader<List<String>, InventorySnapshot>() {
+                    @Override
+                    public InventorySnapshot load(final List<String> key) {
+                        return takeSnapshot(key.get(0), getRegion(fromName(key.get(1))));
+                    }
+                });
+    }
+
+    @Override
+    public InventorySnapshot get(final String accountId, final Region region) {
+        return snapshots.getUnchecked(asList(accountId, region.getName()));
+    }
+
+    @Override
+    public void invalidate(final String accountId, final Region region) {
+        log.debug("Invalidating inventory snapshot of {}/{}", accountId, region);
+        snapshots.invalidate(asList(accountId, region.getName()));
+    }
+
+    private InventorySnapshot takeSnapshot(final String accountId, final Region region) {
+        final long version = versions.incrementAndGet();
+        log.debug("Taking inventory snapshot {} of {}/{}", version, accountId, region);
+
+        return new InventorySnapshot(accountId, region, version, Instant.now(),
+                () -> describeInstances(accountId, region),
+                instances -> describeImages(accountId, region, instances),
+                () -> describeSecurityGroups(accountId, region),
+                () -> describeLoadBalancers(accountId, region),
+                () -> describeDBInstances(accountId, region));
+    }
+
+    private List<Instance> describeInstances(final String accountId, final Region region) {
+        final AmazonEC2Client ec2Client = clientProvider.getClient(AmazonEC2Client.class, accountId, region);
+        return Pages.stream(
+                token -> ec2Client.describeInstances(new DescribeInstancesRequest()
+                        .withMaxResults(MAX_INSTANCES_PER_PAGE)
+                        .withNextToken(token)),
+                DescribeInstancesResult::getReservations,
+                DescribeInstancesResult::getNextToken)
+                .flatMap(reservation -> reservation.getInstances().stream())
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+    }
+
+    private List<Image> describeImages(final String accountId, final Region region, final List<Instance> instances) {
+        final List<String> imageIds = instances.stream()
+                .map(Instance::getImageId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(toList());
+        if (imageIds.isEmpty()) {
+            return emptyList();
+        }
+
+        final AmazonEC2Client ec2Client = clientProvider.getClient(AmazonEC2Client.class, accountId, region);
+        final List<Image> images = newArrayList();
+        // the filter skips deregistered images, where an id list would fail the whole request
+        for (final List<String> batch : Iterables.partition(imageIds, MAX_IMAGE_IDS_PER_REQUEST)) {
+            images.addAll(ec2Client.describeImages(new DescribeImagesRequest()
+                    .withFilters(new Filter("image-id", batch))).getImages());
+        }
+        return unmodifiableList(images);
+    }
+
+    private List<SecurityGroup> describeSecurityGroups(final String accountId, final Region region) {
+        return unmodifiableList(clientProvider.getClient(AmazonEC2Client.class, accountId, region)
+                .describeSecurityGroups(new DescribeSecurityGroupsRequest())
+                .getSecurityGroups());
+    }
+
+    private List<LoadBalancerDescription> describeLoadBalancers(final String accountId, final Region region) {
+        final AmazonElasticLoadBalancingClient elbClient = clientProvider.getClient(
+                AmazonElasticLoadBalancingClient.class, accountId, region);
+        return Pages.stream(
+                marker -> elbClient.describeLoadBalancers(new DescribeLoadBalancersRequest().withMarker(marker)),
+                DescribeLoadBalancersResult::getLoadBalancerDescriptions,
+                DescribeLoadBalancersResult::getNextMarker)
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+    }
+
+    private List<DBInstance> describeDBInstances(final String accountId, final Region region) {
+        final AmazonRDSClient rdsClient = clientProvider.getClient(AmazonRDSClient.class, accountId, region);
+        return Pages.stream(
+                marker -> rdsClient.describeDBInstances(new DescribeDBInstancesRequest().withMarker(marker)),
+                DescribeDBInstancesResult::getDBInstances,
+                DescribeDBInstancesResult::getMarker)
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+    }
+}
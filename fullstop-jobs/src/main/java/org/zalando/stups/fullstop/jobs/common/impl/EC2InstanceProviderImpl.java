@@ -7,6 +7,7 @@ import com.amazonaws.services.ec2.model.Instance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
 import org.zalando.stups.fullstop.jobs.common.EC2InstanceProvider;
 
 import java.util.Objects;
@@ -17,13 +18,22 @@ public class EC2InstanceProviderImpl implements EC2InstanceProvider {
 
     private final ClientProvider clientProvider;
 
+    private final AwsInventory awsInventory;
+
     @Autowired
-    public EC2InstanceProviderImpl(final ClientProvider clientProvider) {
+    public EC2InstanceProviderImpl(final ClientProvider clientProvider, final AwsInventory awsInventory) {
         this.clientProvider = clientProvider;
+        this.awsInventory = awsInventory;
     }
 
     @Override
     public Optional<Instance> getById(final String accountId, final Region region, final String instanceId) {
+        final Optional<Instance> instance = awsInventory.get(accountId, region).getInstance(instanceId);
+        if (instance.isPresent()) {
+            return instance;
+        }
+
+        // launched after the snapshot was taken
         return clientProvider.getClient(AmazonEC2Client.class, accountId, region)
                 .describeInstances(new DescribeInstancesRequest().withInstanceIds(instanceId))
                 .getReservations().stream()
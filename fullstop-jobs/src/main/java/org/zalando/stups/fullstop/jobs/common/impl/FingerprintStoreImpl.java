@@ -0,0 +1,95 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.jobs.common.FingerprintStore;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.violation.entity.ResourceFingerprintEntity;
+import org.zalando.stups.fullstop.violation.repository.ResourceFingerprintRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Arrays.asList;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toConcurrentMap;
+import static java.util.stream.Collectors.toList;
+
+@Component
+public class FingerprintStoreImpl implements FingerprintStore {
+
+    private final Logger log = LoggerFactory.getLogger(FingerprintStoreImpl.class);
+
+    private final ResourceFingerprintRepository repository;
+
+    private final JobsProperties jobsProperties;
+
+    /**
+     * Fingerprints by resource id, per job, account and region. Loaded from the database on first use.
+     */
+    private final Map<List<String>, ConcurrentMap<String, ResourceFingerprintEntity>> fingerprints = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FingerprintStoreImpl(final ResourceFingerprintRepository repository, final JobsProperties jobsProperties) {
+        this.repository = repository;
+        this.jobsProperties = jobsProperties;
+    }
+
+    @Override
+    public boolean isUnchanged(final String jobName, final String account, final String region, final String resourceId,
+                               final String fingerprint) {
+        final ResourceFingerprintEntity entity = load(jobName, account, region).get(resourceId);
+        return entity != null
+                && entity.getFingerprint().equals(fingerprint)
+                && entity.getLastModified().isAfter(DateTime.now().minusMinutes(jobsProperties.getFingerprintMaxAgeMinutes()));
+    }
+
+    @Override
+    public void checked(final String jobName, final String account, final String region, final String resourceId,
+                        final String fingerprint) {
+        final ResourceFingerprintEntity entity = new ResourceFingerprintEntity(jobName, account, region, resourceId, fingerprint);
+        load(jobName, account, region).put(resourceId, entity);
+        try {
+            repository.save(entity);
+        } catch (final RuntimeException e) {
+            // the resource will be checked again after a restart, nothing else is lost
+            log.warn("Could not persist fingerprint of {} in {}/{}: {}", resourceId, account, region, e.getMessage());
+        }
+    }
+
+    @Override
+    public void retain(final String jobName, final String account, final String region, final Set<String> resourceIds) {
+        final ConcurrentMap<String, ResourceFingerprintEntity> known = load(jobName, account, region);
+        final List<ResourceFingerprintEntity> removed = known.values().stream()
+                .filter(entity -> !resourceIds.contains(entity.getResourceId()))
+                .collect(toList());
+        if (removed.isEmpty()) {
+            return;
+        }
+
+        removed.forEach(entity -> known.remove(entity.getResourceId()));
+        try {
+            repository.delete(removed);
+        } catch (final RuntimeException e) {
+            log.warn("Could not delete {} fingerprints of {} in {}/{}: {}", removed.size(), jobName, account, region, e.getMessage());
+        }
+    }
+
+    private ConcurrentMap<String, ResourceFingerprintEntity> load(final String jobName, final String account, final String region) {
+        return fingerprints.computeIfAbsent(asList(jobName, account, region), key -> {
+            try {
+                return repository.findByJobNameAndAccountIdAndRegion(jobName, account, region).stream()
+                        .collect(toConcurrentMap(ResourceFingerprintEntity::getResourceId, identity()));
+            } catch (final RuntimeException e) {
+                log.warn("Could not load fingerprints of {} in {}/{}: {}", jobName, account, region, e.getMessage());
+                return new ConcurrentHashMap<>();
+            }
+        });
+    }
+}
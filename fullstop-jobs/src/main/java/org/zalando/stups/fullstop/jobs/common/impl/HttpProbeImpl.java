@@ -0,0 +1,306 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
+import org.zalando.stups.fullstop.jobs.common.HttpProbe;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.stream.Collectors.toMap;
+
+@Component
+public class HttpProbeImpl implements HttpProbe {
+
+    private static final String USER_AGENT = "fullstop-job (https://github.com/zalando-stups/fullstop)";
+
+    private static final String EMPTY_STRING = "";
+
+    private final Logger log = LoggerFactory.getLogger(HttpProbeImpl.class);
+
+    private final CloseableHttpAsyncClient httpClient;
+
+    private final Semaphore inFlight;
+
+    private final ThreadPoolTaskExecutor callbackExecutor = new ThreadPoolTaskExecutor();
+
+    @Autowired
+    public HttpProbeImpl(final JobsProperties jobsProperties) {
+        this(jobsProperties, buildClient(jobsProperties));
+    }
+
+    HttpProbeImpl(final JobsProperties jobsProperties, final CloseableHttpAsyncClient httpClient) {
+        this.httpClient = httpClient;
+        this.inFlight = new Semaphore(jobsProperties.getProbeMaxInFlight());
+
+        // results are handed over to the jobs here, so that they never block the I/O threads of the client.
+        // A probe holds its permit until its result was handed over, so the queue never holds more than that.
+        callbackExecutor.setCorePoolSize(4);
+        callbackExecutor.setMaxPoolSize(4);
+        callbackExecutor.setQueueCapacity(jobsProperties.getProbeMaxInFlight());
+        callbackExecutor.setAllowCoreThreadTimeOut(true);
+        callbackExecutor.setKeepAliveSeconds(30);
+        callbackExecutor.setThreadGroupName("probe-group");
+        callbackExecutor.setThreadNamePrefix("probe-");
+        callbackExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        callbackExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        callbackExecutor.afterPropertiesSet();
+
+        if (!httpClient.isRunning()) {
+            httpClient.start();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, HttpCallResult>> probe(final String host, final Collection<Integer> ports) {
+        final Map<Integer, CompletableFuture<HttpCallResult>> probes = new LinkedHashMap<>();
+        for (final Integer port : ports) {
+            probes.put(port, probe(host, port));
+        }
+
+        return CompletableFuture.allOf(probes.values().toArray(new CompletableFuture[probes.size()]))
+                .thenApply(done -> probes.entrySet().stream()
+                        .collect(toMap(Map.Entry::getKey, e -> e.getValue().join(), (a, b) -> a, LinkedHashMap::new)));
+    }
+
+    private CompletableFuture<HttpCallResult> probe(final String host, final Integer port) {
+        final CompletableFuture<HttpCallResult> result = new CompletableFuture<>();
+        final URI uri;
+        try {
+            uri = new URIBuilder()
+                    .setScheme(port == 443 ? "https" : "http")
+                    .setHost(host)
+                    .setPort(port)
+                    .build();
+            inFlight.acquire();
+        } catch (final URISyntaxException e) {
+            result.completeExceptionally(e);
+            return result;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        log.debug("Checking URL: {}", uri);
+        final ProbeCallback callback = new ProbeCallback(uri, result);
+        try {
+            httpClient.execute(HttpAsyncMethods.create(new HttpGet(uri)), new StatusConsumer(callback), callback);
+        } catch (final RuntimeException e) {
+            // e.g. the client was closed already, the callback is never called then
+            callback.rejected(e);
+        }
+        return result;
+    }
+
+    /**
+     * Runs on an I/O thread of the client, which must never run the callbacks of the jobs.
+     */
+    private void complete(final CompletableFuture<HttpCallResult> future, final HttpCallResult result) {
+        try {
+            callbackExecutor.execute(() -> {
+                inFlight.release();
+                future.complete(result);
+            });
+        } catch (final RejectedExecutionException e) {
+            // only happens on shutdown, a failed future does not run the callbacks of the jobs
+            inFlight.release();
+            log.warn("Could not hand over the probe result: {}", e.toString());
+            future.completeExceptionally(e);
+        }
+    }
+
+    private HttpCallResult evaluate(final URI uri, final HttpResponse response) {
+        final HttpCallResult callResult = new HttpCallResult(false, EMPTY_STRING);
+        final String location = Optional.ofNullable(response.getFirstHeader("Location"))
+                .map(Header::getValue)
+                .orElse(EMPTY_STRING);
+
+        final int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode == 401 || statusCode == 403) {
+            log.debug("URI {} is secured GET / returned {}", uri, statusCode);
+        } else if (String.valueOf(statusCode).startsWith("3")) {
+            if (location.startsWith("https")) {
+                log.debug("URI {} redirects to an https location: {}", uri, location);
+            } else {
+                log.debug("Call to {} redirects (status {}) to location with unsafe protocol ({})", uri, statusCode, location);
+                callResult.setOpen(true);
+                callResult.setMessage(String.format("Call to %s redirects (status %d) to location with unsafe protocol (%s)", uri, statusCode, location));
+            }
+
+        } else if (String.valueOf(statusCode).startsWith("5")) {
+            log.info("URI {} is SECURE. GET / returned {}", uri, response);
+
+        } else {
+            log.info("URI {} is reachable. GET / returned {}", uri, response);
+            callResult.setOpen(true);
+            callResult.setMessage(String.format("%s returned status code %d, which means it is unsecured", uri, statusCode));
+        }
+        return callResult;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        httpClient.close();
+        callbackExecutor.shutdown();
+    }
+
+    private static CloseableHttpAsyncClient buildClient(final JobsProperties jobsProperties) {
+        final RequestConfig config = RequestConfig.custom()
+                .setConnectionRequestTimeout(jobsProperties.getProbeQueueTimeoutMillis())
+                .setConnectTimeout(jobsProperties.getProbeConnectTimeoutMillis())
+                .setSocketTimeout(jobsProperties.getProbeReadTimeoutMillis())
+                .setRedirectsEnabled(false)
+                .build();
+
+        try {
+            return HttpAsyncClients.custom()
+                    .disableAuthCaching()
+                    .disableConnectionState()
+                    .disableCookieManagement()
+                    // every endpoint is probed once per run, idle connections would only occupy the pool
+                    .setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE)
+                    .setDefaultRequestConfig(config)
+                    .setMaxConnTotal(jobsProperties.getProbeMaxInFlight())
+                    .setMaxConnPerRoute(jobsProperties.getProbeMaxPerHost())
+                    .setUserAgent(USER_AGENT)
+                    .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                    .setSSLContext(
+                            new SSLContextBuilder()
+                                    .loadTrustMaterial(
+                                            null,
+                                            (arrayX509Certificate, value) -> true)
+                                    .build())
+                    .build();
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+            throw new IllegalStateException("Could not initialize httpClient", e);
+        }
+    }
+
+    /**
+     * Completes a probe once. The result is known as soon as the status line arrived, the exchange fails afterwards,
+     * because the connection is shut down instead of reading the body.
+     */
+    private class ProbeCallback implements FutureCallback<HttpResponse> {
+
+        private final URI uri;
+
+        private final CompletableFuture<HttpCallResult> future;
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        ProbeCallback(final URI uri, final CompletableFuture<HttpCallResult> future) {
+            this.uri = uri;
+            this.future = future;
+        }
+
+        @Override
+        public void completed(final HttpResponse response) {
+            if (done.compareAndSet(false, true)) {
+                complete(future, evaluate(uri, response));
+            }
+        }
+
+        @Override
+        public void failed(final Exception e) {
+            if (done.compareAndSet(false, true)) {
+                log.debug("URI {} threw exception {}", uri, e.toString());
+                complete(future, new HttpCallResult(false, EMPTY_STRING));
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            if (done.compareAndSet(false, true)) {
+                complete(future, new HttpCallResult(false, EMPTY_STRING));
+            }
+        }
+
+        /**
+         * Runs on the calling thread, if the client did not accept the request.
+         */
+        void rejected(final RuntimeException e) {
+            if (done.compareAndSet(false, true)) {
+                inFlight.release();
+                log.warn("Could not probe {}: {}", uri, e.toString());
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Only the status line and headers are of interest. They are handed to the callback right away, and the
+     * connection is shut down as soon as a body arrives, so that streaming or slow endpoints do not hold it.
+     */
+    private static class StatusConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+        private final FutureCallback<HttpResponse> callback;
+
+        private volatile HttpResponse response;
+
+        StatusConsumer(final FutureCallback<HttpResponse> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        protected void onResponseReceived(final HttpResponse response) {
+            this.response = response;
+            callback.completed(response);
+        }
+
+        @Override
+        protected void onContentReceived(final ContentDecoder decoder, final IOControl ioControl) throws IOException {
+            ioControl.shutdown();
+        }
+
+        @Override
+        protected void onEntityEnclosed(final HttpEntity entity, final ContentType contentType) {
+        }
+
+        @Override
+        protected HttpResponse buildResult(final HttpContext context) {
+            return response;
+        }
+
+        @Override
+        protected void releaseResources() {
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.amazonaws.AmazonServiceException;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+@Component
+public class ScanExecutorImpl implements ScanExecutor {
+
+    /**
+     * Region of the units of global services
+     */
+    private static final String GLOBAL = "global";
+
+    private static final Set<String> THROTTLING_ERROR_CODES = ImmutableSet.of("RequestLimitExceeded", "Throttling");
+
+    private final Logger log = LoggerFactory.getLogger(ScanExecutorImpl.class);
+
+    private final JobsProperties jobsProperties;
+
+    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Semaphore> accountLimits = new ConcurrentHashMap<>();
+
+    private final Map<String, RateLimiter> serviceLimits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ScanExecutorImpl(final JobsProperties jobsProperties) {
+        this.jobsProperties = jobsProperties;
+
+        threadPoolTaskExecutor.setCorePoolSize(jobsProperties.getScanPoolSize());
+        threadPoolTaskExecutor.setMaxPoolSize(jobsProperties.getScanPoolSize());
+        threadPoolTaskExecutor.setQueueCapacity(jobsProperties.getScanQueueCapacity());
+        threadPoolTaskExecutor.setAllowCoreThreadTimeOut(true);
+        threadPoolTaskExecutor.setKeepAliveSeconds(30);
+        threadPoolTaskExecutor.setThreadGroupName("scan-group");
+        threadPoolTaskExecutor.setThreadNamePrefix("scan-");
+        threadPoolTaskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        threadPoolTaskExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        threadPoolTaskExecutor.afterPropertiesSet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPoolTaskExecutor.shutdown();
+    }
+
+    @Override
+    public boolean scan(final String jobName, final String service, final Collection<String> accounts,
+                        final Collection<String> regions, final BiConsumer<String, String> unit) {
+        if (!runningJobs.add(jobName)) {
+            log.warn("Skipping {}, the previous run is still in progress", jobName);
+            return false;
+        }
+
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            // regions first, so that consecutive units belong to different accounts
+            final List<Future<?>> units = newArrayList();
+            for (final String region : regions) {
+                for (final String account : accounts) {
+                    units.add(threadPoolTaskExecutor.submit(() -> runUnit(jobName, service, account, region, unit)));
+                }
+            }
+            awaitAll(jobName, units);
+            log.info("{} scanned {} units in {} ms", jobName, units.size(), stopwatch.elapsed(MILLISECONDS));
+            return true;
+        } finally {
+            runningJobs.remove(jobName);
+        }
+    }
+
+    @Override
+    public boolean scanAccounts(final String jobName, final String service, final Collection<String> accounts,
+                                final Consumer<String> unit) {
+        return scan(jobName, service, accounts, singletonList(GLOBAL), (account, region) -> unit.accept(account));
+    }
+
+    private void runUnit(final String jobName, final String service, final String account, final String region,
+                         final BiConsumer<String, String> unit) {
+        final Semaphore accountLimit = accountLimits.computeIfAbsent(account,
+                a -> new Semaphore(jobsProperties.getScanMaxUnitsPerAccount()));
+        final RateLimiter serviceLimit = serviceLimits.computeIfAbsent(service,
+                s -> RateLimiter.create(jobsProperties.getScanUnitsPerSecond().getOrDefault(s,
+                        jobsProperties.getScanDefaultUnitsPerSecond())));
+
+        final Stopwatch stopwatch = Stopwatch.createUnstarted();
+        try {
+            accountLimit.acquire();
+            try {
+                stopwatch.start();
+                for (int attempt = 1; ; attempt++) {
+                    serviceLimit.acquire();
+                    try {
+                        unit.accept(account, region);
+                        break;
+                    } catch (final AmazonServiceException a) {
+                        if (!THROTTLING_ERROR_CODES.contains(a.getErrorCode())) {
+                            log.error(a.getMessage(), a);
+                            break;
+                        }
+                        if (attempt > jobsProperties.getScanMaxRetries()) {
+                            log.warn("{} for account: {}", a.getErrorCode(), account);
+                            break;
+                        }
+                        final long backoff = backoffMillis(attempt);
+                        log.info("{} throttled on {}/{}, retrying in {} ms", jobName, account, region, backoff);
+                        MILLISECONDS.sleep(backoff);
+                    } catch (final RuntimeException e) {
+                        log.error(e.getMessage(), e);
+                        break;
+                    }
+                }
+            } finally {
+                accountLimit.release();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("{} was interrupted on {}/{}", jobName, account, region);
+        }
+
+        log.info("{} finished {}/{} in {} ms", jobName, account, region, stopwatch.elapsed(MILLISECONDS));
+    }
+
+    private long backoffMillis(final int attempt) {
+        final long base = jobsProperties.getScanBackoffMillis() << (attempt - 1);
+        // jitter, so that throttled units do not all retry at the same time
+        return base + ThreadLocalRandom.current().nextLong(base + 1);
+    }
+
+    private void awaitAll(final String jobName, final List<Future<?>> units) {
+        for (final Future<?> unit : units) {
+            try {
+                unit.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("{} was interrupted while waiting for its units", jobName);
+                return;
+            } catch (final ExecutionException e) {
+                log.error(e.getMessage(), e.getCause());
+            }
+        }
+    }
+}
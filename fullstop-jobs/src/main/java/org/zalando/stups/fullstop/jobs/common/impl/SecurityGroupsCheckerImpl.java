@@ -3,16 +3,19 @@ package org.zalando.stups.fullstop.jobs.common.impl;
 import com.amazonaws.regions.Region;
 import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.DescribeSecurityGroupsRequest;
-import com.amazonaws.services.ec2.model.DescribeSecurityGroupsResult;
 import com.amazonaws.services.ec2.model.SecurityGroup;
 import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -21,24 +24,44 @@ import static java.util.stream.Collectors.toSet;
 public class SecurityGroupsCheckerImpl implements SecurityGroupsChecker {
 
     private final ClientProvider clientProvider;
+    private final AwsInventory awsInventory;
     private final Predicate<? super SecurityGroup> predicate;
 
-    public SecurityGroupsCheckerImpl(final ClientProvider clientProvider, final Predicate<? super SecurityGroup> predicate) {
+    public SecurityGroupsCheckerImpl(final ClientProvider clientProvider, final AwsInventory awsInventory,
+                                     final Predicate<? super SecurityGroup> predicate) {
         this.clientProvider = clientProvider;
+        this.awsInventory = awsInventory;
         this.predicate = predicate;
     }
 
     @Override
     public Set<String> check(final Collection<String> groupIds, final String account, final Region region) {
+        final InventorySnapshot snapshot = awsInventory.get(account, region);
+        final List<SecurityGroup> securityGroups = newArrayList();
+        final List<String> unknownIds = newArrayList();
+        for (final String groupId : groupIds) {
+            final Optional<SecurityGroup> securityGroup = snapshot.getSecurityGroup(groupId);
+            if (securityGroup.isPresent()) {
+                securityGroups.add(securityGroup.get());
+            } else {
+                unknownIds.add(groupId);
+            }
+        }
+
+        // groups created after the snapshot was taken
+        if (!unknownIds.isEmpty()) {
+            securityGroups.addAll(describe(unknownIds, account, region));
+        }
+
+        return securityGroups.stream().filter(predicate).map(SecurityGroup::getGroupId).collect(toSet());
+    }
+
+    private List<SecurityGroup> describe(final List<String> groupIds, final String account, final Region region) {
         final DescribeSecurityGroupsRequest describeSecurityGroupsRequest = new DescribeSecurityGroupsRequest();
         describeSecurityGroupsRequest.setGroupIds(groupIds);
         final AmazonEC2Client amazonEC2Client = clientProvider.getClient(
                 AmazonEC2Client.class,
                 account, region);
-        final DescribeSecurityGroupsResult describeSecurityGroupsResult = amazonEC2Client.describeSecurityGroups(
-                describeSecurityGroupsRequest);
-
-        final List<SecurityGroup> securityGroups = describeSecurityGroupsResult.getSecurityGroups();
-        return securityGroups.stream().filter(predicate).map(SecurityGroup::getGroupId).collect(toSet());
+        return amazonEC2Client.describeSecurityGroups(describeSecurityGroupsRequest).getSecurityGroups();
     }
 }
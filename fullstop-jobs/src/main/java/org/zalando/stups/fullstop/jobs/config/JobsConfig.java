@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
 import org.zalando.stups.fullstop.jobs.common.impl.SecurityGroupsCheckerImpl;
 
@@ -16,12 +17,12 @@ public class JobsConfig {
     private JobsProperties jobsProperties;
 
     @Bean
-    public SecurityGroupsChecker elbSecurityGroupsChecker(final ClientProvider clientProvider) {
-        return new SecurityGroupsCheckerImpl(clientProvider, securityGroupExposesNotAllowedPorts(jobsProperties.getElbAllowedPorts()));
+    public SecurityGroupsChecker elbSecurityGroupsChecker(final ClientProvider clientProvider, final AwsInventory awsInventory) {
+        return new SecurityGroupsCheckerImpl(clientProvider, awsInventory, securityGroupExposesNotAllowedPorts(jobsProperties.getElbAllowedPorts()));
     }
 
     @Bean
-    public SecurityGroupsChecker ec2SecurityGroupsChecker(final ClientProvider clientProvider) {
-        return new SecurityGroupsCheckerImpl(clientProvider, securityGroupExposesNotAllowedPorts(jobsProperties.getEc2AllowedPorts()));
+    public SecurityGroupsChecker ec2SecurityGroupsChecker(final ClientProvider clientProvider, final AwsInventory awsInventory) {
+        return new SecurityGroupsCheckerImpl(clientProvider, awsInventory, securityGroupExposesNotAllowedPorts(jobsProperties.getEc2AllowedPorts()));
     }
 }
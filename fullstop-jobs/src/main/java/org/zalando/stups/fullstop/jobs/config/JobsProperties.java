@@ -5,8 +5,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import static com.google.common.collect.Maps.newHashMap;
+
 /**
  * Created by gkneitschel.
  */
@@ -19,6 +22,26 @@ public class JobsProperties {
     private Set<Integer> ec2AllowedPorts = Sets.newHashSet(80, 443, 22);
     private int accessKeysExpireAfterDays = 30;
     private String managementAccount;
+    private int whitelistBackfillChunkSize = 500;
+    private long whitelistBackfillPauseMillis = 100;
+    private long inventoryTtlSeconds = 240;
+    private int scanPoolSize = 8;
+    private int scanQueueCapacity = 1000;
+    private int scanMaxUnitsPerAccount = 2;
+    private double scanDefaultUnitsPerSecond = 5;
+    private Map<String, Double> scanUnitsPerSecond = newHashMap();
+    private int scanMaxRetries = 3;
+    private long scanBackoffMillis = 1000;
+    private int probeMaxInFlight = 2000;
+    private int probeMaxPerHost = 2;
+    private int probeConnectTimeoutMillis = 1000;
+    private int probeReadTimeoutMillis = 1000;
+    private int probeQueueTimeoutMillis = 60000;
+    private int fingerprintMaxAgeMinutes = 360;
+    private int recheckBatchSize = 500;
+    private int recheckDbInstanceDelayMinutes = 15;
+    private int recheckMaxAttempts = 5;
+    private long recheckBackoffMillis = 60000;
 
     public List<String> getWhitelistedRegions() {
         return whitelistedRegions;
@@ -67,4 +90,164 @@ public class JobsProperties {
     public void setManagementAccount(final String managementAccount) {
         this.managementAccount = managementAccount;
     }
+
+    public int getWhitelistBackfillChunkSize() {
+        return whitelistBackfillChunkSize;
+    }
+
+    public void setWhitelistBackfillChunkSize(final int whitelistBackfillChunkSize) {
+        this.whitelistBackfillChunkSize = whitelistBackfillChunkSize;
+    }
+
+    public long getWhitelistBackfillPauseMillis() {
+        return whitelistBackfillPauseMillis;
+    }
+
+    public void setWhitelistBackfillPauseMillis(final long whitelistBackfillPauseMillis) {
+        this.whitelistBackfillPauseMillis = whitelistBackfillPauseMillis;
+    }
+
+    public long getInventoryTtlSeconds() {
+        return inventoryTtlSeconds;
+    }
+
+    public void setInventoryTtlSeconds(final long inventoryTtlSeconds) {
+        this.inventoryTtlSeconds = inventoryTtlSeconds;
+    }
+
+    public int getScanPoolSize() {
+        return scanPoolSize;
+    }
+
+    public void setScanPoolSize(final int scanPoolSize) {
+        this.scanPoolSize = scanPoolSize;
+    }
+
+    public int getScanQueueCapacity() {
+        return scanQueueCapacity;
+    }
+
+    public void setScanQueueCapacity(final int scanQueueCapacity) {
+        this.scanQueueCapacity = scanQueueCapacity;
+    }
+
+    public int getScanMaxUnitsPerAccount() {
+        return scanMaxUnitsPerAccount;
+    }
+
+    public void setScanMaxUnitsPerAccount(final int scanMaxUnitsPerAccount) {
+        this.scanMaxUnitsPerAccount = scanMaxUnitsPerAccount;
+    }
+
+    public double getScanDefaultUnitsPerSecond() {
+        return scanDefaultUnitsPerSecond;
+    }
+
+    public void setScanDefaultUnitsPerSecond(final double scanDefaultUnitsPerSecond) {
+        this.scanDefaultUnitsPerSecond = scanDefaultUnitsPerSecond;
+    }
+
+    public Map<String, Double> getScanUnitsPerSecond() {
+        return scanUnitsPerSecond;
+    }
+
+    public void setScanUnitsPerSecond(final Map<String, Double> scanUnitsPerSecond) {
+        this.scanUnitsPerSecond = scanUnitsPerSecond;
+    }
+
+    public int getScanMaxRetries() {
+        return scanMaxRetries;
+    }
+
+    public void setScanMaxRetries(final int scanMaxRetries) {
+        this.scanMaxRetries = scanMaxRetries;
+    }
+
+    public long getScanBackoffMillis() {
+        return scanBackoffMillis;
+    }
+
+    public void setScanBackoffMillis(final long scanBackoffMillis) {
+        this.scanBackoffMillis = scanBackoffMillis;
+    }
+
+    public int getProbeMaxInFlight() {
+        return probeMaxInFlight;
+    }
+
+    public void setProbeMaxInFlight(final int probeMaxInFlight) {
+        this.probeMaxInFlight = probeMaxInFlight;
+    }
+
+    public int getProbeMaxPerHost() {
+        return probeMaxPerHost;
+    }
+
+    public void setProbeMaxPerHost(final int probeMaxPerHost) {
+        this.probeMaxPerHost = probeMaxPerHost;
+    }
+
+    public int getProbeConnectTimeoutMillis() {
+        return probeConnectTimeoutMillis;
+    }
+
+    public void setProbeConnectTimeoutMillis(final int probeConnectTimeoutMillis) {
+        this.probeConnectTimeoutMillis = probeConnectTimeoutMillis;
+    }
+
+    public int getProbeReadTimeoutMillis() {
+        return probeReadTimeoutMillis;
+    }
+
+    public void setProbeReadTimeoutMillis(final int probeReadTimeoutMillis) {
+        this.probeReadTimeoutMillis = probeReadTimeoutMillis;
+    }
+
+    public int getProbeQueueTimeoutMillis() {
+        return probeQueueTimeoutMillis;
+    }
+
+    public void setProbeQueueTimeoutMillis(final int probeQueueTimeoutMillis) {
+        this.probeQueueTimeoutMillis = probeQueueTimeoutMillis;
+    }
+
+    public int getFingerprintMaxAgeMinutes() {
+        return fingerprintMaxAgeMinutes;
+    }
+
+    public void setFingerprintMaxAgeMinutes(final int fingerprintMaxAgeMinutes) {
+        this.fingerprintMaxAgeMinutes = fingerprintMaxAgeMinutes;
+    }
+
+    public int getRecheckBatchSize() {
+        return recheckBatchSize;
+    }
+
+    public void setRecheckBatchSize(final int recheckBatchSize) {
+        this.recheckBatchSize = recheckBatchSize;
+    }
+
+    public int getRecheckDbInstanceDelayMinutes() {
+        return recheckDbInstanceDelayMinutes;
+    }
+
+    public void setRecheckDbInstanceDelayMinutes(final int recheckDbInstanceDelayMinutes) {
+        this.recheckDbInstanceDelayMinutes = recheckDbInstanceDelayMinutes;
+    }
+
+    public int getRecheckMaxAttempts() {
+        return recheckMaxAttempts;
+    }
+
+    public void setRecheckMaxAttempts(final int recheckMaxAttempts) {
+        this.recheckMaxAttempts = recheckMaxAttempts;
+    }
+
+    public long getRecheckBackoffMillis() {
+        return recheckBackoffMillis;
+    }
+
+    public void setRecheckBackoffMillis(final long recheckBackoffMillis) {
+        this.recheckBackoffMillis = recheckBackoffMillis;
+    }
 }
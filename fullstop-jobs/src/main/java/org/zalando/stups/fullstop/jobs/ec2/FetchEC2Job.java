@@ -1,32 +1,26 @@
 package org.zalando.stups.fullstop.jobs.ec2;
 
-import com.amazonaws.AmazonServiceException;
-import com.amazonaws.services.ec2.AmazonEC2Client;
-import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
-import com.amazonaws.services.ec2.model.DescribeInstancesResult;
-import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.GroupIdentifier;
 import com.amazonaws.services.ec2.model.Instance;
-import com.amazonaws.services.ec2.model.Reservation;
+import com.amazonaws.services.ec2.model.SecurityGroup;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
-import org.springframework.util.concurrent.ListenableFuture;
-import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
 import org.zalando.stups.fullstop.jobs.common.AmiDetailsProvider;
 import org.zalando.stups.fullstop.jobs.common.AwsApplications;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
-import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
-import org.zalando.stups.fullstop.jobs.common.HttpGetRootCall;
+import org.zalando.stups.fullstop.jobs.common.FingerprintStore;
+import org.zalando.stups.fullstop.jobs.common.HttpProbe;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.taupage.TaupageYaml;
@@ -36,17 +30,21 @@ import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.CompletableFuture;
 
 import static com.amazonaws.regions.Region.getRegion;
 import static com.amazonaws.regions.Regions.fromName;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.EC2;
 import static org.zalando.stups.fullstop.violation.ViolationType.UNSECURED_PUBLIC_ENDPOINT;
 
 @Component
@@ -58,7 +56,7 @@ public class FetchEC2Job implements FullstopJob {
 
     private final ViolationSink violationSink;
 
-    private final ClientProvider clientProvider;
+    private final AwsInventory awsInventory;
 
     private final AccountIdSupplier allAccountIds;
 
@@ -66,9 +64,7 @@ public class FetchEC2Job implements FullstopJob {
 
     private final SecurityGroupsChecker securityGroupsChecker;
 
-    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
-
-    private final CloseableHttpClient httpClient;
+    private final HttpProbe httpProbe;
 
     private final AwsApplications awsApplications;
 
@@ -78,9 +74,13 @@ public class FetchEC2Job implements FullstopJob {
 
     private final AmiDetailsProvider amiDetailsProvider;
 
+    private final ScanExecutor scanExecutor;
+
+    private final FingerprintStore fingerprintStore;
+
     @Autowired
     public FetchEC2Job(final ViolationSink violationSink,
-                       final ClientProvider clientProvider,
+                       final AwsInventory awsInventory,
                        final AccountIdSupplier allAccountIds,
                        final JobsProperties jobsProperties,
                        final @Qualifier("ec2SecurityGroupsChecker") SecurityGroupsChecker securityGroupsChecker,
@@ -88,9 +88,11 @@ public class FetchEC2Job implements FullstopJob {
                        final ViolationService violationService,
                        final FetchTaupageYaml fetchTaupageYaml,
                        final AmiDetailsProvider amiDetailsProvider,
-                       final CloseableHttpClient httpClient) {
+                       final ScanExecutor scanExecutor,
+                       final FingerprintStore fingerprintStore,
+                       final HttpProbe httpProbe) {
         this.violationSink = violationSink;
-        this.clientProvider = clientProvider;
+        this.awsInventory = awsInventory;
         this.allAccountIds = allAccountIds;
         this.jobsProperties = jobsProperties;
         this.securityGroupsChecker = securityGroupsChecker;
@@ -98,18 +100,9 @@ public class FetchEC2Job implements FullstopJob {
         this.violationService = violationService;
         this.fetchTaupageYaml = fetchTaupageYaml;
         this.amiDetailsProvider = amiDetailsProvider;
-        this.httpClient = httpClient;
-
-        threadPoolTaskExecutor.setCorePoolSize(12);
-        threadPoolTaskExecutor.setMaxPoolSize(20);
-        threadPoolTaskExecutor.setQueueCapacity(75);
-        threadPoolTaskExecutor.setAllowCoreThreadTimeOut(true);
-        threadPoolTaskExecutor.setKeepAliveSeconds(30);
-        threadPoolTaskExecutor.setThreadGroupName("ec2-check-group");
-        threadPoolTaskExecutor.setThreadNamePrefix("ec2-check-");
-        threadPoolTaskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        threadPoolTaskExecutor.setWaitForTasksToCompleteOnShutdown(true);
-        threadPoolTaskExecutor.afterPropertiesSet();
+        this.scanExecutor = scanExecutor;
+        this.fingerprintStore = fingerprintStore;
+        this.httpProbe = httpProbe;
     }
 
     @PostConstruct
@@ -117,94 +110,120 @@ public class FetchEC2Job implements FullstopJob {
         log.info("{} initalized", getClass().getSimpleName());
     }
 
-    @Scheduled(fixedRate = 300_000, initialDelay = 240_000) // 5 min rate, 4 min delay
+    @Scheduled(fixedRateString = "${fullstop.jobs.ec2SweepRateMillis:300000}", initialDelay = 240_000) // 4 min delay
     public void run() {
         log.info("Running job {}", getClass().getSimpleName());
-        for (final String account : allAccountIds.get()) {
-            for (final String region : jobsProperties.getWhitelistedRegions()) {
-
-                try {
-
-                    log.info("Scanning public EC2 instances for {}/{}", account, region);
-
-                    final DescribeInstancesResult describeEC2Result = getDescribeEC2Result(
-                            account,
-                            region);
-
-                    for (final Reservation reservation : describeEC2Result.getReservations()) {
-
-                        for (final Instance instance : reservation.getInstances()) {
-                            final Map<String, Object> metaData = newHashMap();
-                            metaData.putAll(amiDetailsProvider.getAmiDetails(account, getRegion(fromName(region)), instance.getImageId()));
-                            final List<String> errorMessages = newArrayList();
-                            final String instancePublicIpAddress = instance.getPublicIpAddress();
-
-                            if (violationService.violationExists(account, region, EVENT_ID, instance.getInstanceId(), UNSECURED_PUBLIC_ENDPOINT)) {
-                                continue;
-                            }
-
-                            final Set<String> unsecureGroups = securityGroupsChecker.check(
-                                    instance.getSecurityGroups().stream().map(GroupIdentifier::getGroupId).collect(toList()),
-                                    account,
-                                    getRegion(fromName(region)));
-                            if (!unsecureGroups.isEmpty()) {
-                                metaData.put("unsecuredSecurityGroups", unsecureGroups);
-                                errorMessages.add("Unsecured security group! Only ports 80 and 443 are allowed");
-                            }
-
-                            if (errorMessages.size() > 0) {
-                                metaData.put("errorMessages", errorMessages);
-                                writeViolation(account, region, metaData, instance.getInstanceId());
-
-                                // skip http response check, as we are already having a violation here
-                                continue;
-                            }
-
-                            // skip check for publicly available apps
-                            if (awsApplications.isPubliclyAccessible(account, region, newArrayList(instance.getInstanceId())).orElse(false)) {
-                                continue;
-                            }
-
-                            for (final Integer allowedPort : jobsProperties.getEc2AllowedPorts()) {
-
-                                if (allowedPort == 22) {
-                                    continue;
-                                }
-
-                                final HttpGetRootCall httpCall = new HttpGetRootCall(httpClient, instancePublicIpAddress, allowedPort);
-                                final ListenableFuture<HttpCallResult> listenableFuture = threadPoolTaskExecutor.submitListenable(
-                                        httpCall);
-                                listenableFuture.addCallback(
-                                        httpCallResult -> {
-                                            log.info("address: {} and port: {}", instancePublicIpAddress, allowedPort);
-                                            if (httpCallResult.isOpen()) {
-                                                final Map<String, Object> md = ImmutableMap.<String, Object>builder()
-                                                        .putAll(metaData)
-                                                        .put("instancePublicIpAddress", instancePublicIpAddress)
-                                                        .put("Port", allowedPort)
-                                                        .put("Error", httpCallResult.getMessage()).build();
-                                                writeViolation(account, region, md, instance.getInstanceId());
-                                            }
-                                        }, ex -> log.warn("Could not call " + instancePublicIpAddress, ex));
-
-                                log.debug("Active threads in pool: {}/{}", threadPoolTaskExecutor.getActiveCount(), threadPoolTaskExecutor.getMaxPoolSize());
-                            }
-
-                        }
-
-                    }
+        scanExecutor.scan(getClass().getSimpleName(), EC2, allAccountIds.get(), jobsProperties.getWhitelistedRegions(), this::scan);
+    }
 
-                } catch (final AmazonServiceException a) {
+    private void scan(final String account, final String region) {
+        log.info("Scanning public EC2 instances for {}/{}", account, region);
 
-                    if (a.getErrorCode().equals("RequestLimitExceeded")) {
-                        log.warn("RequestLimitExceeded for account: {}", account);
-                    } else {
-                        log.error(a.getMessage(), a);
-                    }
+        final InventorySnapshot snapshot = awsInventory.get(account, getRegion(fromName(region)));
+        final List<Instance> publicInstances = getPublicInstances(snapshot);
+        fingerprintStore.retain(getClass().getSimpleName(), account, region,
+                publicInstances.stream().map(Instance::getInstanceId).collect(toSet()));
 
-                }
+        int unchanged = 0;
+        for (final Instance instance : publicInstances) {
+            final String fingerprint = fingerprint(instance, snapshot);
+            if (fingerprintStore.isUnchanged(getClass().getSimpleName(), account, region, instance.getInstanceId(), fingerprint)) {
+                unchanged++;
+                continue;
             }
+
+            check(account, region, instance, fingerprint);
         }
+        log.info("Skipped {} of {} public EC2 instances in {}/{}, as they did not change", unchanged,
+                publicInstances.size(), account, region);
+    }
+
+    /**
+     * Checks the given instances right away, whether they changed since their last check or not.
+     */
+    public void recheck(final String account, final String region, final Collection<String> instanceIds) {
+        log.info("Rechecking EC2 instances {} in {}/{}", instanceIds, account, region);
+
+        final InventorySnapshot snapshot = awsInventory.get(account, getRegion(fromName(region)));
+        getPublicInstances(snapshot).stream()
+                .filter(instance -> instanceIds.contains(instance.getInstanceId()))
+                .forEach(instance -> check(account, region, instance, fingerprint(instance, snapshot)));
+    }
+
+    private void check(final String account, final String region, final Instance instance, final String fingerprint) {
+        check(account, region, instance).thenRun(() -> fingerprintStore.checked(
+                getClass().getSimpleName(), account, region, instance.getInstanceId(), fingerprint));
+    }
+
+    /**
+     * @return completes once the instance has been checked completely, including the http probes
+     */
+    private CompletableFuture<Void> check(final String account, final String region, final Instance instance) {
+        final Map<String, Object> metaData = newHashMap();
+        metaData.putAll(amiDetailsProvider.getAmiDetails(account, getRegion(fromName(region)), instance.getImageId()));
+        final List<String> errorMessages = newArrayList();
+        final String instancePublicIpAddress = instance.getPublicIpAddress();
+
+        if (violationService.violationExists(account, region, EVENT_ID, instance.getInstanceId(), UNSECURED_PUBLIC_ENDPOINT)) {
+            return completedFuture(null);
+        }
+
+        final Set<String> unsecureGroups = securityGroupsChecker.check(
+                instance.getSecurityGroups().stream().map(GroupIdentifier::getGroupId).collect(toList()),
+                account,
+                getRegion(fromName(region)));
+        if (!unsecureGroups.isEmpty()) {
+            metaData.put("unsecuredSecurityGroups", unsecureGroups);
+            errorMessages.add("Unsecured security group! Only ports 80 and 443 are allowed");
+        }
+
+        if (errorMessages.size() > 0) {
+            metaData.put("errorMessages", errorMessages);
+            writeViolation(account, region, metaData, instance.getInstanceId());
+
+            // skip http response check, as we are already having a violation here
+            return completedFuture(null);
+        }
+
+        // skip check for publicly available apps
+        if (awsApplications.isPubliclyAccessible(account, region, newArrayList(instance.getInstanceId())).orElse(false)) {
+            return completedFuture(null);
+        }
+
+        final List<Integer> ports = jobsProperties.getEc2AllowedPorts().stream()
+                .filter(port -> port != 22)
+                .collect(toList());
+        final CompletableFuture<Void> probed = httpProbe.probe(instancePublicIpAddress, ports)
+                .thenAccept(results -> results.forEach((port, httpCallResult) -> {
+                    log.info("address: {} and port: {}", instancePublicIpAddress, port);
+                    if (httpCallResult.isOpen()) {
+                        final Map<String, Object> md = ImmutableMap.<String, Object>builder()
+                                .putAll(metaData)
+                                .put("instancePublicIpAddress", instancePublicIpAddress)
+                                .put("Port", port)
+                                .put("Error", httpCallResult.getMessage()).build();
+                        writeViolation(account, region, md, instance.getInstanceId());
+                    }
+                }));
+        probed.exceptionally(ex -> {
+            log.warn("Could not call " + instancePublicIpAddress, ex);
+            return null;
+        });
+        return probed;
+    }
+
+    /**
+     * Everything the check depends on. The rules of the security groups are included, as they can change without
+     * any change on the instance.
+     */
+    private String fingerprint(final Instance instance, final InventorySnapshot snapshot) {
+        final List<String> securityGroups = instance.getSecurityGroups().stream()
+                .map(GroupIdentifier::getGroupId)
+                .sorted()
+                .map(id -> id + snapshot.getSecurityGroup(id).map(SecurityGroup::getIpPermissions).orElse(null))
+                .collect(toList());
+        return FingerprintStore.fingerprint(instance.getInstanceId(), instance.getPublicIpAddress(),
+                instance.getImageId(), securityGroups);
     }
 
     private void writeViolation(final String account, final String region, final Object metaInfo, final String instanceId) {
@@ -223,13 +242,9 @@ public class FetchEC2Job implements FullstopJob {
         violationSink.put(violation);
     }
 
-    private DescribeInstancesResult getDescribeEC2Result(final String account, final String region) {
-        final AmazonEC2Client ec2Client = clientProvider.getClient(
-                AmazonEC2Client.class,
-                account,
-                getRegion(fromName(region)));
-        final DescribeInstancesRequest describeInstancesRequest = new DescribeInstancesRequest();
-        describeInstancesRequest.setFilters(newArrayList(new Filter("ip-address", newArrayList("*"))));
-        return ec2Client.describeInstances(describeInstancesRequest);
+    private List<Instance> getPublicInstances(final InventorySnapshot snapshot) {
+        return snapshot.getInstances().stream()
+                .filter(instance -> instance.getPublicIpAddress() != null)
+                .collect(toList());
     }
 }
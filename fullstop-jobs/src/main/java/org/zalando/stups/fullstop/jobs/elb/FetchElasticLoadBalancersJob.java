@@ -1,32 +1,26 @@
 package org.zalando.stups.fullstop.jobs.elb;
 
-import com.amazonaws.AmazonServiceException;
 import com.amazonaws.regions.Region;
-import com.amazonaws.services.elasticloadbalancing.AmazonElasticLoadBalancingClient;
-import com.amazonaws.services.elasticloadbalancing.model.DescribeLoadBalancersRequest;
 import com.amazonaws.services.elasticloadbalancing.model.Instance;
 import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
-import org.springframework.util.concurrent.ListenableFuture;
-import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
 import org.zalando.stups.fullstop.jobs.common.AmiDetailsProvider;
 import org.zalando.stups.fullstop.jobs.common.AwsApplications;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
 import org.zalando.stups.fullstop.jobs.common.EC2InstanceProvider;
 import org.zalando.stups.fullstop.jobs.common.FetchTaupageYaml;
-import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
-import org.zalando.stups.fullstop.jobs.common.HttpGetRootCall;
+import org.zalando.stups.fullstop.jobs.common.HttpProbe;
 import org.zalando.stups.fullstop.jobs.common.PortsChecker;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
 import org.zalando.stups.fullstop.jobs.common.SecurityGroupsChecker;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.taupage.TaupageYaml;
@@ -36,11 +30,11 @@ import org.zalando.stups.fullstop.violation.ViolationSink;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.amazonaws.regions.Region.getRegion;
 import static com.amazonaws.regions.Regions.fromName;
@@ -48,6 +42,7 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.ELB;
 import static org.zalando.stups.fullstop.violation.ViolationType.UNSECURED_PUBLIC_ENDPOINT;
 
 /**
@@ -62,7 +57,7 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
 
     private final ViolationSink violationSink;
 
-    private final ClientProvider clientProvider;
+    private final AwsInventory awsInventory;
 
     private final AccountIdSupplier allAccountIds;
 
@@ -72,9 +67,7 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
 
     private final PortsChecker portsChecker;
 
-    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
-
-    private final CloseableHttpClient httpclient;
+    private final HttpProbe httpProbe;
 
     private final AwsApplications awsApplications;
 
@@ -86,9 +79,11 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
 
     private final EC2InstanceProvider ec2Instance;
 
+    private final ScanExecutor scanExecutor;
+
     @Autowired
     public FetchElasticLoadBalancersJob(final ViolationSink violationSink,
-                                        final ClientProvider clientProvider,
+                                        final AwsInventory awsInventory,
                                         final AccountIdSupplier allAccountIds, final JobsProperties jobsProperties,
                                         @Qualifier("elbSecurityGroupsChecker") final SecurityGroupsChecker securityGroupsChecker,
                                         final PortsChecker portsChecker,
@@ -97,9 +92,10 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
                                         final FetchTaupageYaml fetchTaupageYaml,
                                         final AmiDetailsProvider amiDetailsProvider,
                                         final EC2InstanceProvider ec2Instance,
-                                        final CloseableHttpClient httpClient) {
+                                        final ScanExecutor scanExecutor,
+                                        final HttpProbe httpProbe) {
         this.violationSink = violationSink;
-        this.clientProvider = clientProvider;
+        this.awsInventory = awsInventory;
         this.allAccountIds = allAccountIds;
         this.jobsProperties = jobsProperties;
         this.securityGroupsChecker = securityGroupsChecker;
@@ -109,18 +105,8 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
         this.fetchTaupageYaml = fetchTaupageYaml;
         this.amiDetailsProvider = amiDetailsProvider;
         this.ec2Instance = ec2Instance;
-        this.httpclient = httpClient;
-
-        threadPoolTaskExecutor.setCorePoolSize(12);
-        threadPoolTaskExecutor.setMaxPoolSize(20);
-        threadPoolTaskExecutor.setQueueCapacity(75);
-        threadPoolTaskExecutor.setAllowCoreThreadTimeOut(true);
-        threadPoolTaskExecutor.setKeepAliveSeconds(30);
-        threadPoolTaskExecutor.setThreadGroupName("elb-check-group");
-        threadPoolTaskExecutor.setThreadNamePrefix("elb-check-");
-        threadPoolTaskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        threadPoolTaskExecutor.setWaitForTasksToCompleteOnShutdown(true);
-        threadPoolTaskExecutor.afterPropertiesSet();
+        this.scanExecutor = scanExecutor;
+        this.httpProbe = httpProbe;
     }
 
     @PostConstruct
@@ -128,109 +114,105 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
         log.info("{} initialized", getClass().getSimpleName());
     }
 
-    @Scheduled(fixedRate = 300_000, initialDelay = 120_000) // 5 min rate, 2 min delay
+    @Scheduled(fixedRateString = "${fullstop.jobs.elbSweepRateMillis:300000}", initialDelay = 120_000) // 2 min delay
     public void run() {
         log.info("Running job {}", getClass().getSimpleName());
-        for (final String account : allAccountIds.get()) {
-            for (final String region : jobsProperties.getWhitelistedRegions()) {
-                log.info("Scanning ELBs for {}/{}", account, region);
-
-                try {
-                    final Region awsRegion = getRegion(fromName(region));
-
-                    for (final LoadBalancerDescription elb : getELBs(account, region)) {
-                        final Map<String, Object> metaData = newHashMap();
-                        final List<String> errorMessages = newArrayList();
-                        final String canonicalHostedZoneName = elb.getCanonicalHostedZoneName();
-
-                        final List<String> instanceIds = elb.getInstances().stream().map(Instance::getInstanceId).collect(toList());
-
-                        instanceIds.stream()
-                                .map(id -> ec2Instance.getById(account, awsRegion, id))
-                                .filter(Optional::isPresent)
-                                .map(Optional::get)
-                                .map(com.amazonaws.services.ec2.model.Instance::getImageId)
-                                .map(amiId -> amiDetailsProvider.getAmiDetails(account, awsRegion, amiId))
-                                .findFirst()
-                                .ifPresent(metaData::putAll);
-
-
-                        if (!elb.getScheme().equals("internet-facing")) {
-                            continue;
-                        }
-
-                        if (violationService.violationExists(account, region, EVENT_ID, canonicalHostedZoneName, UNSECURED_PUBLIC_ENDPOINT)) {
-                            continue;
-                        }
-
-                        final List<Integer> unsecuredPorts = portsChecker.check(elb);
-                        if (!unsecuredPorts.isEmpty()) {
-                            metaData.put("unsecuredPorts", unsecuredPorts);
-                            errorMessages.add(format("ELB %s listens on insecure ports! Only ports 80 and 443 are allowed",
-                                    elb.getLoadBalancerName()));
-                        }
-
-
-                        final Set<String> unsecureGroups = securityGroupsChecker.check(
-                                elb.getSecurityGroups(),
-                                account,
-                                awsRegion);
-                        if (!unsecureGroups.isEmpty()) {
-                            metaData.put("unsecuredSecurityGroups", unsecureGroups);
-                            errorMessages.add("Unsecured security group! Only ports 80 and 443 are allowed");
-                        }
-
-
-                        if (errorMessages.size() > 0) {
-                            metaData.put("errorMessages", errorMessages);
-                            writeViolation(account, region, metaData, canonicalHostedZoneName, instanceIds);
-
-                            // skip http response check, as we are already having a violation here
-                            continue;
-                        }
-
-
-                        // skip check for publicly available apps
-                        if (awsApplications.isPubliclyAccessible(account, region, instanceIds).orElse(false)) {
-                            continue;
-                        }
-
-                        for (final Integer allowedPort : jobsProperties.getElbAllowedPorts()) {
-                            final HttpGetRootCall HttpGetRootCall = new HttpGetRootCall(httpclient, canonicalHostedZoneName, allowedPort);
-                            final ListenableFuture<HttpCallResult> listenableFuture = threadPoolTaskExecutor.submitListenable(HttpGetRootCall);
-                            listenableFuture.addCallback(
-                                    httpCallResult -> {
-                                        log.info("address: {} and port: {}", canonicalHostedZoneName, allowedPort);
-                                        if (httpCallResult.isOpen()) {
-                                            final Map<String, Object> md = ImmutableMap.<String, Object>builder()
-                                                    .putAll(metaData)
-                                                    .put("canonicalHostedZoneName", canonicalHostedZoneName)
-                                                    .put("port", allowedPort)
-                                                    .put("Error", httpCallResult.getMessage())
-                                                    .build();
-                                            writeViolation(account, region, md, canonicalHostedZoneName, instanceIds);
-                                        }
-                                    }, ex -> log.warn(ex.getMessage(), ex));
-
-                            log.debug("Active threads in pool: {}/{}", threadPoolTaskExecutor.getActiveCount(), threadPoolTaskExecutor.getMaxPoolSize());
-                        }
+        scanExecutor.scan(getClass().getSimpleName(), ELB, allAccountIds.get(), jobsProperties.getWhitelistedRegions(), this::scan);
+    }
 
-                    }
+    private void scan(final String account, final String region) {
+        log.info("Scanning ELBs for {}/{}", account, region);
 
-                } catch (final AmazonServiceException a) {
+        awsInventory.get(account, getRegion(fromName(region))).getLoadBalancers()
+                .forEach(elb -> check(account, region, elb));
+    }
 
-                    if (a.getErrorCode().equals("RequestLimitExceeded")) {
-                        log.warn("RequestLimitExceeded for account: {}", account);
-                    } else {
-                        log.error(a.getMessage(), a);
-                    }
+    /**
+     * Checks the given load balancers right away, instead of waiting for the next run.
+     */
+    public void recheck(final String account, final String region, final Collection<String> loadBalancerNames) {
+        log.info("Rechecking ELBs {} in {}/{}", loadBalancerNames, account, region);
+
+        awsInventory.get(account, getRegion(fromName(region))).getLoadBalancers().stream()
+                .filter(elb -> loadBalancerNames.contains(elb.getLoadBalancerName()))
+                .forEach(elb -> check(account, region, elb));
+    }
 
-                }
+    private void check(final String account, final String region, final LoadBalancerDescription elb) {
+        final Region awsRegion = getRegion(fromName(region));
+        final Map<String, Object> metaData = newHashMap();
+        final List<String> errorMessages = newArrayList();
+        final String canonicalHostedZoneName = elb.getCanonicalHostedZoneName();
 
-            }
+        final List<String> instanceIds = elb.getInstances().stream().map(Instance::getInstanceId).collect(toList());
 
+        instanceIds.stream()
+                .map(id -> ec2Instance.getById(account, awsRegion, id))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .map(com.amazonaws.services.ec2.model.Instance::getImageId)
+                .map(amiId -> amiDetailsProvider.getAmiDetails(account, awsRegion, amiId))
+                .findFirst()
+                .ifPresent(metaData::putAll);
+
+
+        if (!elb.getScheme().equals("internet-facing")) {
+            return;
+        }
+
+        if (violationService.violationExists(account, region, EVENT_ID, canonicalHostedZoneName, UNSECURED_PUBLIC_ENDPOINT)) {
+            return;
         }
 
+        final List<Integer> unsecuredPorts = portsChecker.check(elb);
+        if (!unsecuredPorts.isEmpty()) {
+            metaData.put("unsecuredPorts", unsecuredPorts);
+            errorMessages.add(format("ELB %s listens on insecure ports! Only ports 80 and 443 are allowed",
+                    elb.getLoadBalancerName()));
+        }
+
+
+        final Set<String> unsecureGroups = securityGroupsChecker.check(
+                elb.getSecurityGroups(),
+                account,
+                awsRegion);
+        if (!unsecureGroups.isEmpty()) {
+            metaData.put("unsecuredSecurityGroups", unsecureGroups);
+            errorMessages.add("Unsecured security group! Only ports 80 and 443 are allowed");
+        }
+
+
+        if (errorMessages.size() > 0) {
+            metaData.put("errorMessages", errorMessages);
+            writeViolation(account, region, metaData, canonicalHostedZoneName, instanceIds);
+
+            // skip http response check, as we are already having a violation here
+            return;
+        }
+
+
+        // skip check for publicly available apps
+        if (awsApplications.isPubliclyAccessible(account, region, instanceIds).orElse(false)) {
+            return;
+        }
+
+        httpProbe.probe(canonicalHostedZoneName, jobsProperties.getElbAllowedPorts())
+                .thenAccept(results -> results.forEach((port, httpCallResult) -> {
+                    log.info("address: {} and port: {}", canonicalHostedZoneName, port);
+                    if (httpCallResult.isOpen()) {
+                        final Map<String, Object> md = ImmutableMap.<String, Object>builder()
+                                .putAll(metaData)
+                                .put("canonicalHostedZoneName", canonicalHostedZoneName)
+                                .put("port", port)
+                                .put("Error", httpCallResult.getMessage())
+                                .build();
+                        writeViolation(account, region, md, canonicalHostedZoneName, instanceIds);
+                    }
+                }))
+                .exceptionally(ex -> {
+                    log.warn(ex.getMessage(), ex);
+                    return null;
+                });
     }
 
     private void writeViolation(final String account, final String region, final Object metaInfo, final String canonicalHostedZoneName, final List<String> instanceIds) {
@@ -256,17 +238,4 @@ public class FetchElasticLoadBalancersJob implements FullstopJob {
                 .build();
         violationSink.put(violation);
     }
-
-    private List<LoadBalancerDescription> getELBs(final String account, final String region) {
-        final AmazonElasticLoadBalancingClient elbClient = clientProvider.getClient(
-                AmazonElasticLoadBalancingClient.class,
-                account,
-                getRegion(
-                        fromName(region)));
-
-
-        final DescribeLoadBalancersRequest describeLoadBalancersRequest = new DescribeLoadBalancersRequest();
-        return elbClient.describeLoadBalancers(
-                describeLoadBalancersRequest).getLoadBalancerDescriptions();
-    }
 }
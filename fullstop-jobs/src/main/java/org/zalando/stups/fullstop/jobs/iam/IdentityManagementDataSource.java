@@ -8,12 +8,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.utils.Pages;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static com.amazonaws.regions.Regions.EU_WEST_1;
 import static com.amazonaws.services.identitymanagement.model.ReportStateType.COMPLETE;
+import static java.lang.Boolean.TRUE;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Component
@@ -30,14 +34,24 @@ class IdentityManagementDataSource {
         this.clientProvider = clientProvider;
     }
 
-    List<User> getUsers(final String accountId) {
-        return getIAMClient(accountId).listUsers().getUsers();
+    /**
+     * @return all users of the account, further pages are requested while the stream is consumed
+     */
+    Stream<User> getUsers(final String accountId) {
+        final AmazonIdentityManagementClient client = getIAMClient(accountId);
+        return Pages.stream(
+                marker -> client.listUsers(new ListUsersRequest().withMarker(marker)),
+                ListUsersResult::getUsers,
+                result -> TRUE.equals(result.getIsTruncated()) ? result.getMarker() : null);
     }
 
     List<AccessKeyMetadata> getAccessKeys(final String accountId, final String userName) {
-        final ListAccessKeysRequest request = new ListAccessKeysRequest();
-        request.setUserName(userName);
-        return getIAMClient(accountId).listAccessKeys(request).getAccessKeyMetadata();
+        final AmazonIdentityManagementClient client = getIAMClient(accountId);
+        return Pages.stream(
+                marker -> client.listAccessKeys(new ListAccessKeysRequest().withUserName(userName).withMarker(marker)),
+                ListAccessKeysResult::getAccessKeyMetadata,
+                result -> TRUE.equals(result.getIsTruncated()) ? result.getMarker() : null)
+                .collect(toList());
     }
 
     GetCredentialReportResult getCredentialReportCSV(final String accountId) {
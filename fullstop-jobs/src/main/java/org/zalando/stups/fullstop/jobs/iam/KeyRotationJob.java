@@ -6,12 +6,14 @@ import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.annotation.EveryDayAtTenPM;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 
 import javax.annotation.PostConstruct;
 import java.util.Collection;
 
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.IAM;
 import static org.zalando.stups.fullstop.jobs.iam.AccessKeyMetadataPredicates.isActiveAndOlderThanDays;
 
 @Component
@@ -27,12 +29,15 @@ public class KeyRotationJob implements FullstopJob {
 
     private final AccountIdSupplier allAccountIds;
 
+    private final ScanExecutor scanExecutor;
+
     @Autowired
-    public KeyRotationJob(final IdentityManagementDataSource iamDataSource, final KeyRotationViolationWriter violationWriter, final JobsProperties properties, final AccountIdSupplier allAccountIds) {
+    public KeyRotationJob(final IdentityManagementDataSource iamDataSource, final KeyRotationViolationWriter violationWriter, final JobsProperties properties, final AccountIdSupplier allAccountIds, final ScanExecutor scanExecutor) {
         this.violationWriter = violationWriter;
         this.iamDataSource = iamDataSource;
         this.properties = properties;
         this.allAccountIds = allAccountIds;
+        this.scanExecutor = scanExecutor;
     }
 
     @PostConstruct
@@ -44,9 +49,9 @@ public class KeyRotationJob implements FullstopJob {
     public void run() {
         log.info("Running {}", getClass().getSimpleName());
 
-        allAccountIds.get().forEach(accountId -> {
+        scanExecutor.scanAccounts(getClass().getSimpleName(), IAM, allAccountIds.get(), accountId -> {
             log.info("Checking account {} for expired IAM access keys", accountId);
-            iamDataSource.getUsers(accountId).stream()
+            iamDataSource.getUsers(accountId)
                     .map(u -> iamDataSource.getAccessKeys(accountId, u.getUserName()))
                     .flatMap(Collection::stream)
                     .filter(isActiveAndOlderThanDays(properties.getAccessKeysExpireAfterDays()))
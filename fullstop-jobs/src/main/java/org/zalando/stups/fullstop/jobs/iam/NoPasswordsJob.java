@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.annotation.EveryDayAtElevenPM;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
 import org.zalando.stups.fullstop.jobs.iam.csv.CSVReportEntry;
 import org.zalando.stups.fullstop.jobs.iam.csv.CredentialReportCSVParser;
 
@@ -18,7 +19,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import static java.util.Collections.synchronizedList;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.IAM;
 
 /**
  * IAM Users must not use passwords, but access keys.
@@ -38,13 +41,17 @@ public class NoPasswordsJob implements FullstopJob {
 
     private final CredentialReportCSVParser csvParser;
 
+    private final ScanExecutor scanExecutor;
+
     @Autowired
     public NoPasswordsJob(final IdentityManagementDataSource iamDataSource,
-                          final NoPasswordViolationWriter violationWriter, final AccountIdSupplier allAccountIds, final CredentialReportCSVParser csvParser) {
+                          final NoPasswordViolationWriter violationWriter, final AccountIdSupplier allAccountIds, final CredentialReportCSVParser csvParser,
+                          final ScanExecutor scanExecutor) {
         this.iamDataSource = iamDataSource;
         this.violationWriter = violationWriter;
         this.allAccountIds = allAccountIds;
         this.csvParser = csvParser;
+        this.scanExecutor = scanExecutor;
     }
 
     @PostConstruct
@@ -56,10 +63,9 @@ public class NoPasswordsJob implements FullstopJob {
     public void run() {
         log.info("Running {}", getClass().getSimpleName());
 
-        final List<Map<String, String>> metaInfoList = Lists.newArrayList();
-
-        for (final String accountId : allAccountIds.get()) {
+        final List<Map<String, String>> metaInfoList = synchronizedList(Lists.newArrayList());
 
+        scanExecutor.scanAccounts(getClass().getSimpleName(), IAM, allAccountIds.get(), accountId -> {
             final GetCredentialReportResult credentialReportCSV = iamDataSource.getCredentialReportCSV(accountId);
             final List<CSVReportEntry> csvReportEntries = csvParser.apply(credentialReportCSV);
 
@@ -71,8 +77,9 @@ public class NoPasswordsJob implements FullstopJob {
                     .forEach(c -> violationWriter.writeNoPasswordViolation(accountId, c));
 
 
-            //check for the root user account
+            //check for the root user account, collected per attempt, so that a retried unit does not add it twice
             log.info("Checking account {} for IAM users with mfa, access key", accountId);
+            final List<Map<String, String>> accountMetaInfos = Lists.newArrayList();
             Stream.of(csvReportEntries)
                     .flatMap(Collection::stream)
                     .filter(c -> c.getUser().equals(ROOT_ACCOUNT) || c.getUser().endsWith(ROOT_SUFFIX))
@@ -87,9 +94,10 @@ public class NoPasswordsJob implements FullstopJob {
                         metaInfo.put("is_access_key_1_active", String.valueOf(c.isAccessKey1Active()));
                         metaInfo.put("is_access_key_2_active", String.valueOf(c.isAccessKey2Active()));
 
-                        metaInfoList.add(metaInfo);
+                        accountMetaInfos.add(metaInfo);
                     });
-        }
+            metaInfoList.addAll(accountMetaInfos);
+        });
 
         if (!metaInfoList.isEmpty()){
             violationWriter.writeRootUserViolation(metaInfoList);
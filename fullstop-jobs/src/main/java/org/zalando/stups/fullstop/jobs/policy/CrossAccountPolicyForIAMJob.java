@@ -1,6 +1,7 @@
 package org.zalando.stups.fullstop.jobs.policy;
 
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagementClient;
+import com.amazonaws.services.identitymanagement.model.ListRolesRequest;
 import com.amazonaws.services.identitymanagement.model.ListRolesResult;
 import com.amazonaws.services.identitymanagement.model.Role;
 import com.google.common.collect.ImmutableMap;
@@ -14,7 +15,9 @@ import org.springframework.stereotype.Component;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.jobs.utils.Pages;
 import org.zalando.stups.fullstop.violation.Violation;
 import org.zalando.stups.fullstop.violation.ViolationBuilder;
 import org.zalando.stups.fullstop.violation.ViolationSink;
@@ -23,10 +26,13 @@ import javax.annotation.PostConstruct;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static com.amazonaws.regions.Region.getRegion;
 import static com.amazonaws.regions.Regions.EU_WEST_1;
+import static java.lang.Boolean.TRUE;
 import static java.util.stream.Collectors.toList;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.IAM;
 import static org.zalando.stups.fullstop.violation.ViolationType.CROSS_ACCOUNT_ROLE;
 
 @Component
@@ -45,15 +51,19 @@ public class CrossAccountPolicyForIAMJob implements FullstopJob {
 
     private final JobsProperties jobsProperties;
 
+    private final ScanExecutor scanExecutor;
+
     @Autowired
     public CrossAccountPolicyForIAMJob(final ViolationSink violationSink,
                                        final ClientProvider clientProvider,
                                        final AccountIdSupplier allAccountIds,
-                                       final JobsProperties jobsProperties) {
+                                       final JobsProperties jobsProperties,
+                                       final ScanExecutor scanExecutor) {
         this.violationSink = violationSink;
         this.clientProvider = clientProvider;
         this.allAccountIds = allAccountIds;
         this.jobsProperties = jobsProperties;
+        this.scanExecutor = scanExecutor;
     }
 
     @PostConstruct
@@ -67,51 +77,51 @@ public class CrossAccountPolicyForIAMJob implements FullstopJob {
     )
     public void run() {
         log.info("Running job {}", getClass().getSimpleName());
-        for (final String account : allAccountIds.get()) {
-
-            final ListRolesResult listRolesResult = getListRolesResult(account);
-
-            for (final Role role : listRolesResult.getRoles()) {
-
-                final String assumeRolePolicyDocument = role.getAssumeRolePolicyDocument();
-
-                List<String> principalArns = Lists.newArrayList();
-                try {
-                    principalArns = JsonPath.read(URLDecoder.decode(assumeRolePolicyDocument, "UTF-8"),
-                            ".Statement[*].Principal.AWS");
-                } catch (final UnsupportedEncodingException e) {
-                    log.warn("Could not decode assumeRolePolicyDocument", e);
-                }
-
-                final List<String> crossAccountIds = principalArns.stream()
-                        .filter(principalARN -> !principalARN.contains(account))
-                        .filter(principalARN -> !principalARN.contains(jobsProperties.getManagementAccount()))
-                        .collect(toList());
-
-                if (crossAccountIds != null && !crossAccountIds.isEmpty()) {
-                    writeViolation(
-                            account,
-                            ImmutableMap.of(
-                                    "role_arn", role.getArn(),
-                                    "role_name", role.getRoleName(),
-                                    "grantees", crossAccountIds),
-                            role.getRoleId()
-                    );
-                }
+        scanExecutor.scanAccounts(getClass().getSimpleName(), IAM, allAccountIds.get(), this::scan);
+        log.info("Completed job {}", getClass().getSimpleName());
+    }
+
+    private void scan(final String account) {
+        getRoles(account).forEach(role -> {
+            final String assumeRolePolicyDocument = role.getAssumeRolePolicyDocument();
+
+            List<String> principalArns = Lists.newArrayList();
+            try {
+                principalArns = JsonPath.read(URLDecoder.decode(assumeRolePolicyDocument, "UTF-8"),
+                        ".Statement[*].Principal.AWS");
+            } catch (final UnsupportedEncodingException e) {
+                log.warn("Could not decode assumeRolePolicyDocument", e);
             }
-        }
 
-        log.info("Completed job {}", getClass().getSimpleName());
+            final List<String> crossAccountIds = principalArns.stream()
+                    .filter(principalARN -> !principalARN.contains(account))
+                    .filter(principalARN -> !principalARN.contains(jobsProperties.getManagementAccount()))
+                    .collect(toList());
+
+            if (crossAccountIds != null && !crossAccountIds.isEmpty()) {
+                writeViolation(
+                        account,
+                        ImmutableMap.of(
+                                "role_arn", role.getArn(),
+                                "role_name", role.getRoleName(),
+                                "grantees", crossAccountIds),
+                        role.getRoleId()
+                );
+            }
+        });
     }
 
-    private ListRolesResult getListRolesResult(final String account) {
+    private Stream<Role> getRoles(final String account) {
         final AmazonIdentityManagementClient iamClient = clientProvider.getClient(
                 AmazonIdentityManagementClient.class,
                 account,
                 getRegion(EU_WEST_1)
         );
 
-        return iamClient.listRoles();
+        return Pages.stream(
+                marker -> iamClient.listRoles(new ListRolesRequest().withMarker(marker)),
+                ListRolesResult::getRoles,
+                result -> TRUE.equals(result.getIsTruncated()) ? result.getMarker() : null);
     }
 
     private void writeViolation(final String account, final Object metaInfo, final String roleId) {
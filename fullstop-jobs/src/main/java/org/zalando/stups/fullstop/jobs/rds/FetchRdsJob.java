@@ -1,29 +1,29 @@
 package org.zalando.stups.fullstop.jobs.rds;
 
-import com.amazonaws.AmazonServiceException;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
-import com.amazonaws.services.rds.AmazonRDSClient;
 import com.amazonaws.services.rds.model.DBInstance;
-import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
-import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.FullstopJob;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.violation.Violation;
 import org.zalando.stups.fullstop.violation.ViolationBuilder;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import static com.google.common.collect.Maps.newHashMap;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.RDS;
 import static org.zalando.stups.fullstop.violation.ViolationType.UNSECURED_PUBLIC_ENDPOINT;
 
 @Component
@@ -36,20 +36,24 @@ public class FetchRdsJob implements FullstopJob {
 
     private final AccountIdSupplier allAccountIds;
 
-    private final ClientProvider clientProvider;
+    private final AwsInventory awsInventory;
 
     private final JobsProperties jobsProperties;
 
     private final ViolationSink violationSink;
 
+    private final ScanExecutor scanExecutor;
+
     @Autowired
-    public FetchRdsJob(final AccountIdSupplier allAccountIds, final ClientProvider clientProvider,
+    public FetchRdsJob(final AccountIdSupplier allAccountIds, final AwsInventory awsInventory,
                        final JobsProperties jobsProperties,
-                       final ViolationSink violationSink) {
+                       final ViolationSink violationSink,
+                       final ScanExecutor scanExecutor) {
         this.allAccountIds = allAccountIds;
-        this.clientProvider = clientProvider;
+        this.awsInventory = awsInventory;
         this.jobsProperties = jobsProperties;
         this.violationSink = violationSink;
+        this.scanExecutor = scanExecutor;
     }
 
     @PostConstruct
@@ -57,35 +61,34 @@ public class FetchRdsJob implements FullstopJob {
         log.info("{} initialized", getClass().getSimpleName());
     }
 
-    @Scheduled(fixedRate = 300_000)
+    @Scheduled(fixedRateString = "${fullstop.jobs.rdsSweepRateMillis:300000}")
     public void run() {
-        for (final String accountId : allAccountIds.get()) {
-            final Map<String, Object> metadata = newHashMap();
-            for (final String region : jobsProperties.getWhitelistedRegions()) {
-                try {
-                    final DescribeDBInstancesResult describeDBInstancesResult = getRds(accountId, region);
-
-                    describeDBInstancesResult.getDBInstances().stream()
-                            .filter(DBInstance::getPubliclyAccessible)
-                            .filter(dbInstance -> dbInstance.getEndpoint() != null)
-                            .forEach(dbInstance -> {
-                                metadata.put("unsecuredDatabase", dbInstance.getEndpoint().getAddress());
-                                metadata.put("errorMessages", "Unsecured Database! Your DB can be reached from outside");
-                                writeViolation(accountId, region, metadata, dbInstance.getEndpoint().getAddress());
-
-                            });
-
-                } catch (final AmazonServiceException a) {
-
-                    if (a.getErrorCode().equals("RequestLimitExceeded")) {
-                        log.warn("RequestLimitExceeded for account: {}", accountId);
-                    } else {
-                        log.error(a.getMessage(), a);
-                    }
-
-                }
-            }
+        scanExecutor.scan(getClass().getSimpleName(), RDS, allAccountIds.get(), jobsProperties.getWhitelistedRegions(), this::scan);
+    }
+
+    private void scan(final String accountId, final String region) {
+        getRds(accountId, region).forEach(dbInstance -> check(accountId, region, dbInstance));
+    }
+
+    /**
+     * Checks the given DB instances right away, instead of waiting for the next run.
+     */
+    public void recheck(final String accountId, final String region, final Collection<String> dbInstanceIds) {
+        log.info("Rechecking DB instances {} in {}/{}", dbInstanceIds, accountId, region);
+        getRds(accountId, region).stream()
+                .filter(dbInstance -> dbInstanceIds.contains(dbInstance.getDBInstanceIdentifier()))
+                .forEach(dbInstance -> check(accountId, region, dbInstance));
+    }
+
+    private void check(final String accountId, final String region, final DBInstance dbInstance) {
+        if (!dbInstance.getPubliclyAccessible() || dbInstance.getEndpoint() == null) {
+            return;
         }
+
+        final Map<String, Object> metadata = newHashMap();
+        metadata.put("unsecuredDatabase", dbInstance.getEndpoint().getAddress());
+        metadata.put("errorMessages", "Unsecured Database! Your DB can be reached from outside");
+        writeViolation(accountId, region, metadata, dbInstance.getEndpoint().getAddress());
     }
 
     private void writeViolation(final String account, final String region, final Object metaInfo, final String rdsEndpoint) {
@@ -101,15 +104,7 @@ public class FetchRdsJob implements FullstopJob {
         violationSink.put(violation);
     }
 
-    private DescribeDBInstancesResult getRds(final String accountId, final String region) {
-        final DescribeDBInstancesRequest describeDBInstancesRequest = new DescribeDBInstancesRequest();
-        final DescribeDBInstancesResult describeDBInstancesResult;
-
-        final AmazonRDSClient amazonRDSClient = clientProvider.getClient(AmazonRDSClient.class, accountId,
-                Region.getRegion(Regions.fromName(region)));
-        describeDBInstancesResult = amazonRDSClient.describeDBInstances(describeDBInstancesRequest);
-
-
-        return describeDBInstancesResult;
+    private List<DBInstance> getRds(final String accountId, final String region) {
+        return awsInventory.get(accountId, Region.getRegion(Regions.fromName(region))).getDBInstances();
     }
 }
@@ -0,0 +1,174 @@
+package org.zalando.stups.fullstop.jobs.recheck;
+
+import com.amazonaws.services.ec2.model.GroupIdentifier;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.jobs.FullstopJob;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.jobs.ec2.FetchEC2Job;
+import org.zalando.stups.fullstop.jobs.elb.FetchElasticLoadBalancersJob;
+import org.zalando.stups.fullstop.jobs.rds.FetchRdsJob;
+import org.zalando.stups.fullstop.violation.entity.RecheckRequestEntity;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.amazonaws.regions.Region.getRegion;
+import static com.amazonaws.regions.Regions.fromName;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.EC2;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.DB_INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.LOAD_BALANCER;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.SECURITY_GROUP;
+
+/**
+ * Rechecks the resources that were changed according to CloudTrail. The fullstop application queues a request per
+ * changed resource, so that a change is checked within seconds instead of with the next full run of the jobs.
+ */
+@Component
+public class RecheckJob implements FullstopJob {
+
+    private final Logger log = LoggerFactory.getLogger(RecheckJob.class);
+
+    private final RecheckRequestService recheckRequestService;
+
+    private final AwsInventory awsInventory;
+
+    private final JobsProperties jobsProperties;
+
+    private final ScanExecutor scanExecutor;
+
+    private final FetchEC2Job fetchEC2Job;
+
+    private final FetchElasticLoadBalancersJob fetchElasticLoadBalancersJob;
+
+    private final FetchRdsJob fetchRdsJob;
+
+    @Autowired
+    public RecheckJob(final RecheckRequestService recheckRequestService,
+                      final AwsInventory awsInventory,
+                      final JobsProperties jobsProperties,
+                      final ScanExecutor scanExecutor,
+                      final FetchEC2Job fetchEC2Job,
+                      final FetchElasticLoadBalancersJob fetchElasticLoadBalancersJob,
+                      final FetchRdsJob fetchRdsJob) {
+        this.recheckRequestService = recheckRequestService;
+        this.awsInventory = awsInventory;
+        this.jobsProperties = jobsProperties;
+        this.scanExecutor = scanExecutor;
+        this.fetchEC2Job = fetchEC2Job;
+        this.fetchElasticLoadBalancersJob = fetchElasticLoadBalancersJob;
+        this.fetchRdsJob = fetchRdsJob;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("{} initialized", getClass().getSimpleName());
+    }
+
+    @Scheduled(fixedDelayString = "${fullstop.jobs.recheckDelayMillis:30000}", initialDelay = 60_000)
+    public void run() {
+        final List<String> whitelistedRegions = jobsProperties.getWhitelistedRegions();
+        final int discarded = recheckRequestService.discardOtherRegions(whitelistedRegions);
+        if (discarded > 0) {
+            log.info("Discarded {} recheck requests of regions that are not whitelisted", discarded);
+        }
+
+        // changes of DB instances apply asynchronously, they stay queued until they are visible most likely
+        final DateTime dbInstancesBefore = DateTime.now()
+                .minusMinutes(jobsProperties.getRecheckDbInstanceDelayMinutes());
+        final List<RecheckRequestEntity> requests = recheckRequestService.peek(jobsProperties.getRecheckBatchSize(),
+                whitelistedRegions, DB_INSTANCE, dbInstancesBefore);
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        log.info("Running job {} for {} changed resources", getClass().getSimpleName(), requests.size());
+        final Map<List<String>, List<RecheckRequestEntity>> requestsByUnit = requests.stream()
+                .collect(groupingBy(request -> asList(request.getAccountId(), request.getRegion())));
+        final Set<String> accounts = requests.stream().map(RecheckRequestEntity::getAccountId).collect(toSet());
+        final Set<String> regions = requests.stream().map(RecheckRequestEntity::getRegion).collect(toSet());
+
+        final Set<List<String>> recheckedUnits = ConcurrentHashMap.newKeySet();
+        final boolean scanned = scanExecutor.scan(getClass().getSimpleName(), EC2, accounts, regions,
+                (account, region) -> {
+                    final List<RecheckRequestEntity> unitRequests = requestsByUnit
+                            .getOrDefault(asList(account, region), Collections.emptyList());
+                    recheck(account, region, unitRequests);
+                    recheckedUnits.add(asList(account, region));
+                });
+
+        // the requests of a failed unit are retried with backoff, so that they do not fail every run again
+        final List<RecheckRequestEntity> failedRequests = requestsByUnit.entrySet().stream()
+                .filter(unit -> !recheckedUnits.contains(unit.getKey()))
+                .flatMap(unit -> unit.getValue().stream())
+                .collect(toList());
+        if (scanned && !failedRequests.isEmpty()) {
+            recheckRequestService.failed(failedRequests, jobsProperties.getRecheckMaxAttempts(),
+                    jobsProperties.getRecheckBackoffMillis());
+        }
+    }
+
+    private void recheck(final String account, final String region, final List<RecheckRequestEntity> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        final Map<RecheckResourceType, Set<String>> resourceIds = requests.stream()
+                .collect(groupingBy(RecheckRequestEntity::getResourceType,
+                        mapping(RecheckRequestEntity::getResourceId, toSet())));
+        final Set<String> securityGroupIds = resourceIds.getOrDefault(SECURITY_GROUP, Collections.emptySet());
+
+        // the snapshot was possibly taken before the change
+        awsInventory.invalidate(account, getRegion(fromName(region)));
+        final InventorySnapshot snapshot = awsInventory.get(account, getRegion(fromName(region)));
+
+        final Set<String> instanceIds = snapshot.getInstances().stream()
+                .filter(instance -> instance.getSecurityGroups().stream()
+                        .map(GroupIdentifier::getGroupId)
+                        .anyMatch(securityGroupIds::contains))
+                .map(Instance::getInstanceId)
+                .collect(toSet());
+        instanceIds.addAll(resourceIds.getOrDefault(INSTANCE, Collections.emptySet()));
+
+        final Set<String> loadBalancerNames = snapshot.getLoadBalancers().stream()
+                .filter(elb -> elb.getSecurityGroups().stream().anyMatch(securityGroupIds::contains))
+                .map(LoadBalancerDescription::getLoadBalancerName)
+                .collect(toSet());
+        loadBalancerNames.addAll(resourceIds.getOrDefault(LOAD_BALANCER, Collections.emptySet()));
+
+        final Set<String> dbInstanceIds = resourceIds.getOrDefault(DB_INSTANCE, Collections.emptySet());
+
+        if (!instanceIds.isEmpty()) {
+            fetchEC2Job.recheck(account, region, instanceIds);
+        }
+        if (!loadBalancerNames.isEmpty()) {
+            fetchElasticLoadBalancersJob.recheck(account, region, loadBalancerNames);
+        }
+        if (!dbInstanceIds.isEmpty()) {
+            fetchRdsJob.recheck(account, region, dbInstanceIds);
+        }
+
+        recheckRequestService.done(requests);
+    }
+}
@@ -0,0 +1,61 @@
+package org.zalando.stups.fullstop.jobs.utils;
+
+import com.google.common.collect.AbstractIterator;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Streams the items of paginated AWS list and describe calls. The next page is only requested, once all items of the
+ * current page have been consumed, so at most one page is held in memory.
+ */
+public final class Pages {
+
+    private Pages() {
+    }
+
+    /**
+     * @param page   requests the page for the given token, null for the first page
+     * @param items  the items of a page
+     * @param marker the token of the next page, null or empty on the last page
+     * @param <R>    the result type of the call
+     * @param <T>    the item type
+     */
+    public static <R, T> Stream<T> stream(final Function<String, R> page,
+                                          final Function<R, List<T>> items,
+                                          final Function<R, String> marker) {
+        final Iterator<T> iterator = new AbstractIterator<T>() {
+
+            private Iterator<T> current = Collections.emptyIterator();
+
+            private String nextMarker;
+
+            private boolean lastPage;
+
+            @Override
+            protected T computeNext() {
+                while (!current.hasNext()) {
+                    if (lastPage) {
+                        return endOfData();
+                    }
+
+                    final R result = page.apply(nextMarker);
+                    current = Optional.ofNullable(items.apply(result)).map(List::iterator).orElse(Collections.emptyIterator());
+                    nextMarker = marker.apply(result);
+                    lastPage = nextMarker == null || nextMarker.isEmpty();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, ORDERED | NONNULL), false);
+    }
+}
@@ -0,0 +1,171 @@
+package org.zalando.stups.fullstop.jobs.whitelist;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.zalando.stups.fullstop.jobs.FullstopJob;
+import org.zalando.stups.fullstop.jobs.annotation.EveryDayAtElevenPM;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.violation.entity.JobCheckpointEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.repository.JobCheckpointRepository;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.whitelist.CompiledWhitelistRules;
+import org.zalando.stups.fullstop.whitelist.WhitelistRules;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Applies the active whitelisting rules to violations that have been persisted before the rules were created.
+ * <p>
+ * Open violations are read in chunks ordered by id. Each chunk is updated with one batch in its own short
+ * transaction, together with a checkpoint. An interrupted run continues after the last completed chunk, a
+ * finished run removes its checkpoint so that the next run starts from the beginning.
+ */
+@Component
+public class WhitelistBackfillJob implements FullstopJob {
+
+    static final String JOB_NAME = "whitelist-backfill";
+
+    static final String MODIFIED_BY = "FULLSTOP";
+
+    private static final int LOG_EVERY_CHUNKS = 20;
+
+    private final Logger log = getLogger(WhitelistBackfillJob.class);
+
+    private final ViolationRepository violationRepository;
+
+    private final JobCheckpointRepository checkpointRepository;
+
+    private final WhitelistRules whitelistRules;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final JobsProperties properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public WhitelistBackfillJob(final ViolationRepository violationRepository,
+                                final JobCheckpointRepository checkpointRepository,
+                                final WhitelistRules whitelistRules,
+                                final PlatformTransactionManager transactionManager,
+                                final JobsProperties properties) {
+        this.violationRepository = violationRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.whitelistRules = whitelistRules;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("{} initialized", getClass().getSimpleName());
+    }
+
+    @EveryDayAtElevenPM
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("{} is already running", getClass().getSimpleName());
+            return;
+        }
+
+        try {
+            backfill();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void backfill() {
+        final CompiledWhitelistRules rules = whitelistRules.getCompiledRules();
+        if (rules == null || rules.size() == 0) {
+            log.info("No active whitelisting rules, skipping {}", getClass().getSimpleName());
+            return;
+        }
+
+        final JobCheckpointEntity checkpoint = loadCheckpoint();
+        if (checkpoint.getLastId() > 0) {
+            log.info("Resuming {} after violation {} ({} violations processed, {} whitelisted since {})",
+                    getClass().getSimpleName(), checkpoint.getLastId(), checkpoint.getProcessed(),
+                    checkpoint.getUpdated(), checkpoint.getStarted());
+        } else {
+            log.info("Running {}", getClass().getSimpleName());
+        }
+
+        final int chunkSize = properties.getWhitelistBackfillChunkSize();
+        int chunks = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            final List<ViolationEntity> chunk = violationRepository.findOpenViolations(checkpoint.getLastId(), chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            whitelistRules.execute(chunk);
+            final List<ViolationEntity> whitelisted = chunk.stream().filter(v -> v.getRuleEntity() != null).collect(toList());
+
+            checkpoint.setLastId(chunk.get(chunk.size() - 1).getId());
+            checkpoint.setProcessed(checkpoint.getProcessed() + chunk.size());
+            checkpoint.setLastModified(DateTime.now());
+
+            transactionTemplate.execute(status -> {
+                final int updated = violationRepository.whitelistViolations(whitelisted, MODIFIED_BY);
+                checkpoint.setUpdated(checkpoint.getUpdated() + updated);
+                return checkpointRepository.save(checkpoint);
+            });
+
+            if (++chunks % LOG_EVERY_CHUNKS == 0) {
+                log.info("{}: {} violations processed, {} whitelisted, last violation {}",
+                        getClass().getSimpleName(), checkpoint.getProcessed(), checkpoint.getUpdated(), checkpoint.getLastId());
+            }
+
+            if (chunk.size() < chunkSize || !pause()) {
+                break;
+            }
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            log.info("{} interrupted after violation {}, will resume from there", getClass().getSimpleName(), checkpoint.getLastId());
+            return;
+        }
+
+        if (checkpointRepository.exists(JOB_NAME)) {
+            checkpointRepository.delete(JOB_NAME);
+        }
+        log.info("Finished {}: {} violations processed, {} whitelisted",
+                getClass().getSimpleName(), checkpoint.getProcessed(), checkpoint.getUpdated());
+    }
+
+    private JobCheckpointEntity loadCheckpoint() {
+        final JobCheckpointEntity checkpoint = checkpointRepository.findOne(JOB_NAME);
+        return checkpoint != null ? checkpoint : new JobCheckpointEntity(JOB_NAME);
+    }
+
+    /**
+     * Leaves some room for the other users of the violation table between two chunks.
+     *
+     * @return false if interrupted
+     */
+    private boolean pause() {
+        final long pauseMillis = properties.getWhitelistBackfillPauseMillis();
+        if (pauseMillis <= 0) {
+            return true;
+        }
+
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.zalando.stups.fullstop.jobs.common;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs the units one after the other on the calling thread and rethrows their exceptions, so that a failing unit
+ * fails the test.
+ */
+public class DirectScanExecutor implements ScanExecutor {
+
+    @Override
+    public boolean scan(final String jobName, final String service, final Collection<String> accounts,
+                        final Collection<String> regions, final BiConsumer<String, String> unit) {
+        for (final String region : regions) {
+            for (final String account : accounts) {
+                unit.accept(account, region);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean scanAccounts(final String jobName, final String service, final Collection<String> accounts,
+                                final Consumer<String> unit) {
+        for (final String account : accounts) {
+            unit.accept(account);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeImagesRequest;
+import com.amazonaws.services.ec2.model.DescribeImagesResult;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Image;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.Reservation;
+import com.amazonaws.services.rds.AmazonRDSClient;
+import com.amazonaws.services.rds.model.DBInstance;
+import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
+import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.aws.ClientProvider;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+
+import static com.amazonaws.regions.Region.getRegion;
+import static com.amazonaws.regions.Regions.EU_WEST_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class AwsInventoryImplTest {
+
+    private static final String ACCOUNT = "123456789";
+    private static final Region REGION = getRegion(EU_WEST_1);
+
+    private ClientProvider clientProviderMock;
+    private AmazonEC2Client ec2ClientMock;
+    private AmazonRDSClient rdsClientMock;
+    private JobsProperties jobsProperties;
+
+    @Before
+    public void setUp() throws Exception {
+        clientProviderMock = mock(ClientProvider.class);
+        ec2ClientMock = mock(AmazonEC2Client.class);
+        rdsClientMock = mock(AmazonRDSClient.class);
+        jobsProperties = new JobsProperties();
+
+        when(clientProviderMock.getClient(eq(AmazonEC2Client.class), anyString(), any())).thenReturn(ec2ClientMock);
+        when(clientProviderMock.getClient(eq(AmazonRDSClient.class), anyString(), any())).thenReturn(rdsClientMock);
+
+        when(ec2ClientMock.describeInstances(new DescribeInstancesRequest()
+                .withMaxResults(AwsInventoryImpl.MAX_INSTANCES_PER_PAGE)))
+                .thenReturn(new DescribeInstancesResult()
+                        .withReservations(new Reservation().withInstances(instance("i-1", "ami-1")))
+                        .withNextToken("page-2"));
+        when(ec2ClientMock.describeInstances(new DescribeInstancesRequest()
+                .withMaxResults(AwsInventoryImpl.MAX_INSTANCES_PER_PAGE)
+                .withNextToken("page-2")))
+                .thenReturn(new DescribeInstancesResult()
+                        .withReservations(new Reservation().withInstances(instance("i-2", "ami-1"), instance("i-3", "ami-2"))));
+        when(ec2ClientMock.describeImages(any(DescribeImagesRequest.class)))
+                .thenReturn(new DescribeImagesResult().withImages(
+                        new Image().withImageId("ami-1").withName("Taupage-AMI-20160201-123456"),
+                        new Image().withImageId("ami-2").withName("Ubuntu")));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(ec2ClientMock, rdsClientMock);
+    }
+
+    @Test
+    public void testReadsAllPagesOfInstancesOnce() throws Exception {
+        final AwsInventoryImpl inventory = new AwsInventoryImpl(clientProviderMock, jobsProperties);
+
+        final InventorySnapshot snapshot = inventory.get(ACCOUNT, REGION);
+
+        assertThat(snapshot.getInstances()).extracting(Instance::getInstanceId).containsExactly("i-1", "i-2", "i-3");
+        assertThat(inventory.get(ACCOUNT, REGION)).isSameAs(snapshot);
+        assertThat(inventory.get(ACCOUNT, REGION).getInstance("i-3")).isPresent();
+
+        verify(ec2ClientMock, times(2)).describeInstances(any(DescribeInstancesRequest.class));
+    }
+
+    @Test
+    public void testDescribesImagesOfAllInstancesAtOnce() throws Exception {
+        final InventorySnapshot snapshot = new AwsInventoryImpl(clientProviderMock, jobsProperties).get(ACCOUNT, REGION);
+
+        assertThat(snapshot.getImage("ami-1")).isPresent();
+        assertThat(snapshot.getImage("ami-2")).isPresent();
+        assertThat(snapshot.getImage("ami-3")).isEmpty();
+
+        verify(ec2ClientMock, times(2)).describeInstances(any(DescribeInstancesRequest.class));
+        verify(ec2ClientMock).describeImages(any(DescribeImagesRequest.class));
+    }
+
+    @Test
+    public void testDescribesOnlyWhatIsAskedFor() throws Exception {
+        when(rdsClientMock.describeDBInstances(new DescribeDBInstancesRequest()))
+                .thenReturn(new DescribeDBInstancesResult()
+                        .withDBInstances(new DBInstance().withDBInstanceIdentifier("db-1"))
+                        .withMarker("page-2"));
+        when(rdsClientMock.describeDBInstances(new DescribeDBInstancesRequest().withMarker("page-2")))
+                .thenReturn(new DescribeDBInstancesResult()
+                        .withDBInstances(new DBInstance().withDBInstanceIdentifier("db-2")));
+
+        final InventorySnapshot snapshot = new AwsInventoryImpl(clientProviderMock, jobsProperties).get(ACCOUNT, REGION);
+
+        assertThat(snapshot.getDBInstances()).extracting(DBInstance::getDBInstanceIdentifier).containsExactly("db-1", "db-2");
+        assertThat(snapshot.getDBInstances()).hasSize(2);
+
+        verify(rdsClientMock, times(2)).describeDBInstances(any(DescribeDBInstancesRequest.class));
+    }
+
+    @Test
+    public void testTakesNewSnapshotAfterTimeToLive() throws Exception {
+        jobsProperties.setInventoryTtlSeconds(0);
+        final AwsInventoryImpl inventory = new AwsInventoryImpl(clientProviderMock, jobsProperties);
+
+        final InventorySnapshot first = inventory.get(ACCOUNT, REGION);
+        final InventorySnapshot second = inventory.get(ACCOUNT, REGION);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getVersion()).isGreaterThan(first.getVersion());
+    }
+
+    private static Instance instance(final String instanceId, final String imageId) {
+        return new Instance().withInstanceId(instanceId).withImageId(imageId);
+    }
+}
@@ -0,0 +1,91 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.jobs.common.FingerprintStore;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.violation.entity.ResourceFingerprintEntity;
+import org.zalando.stups.fullstop.violation.repository.ResourceFingerprintRepository;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FingerprintStoreImplTest {
+
+    private static final String JOB = "FetchEC2Job";
+
+    private static final String ACCOUNT = "123";
+
+    private static final String REGION = "eu-west-1";
+
+    private ResourceFingerprintRepository repository;
+
+    private FingerprintStoreImpl fingerprintStore;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = mock(ResourceFingerprintRepository.class);
+        fingerprintStore = new FingerprintStoreImpl(repository, new JobsProperties());
+    }
+
+    @Test
+    public void testUnknownResourceIsChanged() throws Exception {
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-1", "abc")).isFalse();
+    }
+
+    @Test
+    public void testCheckedResourceIsUnchangedUntilFingerprintChanges() throws Exception {
+        fingerprintStore.checked(JOB, ACCOUNT, REGION, "i-1", "abc");
+
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-1", "abc")).isTrue();
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-1", "def")).isFalse();
+        assertThat(fingerprintStore.isUnchanged("FetchAmiJob", ACCOUNT, REGION, "i-1", "abc")).isFalse();
+        verify(repository).save(any(ResourceFingerprintEntity.class));
+    }
+
+    @Test
+    public void testLoadsPersistedFingerprintsOnce() throws Exception {
+        when(repository.findByJobNameAndAccountIdAndRegion(JOB, ACCOUNT, REGION))
+                .thenReturn(singletonList(new ResourceFingerprintEntity(JOB, ACCOUNT, REGION, "i-1", "abc")));
+
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-1", "abc")).isTrue();
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-2", "abc")).isFalse();
+        verify(repository, times(1)).findByJobNameAndAccountIdAndRegion(JOB, ACCOUNT, REGION);
+    }
+
+    @Test
+    public void testOutdatedFingerprintIsChanged() throws Exception {
+        final ResourceFingerprintEntity entity = new ResourceFingerprintEntity(JOB, ACCOUNT, REGION, "i-1", "abc");
+        entity.setLastModified(DateTime.now().minusDays(1));
+        when(repository.findByJobNameAndAccountIdAndRegion(JOB, ACCOUNT, REGION)).thenReturn(singletonList(entity));
+
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-1", "abc")).isFalse();
+    }
+
+    @Test
+    public void testRetainForgetsRemovedResources() throws Exception {
+        fingerprintStore.checked(JOB, ACCOUNT, REGION, "i-1", "abc");
+        fingerprintStore.checked(JOB, ACCOUNT, REGION, "i-2", "abc");
+
+        fingerprintStore.retain(JOB, ACCOUNT, REGION, newHashSet("i-2"));
+
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-1", "abc")).isFalse();
+        assertThat(fingerprintStore.isUnchanged(JOB, ACCOUNT, REGION, "i-2", "abc")).isTrue();
+        verify(repository).delete(anyListOf(ResourceFingerprintEntity.class));
+    }
+
+    @Test
+    public void testFingerprintDependsOnOrderAndBoundaries() throws Exception {
+        assertThat(FingerprintStore.fingerprint("a", "b")).isEqualTo(FingerprintStore.fingerprint("a", "b"));
+        assertThat(FingerprintStore.fingerprint("a", "b")).isNotEqualTo(FingerprintStore.fingerprint("b", "a"));
+        assertThat(FingerprintStore.fingerprint("ab", "")).isNotEqualTo(FingerprintStore.fingerprint("a", "b"));
+    }
+}
@@ -0,0 +1,153 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.jobs.common.HttpCallResult;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class HttpProbeImplTest {
+
+    private CloseableHttpAsyncClient httpClient;
+
+    private HttpProbeImpl httpProbe;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        httpClient = mock(CloseableHttpAsyncClient.class);
+        doAnswer(invocation -> {
+            final HttpAsyncRequestProducer request = (HttpAsyncRequestProducer) invocation.getArguments()[0];
+            final FutureCallback<HttpResponse> callback = (FutureCallback<HttpResponse>) invocation.getArguments()[2];
+            switch (request.getTarget().getPort()) {
+                case 80:
+                    final HttpResponse redirect = new BasicHttpResponse(HttpVersion.HTTP_1_1, 301, "Moved Permanently");
+                    redirect.setHeader("Location", "https://example.com/");
+                    callback.completed(redirect);
+                    break;
+                case 443:
+                    callback.completed(new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"));
+                    break;
+                case 8080:
+                    callback.completed(new BasicHttpResponse(HttpVersion.HTTP_1_1, 401, "Unauthorized"));
+                    break;
+                default:
+                    callback.failed(new ConnectException("Connection refused"));
+            }
+            return null;
+        }).when(httpClient).execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any(FutureCallback.class));
+
+        httpProbe = new HttpProbeImpl(new JobsProperties(), httpClient);
+    }
+
+    @Test
+    public void testAggregatesResultsPerPort() throws Exception {
+        final Map<Integer, HttpCallResult> results = httpProbe.probe("example.com", asList(80, 443, 8080, 9999))
+                .get(5, SECONDS);
+
+        assertThat(results).containsOnlyKeys(80, 443, 8080, 9999);
+        assertThat(results.get(80).isOpen()).isFalse();
+        assertThat(results.get(443).isOpen()).isTrue();
+        assertThat(results.get(443).getMessage()).contains("https://example.com:443 returned status code 200");
+        assertThat(results.get(8080).isOpen()).isFalse();
+        assertThat(results.get(9999).isOpen()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRedirectToHttpIsOpen() throws Exception {
+        doAnswer(invocation -> {
+            final HttpResponse redirect = new BasicHttpResponse(HttpVersion.HTTP_1_1, 302, "Found");
+            redirect.setHeader("Location", "http://example.com/login");
+            ((FutureCallback<HttpResponse>) invocation.getArguments()[2]).completed(redirect);
+            return null;
+        }).when(httpClient).execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any(FutureCallback.class));
+
+        final HttpCallResult result = httpProbe.probe("example.com", asList(80)).get(5, SECONDS).get(80);
+
+        assertThat(result.isOpen()).isTrue();
+        assertThat(result.getMessage()).contains("unsafe protocol (http://example.com/login)");
+    }
+
+    @Test
+    public void testReleasesInFlightSlots() throws Exception {
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.setProbeMaxInFlight(1);
+        final HttpProbeImpl singleSlotProbe = new HttpProbeImpl(jobsProperties, httpClient);
+
+        // would block forever, if a finished probe did not give its slot back
+        assertThat(singleSlotProbe.probe("example.com", asList(80, 443, 8080, 9999)).get(5, SECONDS)).hasSize(4);
+    }
+
+    @Test(timeout = 5000)
+    public void testFailsResultsThatAreNotHandedOverAnyMore() throws Exception {
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.setProbeMaxInFlight(1);
+        final HttpProbeImpl singleSlotProbe = new HttpProbeImpl(jobsProperties, httpClient);
+        singleSlotProbe.shutdown();
+
+        // the callbacks are rejected instead of running on the I/O thread, and still give their slot back
+        assertThat(singleSlotProbe.probe("example.com", asList(80, 443, 8080, 9999)).isCompletedExceptionally())
+                .isTrue();
+    }
+
+    @Test(timeout = 5000)
+    @SuppressWarnings("unchecked")
+    public void testCompletesOnStatusLineAndDropsTheBody() throws Exception {
+        final IOControl ioControl = mock(IOControl.class);
+        doAnswer(invocation -> {
+            // a streaming endpoint, whose exchange does not end by itself
+            final HttpAsyncResponseConsumer<HttpResponse> consumer =
+                    (HttpAsyncResponseConsumer<HttpResponse>) invocation.getArguments()[1];
+            consumer.responseReceived(new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"));
+            consumer.consumeContent(mock(ContentDecoder.class), ioControl);
+            return null;
+        }).when(httpClient).execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any(FutureCallback.class));
+
+        final HttpCallResult result = httpProbe.probe("example.com", asList(443)).get(5, SECONDS).get(443);
+
+        assertThat(result.isOpen()).isTrue();
+        verify(ioControl).shutdown();
+    }
+
+    @Test(timeout = 5000)
+    @SuppressWarnings("unchecked")
+    public void testReleasesSlotIfClientRejectsRequest() throws Exception {
+        doThrow(new IllegalStateException("Request cannot be executed; I/O reactor status: STOPPED"))
+                .when(httpClient).execute(any(HttpAsyncRequestProducer.class), any(HttpAsyncResponseConsumer.class), any(FutureCallback.class));
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.setProbeMaxInFlight(1);
+        final HttpProbeImpl singleSlotProbe = new HttpProbeImpl(jobsProperties, httpClient);
+
+        // would block forever on the second port, if the first one kept its slot
+        assertThat(singleSlotProbe.probe("example.com", asList(80, 443)).isCompletedExceptionally()).isTrue();
+    }
+
+    @Test
+    public void testClosesClientOnShutdown() throws IOException {
+        httpProbe.shutdown();
+
+        verify(httpClient).close();
+    }
+}
@@ -0,0 +1,104 @@
+package org.zalando.stups.fullstop.jobs.common.impl;
+
+import com.amazonaws.AmazonServiceException;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.EC2;
+import static org.zalando.stups.fullstop.jobs.common.ScanExecutor.IAM;
+
+public class ScanExecutorImplTest {
+
+    private JobsProperties jobsProperties;
+
+    @Before
+    public void setUp() throws Exception {
+        jobsProperties = new JobsProperties();
+        jobsProperties.setScanBackoffMillis(0);
+        jobsProperties.setScanDefaultUnitsPerSecond(1000);
+    }
+
+    @Test
+    public void testScansEveryAccountInEveryRegion() throws Exception {
+        final Set<String> units = ConcurrentHashMap.newKeySet();
+
+        final boolean completed = new ScanExecutorImpl(jobsProperties)
+                .scan("job", EC2, asList("a1", "a2"), asList("eu-west-1", "eu-central-1"),
+                        (account, region) -> units.add(account + "/" + region));
+
+        assertThat(completed).isTrue();
+        assertThat(units).containsOnly("a1/eu-west-1", "a2/eu-west-1", "a1/eu-central-1", "a2/eu-central-1");
+    }
+
+    @Test
+    public void testRetriesThrottledUnits() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        new ScanExecutorImpl(jobsProperties).scanAccounts("job", IAM, singletonList("a1"), account -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw throttled();
+            }
+        });
+
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testGivesUpAfterMaxRetries() throws Exception {
+        jobsProperties.setScanMaxRetries(2);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        new ScanExecutorImpl(jobsProperties).scanAccounts("job", IAM, singletonList("a1"), account -> {
+            attempts.incrementAndGet();
+            throw throttled();
+        });
+
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testDoesNotRetryOtherFailures() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final Set<String> scanned = ConcurrentHashMap.newKeySet();
+
+        new ScanExecutorImpl(jobsProperties).scanAccounts("job", IAM, asList("a1", "a2"), account -> {
+            if (account.equals("a1")) {
+                attempts.incrementAndGet();
+                throw new AmazonServiceException("Access denied");
+            }
+            scanned.add(account);
+        });
+
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(scanned).containsOnly("a2");
+    }
+
+    @Test
+    public void testSkipsRunWhilePreviousRunIsActive() throws Exception {
+        final ScanExecutorImpl scanExecutor = new ScanExecutorImpl(jobsProperties);
+        final AtomicBoolean overlappingRunCompleted = new AtomicBoolean(true);
+
+        scanExecutor.scanAccounts("job", IAM, singletonList("a1"),
+                account -> overlappingRunCompleted.set(scanExecutor.scanAccounts("job", IAM, singletonList("a1"), a -> {
+                })));
+
+        assertThat(overlappingRunCompleted.get()).isFalse();
+        assertThat(scanExecutor.scanAccounts("job", IAM, singletonList("a1"), a -> {
+        })).isTrue();
+    }
+
+    private static AmazonServiceException throttled() {
+        final AmazonServiceException exception = new AmazonServiceException("Rate exceeded");
+        exception.setErrorCode("Throttling");
+        return exception;
+    }
+}
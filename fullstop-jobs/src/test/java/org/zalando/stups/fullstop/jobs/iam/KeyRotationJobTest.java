@@ -5,9 +5,11 @@ import com.amazonaws.services.identitymanagement.model.User;
 import org.junit.Before;
 import org.junit.Test;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.DirectScanExecutor;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 
 import java.util.Date;
+import java.util.stream.Stream;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Arrays.asList;
@@ -27,8 +29,8 @@ public class KeyRotationJobTest {
         mockViolationWriter = mock(KeyRotationViolationWriter.class);
         mockAccountIdSupplier = mock(AccountIdSupplier.class);
         when(mockAccountIdSupplier.get()).thenReturn(newHashSet("account01", "account02"));
-        when(mockIAMDataSource.getUsers(eq("account01"))).thenReturn(singletonList(new User()));
-        when(mockIAMDataSource.getUsers(eq("account02"))).thenReturn(asList(new User(), new User()));
+        when(mockIAMDataSource.getUsers(eq("account01"))).thenReturn(Stream.of(new User()));
+        when(mockIAMDataSource.getUsers(eq("account02"))).thenReturn(Stream.of(new User(), new User()));
         when(mockIAMDataSource.getAccessKeys(eq("account01"), any())).thenReturn(asList(
                 upToDate(active(new AccessKeyMetadata())),
                 expired(active(new AccessKeyMetadata())),
@@ -60,7 +62,8 @@ public class KeyRotationJobTest {
     @Test
     public void testSimple() {
 
-        new KeyRotationJob(mockIAMDataSource, mockViolationWriter, new JobsProperties(), mockAccountIdSupplier).run();
+        new KeyRotationJob(mockIAMDataSource, mockViolationWriter, new JobsProperties(), mockAccountIdSupplier,
+                new DirectScanExecutor()).run();
 
         verify(mockIAMDataSource, times(2)).getUsers(anyString());
         verify(mockIAMDataSource, times(3)).getAccessKeys(anyString(), anyString());
@@ -3,14 +3,19 @@ package org.zalando.stups.fullstop.jobs.iam;
 import com.amazonaws.services.identitymanagement.model.GetCredentialReportResult;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.DirectScanExecutor;
 import org.zalando.stups.fullstop.jobs.iam.csv.CSVReportEntry;
 import org.zalando.stups.fullstop.jobs.iam.csv.CredentialReportCSVParser;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 public class NoPasswordJobTest {
@@ -38,7 +43,8 @@ public class NoPasswordJobTest {
 
     @Test
     public void testNoPasswordJob() {
-        new NoPasswordsJob(iamDataSource, violationWriter, mockAccountIdSupplier, mockCsvParser).run();
+        new NoPasswordsJob(iamDataSource, violationWriter, mockAccountIdSupplier, mockCsvParser,
+                new DirectScanExecutor()).run();
 
         verify(mockAccountIdSupplier).get();
         verify(iamDataSource, times(2)).getCredentialReportCSV(anyString());
@@ -47,4 +53,24 @@ public class NoPasswordJobTest {
         verify(violationWriter).writeRootUserViolation(any(List.class));
         verify(violationWriter).writeNoPasswordViolation(eq("account02"), any());
     }
+
+    @Test
+    public void testRetriedUnitReportsRootUserOnce() {
+        when(mockAccountIdSupplier.get()).thenReturn(newHashSet("account01"));
+
+        // runs every unit twice, like a unit that is retried after it failed
+        new NoPasswordsJob(iamDataSource, violationWriter, mockAccountIdSupplier, mockCsvParser,
+                new DirectScanExecutor() {
+                    @Override
+                    public boolean scanAccounts(final String jobName, final String service,
+                                                final Collection<String> accounts, final Consumer<String> unit) {
+                        super.scanAccounts(jobName, service, accounts, unit);
+                        return super.scanAccounts(jobName, service, accounts, unit);
+                    }
+                }).run();
+
+        final ArgumentCaptor<List> metaInfoList = ArgumentCaptor.forClass(List.class);
+        verify(violationWriter).writeRootUserViolation(metaInfoList.capture());
+        assertThat(metaInfoList.getValue()).hasSize(1);
+    }
 }
@@ -1,39 +1,40 @@
 package org.zalando.stups.fullstop.jobs.rds;
 
 import com.amazonaws.regions.Region;
-import com.amazonaws.services.rds.AmazonRDSClient;
 import com.amazonaws.services.rds.model.DBInstance;
-import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
-import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
 import com.amazonaws.services.rds.model.Endpoint;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.jobs.common.AccountIdSupplier;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
+import org.zalando.stups.fullstop.jobs.common.DirectScanExecutor;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
 import org.zalando.stups.fullstop.jobs.config.JobsProperties;
 import org.zalando.stups.fullstop.violation.Violation;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
+import java.time.Instant;
+import java.util.List;
+
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.emptyList;
 import static org.mockito.Mockito.*;
 
 public class FetchRdsJobTest {
 
-    private ClientProvider clientProviderMock;
+    private AwsInventory awsInventoryMock;
     private JobsProperties jobsPropertiesMock;
     private ViolationSink violationSinkMock;
-    private AmazonRDSClient amazonRDSClientMock;
-    private DescribeDBInstancesResult describeDBInstancesResultMock;
+    private List<DBInstance> dbInstances;
     private AccountIdSupplier accountIdSupplierMock;
 
     @Before
     public void setUp() throws Exception {
-        this.clientProviderMock = mock(ClientProvider.class);
+        this.awsInventoryMock = mock(AwsInventory.class);
         this.jobsPropertiesMock = mock(JobsProperties.class);
         this.violationSinkMock = mock(ViolationSink.class);
-        this.amazonRDSClientMock = mock(AmazonRDSClient.class);
         this.accountIdSupplierMock = mock(AccountIdSupplier.class);
 
         when(accountIdSupplierMock.get()).thenReturn(newHashSet("54321"));
@@ -50,29 +51,30 @@ public class FetchRdsJobTest {
         final DBInstance dbInstance2 = new DBInstance();
         dbInstance2.setPubliclyAccessible(false);
         dbInstance2.setEndpoint(endpoint);
-        describeDBInstancesResultMock = new DescribeDBInstancesResult();
-        describeDBInstancesResultMock.setDBInstances(newArrayList(dbInstance1, dbInstance2));
-
-        // clientprovider
-        when(clientProviderMock.getClient(any(), any(String.class), any(Region.class))).thenReturn(amazonRDSClientMock);
+        dbInstances = newArrayList(dbInstance1, dbInstance2);
 
     }
 
     @After
     public void tearDown() throws Exception {
-        verifyNoMoreInteractions(accountIdSupplierMock, clientProviderMock, jobsPropertiesMock, violationSinkMock, amazonRDSClientMock);
+        verifyNoMoreInteractions(accountIdSupplierMock, awsInventoryMock, jobsPropertiesMock, violationSinkMock);
     }
 
     @Test
     public void testCheck() throws Exception {
-        final FetchRdsJob fetchRdsJob = new FetchRdsJob(accountIdSupplierMock, clientProviderMock, jobsPropertiesMock, violationSinkMock);
-        when(amazonRDSClientMock.describeDBInstances(any(DescribeDBInstancesRequest.class))).thenReturn(describeDBInstancesResultMock);
+        final FetchRdsJob fetchRdsJob = new FetchRdsJob(accountIdSupplierMock, awsInventoryMock, jobsPropertiesMock, violationSinkMock,
+                new DirectScanExecutor());
+        when(awsInventoryMock.get(any(String.class), any(Region.class))).thenReturn(snapshot(dbInstances));
         fetchRdsJob.run();
 
         verify(violationSinkMock, times(1)).put(any(Violation.class));
         verify(accountIdSupplierMock, times(1)).get();
-        verify(amazonRDSClientMock, times(1)).describeDBInstances(any(DescribeDBInstancesRequest.class));
         verify(jobsPropertiesMock, times(1)).getWhitelistedRegions();
-        verify(clientProviderMock, times(1)).getClient(any(), any(String.class), any(Region.class));
+        verify(awsInventoryMock, times(1)).get(any(String.class), any(Region.class));
+    }
+
+    private static InventorySnapshot snapshot(final List<DBInstance> dbInstances) {
+        return new InventorySnapshot("54321", null, 1, Instant.now(),
+                () -> emptyList(), instances -> emptyList(), () -> emptyList(), () -> emptyList(), () -> dbInstances);
     }
 }
@@ -0,0 +1,171 @@
+package org.zalando.stups.fullstop.jobs.recheck;
+
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.ec2.model.GroupIdentifier;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.elasticloadbalancing.model.LoadBalancerDescription;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.zalando.stups.fullstop.jobs.common.AwsInventory;
+import org.zalando.stups.fullstop.jobs.common.DirectScanExecutor;
+import org.zalando.stups.fullstop.jobs.common.InventorySnapshot;
+import org.zalando.stups.fullstop.jobs.common.ScanExecutor;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.jobs.ec2.FetchEC2Job;
+import org.zalando.stups.fullstop.jobs.elb.FetchElasticLoadBalancersJob;
+import org.zalando.stups.fullstop.jobs.rds.FetchRdsJob;
+import org.zalando.stups.fullstop.violation.entity.RecheckRequestEntity;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.DB_INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.SECURITY_GROUP;
+
+public class RecheckJobTest {
+
+    private static final String ACCOUNT = "54321";
+
+    private static final String REGION = "eu-west-1";
+
+    private RecheckRequestService recheckRequestServiceMock;
+
+    private AwsInventory awsInventoryMock;
+
+    private FetchEC2Job fetchEC2JobMock;
+
+    private FetchElasticLoadBalancersJob fetchElbJobMock;
+
+    private FetchRdsJob fetchRdsJobMock;
+
+    private JobsProperties jobsProperties;
+
+    private RecheckJob recheckJob;
+
+    @Before
+    public void setUp() throws Exception {
+        recheckRequestServiceMock = mock(RecheckRequestService.class);
+        awsInventoryMock = mock(AwsInventory.class);
+        fetchEC2JobMock = mock(FetchEC2Job.class);
+        fetchElbJobMock = mock(FetchElasticLoadBalancersJob.class);
+        fetchRdsJobMock = mock(FetchRdsJob.class);
+
+        jobsProperties = new JobsProperties();
+        jobsProperties.setWhitelistedRegions(newArrayList(REGION));
+
+        recheckJob = new RecheckJob(recheckRequestServiceMock, awsInventoryMock, jobsProperties,
+                new DirectScanExecutor(), fetchEC2JobMock, fetchElbJobMock, fetchRdsJobMock);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(recheckRequestServiceMock, awsInventoryMock, fetchEC2JobMock, fetchElbJobMock,
+                fetchRdsJobMock);
+    }
+
+    @Test
+    public void testNothingToRecheck() throws Exception {
+        when(recheckRequestServiceMock.peek(anyInt(), any(), any(), any())).thenReturn(emptyList());
+
+        recheckJob.run();
+
+        verify(recheckRequestServiceMock).discardOtherRegions(singletonList(REGION));
+        verify(recheckRequestServiceMock).peek(eq(500), eq(singletonList(REGION)), eq(DB_INSTANCE),
+                any(DateTime.class));
+    }
+
+    @Test
+    public void testRechecksResourcesUsingChangedSecurityGroup() throws Exception {
+        final RecheckRequestEntity securityGroup = new RecheckRequestEntity(ACCOUNT, REGION, SECURITY_GROUP, "sg-1");
+        final RecheckRequestEntity instance = new RecheckRequestEntity(ACCOUNT, REGION, INSTANCE, "i-3");
+        final RecheckRequestEntity dbInstance = new RecheckRequestEntity(ACCOUNT, REGION, DB_INSTANCE, "db-1");
+        when(recheckRequestServiceMock.peek(anyInt(), any(), any(), any()))
+                .thenReturn(newArrayList(securityGroup, instance, dbInstance));
+
+        final List<Instance> instances = newArrayList(
+                new Instance().withInstanceId("i-1").withSecurityGroups(new GroupIdentifier().withGroupId("sg-1")),
+                new Instance().withInstanceId("i-2").withSecurityGroups(new GroupIdentifier().withGroupId("sg-2")));
+        final List<LoadBalancerDescription> loadBalancers = newArrayList(
+                new LoadBalancerDescription().withLoadBalancerName("elb-1").withSecurityGroups("sg-1"));
+        when(awsInventoryMock.get(eq(ACCOUNT), any(Region.class))).thenReturn(new InventorySnapshot(ACCOUNT, null, 1,
+                Instant.now(), () -> instances, i -> emptyList(), () -> emptyList(), () -> loadBalancers, () -> emptyList()));
+
+        recheckJob.run();
+
+        verify(recheckRequestServiceMock).discardOtherRegions(singletonList(REGION));
+        verify(recheckRequestServiceMock).peek(eq(500), eq(singletonList(REGION)), eq(DB_INSTANCE),
+                any(DateTime.class));
+        verify(awsInventoryMock).invalidate(eq(ACCOUNT), any(Region.class));
+        verify(awsInventoryMock).get(eq(ACCOUNT), any(Region.class));
+        verify(fetchEC2JobMock).recheck(ACCOUNT, REGION, newHashSet("i-1", "i-3"));
+        verify(fetchElbJobMock).recheck(ACCOUNT, REGION, newHashSet("elb-1"));
+        verify(fetchRdsJobMock).recheck(ACCOUNT, REGION, newHashSet("db-1"));
+        verify(recheckRequestServiceMock).done(newArrayList(securityGroup, instance, dbInstance));
+    }
+
+    @Test
+    public void testDelaysRecentlyChangedDbInstances() throws Exception {
+        when(recheckRequestServiceMock.peek(anyInt(), any(), any(), any())).thenReturn(emptyList());
+
+        recheckJob.run();
+
+        final ArgumentCaptor<DateTime> createdBefore = ArgumentCaptor.forClass(DateTime.class);
+        verify(recheckRequestServiceMock).discardOtherRegions(singletonList(REGION));
+        verify(recheckRequestServiceMock).peek(eq(500), eq(singletonList(REGION)), eq(DB_INSTANCE),
+                createdBefore.capture());
+        assertThat(createdBefore.getValue()).isBefore(DateTime.now().minusMinutes(14));
+    }
+
+    @Test
+    public void testPostponesRequestsOfFailedUnit() throws Exception {
+        final RecheckRequestEntity instance = new RecheckRequestEntity(ACCOUNT, REGION, INSTANCE, "i-1");
+        when(recheckRequestServiceMock.peek(anyInt(), any(), any(), any())).thenReturn(singletonList(instance));
+        when(awsInventoryMock.get(eq(ACCOUNT), any(Region.class))).thenReturn(new InventorySnapshot(ACCOUNT, null, 1,
+                Instant.now(), () -> emptyList(), i -> emptyList(), () -> emptyList(), () -> emptyList(), () -> emptyList()));
+        doThrow(new IllegalStateException("failed")).when(fetchEC2JobMock).recheck(any(), any(), any());
+
+        // logs failed units and goes on, like the real executor
+        final ScanExecutor scanExecutor = new DirectScanExecutor() {
+            @Override
+            public boolean scan(final String jobName, final String service, final Collection<String> accounts,
+                                final Collection<String> regions, final BiConsumer<String, String> unit) {
+                return super.scan(jobName, service, accounts, regions, (account, region) -> {
+                    try {
+                        unit.accept(account, region);
+                    } catch (final IllegalStateException ignored) {
+                    }
+                });
+            }
+        };
+        new RecheckJob(recheckRequestServiceMock, awsInventoryMock, jobsProperties, scanExecutor, fetchEC2JobMock,
+                fetchElbJobMock, fetchRdsJobMock).run();
+
+        verify(recheckRequestServiceMock).discardOtherRegions(singletonList(REGION));
+        verify(recheckRequestServiceMock).peek(eq(500), eq(singletonList(REGION)), eq(DB_INSTANCE),
+                any(DateTime.class));
+        verify(awsInventoryMock).invalidate(eq(ACCOUNT), any(Region.class));
+        verify(awsInventoryMock).get(eq(ACCOUNT), any(Region.class));
+        verify(fetchEC2JobMock).recheck(ACCOUNT, REGION, newHashSet("i-1"));
+        verify(recheckRequestServiceMock).failed(singletonList(instance), 5, 60000);
+    }
+}
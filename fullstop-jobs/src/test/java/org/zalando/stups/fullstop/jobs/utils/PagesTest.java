@@ -0,0 +1,64 @@
+package org.zalando.stups.fullstop.jobs.utils;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PagesTest {
+
+    private static final Map<String, Page> PAGES = ImmutableMap.of(
+            "", new Page(asList("a", "b"), "2"),
+            "2", new Page(emptyList(), "3"),
+            "3", new Page(asList("c"), null));
+
+    @Test
+    public void testStreamsAllPages() throws Exception {
+        final List<String> requested = newArrayList();
+
+        final List<String> items = stream(requested).collect(toList());
+
+        assertThat(items).containsExactly("a", "b", "c");
+        assertThat(requested).containsExactly("", "2", "3");
+    }
+
+    @Test
+    public void testRequestsPagesOnlyWhenNeeded() throws Exception {
+        final List<String> requested = newArrayList();
+
+        final Stream<String> items = stream(requested);
+        assertThat(requested).isEmpty();
+
+        assertThat(items.limit(2).collect(toList())).containsExactly("a", "b");
+        assertThat(requested).containsExactly("");
+    }
+
+    private static Stream<String> stream(final List<String> requested) {
+        return Pages.stream(
+                marker -> {
+                    final String key = marker == null ? "" : marker;
+                    requested.add(key);
+                    return PAGES.get(key);
+                },
+                page -> page.items,
+                page -> page.marker);
+    }
+
+    private static class Page {
+        private final List<String> items;
+        private final String marker;
+
+        private Page(final List<String> items, final String marker) {
+            this.items = items;
+            this.marker = marker;
+        }
+    }
+}
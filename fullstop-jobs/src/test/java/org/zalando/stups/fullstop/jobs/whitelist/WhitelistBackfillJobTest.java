@@ -0,0 +1,119 @@
+package org.zalando.stups.fullstop.jobs.whitelist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.zalando.stups.fullstop.jobs.config.JobsProperties;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.violation.entity.JobCheckpointEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.repository.JobCheckpointRepository;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.whitelist.CompiledWhitelistRules;
+import org.zalando.stups.fullstop.whitelist.WhitelistRules;
+import org.zalando.stups.fullstop.whitelist.WhitelistRulesEvaluator;
+
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.*;
+
+public class WhitelistBackfillJobTest {
+
+    private ViolationRepository mockViolationRepository;
+    private JobCheckpointRepository mockCheckpointRepository;
+    private WhitelistRules mockWhitelistRules;
+    private PlatformTransactionManager mockTransactionManager;
+    private JobsProperties properties;
+    private RuleEntity rule;
+
+    @Before
+    public void setUp() throws Exception {
+        mockViolationRepository = mock(ViolationRepository.class);
+        mockCheckpointRepository = mock(JobCheckpointRepository.class);
+        mockWhitelistRules = mock(WhitelistRules.class);
+        mockTransactionManager = mock(PlatformTransactionManager.class);
+
+        properties = new JobsProperties();
+        properties.setWhitelistBackfillChunkSize(2);
+        properties.setWhitelistBackfillPauseMillis(0);
+
+        rule = new RuleEntity();
+        rule.setId(1L);
+        rule.setAccountId("1234");
+
+        when(mockWhitelistRules.getCompiledRules())
+                .thenReturn(CompiledWhitelistRules.compile(singletonList(rule), new WhitelistRulesEvaluator()));
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final Collection<ViolationEntity> violations = (Collection<ViolationEntity>) invocation.getArguments()[0];
+            violations.stream().filter(v -> "1234".equals(v.getAccountId())).forEach(v -> v.setRuleEntity(rule));
+            return null;
+        }).when(mockWhitelistRules).execute(anyListOf(ViolationEntity.class));
+        when(mockViolationRepository.whitelistViolations(anyListOf(ViolationEntity.class), anyString()))
+                .then(invocation -> ((List<?>) invocation.getArguments()[0]).size());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(mockViolationRepository, mockCheckpointRepository);
+    }
+
+    @Test
+    public void testWhitelistsChunkByChunk() throws Exception {
+        final ViolationEntity first = violation(10L, "1234");
+        final ViolationEntity second = violation(11L, "5678");
+        final ViolationEntity third = violation(12L, "1234");
+        when(mockViolationRepository.findOpenViolations(0L, 2)).thenReturn(asList(first, second));
+        when(mockViolationRepository.findOpenViolations(11L, 2)).thenReturn(singletonList(third));
+        when(mockCheckpointRepository.exists(WhitelistBackfillJob.JOB_NAME)).thenReturn(true);
+
+        newJob().run();
+
+        verify(mockCheckpointRepository).findOne(WhitelistBackfillJob.JOB_NAME);
+        verify(mockViolationRepository).findOpenViolations(0L, 2);
+        verify(mockViolationRepository).findOpenViolations(11L, 2);
+        verify(mockViolationRepository).whitelistViolations(singletonList(first), WhitelistBackfillJob.MODIFIED_BY);
+        verify(mockViolationRepository).whitelistViolations(singletonList(third), WhitelistBackfillJob.MODIFIED_BY);
+        verify(mockCheckpointRepository, times(2)).save(any(JobCheckpointEntity.class));
+        verify(mockCheckpointRepository).exists(WhitelistBackfillJob.JOB_NAME);
+        verify(mockCheckpointRepository).delete(WhitelistBackfillJob.JOB_NAME);
+    }
+
+    @Test
+    public void testResumesAfterCheckpoint() throws Exception {
+        final JobCheckpointEntity checkpoint = new JobCheckpointEntity(WhitelistBackfillJob.JOB_NAME);
+        checkpoint.setLastId(42L);
+        when(mockCheckpointRepository.findOne(WhitelistBackfillJob.JOB_NAME)).thenReturn(checkpoint);
+        when(mockViolationRepository.findOpenViolations(42L, 2)).thenReturn(emptyList());
+
+        newJob().run();
+
+        verify(mockCheckpointRepository).findOne(WhitelistBackfillJob.JOB_NAME);
+        verify(mockViolationRepository).findOpenViolations(42L, 2);
+        verify(mockCheckpointRepository).exists(WhitelistBackfillJob.JOB_NAME);
+    }
+
+    @Test
+    public void testSkipsWithoutRules() throws Exception {
+        when(mockWhitelistRules.getCompiledRules())
+                .thenReturn(CompiledWhitelistRules.compile(emptyList(), new WhitelistRulesEvaluator()));
+
+        newJob().run();
+    }
+
+    private WhitelistBackfillJob newJob() {
+        return new WhitelistBackfillJob(mockViolationRepository, mockCheckpointRepository, mockWhitelistRules,
+                mockTransactionManager, properties);
+    }
+
+    private static ViolationEntity violation(final Long id, final String accountId) {
+        final ViolationEntity violation = new ViolationEntity(null, accountId, "eu-west-1", null, null, null, null, null, null, null);
+        violation.setId(id);
+        return violation;
+    }
+}
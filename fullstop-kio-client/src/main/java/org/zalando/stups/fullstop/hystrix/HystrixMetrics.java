@@ -0,0 +1,43 @@
+package org.zalando.stups.fullstop.hystrix;
+
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.netflix.hystrix.util.HystrixRollingNumberEvent;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Latency percentiles and errors of every hystrix command, and the usage of every thread pool, so that each downstream
+ * service can be watched on its own.
+ */
+public class HystrixMetrics implements PublicMetrics {
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+
+        for (final HystrixCommandMetrics command : HystrixCommandMetrics.getInstances()) {
+            final String prefix = "hystrix.command." + command.getCommandKey().name();
+            metrics.add(new Metric<>(prefix + ".latency.p50", command.getExecutionTimePercentile(50)));
+            metrics.add(new Metric<>(prefix + ".latency.p90", command.getExecutionTimePercentile(90)));
+            metrics.add(new Metric<>(prefix + ".latency.p99", command.getExecutionTimePercentile(99)));
+            metrics.add(new Metric<>(prefix + ".requests", command.getHealthCounts().getTotalRequests()));
+            metrics.add(new Metric<>(prefix + ".errorPercentage", command.getHealthCounts().getErrorPercentage()));
+            metrics.add(new Metric<>(prefix + ".rejected",
+                    command.getRollingCount(HystrixRollingNumberEvent.THREAD_POOL_REJECTED)));
+        }
+
+        for (final HystrixThreadPoolMetrics threadPool : HystrixThreadPoolMetrics.getInstances()) {
+            final String prefix = "hystrix.threadpool." + threadPool.getThreadPoolKey().name();
+            metrics.add(new Metric<>(prefix + ".activeCount", threadPool.getCurrentActiveCount()));
+            metrics.add(new Metric<>(prefix + ".queueSize", threadPool.getCurrentQueueSize()));
+            metrics.add(new Metric<>(prefix + ".poolSize", threadPool.getCurrentPoolSize()));
+        }
+
+        return metrics;
+    }
+}
@@ -0,0 +1,219 @@
+package org.zalando.stups.fullstop.kio;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.zalando.stups.clients.kio.*;
+
+import javax.annotation.Nonnull;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Caches applications, versions and approvals by application id, so that all instances of an application share one
+ * lookup.
+ * <p>
+ * Entries older than {@link KioCacheProperties#getRefreshMinutes()} are still returned, while they are reloaded in the
+ * background. In addition, the applications modified in Kio are listed every
+ * {@link KioCacheProperties#getPrefetchMinutes()}, and reloaded if they are cached. Everything else is passed through.
+ */
+public class CachingKioOperations implements KioOperations, PublicMetrics {
+
+    // listing the modified applications may overlap a bit, in case the clocks differ
+    private static final long PREFETCH_OVERLAP_MINUTES = 1;
+
+    private final Logger log = getLogger(getClass());
+
+    private final KioOperations delegate;
+
+    private final ScheduledExecutorService refresher = newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("kio-cache-refresher").setDaemon(true).build());
+
+    private final LoadingCache<String, Optional<Application>> applications;
+
+    private final LoadingCache<List<String>, Optional<Version>> versions;
+
+    private final LoadingCache<List<String>, List<Approval>> approvals;
+
+    private volatile ZonedDateTime lastPrefetch;
+
+    public CachingKioOperations(final KioOperations delegate, final KioCacheProperties properties) {
+        this.delegate = delegate;
+        this.applications = newCache(properties, properties.getMaxApplications(),
+                id -> Optional.ofNullable(delegate.getApplicationById(id)));
+        this.versions = newCache(properties, properties.getMaxVersions(),
+                key -> Optional.ofNullable(delegate.getApplicationVersion(key.get(0), key.get(1))));
+        this.approvals = newCache(properties, properties.getMaxVersions(),
+                key -> Optional.ofNullable(delegate.getApplicationVersionApprovals(key.get(0), key.get(1)))
+                        .orElse(emptyList()));
+
+        if (properties.getPrefetchMinutes() > 0) {
+            refresher.scheduleWithFixedDelay(this::prefetch, 0, properties.getPrefetchMinutes(), MINUTES);
+        }
+    }
+
+    private <K, V> LoadingCache<K, V> newCache(final KioCacheProperties properties, final long maxSize,
+                                               final Function<K, V> load) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(properties.getRefreshMinutes(), MINUTES)
+                .expireAfterWrite(properties.getExpireMinutes(), MINUTES)
+                .recordStats()
+                .build(CacheLoader.asyncReloading(new CacheLoader<K, V>() {
+                    @Override
+                    public V load(@Nonnull final K key) {
+                        return load.apply(key);
+                    }
+                }, refresher));
+    }
+
+    /**
+     * Reloads the cached applications that were modified in Kio since the last run. The first run only remembers when
+     * it happened.
+     */
+    void prefetch() {
+        final ZonedDateTime now = ZonedDateTime.now(UTC);
+        final ZonedDateTime since = lastPrefetch;
+        lastPrefetch = now;
+        if (since == null) {
+            return;
+        }
+
+        try {
+            final List<ApplicationBase> modified = delegate.listApplications(
+                    Optional.empty(), Optional.of(since.minusMinutes(PREFETCH_OVERLAP_MINUTES)));
+            final List<String> cached = modified.stream()
+                    .map(ApplicationBase::getId)
+                    .filter(Objects::nonNull)
+                    .filter(id -> applications.getIfPresent(id) != null)
+                    .collect(toList());
+            cached.forEach(applications::refresh);
+            log.debug("Reloading {} of {} applications modified since {}", cached.size(), modified.size(), since);
+        } catch (final RuntimeException e) {
+            // next time, list everything modified since the last successful run
+            lastPrefetch = since;
+            log.warn("Could not list the applications modified since {}: {}", since, e.toString());
+        }
+    }
+
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public List<ApplicationBase> listApplications() {
+        return delegate.listApplications();
+    }
+
+    @Override
+    public List<ApplicationBase> listApplications(final Optional<ZonedDateTime> modifiedBefore, final Optional<ZonedDateTime> modifiedAfter) {
+        return delegate.listApplications(modifiedBefore, modifiedAfter);
+    }
+
+    @Override
+    public List<ApplicationSearchResult> searchApplications(final String query, final Optional<ZonedDateTime> modifiedBefore, final Optional<ZonedDateTime> modifiedAfter) {
+        return delegate.searchApplications(query, modifiedBefore, modifiedAfter);
+    }
+
+    @Override
+    public Application getApplicationById(final String applicationId) {
+        return get(applications, applicationId).orElse(null);
+    }
+
+    @Override
+    public void createOrUpdateApplication(final CreateOrUpdateApplicationRequest request, final String applicationId) {
+        delegate.createOrUpdateApplication(request, applicationId);
+        applications.invalidate(applicationId);
+    }
+
+    @Override
+    public List<String> getApplicationApprovalTypes(final String applicationId) {
+        return delegate.getApplicationApprovalTypes(applicationId);
+    }
+
+    @Override
+    public List<VersionBase> getApplicationVersions(final String applicationId) {
+        return delegate.getApplicationVersions(applicationId);
+    }
+
+    @Override
+    public Version getApplicationVersion(final String applicationId, final String versionId) {
+        return get(versions, asList(applicationId, versionId)).orElse(null);
+    }
+
+    @Override
+    public void createOrUpdateVersion(final CreateOrUpdateVersionRequest request, final String applicationId,
+            final String versionId) {
+        delegate.createOrUpdateVersion(request, applicationId, versionId);
+        versions.invalidate(asList(applicationId, versionId));
+    }
+
+    @Override
+    public List<Approval> getApplicationVersionApprovals(final String applicationId, final String versionId) {
+        return get(approvals, asList(applicationId, versionId));
+    }
+
+    @Override
+    public void approveApplicationVersion(final ApprovalBase request, final String applicationId,
+            final String versionId) {
+        delegate.approveApplicationVersion(request, applicationId, versionId);
+        approvals.invalidate(asList(applicationId, versionId));
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+        addMetrics(metrics, "kio.applications", applications.size(), applications.stats());
+        addMetrics(metrics, "kio.versions", versions.size(), versions.stats());
+        addMetrics(metrics, "kio.approvals", approvals.size(), approvals.stats());
+        return metrics;
+    }
+
+    /**
+     * Rethrows the failure of the delegate, e.g. a {@link NotFoundException}, as it would have been thrown without
+     * the cache. Failures are not cached.
+     */
+    private static <K, V> V get(final LoadingCache<K, V> cache, final K key) {
+        try {
+            return cache.get(key);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void addMetrics(final List<Metric<?>> metrics, final String prefix, final long size,
+                                   final CacheStats stats) {
+        metrics.add(new Metric<>(prefix + ".size", size));
+        metrics.add(new Metric<>(prefix + ".hits", stats.hitCount()));
+        metrics.add(new Metric<>(prefix + ".misses", stats.missCount()));
+        metrics.add(new Metric<>(prefix + ".hitRate", stats.hitRate()));
+        metrics.add(new Metric<>(prefix + ".loads.failed", stats.loadExceptionCount()));
+        metrics.add(new Metric<>(prefix + ".loads.avgMillis", NANOSECONDS.toMillis((long) stats.averageLoadPenalty())));
+        metrics.add(new Metric<>(prefix + ".evictions", stats.evictionCount()));
+    }
+}
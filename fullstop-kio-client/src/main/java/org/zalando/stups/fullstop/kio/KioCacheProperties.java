@@ -0,0 +1,57 @@
+package org.zalando.stups.fullstop.kio;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizing and freshness of the {@link CachingKioOperations}.
+ */
+@ConfigurationProperties(prefix = "fullstop.clients.kio.cache")
+public class KioCacheProperties {
+    private long maxApplications = 5000;
+    private long maxVersions = 20000;
+    // after this time an entry is still returned, but reloaded in the background
+    private long refreshMinutes = 30;
+    private long expireMinutes = 360;
+    // applications modified in kio since the last run are reloaded
+    private long prefetchMinutes = 5;
+
+    public long getMaxApplications() {
+        return maxApplications;
+    }
+
+    public void setMaxApplications(final long maxApplications) {
+        this.maxApplications = maxApplications;
+    }
+
+    public long getMaxVersions() {
+        return maxVersions;
+    }
+
+    public void setMaxVersions(final long maxVersions) {
+        this.maxVersions = maxVersions;
+    }
+
+    public long getRefreshMinutes() {
+        return refreshMinutes;
+    }
+
+    public void setRefreshMinutes(final long refreshMinutes) {
+        this.refreshMinutes = refreshMinutes;
+    }
+
+    public long getExpireMinutes() {
+        return expireMinutes;
+    }
+
+    public void setExpireMinutes(final long expireMinutes) {
+        this.expireMinutes = expireMinutes;
+    }
+
+    public long getPrefetchMinutes() {
+        return prefetchMinutes;
+    }
+
+    public void setPrefetchMinutes(final long prefetchMinutes) {
+        this.prefetchMinutes = prefetchMinutes;
+    }
+}
@@ -0,0 +1,73 @@
+package org.zalando.stups.fullstop.hystrix;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.netflix.hystrix.EnableHystrix;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.zalando.stups.clients.kio.Application;
+import org.zalando.stups.clients.kio.KioOperations;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link HystrixKioOperations} as a spring bean, the way the applications do.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+public class HystrixKioOperationsIsolationTest {
+
+    @Autowired
+    private KioOperations kioDelegate;
+
+    @Autowired
+    private KioOperations hystrixKioOperations;
+
+    @Before
+    public void setUp() throws Exception {
+        reset(kioDelegate);
+    }
+
+    @Test
+    public void testIsProxied() throws Exception {
+        assertThat(AopUtils.isAopProxy(hystrixKioOperations)).isTrue();
+    }
+
+    @Test
+    public void testCallsRunOnTheKioThreadPool() throws Exception {
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        when(kioDelegate.getApplicationById("fullstop")).thenAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            return new Application();
+        });
+
+        assertThat(hystrixKioOperations.getApplicationById("fullstop")).isNotNull();
+
+        assertThat(threadName.get()).startsWith("hystrix-kio-");
+    }
+
+    @Configuration
+    @EnableHystrix
+    @EnableAspectJAutoProxy
+    static class TestConfig {
+
+        @Bean KioOperations kioDelegate() {
+            return mock(KioOperations.class);
+        }
+
+        @Bean KioOperations hystrixKioOperations() {
+            return new HystrixKioOperations(kioDelegate());
+        }
+    }
+}
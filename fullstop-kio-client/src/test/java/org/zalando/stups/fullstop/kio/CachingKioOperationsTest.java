@@ -0,0 +1,125 @@
+package org.zalando.stups.fullstop.kio;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.zalando.stups.clients.kio.Application;
+import org.zalando.stups.clients.kio.ApplicationBase;
+import org.zalando.stups.clients.kio.KioOperations;
+import org.zalando.stups.clients.kio.NotFoundException;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingKioOperationsTest {
+
+    private KioOperations kioMock;
+
+    private CachingKioOperations kio;
+
+    @Before
+    public void setUp() throws Exception {
+        kioMock = mock(KioOperations.class);
+        final KioCacheProperties properties = new KioCacheProperties();
+        properties.setPrefetchMinutes(0);
+        kio = new CachingKioOperations(kioMock, properties);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        kio.shutdown();
+    }
+
+    @Test
+    public void testApplicationIsLoadedOnce() throws Exception {
+        final Application application = mock(Application.class);
+        when(kioMock.getApplicationById("fullstop")).thenReturn(application);
+
+        assertThat(kio.getApplicationById("fullstop")).isSameAs(application);
+        assertThat(kio.getApplicationById("fullstop")).isSameAs(application);
+
+        verify(kioMock, times(1)).getApplicationById("fullstop");
+        assertThat(kio.metrics())
+                .extracting(Metric::getName)
+                .contains("kio.applications.hits", "kio.applications.hitRate", "kio.versions.size");
+    }
+
+    @Test
+    public void testConcurrentLookupsAreCollapsed() throws Exception {
+        final Application application = mock(Application.class);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(kioMock.getApplicationById("fullstop")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, SECONDS);
+            return application;
+        });
+
+        final ExecutorService executor = newFixedThreadPool(2);
+        try {
+            final Future<Application> first = executor.submit(() -> kio.getApplicationById("fullstop"));
+            assertThat(loading.await(5, SECONDS)).isTrue();
+            final Future<Application> second = executor.submit(() -> kio.getApplicationById("fullstop"));
+            release.countDown();
+
+            assertThat(first.get(5, SECONDS)).isSameAs(application);
+            assertThat(second.get(5, SECONDS)).isSameAs(application);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(kioMock, times(1)).getApplicationById("fullstop");
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void testNotFoundIsRethrown() throws Exception {
+        when(kioMock.getApplicationById("unknown")).thenThrow(mock(NotFoundException.class));
+
+        kio.getApplicationById("unknown");
+    }
+
+    @Test
+    public void testPrefetchReloadsModifiedApplications() throws Exception {
+        final ApplicationBase modified = mock(ApplicationBase.class);
+        when(modified.getId()).thenReturn("fullstop");
+        final ApplicationBase notCached = mock(ApplicationBase.class);
+        when(notCached.getId()).thenReturn("other");
+        when(kioMock.getApplicationById("fullstop")).thenReturn(mock(Application.class));
+        when(kioMock.listApplications(eq(Optional.empty()), any())).thenReturn(asList(modified, notCached));
+
+        kio.getApplicationById("fullstop");
+        kio.prefetch(); // only remembers the time
+        verify(kioMock, never()).listApplications(any(), any());
+
+        kio.prefetch();
+
+        verify(kioMock, timeout(5000).times(2)).getApplicationById("fullstop");
+        verify(kioMock, never()).getApplicationById("other");
+    }
+
+    @Test
+    public void testApprovalsAreLoadedOncePerVersion() throws Exception {
+        kio.getApplicationVersionApprovals("fullstop", "1.0");
+        kio.getApplicationVersionApprovals("fullstop", "1.0");
+        kio.getApplicationVersionApprovals("fullstop", "2.0");
+
+        verify(kioMock, times(1)).getApplicationVersionApprovals("fullstop", "1.0");
+        verify(kioMock, times(1)).getApplicationVersionApprovals("fullstop", "2.0");
+    }
+}
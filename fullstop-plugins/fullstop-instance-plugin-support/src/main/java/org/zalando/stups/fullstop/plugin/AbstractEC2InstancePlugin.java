@@ -5,9 +5,13 @@ import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent
 
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toSet;
 
 public abstract class AbstractEC2InstancePlugin extends AbstractFullstopPlugin {
 
+    protected static final String EC2_SOURCE_EVENTS = "ec2.amazonaws.com";
     protected static final String START_INSTANCES = "StartInstances";
     protected static final String RUN_INSTANCES = "RunInstances";
     protected static final String STOP_INSTANCES = "StopInstances";
@@ -23,12 +27,24 @@ public abstract class AbstractEC2InstancePlugin extends AbstractFullstopPlugin {
     public boolean supports(final CloudTrailEvent cloudTrailEvent) {
         return Optional.ofNullable(cloudTrailEvent)
                 .map(CloudTrailEvent::getEventData)
-                .filter(e -> "ec2.amazonaws.com".equals(e.getEventSource()))
+                .filter(e -> EC2_SOURCE_EVENTS.equals(e.getEventSource()))
                 .map(CloudTrailEventData::getEventName)
                 .filter(supportsEventName())
                 .isPresent();
     }
 
+    /**
+     * Routes the instance lifecycle events accepted by {@link #supportsEventName()} to this plugin.
+     */
+    @Override
+    public EventSelector getEventSelector() {
+        return EventSelector.of(
+                EC2_SOURCE_EVENTS,
+                Stream.of(RUN_INSTANCES, START_INSTANCES, STOP_INSTANCES, TERMINATE_INSTANCES)
+                        .filter(supportsEventName())
+                        .collect(toSet()));
+    }
+
     protected abstract Predicate<? super String> supportsEventName();
 
     @Override
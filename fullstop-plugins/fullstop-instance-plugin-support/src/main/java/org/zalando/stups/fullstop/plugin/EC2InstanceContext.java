@@ -21,6 +21,11 @@ public interface EC2InstanceContext {
 
     String getInstanceJson();
 
+    /**
+     * @return the attributes of {@link #getInstanceJson()}, without parsing it again
+     */
+    EC2InstanceItem getInstance();
+
     String getInstanceId();
 
     Optional<String> getAmiId();
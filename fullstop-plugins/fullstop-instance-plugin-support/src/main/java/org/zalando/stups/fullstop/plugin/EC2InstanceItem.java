@@ -0,0 +1,145 @@
+package org.zalando.stups.fullstop.plugin;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import org.joda.time.DateTime;
+import org.zalando.stups.fullstop.events.JsonDocuments;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The attributes of one "item" in the responseElements $.instancesSet.items of a CloudTrailEvent, read once when the
+ * {@link EC2InstanceContext} is created. Missing attributes are null.
+ */
+public final class EC2InstanceItem {
+
+    private static final EC2InstanceItem EMPTY = new EC2InstanceItem(null, null, null, null, emptyList(), null);
+
+    private static final JsonPath INSTANCE_ID = JsonDocuments.compile("$.instanceId");
+
+    private static final JsonPath IMAGE_ID = JsonDocuments.compile("$.imageId");
+
+    private static final JsonPath KEY_NAME = JsonDocuments.compile("$.keyName");
+
+    private static final JsonPath LAUNCH_TIME = JsonDocuments.compile("$.launchTime");
+
+    private static final JsonPath GROUP_IDS = JsonDocuments.compile("$.groupSet.items[*].groupId");
+
+    private static final JsonPath SUBNET_ID = JsonDocuments.compile("$.subnetId");
+
+    private final String instanceId;
+
+    private final String imageId;
+
+    private final String keyName;
+
+    private final DateTime launchTime;
+
+    private final List<String> securityGroupIds;
+
+    private final String subnetId;
+
+    public EC2InstanceItem(final String instanceId, final String imageId, final String keyName,
+                           final DateTime launchTime, final List<String> securityGroupIds, final String subnetId) {
+        this.instanceId = instanceId;
+        this.imageId = imageId;
+        this.keyName = keyName;
+        this.launchTime = launchTime;
+        this.securityGroupIds = unmodifiableList(securityGroupIds);
+        this.subnetId = subnetId;
+    }
+
+    /**
+     * @return the attributes of the given instance json, all of them null if the json is empty or invalid
+     */
+    public static EC2InstanceItem of(final String instanceJson) {
+        if (isNullOrEmpty(instanceJson)) {
+            return EMPTY;
+        }
+
+        final Object document;
+        try {
+            document = JsonDocuments.parse(instanceJson);
+        } catch (final JsonPathException ignored) {
+            return EMPTY;
+        }
+
+        return new EC2InstanceItem(
+                read(document, INSTANCE_ID, String.class),
+                read(document, IMAGE_ID, String.class),
+                read(document, KEY_NAME, String.class),
+                read(document, LAUNCH_TIME, Number.class).map(time -> new DateTime(time.longValue())).orElse(null),
+                read(document, GROUP_IDS, Collection.class)
+                        .map(ids -> ((Collection<?>) ids).stream().map(String::valueOf).collect(toList()))
+                        .orElse(emptyList()),
+                read(document, SUBNET_ID, String.class));
+    }
+
+    private static <T> Optional<T> read(final Object document, final JsonPath path, final Class<T> type) {
+        try {
+            final Object value = path.read(document);
+            return type.isInstance(value) ? Optional.of(type.cast(value)) : Optional.empty();
+        } catch (final JsonPathException ignored) {
+            return Optional.empty();
+        }
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getImageId() {
+        return imageId;
+    }
+
+    public String getKeyName() {
+        return keyName;
+    }
+
+    public DateTime getLaunchTime() {
+        return launchTime;
+    }
+
+    public List<String> getSecurityGroupIds() {
+        return securityGroupIds;
+    }
+
+    public String getSubnetId() {
+        return subnetId;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final EC2InstanceItem that = (EC2InstanceItem) o;
+        return Objects.equals(instanceId, that.instanceId) &&
+                Objects.equals(imageId, that.imageId) &&
+                Objects.equals(keyName, that.keyName) &&
+                Objects.equals(launchTime, that.launchTime) &&
+                Objects.equals(securityGroupIds, that.securityGroupIds) &&
+                Objects.equals(subnetId, that.subnetId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(instanceId, imageId, keyName, launchTime, securityGroupIds, subnetId);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("instanceId", instanceId)
+                .add("imageId", imageId)
+                .toString();
+    }
+}
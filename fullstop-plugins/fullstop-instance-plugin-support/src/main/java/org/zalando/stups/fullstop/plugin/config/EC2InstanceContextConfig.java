@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.zalando.stups.clients.kio.KioOperations;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
@@ -13,6 +14,8 @@ import org.zalando.stups.fullstop.plugin.provider.*;
 import org.zalando.stups.fullstop.plugin.provider.impl.*;
 import org.zalando.stups.pierone.client.PieroneOperations;
 
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -27,6 +30,21 @@ public class EC2InstanceContextConfig {
     @Autowired
     private Function<String, PieroneOperations> pieroneOperationsProvider;
 
+    @Value("${fullstop.plugins.instanceContext.enrichment.poolSize:16}")
+    private int enrichmentPoolSize;
+
+    @Value("${fullstop.plugins.instanceContext.enrichment.queueCapacity:500}")
+    private int enrichmentQueueCapacity;
+
+    @Value("${fullstop.plugins.instanceContext.enrichment.prefetch:true}")
+    private boolean enrichmentPrefetch;
+
+    @Value("${fullstop.plugins.ami.cache.maxSize:10000}")
+    private long amiCacheMaxSize;
+
+    @Value("${fullstop.plugins.ami.cache.file:}")
+    private String amiCacheFile;
+
     @ConditionalOnMissingBean
     @Bean
     EC2InstanceContextProvider contextProvider(final ClientProvider clientProvider,
@@ -43,7 +61,26 @@ public class EC2InstanceContextConfig {
                 kioVersionProvider(),
                 kioApprovalProvider(),
                 pieroneTagProvider(),
-                scmSourceProvider());
+                scmSourceProvider(),
+                instanceContextEnrichmentExecutor(),
+                enrichmentPrefetch);
+    }
+
+    /**
+     * Shared by the AMI, Taupage YAML, Kio and Pierone lookups of all instance contexts. When saturated, the
+     * thread completing the previous lookup runs the next one itself.
+     */
+    @Bean
+    ThreadPoolTaskExecutor instanceContextEnrichmentExecutor() {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(enrichmentPoolSize);
+        executor.setMaxPoolSize(enrichmentPoolSize);
+        executor.setQueueCapacity(enrichmentQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setKeepAliveSeconds(30);
+        executor.setThreadNamePrefix("instance-context-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
     }
 
     @Bean
@@ -53,7 +90,15 @@ public class EC2InstanceContextConfig {
 
     @Bean
     AmiProvider amiProvider() {
-        return new AmiProviderImpl();
+        return new AmiProviderImpl(amiCache());
+    }
+
+    /**
+     * Kept in the given file between restarts, if there is one.
+     */
+    @Bean
+    AmiCache amiCache() {
+        return new AmiCache(amiCacheMaxSize, amiCacheFile.isEmpty() ? null : Paths.get(amiCacheFile));
     }
 
     @Bean
@@ -4,7 +4,7 @@ import com.amazonaws.AmazonWebServiceClient;
 import com.amazonaws.regions.Region;
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import com.amazonaws.services.ec2.model.Image;
-import com.jayway.jsonpath.JsonPath;
+import com.google.common.base.Supplier;
 import org.apache.commons.lang3.StringUtils;
 import org.zalando.stups.clients.kio.Application;
 import org.zalando.stups.clients.kio.Approval;
@@ -12,6 +12,7 @@ import org.zalando.stups.clients.kio.Version;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.events.CloudTrailEventSupport;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
+import org.zalando.stups.fullstop.plugin.EC2InstanceItem;
 import org.zalando.stups.fullstop.plugin.provider.AmiIdProvider;
 import org.zalando.stups.fullstop.plugin.provider.AmiProvider;
 import org.zalando.stups.fullstop.plugin.provider.KioApplicationProvider;
@@ -29,14 +30,28 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Suppliers.memoize;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getUsernameAsString;
 
+/**
+ * The remote lookups (AMI id, AMI, Taupage YAML, Kio, Pierone) are started at most once per context, as
+ * {@link CompletableFuture}s running on the given executor. Each lookup waits only for the lookups it depends on:
+ * <pre>
+ * amiId -> ami -> taupageYaml -> kioApplication, kioVersion, kioApprovals, pieroneTag, scmSource
+ * </pre>
+ * so that, once {@link #prefetch()} has been called, the Kio and Pierone calls run concurrently and all plugins
+ * sharing this context read the same results.
+ */
 class EC2InstanceContextImpl implements EC2InstanceContext {
 
-    private static final String INSTANCE_ID_JSON_PATH_EXPRESSION = "$.instanceId";
-
     private final String taupageNamePrefix;
 
     private final List<String> taupageOwners;
@@ -52,6 +67,11 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
      */
     private final String instanceJson;
 
+    /**
+     * The attributes of {@link #instanceJson}, read once. Used as part of the key in the caches of the providers.
+     */
+    private final EC2InstanceItem instance;
+
     private final ClientProvider clientProvider;
 
     private final AmiIdProvider amiIdProvider;
@@ -70,6 +90,27 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
 
     private final ScmSourceProvider scmSourceProvider;
 
+    private final Executor executor;
+
+    private final Supplier<CompletableFuture<Optional<String>>> amiId;
+
+    private final Supplier<CompletableFuture<Optional<Image>>> ami;
+
+    private final Supplier<CompletableFuture<Optional<TaupageYaml>>> taupageYaml;
+
+    private final Supplier<CompletableFuture<Optional<Application>>> kioApplication;
+
+    private final Supplier<CompletableFuture<Optional<Version>>> kioVersion;
+
+    private final Supplier<CompletableFuture<List<Approval>>> kioApprovals;
+
+    private final Supplier<CompletableFuture<Optional<TagSummary>>> pieroneTag;
+
+    private final Supplier<CompletableFuture<Optional<Map<String, String>>>> scmSource;
+
+    /**
+     * Runs every lookup in the calling thread.
+     */
     EC2InstanceContextImpl(
             final CloudTrailEvent event,
             final String instanceJson,
@@ -84,8 +125,29 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
             final KioApprovalProvider kioApprovalProvider,
             final PieroneTagProvider pieroneTagProvider,
             final ScmSourceProvider scmSourceProvider) {
+        this(event, instanceJson, clientProvider, amiIdProvider, amiProvider, taupageYamlProvider, taupageNamePrefix,
+                taupageOwners, kioApplicationProvider, kioVersionProvider, kioApprovalProvider, pieroneTagProvider,
+                scmSourceProvider, Runnable::run);
+    }
+
+    EC2InstanceContextImpl(
+            final CloudTrailEvent event,
+            final String instanceJson,
+            final ClientProvider clientProvider,
+            final AmiIdProvider amiIdProvider,
+            final AmiProvider amiProvider,
+            final TaupageYamlProvider taupageYamlProvider,
+            final String taupageNamePrefix,
+            final List<String> taupageOwners,
+            final KioApplicationProvider kioApplicationProvider,
+            final KioVersionProvider kioVersionProvider,
+            final KioApprovalProvider kioApprovalProvider,
+            final PieroneTagProvider pieroneTagProvider,
+            final ScmSourceProvider scmSourceProvider,
+            final Executor executor) {
         this.event = event;
         this.instanceJson = instanceJson;
+        this.instance = EC2InstanceItem.of(instanceJson);
         this.clientProvider = clientProvider;
         this.amiIdProvider = amiIdProvider;
         this.amiProvider = amiProvider;
@@ -97,6 +159,25 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
         this.kioApprovalProvider = kioApprovalProvider;
         this.pieroneTagProvider = pieroneTagProvider;
         this.scmSourceProvider = scmSourceProvider;
+        this.executor = executor;
+
+        this.amiId = memoize(() -> supplyAsync(() -> amiIdProvider.apply(this), executor));
+        this.ami = memoize(() -> amiId.get().thenApplyAsync(id -> amiProvider.apply(this), executor));
+        this.taupageYaml = memoize(() -> ami.get().thenApplyAsync(image -> taupageYamlProvider.apply(this), executor));
+        this.kioApplication = memoize(() -> afterTaupageYaml(kioApplicationProvider));
+        this.kioVersion = memoize(() -> afterTaupageYaml(kioVersionProvider));
+        this.kioApprovals = memoize(() -> afterTaupageYaml(kioApprovalProvider));
+        this.pieroneTag = memoize(() -> afterTaupageYaml(pieroneTagProvider));
+        this.scmSource = memoize(() -> afterTaupageYaml(scmSourceProvider));
+    }
+
+    /**
+     * Starts all lookups without waiting for them.
+     *
+     * @return completes when all lookups are done
+     */
+    CompletableFuture<Void> prefetch() {
+        return allOf(kioApplication.get(), kioVersion.get(), kioApprovals.get(), pieroneTag.get(), scmSource.get());
     }
 
     @Override
@@ -109,9 +190,14 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
         return instanceJson;
     }
 
+    @Override
+    public EC2InstanceItem getInstance() {
+        return instance;
+    }
+
     @Override
     public String getInstanceId() {
-        return JsonPath.read(getInstanceJson(), INSTANCE_ID_JSON_PATH_EXPRESSION);
+        return instance.getInstanceId();
     }
 
     @Override
@@ -164,27 +250,27 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
 
     @Override
     public Optional<Application> getKioApplication() {
-        return kioApplicationProvider.apply(this);
+        return await(kioApplication.get());
     }
 
     @Override
     public Optional<Version> getKioVersion() {
-        return kioVersionProvider.apply(this);
+        return await(kioVersion.get());
     }
 
     @Override
     public List<Approval> getKioApprovals() {
-        return kioApprovalProvider.apply(this);
+        return await(kioApprovals.get());
     }
 
     @Override
     public Optional<String> getAmiId() {
-        return amiIdProvider.apply(this);
+        return await(amiId.get());
     }
 
     @Override
     public Optional<Image> getAmi() {
-        return amiProvider.apply(this);
+        return await(ami.get());
     }
 
     @Override
@@ -197,17 +283,17 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
 
     @Override
     public Optional<TaupageYaml> getTaupageYaml() {
-        return taupageYamlProvider.apply(this);
+        return await(taupageYaml.get());
     }
 
     @Override
     public Optional<TagSummary> getPieroneTag() {
-        return pieroneTagProvider.apply(this);
+        return await(pieroneTag.get());
     }
 
     @Override
     public Optional<Map<String, String>> getScmSource() {
-        return scmSourceProvider.apply(this);
+        return await(scmSource.get());
     }
 
     @Override
@@ -221,12 +307,12 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
         if (o == null || getClass() != o.getClass()) return false;
         final EC2InstanceContextImpl that = (EC2InstanceContextImpl) o;
         return Objects.equals(getEvent(), that.getEvent()) &&
-                Objects.equals(getInstanceJson(), that.getInstanceJson());
+                Objects.equals(instance, that.instance);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getEvent(), getInstanceJson());
+        return Objects.hash(getEvent(), instance);
     }
 
     @Override
@@ -249,4 +335,22 @@ class EC2InstanceContextImpl implements EC2InstanceContext {
     private UUID getEventId() {
         return getEvent().getEventData().getEventId();
     }
+
+    /**
+     * Waits for the lookup and rethrows its failure as it would have been thrown by a synchronous call.
+     */
+    private static <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> afterTaupageYaml(final Function<EC2InstanceContext, T> provider) {
+        return taupageYaml.get().thenApplyAsync(yaml -> provider.apply(this), executor);
+    }
 }
@@ -11,8 +11,12 @@ import org.zalando.stups.fullstop.plugin.provider.*;
 
 import javax.annotation.Nonnull;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static com.google.common.cache.CacheBuilder.newBuilder;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.unmodifiableList;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -20,6 +24,12 @@ import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getInstan
 
 public class EC2InstanceContextProviderImpl implements EC2InstanceContextProvider {
 
+    /**
+     * Most plugins inspect AMI, Taupage YAML and Kio/Pierone data of these events, so the lookups are started
+     * as soon as the instances are extracted.
+     */
+    private static final Set<String> PREFETCH_EVENT_NAMES = newHashSet("RunInstances", "StartInstances");
+
     private final Logger log = getLogger(getClass());
 
     final LoadingCache<CloudTrailEvent, List<EC2InstanceContext>> cache;
@@ -36,13 +46,36 @@ public class EC2InstanceContextProviderImpl implements EC2InstanceContextProvide
             final KioApprovalProvider kioApprovalProvider,
             final PieroneTagProvider pieroneTagProvider,
             final ScmSourceProvider scmSourceProvider) {
+        this(clientProvider, amiIdProvider, amiProvider, taupageYamlProvider, taupageNamePrefix, taupageOwners,
+                kioApplicationProvider, kioVersionProvider, kioApprovalProvider, pieroneTagProvider, scmSourceProvider,
+                Runnable::run, false);
+    }
+
+    /**
+     * @param executor runs the lookups of the created contexts
+     * @param prefetch whether to start the lookups of RunInstances and StartInstances events right away
+     */
+    public EC2InstanceContextProviderImpl(
+            final ClientProvider clientProvider,
+            final AmiIdProvider amiIdProvider,
+            final AmiProvider amiProvider,
+            final TaupageYamlProvider taupageYamlProvider,
+            final String taupageNamePrefix,
+            final List<String> taupageOwners,
+            final KioApplicationProvider kioApplicationProvider,
+            final KioVersionProvider kioVersionProvider,
+            final KioApprovalProvider kioApprovalProvider,
+            final PieroneTagProvider pieroneTagProvider,
+            final ScmSourceProvider scmSourceProvider,
+            final Executor executor,
+            final boolean prefetch) {
         cache = newBuilder()
                 .expireAfterAccess(1, MINUTES)
                 .maximumSize(100)
                 .build(new CacheLoader<CloudTrailEvent, List<EC2InstanceContext>>() {
                            @Override
                            public List<EC2InstanceContext> load(@Nonnull final CloudTrailEvent cloudTrailEvent) {
-                               final List<EC2InstanceContext> result = getInstances(cloudTrailEvent)
+                               final List<EC2InstanceContextImpl> result = getInstances(cloudTrailEvent)
                                        .stream()
                                        .map(instanceJson -> new EC2InstanceContextImpl(
                                                cloudTrailEvent,
@@ -57,12 +90,15 @@ public class EC2InstanceContextProviderImpl implements EC2InstanceContextProvide
                                                kioVersionProvider,
                                                kioApprovalProvider,
                                                pieroneTagProvider,
-                                               scmSourceProvider))
+                                               scmSourceProvider,
+                                               executor))
                                        .collect(toList());
                                if (result.isEmpty()){
                                    log.warn("Could not find any EC2 instance in CloudTrailEvent {}", cloudTrailEvent);
+                               } else if (prefetch && PREFETCH_EVENT_NAMES.contains(cloudTrailEvent.getEventData().getEventName())) {
+                                   result.forEach(EC2InstanceContextImpl::prefetch);
                                }
-                               return result;
+                               return unmodifiableList(result);
                            }
                        }
                 );
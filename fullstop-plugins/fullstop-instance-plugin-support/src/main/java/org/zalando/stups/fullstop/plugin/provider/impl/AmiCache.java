@@ -0,0 +1,146 @@
+package org.zalando.stups.fullstop.plugin.provider.impl;
+
+import com.amazonaws.services.ec2.model.Image;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.util.Arrays.asList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Images never change once they are registered, so they are cached by account, region and image id for as long as
+ * there is room, instead of per instance.
+ * <p>
+ * If a file is given, every image is also appended to it as one line of json, and the file is read again on startup,
+ * so that a restart does not describe all known images again. Only the attributes used by the plugins are written to
+ * the file: image id, name, owner id, creation date and description.
+ */
+public class AmiCache {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String ACCOUNT_ID = "accountId";
+
+    private static final String REGION = "region";
+
+    private final Logger log = getLogger(getClass());
+
+    private final Cache<List<String>, Image> images;
+
+    private final Path file;
+
+    /**
+     * Without persistence.
+     */
+    public AmiCache(final long maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param file where the images are kept between restarts, none if null
+     */
+    public AmiCache(final long maxSize, final Path file) {
+        this.images = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.file = file;
+        if (file != null) {
+            load();
+        }
+    }
+
+    public Optional<Image> get(final String accountId, final String region, final String imageId) {
+        return Optional.ofNullable(images.getIfPresent(asList(accountId, region, imageId)));
+    }
+
+    public void put(final String accountId, final String region, final Image image) {
+        final List<String> key = asList(accountId, region, image.getImageId());
+        if (images.asMap().putIfAbsent(key, image) == null && file != null) {
+            append(key, image);
+        }
+    }
+
+    public long size() {
+        return images.size();
+    }
+
+    private synchronized void append(final List<String> key, final Image image) {
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND)) {
+            writer.write(MAPPER.writeValueAsString(toLine(key, image)));
+            writer.newLine();
+        } catch (final IOException e) {
+            log.warn("Could not write image {} to {}: {}", image.getImageId(), file, e.toString());
+        }
+    }
+
+    /**
+     * Reads the file and writes it again without duplicates and without the entries that no longer fit.
+     */
+    private synchronized void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (final BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    final Map<?, ?> values = MAPPER.readValue(line, Map.class);
+                    images.put(asList(string(values, ACCOUNT_ID), string(values, REGION), string(values, "imageId")),
+                            new Image()
+                                    .withImageId(string(values, "imageId"))
+                                    .withName(string(values, "name"))
+                                    .withOwnerId(string(values, "ownerId"))
+                                    .withCreationDate(string(values, "creationDate"))
+                                    .withDescription(string(values, "description")));
+                } catch (final IOException e) {
+                    log.debug("Skipping invalid line in {}: {}", file, e.toString());
+                }
+            }
+        } catch (final IOException e) {
+            log.warn("Could not read images from {}: {}", file, e.toString());
+            return;
+        }
+
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, UTF_8, CREATE, TRUNCATE_EXISTING)) {
+            for (final Map.Entry<List<String>, Image> entry : images.asMap().entrySet()) {
+                writer.write(MAPPER.writeValueAsString(toLine(entry.getKey(), entry.getValue())));
+                writer.newLine();
+            }
+        } catch (final IOException e) {
+            log.warn("Could not compact {}: {}", file, e.toString());
+        }
+        log.info("Read {} images from {}", images.size(), file);
+    }
+
+    private static Map<String, String> toLine(final List<String> key, final Image image) {
+        final Map<String, String> line = new LinkedHashMap<>();
+        line.put(ACCOUNT_ID, key.get(0));
+        line.put(REGION, key.get(1));
+        line.put("imageId", image.getImageId());
+        line.put("name", image.getName());
+        line.put("ownerId", image.getOwnerId());
+        line.put("creationDate", image.getCreationDate());
+        line.put("description", image.getDescription());
+        return line;
+    }
+
+    private static String string(final Map<?, ?> values, final String name) {
+        final Object value = values.get(name);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -1,15 +1,16 @@
 package org.zalando.stups.fullstop.plugin.provider.impl;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.Instance;
 import com.amazonaws.services.ec2.model.Reservation;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.JsonPathException;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
@@ -17,16 +18,21 @@ import org.zalando.stups.fullstop.plugin.provider.AmiIdProvider;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.google.common.collect.Lists.partition;
+import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.zalando.stups.fullstop.plugin.provider.impl.EventInstances.MAX_IDS_PER_REQUEST;
 
 public class AmiIdProviderImpl implements AmiIdProvider {
 
-    private static final String IMAGE_ID_JSON_PATH = "$.imageId";
-
     private final Logger log = getLogger(getClass());
 
     private final LoadingCache<EC2InstanceContext, Optional<String>> cache = CacheBuilder.newBuilder()
@@ -43,6 +49,14 @@ public class AmiIdProviderImpl implements AmiIdProvider {
                 }
             });
 
+    /**
+     * Image ids of all instances of one event, which were not part of the event itself.
+     */
+    private final Cache<CloudTrailEvent, Map<String, String>> imageIdsByEvent = CacheBuilder.newBuilder()
+            .expireAfterAccess(1, MINUTES)
+            .maximumSize(100)
+            .build();
+
     @Override
     public Optional<String> apply(final EC2InstanceContext context) {
         return cache.getUnchecked(context);
@@ -58,29 +72,62 @@ public class AmiIdProviderImpl implements AmiIdProvider {
     }
 
     private Optional<String> readAmiIdFromJson(final EC2InstanceContext context) {
-        try {
-            return Optional.ofNullable(JsonPath.read(context.getInstanceJson(), IMAGE_ID_JSON_PATH));
-        } catch (final JsonPathException ignored) {
-            return empty();
-        }
+        return Optional.ofNullable(context.getInstance().getImageId());
     }
 
     private Optional<String> getAmiIdFromEC2Api(final EC2InstanceContext context) {
         final String instanceId = context.getInstanceId();
+        if (instanceId == null) {
+            log.warn("Could not determine the instance id of {}", context);
+            return empty();
+        }
+
+        final CloudTrailEvent event = context.getEvent();
+        if (event != null) {
+            final Map<String, String> imageIds = EventInstances.describeOnce(imageIdsByEvent, event,
+                    () -> describeImageIds(context, partition(instanceIdsOf(event, instanceId), MAX_IDS_PER_REQUEST)
+                            .stream()
+                            .map(ids -> new DescribeInstancesRequest().withFilters(new Filter("instance-id", ids)))
+                            .collect(toList())),
+                    "instances", instanceId);
+            if (imageIds.containsKey(instanceId)) {
+                return Optional.of(imageIds.get(instanceId));
+            }
+        }
+
         try {
-            return context.getClient(AmazonEC2Client.class)
-                    .describeInstances(new DescribeInstancesRequest().withInstanceIds(instanceId))
-                    .getReservations()
-                    .stream()
-                    .map(Reservation::getInstances)
-                    .flatMap(Collection::stream)
-                    .filter(i -> i.getInstanceId().equals(instanceId))
-                    .map(Instance::getImageId)
-                    .findFirst();
+            return Optional.ofNullable(describeImageIds(context,
+                    singletonList(new DescribeInstancesRequest().withInstanceIds(instanceId))).get(instanceId));
         } catch (final AmazonClientException e) {
             log.warn("Could not describe instance " + instanceId, e);
             return empty();
         }
     }
-}
 
+    /**
+     * Makes sure that the requested instance is part of the batch, even if the event lists it with an image id.
+     */
+    private static List<String> instanceIdsOf(final CloudTrailEvent event, final String instanceId) {
+        final List<String> instanceIds = EventInstances.instanceIdsWithoutImageId(event);
+        if (!instanceIds.contains(instanceId)) {
+            instanceIds.add(instanceId);
+        }
+        return instanceIds;
+    }
+
+    /**
+     * @return image id by instance id. Batches filter by instance id, which skips unknown instances, where an id list
+     * would fail the whole request.
+     */
+    private Map<String, String> describeImageIds(final EC2InstanceContext context,
+                                                 final List<DescribeInstancesRequest> requests) {
+        final AmazonEC2Client client = context.getClient(AmazonEC2Client.class);
+        return requests.stream()
+                .map(client::describeInstances)
+                .flatMap(result -> result.getReservations().stream())
+                .map(Reservation::getInstances)
+                .flatMap(Collection::stream)
+                .filter(i -> i.getInstanceId() != null && i.getImageId() != null)
+                .collect(toMap(Instance::getInstanceId, Instance::getImageId, (first, second) -> first));
+    }
+}
@@ -1,10 +1,13 @@
 package org.zalando.stups.fullstop.plugin.provider.impl;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.DescribeImagesRequest;
 import com.amazonaws.services.ec2.model.DescribeImagesResult;
+import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.Image;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -13,16 +16,29 @@ import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
 import org.zalando.stups.fullstop.plugin.provider.AmiProvider;
 
 import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.partition;
+import static java.util.Collections.emptyMap;
 import static java.util.Optional.empty;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class AmiProviderImpl implements AmiProvider {
 
+    private static final long DEFAULT_AMI_CACHE_SIZE = 10_000;
+
     private final Logger log = getLogger(getClass());
 
+    private final AmiCache amiCache;
+
     private final LoadingCache<EC2InstanceContext, Optional<Image>> cache = CacheBuilder.newBuilder()
             .expireAfterAccess(1, MINUTES)
             .maximumSize(100)
@@ -37,21 +53,85 @@ public class AmiProviderImpl implements AmiProvider {
                 }
             });
 
+    /**
+     * The images of all instances of one event, as far as the event contains their image ids.
+     */
+    private final Cache<CloudTrailEvent, Map<String, Image>> imagesByEvent = CacheBuilder.newBuilder()
+            .expireAfterAccess(1, MINUTES)
+            .maximumSize(100)
+            .build();
+
+    public AmiProviderImpl() {
+        this(new AmiCache(DEFAULT_AMI_CACHE_SIZE));
+    }
+
+    public AmiProviderImpl(final AmiCache amiCache) {
+        this.amiCache = amiCache;
+    }
+
     private Optional<Image> getAmi(@Nonnull final EC2InstanceContext context) {
         final Optional<String> amiId = context.getAmiId();
+        if (!amiId.isPresent()) {
+            return empty();
+        }
+
+        final String accountId = context.getAccountId();
+        final String region = context.getRegionAsString();
+        final Optional<Image> cached = amiCache.get(accountId, region, amiId.get());
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        final CloudTrailEvent event = context.getEvent();
+        if (event != null) {
+            final Map<String, Image> images = EventInstances.describeOnce(imagesByEvent, event, () -> {
+                final Map<String, Image> described = describeImages(context, EventInstances.imageIds(event)
+                        .stream()
+                        .filter(id -> !amiCache.get(accountId, region, id).isPresent())
+                        .collect(toSet()));
+                described.values().forEach(image -> amiCache.put(accountId, region, image));
+                return described;
+            }, "images", amiId.get());
+            if (images.containsKey(amiId.get())) {
+                return Optional.of(images.get(amiId.get()));
+            }
+        }
+
         try {
             return amiId
                     .map(id -> context
                             .getClient(AmazonEC2Client.class)
                             .describeImages(new DescribeImagesRequest().withImageIds(id)))
                     .map(DescribeImagesResult::getImages)
-                    .flatMap(images -> images.stream().findFirst());
+                    .flatMap(images -> images.stream().findFirst())
+                    .map(image -> {
+                        amiCache.put(accountId, region, image);
+                        return image;
+                    });
         } catch (final AmazonClientException e) {
             log.warn("Could not get AMI of: " + amiId.get(), e);
             return empty();
         }
     }
 
+    /**
+     * @return image by id, one DescribeImages request per {@link EventInstances#MAX_IDS_PER_REQUEST} images. The filter
+     * skips deregistered images, where an id list would fail the whole request.
+     */
+    private Map<String, Image> describeImages(final EC2InstanceContext context, final Set<String> imageIds) {
+        if (imageIds.isEmpty()) {
+            return emptyMap();
+        }
+
+        final AmazonEC2Client client = context.getClient(AmazonEC2Client.class);
+        final List<String> ids = newArrayList(imageIds);
+        return partition(ids, EventInstances.MAX_IDS_PER_REQUEST).stream()
+                .map(chunk -> client.describeImages(new DescribeImagesRequest().withFilters(new Filter("image-id", chunk))))
+                .filter(result -> result != null && result.getImages() != null)
+                .flatMap(result -> result.getImages().stream())
+                .collect(toMap(Image::getImageId, identity(), (first, second) -> first));
+    }
+
     @Override
     public Optional<Image> apply(final EC2InstanceContext context) {
         return cache.getUnchecked(context);
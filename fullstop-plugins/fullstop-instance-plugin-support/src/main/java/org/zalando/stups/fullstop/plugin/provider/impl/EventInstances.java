@@ -0,0 +1,112 @@
+package org.zalando.stups.fullstop.plugin.provider.impl;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import org.slf4j.Logger;
+import org.zalando.stups.fullstop.events.JsonDocuments;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.INSTANCE_JSON_PATH;
+
+/**
+ * Reads the ids of all instances of one event, so that EC2 can be asked about all of them with a single request.
+ */
+final class EventInstances {
+
+    /**
+     * Upper bound of ids per DescribeInstances / DescribeImages request
+     */
+    static final int MAX_IDS_PER_REQUEST = 100;
+
+    private static final String INSTANCE_ID = "instanceId";
+
+    private static final String IMAGE_ID = "imageId";
+
+    private static final JsonPath INSTANCE_JSON = JsonDocuments.compile(INSTANCE_JSON_PATH);
+
+    private static final Logger LOG = getLogger(EventInstances.class);
+
+    private EventInstances() {
+    }
+
+    /**
+     * @return ids of the instances whose image id is not part of the event
+     */
+    static List<String> instanceIdsWithoutImageId(final CloudTrailEvent event) {
+        return items(event).stream()
+                .filter(item -> item.get(IMAGE_ID) == null)
+                .map(item -> item.get(INSTANCE_ID))
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .distinct()
+                .collect(toList());
+    }
+
+    /**
+     * @return the distinct image ids of all instances in the event
+     */
+    static Set<String> imageIds(final CloudTrailEvent event) {
+        return items(event).stream()
+                .map(item -> item.get(IMAGE_ID))
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .collect(toSet());
+    }
+
+    /**
+     * Describes the resources of the event once, for all of its instances. A failed batch is remembered as empty, the
+     * other instances of the event must not retry it, they are described alone.
+     *
+     * @param resources what the batch describes, for the log
+     * @param id        the resource the caller is interested in, for the log
+     * @return the described resources by id, empty if the batch failed
+     */
+    static <V> Map<String, V> describeOnce(final Cache<CloudTrailEvent, Map<String, V>> batches,
+                                           final CloudTrailEvent event, final Supplier<Map<String, V>> batch,
+                                           final String resources, final String id) {
+        try {
+            return batches.get(event, batch::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            LOG.warn("Could not describe the {} of event {}, describing {} alone: {}",
+                    resources, event.getEventData().getEventId(), id, e.getCause().toString());
+            batches.put(event, emptyMap());
+            return emptyMap();
+        }
+    }
+
+    private static List<Map<?, ?>> items(final CloudTrailEvent event) {
+        final Optional<String> responseElements = Optional.ofNullable(event)
+                .map(CloudTrailEvent::getEventData)
+                .map(CloudTrailEventData::getResponseElements);
+        if (!responseElements.isPresent()) {
+            return emptyList();
+        }
+
+        try {
+            final Collection<?> items = JsonDocuments.read(responseElements.get(), INSTANCE_JSON);
+            return items.stream()
+                    .filter(item -> item instanceof Map)
+                    .map(item -> (Map<?, ?>) item)
+                    .collect(toList());
+        } catch (final JsonPathException ignored) {
+            return emptyList();
+        }
+    }
+}
@@ -49,6 +49,10 @@ public class TaupageYamlProviderImpl implements TaupageYamlProvider {
         if (context.isTaupageAmi().orElse(false)) {
 
             final String instanceId = context.getInstanceId();
+            if (instanceId == null) {
+                log.warn("Could not determine the instance id of {}", context);
+                return empty();
+            }
 
             try {
                 return Optional.of(context.getClient(AmazonEC2Client.class))
@@ -0,0 +1,50 @@
+package org.zalando.stups.fullstop.plugin;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EC2InstanceItemTest {
+
+    private static final String INSTANCE_JSON = "{\"instanceId\":\"i-1234\",\"imageId\":\"ami-1234\",\"keyName\":\"key\"," +
+            "\"launchTime\":1431521836000,\"subnetId\":\"subnet-1234\"," +
+            "\"groupSet\":{\"items\":[{\"groupId\":\"sg-1\",\"groupName\":\"app\"},{\"groupId\":\"sg-2\"}]}}";
+
+    @Test
+    public void testReadsAllAttributes() throws Exception {
+        final EC2InstanceItem item = EC2InstanceItem.of(INSTANCE_JSON);
+
+        assertThat(item.getInstanceId()).isEqualTo("i-1234");
+        assertThat(item.getImageId()).isEqualTo("ami-1234");
+        assertThat(item.getKeyName()).isEqualTo("key");
+        assertThat(item.getLaunchTime()).isEqualTo(new DateTime(1431521836000L));
+        assertThat(item.getSecurityGroupIds()).containsExactly("sg-1", "sg-2");
+        assertThat(item.getSubnetId()).isEqualTo("subnet-1234");
+    }
+
+    @Test
+    public void testMissingAttributesAreNull() throws Exception {
+        final EC2InstanceItem item = EC2InstanceItem.of("{\"instanceId\":\"i-1234\"}");
+
+        assertThat(item.getInstanceId()).isEqualTo("i-1234");
+        assertThat(item.getImageId()).isNull();
+        assertThat(item.getLaunchTime()).isNull();
+        assertThat(item.getSecurityGroupIds()).isEmpty();
+    }
+
+    @Test
+    public void testEmptyAndInvalidJson() throws Exception {
+        assertThat(EC2InstanceItem.of("").getInstanceId()).isNull();
+        assertThat(EC2InstanceItem.of(null).getInstanceId()).isNull();
+        assertThat(EC2InstanceItem.of("{json here").getInstanceId()).isNull();
+    }
+
+    @Test
+    public void testEquality() throws Exception {
+        assertThat(EC2InstanceItem.of(INSTANCE_JSON)).isEqualTo(EC2InstanceItem.of(new String(INSTANCE_JSON)));
+        assertThat(EC2InstanceItem.of(INSTANCE_JSON).hashCode())
+                .isEqualTo(EC2InstanceItem.of(new String(INSTANCE_JSON)).hashCode());
+        assertThat(EC2InstanceItem.of(INSTANCE_JSON)).isNotEqualTo(EC2InstanceItem.of("{\"instanceId\":\"i-1234\"}"));
+    }
+}
@@ -19,10 +19,14 @@ import org.zalando.stups.fullstop.taupage.TaupageYaml;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class EC2InstanceContextImplTest {
@@ -88,4 +92,48 @@ public class EC2InstanceContextImplTest {
         final Optional<String> versionId = ec2InstanceContext.getVersionId();
         assertThat(versionId).isEmpty();
     }
+
+    @Test
+    public void testLookupsAreMemoized() throws Exception {
+        when(taupageYamlProviderMock.apply(any(EC2InstanceContext.class))).thenReturn(Optional.of(taupageYaml));
+        when(kioApplicationProviderMock.apply(any(EC2InstanceContext.class))).thenReturn(Optional.empty());
+        final EC2InstanceContext ec2InstanceContext = new EC2InstanceContextImpl(
+                eventMock, instanceJsonMock, clientProviderMock, amiIdProviderMock, amiProviderMock, taupageYamlProviderMock,
+                taupageNamePrefixMock, taupageOwnersMock, kioApplicationProviderMock, kioVersionProviderMock, kioApprovalProviderMock,
+                pieroneTagProviderMock, scmSourceProviderMock);
+
+        assertThat(ec2InstanceContext.getApplicationId()).isEqualTo(Optional.of("fullstop"));
+        assertThat(ec2InstanceContext.getVersionId()).isEqualTo(Optional.of("10.0"));
+        assertThat(ec2InstanceContext.getKioApplication()).isEqualTo(Optional.empty());
+        assertThat(ec2InstanceContext.getKioApplication()).isEqualTo(Optional.empty());
+
+        verify(amiIdProviderMock, times(1)).apply(ec2InstanceContext);
+        verify(amiProviderMock, times(1)).apply(ec2InstanceContext);
+        verify(taupageYamlProviderMock, times(1)).apply(ec2InstanceContext);
+        verify(kioApplicationProviderMock, times(1)).apply(ec2InstanceContext);
+    }
+
+    @Test
+    public void testPrefetchRunsAllLookups() throws Exception {
+        when(taupageYamlProviderMock.apply(any(EC2InstanceContext.class))).thenReturn(Optional.of(taupageYaml));
+        final ExecutorService executor = newFixedThreadPool(4);
+        try {
+            final EC2InstanceContextImpl ec2InstanceContext = new EC2InstanceContextImpl(
+                    eventMock, instanceJsonMock, clientProviderMock, amiIdProviderMock, amiProviderMock, taupageYamlProviderMock,
+                    taupageNamePrefixMock, taupageOwnersMock, kioApplicationProviderMock, kioVersionProviderMock, kioApprovalProviderMock,
+                    pieroneTagProviderMock, scmSourceProviderMock, executor);
+
+            ec2InstanceContext.prefetch().join();
+            assertThat(ec2InstanceContext.getVersionId()).isEqualTo(Optional.of("10.0"));
+
+            verify(taupageYamlProviderMock, times(1)).apply(ec2InstanceContext);
+            verify(kioApplicationProviderMock, times(1)).apply(ec2InstanceContext);
+            verify(kioVersionProviderMock, times(1)).apply(ec2InstanceContext);
+            verify(kioApprovalProviderMock, times(1)).apply(ec2InstanceContext);
+            verify(pieroneTagProviderMock, times(1)).apply(ec2InstanceContext);
+            verify(scmSourceProviderMock, times(1)).apply(ec2InstanceContext);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package org.zalando.stups.fullstop.plugin.provider.impl;
+
+import com.amazonaws.services.ec2.model.Image;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AmiCacheTest {
+
+    private static final String ACCOUNT_ID = "123456789012";
+
+    private static final String REGION = "eu-west-1";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testKeyedByAccountRegionAndImageId() throws Exception {
+        final AmiCache amiCache = new AmiCache(10);
+        amiCache.put(ACCOUNT_ID, REGION, image("ami-1"));
+
+        assertThat(amiCache.get(ACCOUNT_ID, REGION, "ami-1").map(Image::getName)).contains("Taupage-AMI-ami-1");
+        assertThat(amiCache.get(ACCOUNT_ID, "eu-central-1", "ami-1")).isEmpty();
+        assertThat(amiCache.get("210987654321", REGION, "ami-1")).isEmpty();
+        assertThat(amiCache.get(ACCOUNT_ID, REGION, "ami-2")).isEmpty();
+    }
+
+    @Test
+    public void testKeepsImagesBetweenRestarts() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("images");
+        final AmiCache amiCache = new AmiCache(10, file);
+        amiCache.put(ACCOUNT_ID, REGION, image("ami-1"));
+        amiCache.put(ACCOUNT_ID, REGION, image("ami-1"));
+        amiCache.put(ACCOUNT_ID, REGION, image("ami-2"));
+        Files.write(file, singletonList("not json"), UTF_8, APPEND);
+
+        final AmiCache restarted = new AmiCache(10, file);
+
+        assertThat(restarted.size()).isEqualTo(2);
+        final Image image = restarted.get(ACCOUNT_ID, REGION, "ami-1").get();
+        assertThat(image.getImageId()).isEqualTo("ami-1");
+        assertThat(image.getName()).isEqualTo("Taupage-AMI-ami-1");
+        assertThat(image.getOwnerId()).isEqualTo("999999999999");
+        assertThat(Files.readAllLines(file, UTF_8)).hasSize(2);
+    }
+
+    @Test
+    public void testWithoutFile() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("missing");
+
+        assertThat(new AmiCache(10, file).size()).isZero();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    private static Image image(final String imageId) {
+        return new Image().withImageId(imageId).withName("Taupage-AMI-" + imageId).withOwnerId("999999999999");
+    }
+}
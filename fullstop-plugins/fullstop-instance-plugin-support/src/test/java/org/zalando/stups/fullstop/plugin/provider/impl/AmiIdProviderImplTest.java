@@ -1,15 +1,19 @@
 package org.zalando.stups.fullstop.plugin.provider.impl;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
 import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
 import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.Instance;
 import com.amazonaws.services.ec2.model.Reservation;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
+import org.zalando.stups.fullstop.plugin.EC2InstanceItem;
 import org.zalando.stups.fullstop.plugin.provider.AmiIdProvider;
 
 import java.util.Optional;
@@ -45,19 +49,32 @@ public class AmiIdProviderImplTest {
     @Test
     public void testAmiIdFound() throws Exception {
 
-        when(ec2InstanceContextMock.getInstanceJson()).thenReturn("{\"imageId\":\"123\"}");
+        when(ec2InstanceContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{\"imageId\":\"123\"}"));
 
         final Optional<String> result = amiIdProvider.apply(ec2InstanceContextMock);
 
         assertThat(result).isPresent();
 
-        verify(ec2InstanceContextMock).getInstanceJson();
+        verify(ec2InstanceContextMock).getInstance();
+    }
+
+    @Test
+    public void testWithoutInstanceId() throws Exception {
+
+        when(ec2InstanceContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{}"));
+
+        final Optional<String> result = amiIdProvider.apply(ec2InstanceContextMock);
+
+        assertThat(result).isEmpty();
+
+        verify(ec2InstanceContextMock).getInstance();
+        verify(ec2InstanceContextMock).getInstanceId();
     }
 
     @Test
     public void testAmiIdNotFound() throws Exception {
 
-        when(ec2InstanceContextMock.getInstanceJson()).thenReturn("{json here");
+        when(ec2InstanceContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{json here"));
         when(ec2InstanceContextMock.getInstanceId()).thenReturn(INSTANCE_ID);
         when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
 
@@ -76,8 +93,9 @@ public class AmiIdProviderImplTest {
 
         assertThat(result).isPresent();
 
-        verify(ec2InstanceContextMock).getInstanceJson();
+        verify(ec2InstanceContextMock).getInstance();
         verify(ec2InstanceContextMock).getInstanceId();
+        verify(ec2InstanceContextMock).getEvent();
         verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
         verify(amazonEC2ClientMock).describeInstances(eq(describeInstancesRequest));
     }
@@ -85,7 +103,7 @@ public class AmiIdProviderImplTest {
     @Test
     public void testAmiIdNotFoundInAWS() throws Exception {
 
-        when(ec2InstanceContextMock.getInstanceJson()).thenReturn("{json here");
+        when(ec2InstanceContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{json here"));
         when(ec2InstanceContextMock.getInstanceId()).thenReturn(INSTANCE_ID);
         when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
 
@@ -104,8 +122,9 @@ public class AmiIdProviderImplTest {
 
         assertThat(result).isEmpty();
 
-        verify(ec2InstanceContextMock).getInstanceJson();
+        verify(ec2InstanceContextMock).getInstance();
         verify(ec2InstanceContextMock).getInstanceId();
+        verify(ec2InstanceContextMock).getEvent();
         verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
         verify(amazonEC2ClientMock).describeInstances(eq(describeInstancesRequest));
     }
@@ -113,7 +132,7 @@ public class AmiIdProviderImplTest {
     @Test
     public void testAmiIdAWSException() throws Exception {
 
-        when(ec2InstanceContextMock.getInstanceJson()).thenReturn("{json here");
+        when(ec2InstanceContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{json here"));
         when(ec2InstanceContextMock.getInstanceId()).thenReturn(INSTANCE_ID);
         when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class)))
                 .thenThrow(new AmazonClientException("oops, I did it again... Britney"));
@@ -123,9 +142,92 @@ public class AmiIdProviderImplTest {
 
         assertThat(result).isEmpty();
 
-        verify(ec2InstanceContextMock).getInstanceJson();
+        verify(ec2InstanceContextMock).getInstance();
+        verify(ec2InstanceContextMock).getInstanceId();
+        verify(ec2InstanceContextMock).getEvent();
+        verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
+    }
+
+    @Test
+    public void testDescribesAllInstancesOfEventAtOnce() throws Exception {
+        final CloudTrailEvent event = mock(CloudTrailEvent.class);
+        final CloudTrailEventData eventData = mock(CloudTrailEventData.class);
+        when(event.getEventData()).thenReturn(eventData);
+        when(eventData.getResponseElements()).thenReturn("{\"instancesSet\":{\"items\":[" +
+                "{\"instanceId\":\"" + INSTANCE_ID + "\"}," +
+                "{\"instanceId\":\"i-second\"}," +
+                "{\"instanceId\":\"i-third\",\"imageId\":\"ami-other\"}]}}");
+
+        final EC2InstanceContext secondContextMock = mock(EC2InstanceContext.class);
+        when(ec2InstanceContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{json here"));
+        when(ec2InstanceContextMock.getInstanceId()).thenReturn(INSTANCE_ID);
+        when(ec2InstanceContextMock.getEvent()).thenReturn(event);
+        when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
+        when(secondContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{json here"));
+        when(secondContextMock.getInstanceId()).thenReturn("i-second");
+        when(secondContextMock.getEvent()).thenReturn(event);
+
+        final DescribeInstancesRequest describeInstancesRequest = new DescribeInstancesRequest()
+                .withFilters(new Filter("instance-id", newArrayList(INSTANCE_ID, "i-second")));
+        when(amazonEC2ClientMock.describeInstances(eq(describeInstancesRequest)))
+                .thenReturn(new DescribeInstancesResult()
+                        .withReservations(newArrayList(
+                                new Reservation().withInstances(newArrayList(
+                                        new Instance().withInstanceId(INSTANCE_ID).withImageId(IMAGE_ID),
+                                        new Instance().withInstanceId("i-second").withImageId("ami-second")
+                                ))
+                        )));
+
+        assertThat(amiIdProvider.apply(ec2InstanceContextMock)).isEqualTo(Optional.of(IMAGE_ID));
+        assertThat(amiIdProvider.apply(secondContextMock)).isEqualTo(Optional.of("ami-second"));
+
+        verify(ec2InstanceContextMock).getInstance();
         verify(ec2InstanceContextMock).getInstanceId();
+        verify(ec2InstanceContextMock).getEvent();
         verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
+        verify(amazonEC2ClientMock).describeInstances(eq(describeInstancesRequest));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFailedBatchIsNotRetried() throws Exception {
+        final CloudTrailEvent event = mock(CloudTrailEvent.class);
+        final CloudTrailEventData eventData = mock(CloudTrailEventData.class);
+        when(event.getEventData()).thenReturn(eventData);
+        when(eventData.getResponseElements()).thenReturn("{\"instancesSet\":{\"items\":[" +
+                "{\"instanceId\":\"" + INSTANCE_ID + "\"}," +
+                "{\"instanceId\":\"i-second\"}]}}");
+
+        final EC2InstanceContext secondContextMock = mock(EC2InstanceContext.class);
+        when(ec2InstanceContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{json here"));
+        when(ec2InstanceContextMock.getInstanceId()).thenReturn(INSTANCE_ID);
+        when(ec2InstanceContextMock.getEvent()).thenReturn(event);
+        when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
+        when(secondContextMock.getInstance()).thenReturn(EC2InstanceItem.of("{json here"));
+        when(secondContextMock.getInstanceId()).thenReturn("i-second");
+        when(secondContextMock.getEvent()).thenReturn(event);
+        when(secondContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
+
+        final DescribeInstancesRequest batchRequest = new DescribeInstancesRequest()
+                .withFilters(new Filter("instance-id", newArrayList(INSTANCE_ID, "i-second")));
+        when(amazonEC2ClientMock.describeInstances(eq(batchRequest)))
+                .thenThrow(new AmazonClientException("Rate exceeded"));
+        when(amazonEC2ClientMock.describeInstances(eq(new DescribeInstancesRequest().withInstanceIds(INSTANCE_ID))))
+                .thenReturn(new DescribeInstancesResult().withReservations(new Reservation().withInstances(
+                        new Instance().withInstanceId(INSTANCE_ID).withImageId(IMAGE_ID))));
+        when(amazonEC2ClientMock.describeInstances(eq(new DescribeInstancesRequest().withInstanceIds("i-second"))))
+                .thenReturn(new DescribeInstancesResult().withReservations(new Reservation().withInstances(
+                        new Instance().withInstanceId("i-second").withImageId("ami-second"))));
+
+        assertThat(amiIdProvider.apply(ec2InstanceContextMock)).isEqualTo(Optional.of(IMAGE_ID));
+        assertThat(amiIdProvider.apply(secondContextMock)).isEqualTo(Optional.of("ami-second"));
+
+        verify(amazonEC2ClientMock, times(1)).describeInstances(eq(batchRequest));
+        verify(amazonEC2ClientMock).describeInstances(eq(new DescribeInstancesRequest().withInstanceIds(INSTANCE_ID)));
+        verify(amazonEC2ClientMock).describeInstances(eq(new DescribeInstancesRequest().withInstanceIds("i-second")));
+        verify(ec2InstanceContextMock).getInstance();
+        verify(ec2InstanceContextMock).getInstanceId();
+        verify(ec2InstanceContextMock).getEvent();
+        verify(ec2InstanceContextMock, times(2)).getClient(eq(AmazonEC2Client.class));
+        verify(secondContextMock).getClient(eq(AmazonEC2Client.class));
+    }
+}
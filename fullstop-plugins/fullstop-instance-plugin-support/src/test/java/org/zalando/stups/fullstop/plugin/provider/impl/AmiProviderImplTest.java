@@ -1,9 +1,12 @@
 package org.zalando.stups.fullstop.plugin.provider.impl;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
 import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.DescribeImagesRequest;
 import com.amazonaws.services.ec2.model.DescribeImagesResult;
+import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.Image;
 import org.junit.After;
 import org.junit.Before;
@@ -61,6 +64,9 @@ public class AmiProviderImplTest {
         assertThat(result).isPresent();
 
         verify(ec2InstanceContextMock).getAmiId();
+        verify(ec2InstanceContextMock).getAccountId();
+        verify(ec2InstanceContextMock).getRegionAsString();
+        verify(ec2InstanceContextMock).getEvent();
         verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
         verify(amazonEC2ClientMock).describeImages(eq(describeImagesRequest));
     }
@@ -80,6 +86,9 @@ public class AmiProviderImplTest {
         assertThat(result).isEmpty();
 
         verify(ec2InstanceContextMock).getAmiId();
+        verify(ec2InstanceContextMock).getAccountId();
+        verify(ec2InstanceContextMock).getRegionAsString();
+        verify(ec2InstanceContextMock).getEvent();
         verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
         verify(amazonEC2ClientMock).describeImages(eq(describeImagesRequest));
     }
@@ -99,7 +108,115 @@ public class AmiProviderImplTest {
         assertThat(result).isEmpty();
 
         verify(ec2InstanceContextMock).getAmiId();
+        verify(ec2InstanceContextMock).getAccountId();
+        verify(ec2InstanceContextMock).getRegionAsString();
+        verify(ec2InstanceContextMock).getEvent();
         verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
         verify(amazonEC2ClientMock).describeImages(eq(describeImagesRequest));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testImageIsCachedAcrossEvents() throws Exception {
+        final EC2InstanceContext secondContextMock = mock(EC2InstanceContext.class);
+        when(ec2InstanceContextMock.getAmiId()).thenReturn(Optional.of(AMI_ID));
+        when(ec2InstanceContextMock.getAccountId()).thenReturn("123");
+        when(ec2InstanceContextMock.getRegionAsString()).thenReturn("eu-west-1");
+        when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
+        when(secondContextMock.getAmiId()).thenReturn(Optional.of(AMI_ID));
+        when(secondContextMock.getAccountId()).thenReturn("123");
+        when(secondContextMock.getRegionAsString()).thenReturn("eu-west-1");
+
+        final DescribeImagesRequest describeImagesRequest = new DescribeImagesRequest().withImageIds(AMI_ID);
+        when(amazonEC2ClientMock.describeImages(eq(describeImagesRequest)))
+                .thenReturn(new DescribeImagesResult().withImages(new Image().withImageId(AMI_ID).withName(AMI_NAME)));
+
+        assertThat(amiProvider.apply(ec2InstanceContextMock)).isPresent();
+        assertThat(amiProvider.apply(secondContextMock).map(Image::getName)).contains(AMI_NAME);
+
+        verify(ec2InstanceContextMock).getAmiId();
+        verify(ec2InstanceContextMock).getAccountId();
+        verify(ec2InstanceContextMock).getRegionAsString();
+        verify(ec2InstanceContextMock).getEvent();
+        verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
+        verify(amazonEC2ClientMock).describeImages(eq(describeImagesRequest));
+        verify(secondContextMock, never()).getClient(eq(AmazonEC2Client.class));
+    }
+
+    @Test
+    public void testDescribesAllImagesOfEventAtOnce() throws Exception {
+        final CloudTrailEvent event = mock(CloudTrailEvent.class);
+        final CloudTrailEventData eventData = mock(CloudTrailEventData.class);
+        when(event.getEventData()).thenReturn(eventData);
+        when(eventData.getResponseElements()).thenReturn("{\"instancesSet\":{\"items\":[" +
+                "{\"instanceId\":\"i-1\",\"imageId\":\"" + AMI_ID + "\"}," +
+                "{\"instanceId\":\"i-2\",\"imageId\":\"" + AMI_ID + "\"}]}}");
+
+        final EC2InstanceContext secondContextMock = mock(EC2InstanceContext.class);
+        when(ec2InstanceContextMock.getAmiId()).thenReturn(Optional.of(AMI_ID));
+        when(ec2InstanceContextMock.getEvent()).thenReturn(event);
+        when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
+        when(secondContextMock.getAmiId()).thenReturn(Optional.of(AMI_ID));
+        when(secondContextMock.getEvent()).thenReturn(event);
+
+        final DescribeImagesRequest describeImagesRequest = new DescribeImagesRequest()
+                .withFilters(new Filter("image-id", newArrayList(AMI_ID)));
+        when(amazonEC2ClientMock.describeImages(eq(describeImagesRequest)))
+                .thenReturn(new DescribeImagesResult()
+                        .withImages(newArrayList(new Image()
+                                .withImageId(AMI_ID)
+                                .withName(AMI_NAME))
+                        )
+                );
+
+        assertThat(amiProvider.apply(ec2InstanceContextMock)).isPresent();
+        assertThat(amiProvider.apply(secondContextMock)).isPresent();
+
+        verify(ec2InstanceContextMock).getAmiId();
+        verify(ec2InstanceContextMock).getAccountId();
+        verify(ec2InstanceContextMock).getRegionAsString();
+        verify(ec2InstanceContextMock).getEvent();
+        verify(ec2InstanceContextMock).getClient(eq(AmazonEC2Client.class));
+        verify(amazonEC2ClientMock).describeImages(eq(describeImagesRequest));
+    }
+
+    @Test
+    public void testFailedBatchIsNotRetried() throws Exception {
+        final CloudTrailEvent event = mock(CloudTrailEvent.class);
+        final CloudTrailEventData eventData = mock(CloudTrailEventData.class);
+        when(event.getEventData()).thenReturn(eventData);
+        when(eventData.getResponseElements()).thenReturn("{\"instancesSet\":{\"items\":[" +
+                "{\"instanceId\":\"i-1\",\"imageId\":\"" + AMI_ID + "\"}," +
+                "{\"instanceId\":\"i-2\",\"imageId\":\"ami-other\"}]}}");
+
+        final EC2InstanceContext secondContextMock = mock(EC2InstanceContext.class);
+        when(ec2InstanceContextMock.getAmiId()).thenReturn(Optional.of(AMI_ID));
+        when(ec2InstanceContextMock.getEvent()).thenReturn(event);
+        when(ec2InstanceContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
+        when(secondContextMock.getAmiId()).thenReturn(Optional.of("ami-other"));
+        when(secondContextMock.getEvent()).thenReturn(event);
+        when(secondContextMock.getClient(eq(AmazonEC2Client.class))).thenReturn(amazonEC2ClientMock);
+
+        // only the batch fails
+        when(amazonEC2ClientMock.describeImages(any(DescribeImagesRequest.class)))
+                .thenThrow(new AmazonClientException("Rate exceeded"));
+        final DescribeImagesRequest firstRequest = new DescribeImagesRequest().withImageIds(AMI_ID);
+        doReturn(new DescribeImagesResult().withImages(new Image().withImageId(AMI_ID)))
+                .when(amazonEC2ClientMock).describeImages(eq(firstRequest));
+        final DescribeImagesRequest secondRequest = new DescribeImagesRequest().withImageIds("ami-other");
+        doReturn(new DescribeImagesResult().withImages(new Image().withImageId("ami-other")))
+                .when(amazonEC2ClientMock).describeImages(eq(secondRequest));
+
+        assertThat(amiProvider.apply(ec2InstanceContextMock).map(Image::getImageId)).contains(AMI_ID);
+        assertThat(amiProvider.apply(secondContextMock).map(Image::getImageId)).contains("ami-other");
+
+        verify(ec2InstanceContextMock).getAmiId();
+        verify(ec2InstanceContextMock).getAccountId();
+        verify(ec2InstanceContextMock).getRegionAsString();
+        verify(ec2InstanceContextMock).getEvent();
+        verify(ec2InstanceContextMock, times(2)).getClient(eq(AmazonEC2Client.class));
+        // one batch and one request per image
+        verify(amazonEC2ClientMock, times(3)).describeImages(any(DescribeImagesRequest.class));
+        verify(amazonEC2ClientMock).describeImages(eq(firstRequest));
+        verify(amazonEC2ClientMock).describeImages(eq(secondRequest));
+    }
+}
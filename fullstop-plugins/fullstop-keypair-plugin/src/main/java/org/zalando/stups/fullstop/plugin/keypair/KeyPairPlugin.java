@@ -2,8 +2,6 @@ package org.zalando.stups.fullstop.plugin.keypair;
 
 import com.amazonaws.services.ec2.model.Image;
 import com.google.common.collect.ImmutableMap;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.JsonPathException;
 import org.zalando.stups.fullstop.plugin.AbstractEC2InstancePlugin;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
@@ -48,11 +46,7 @@ public class KeyPairPlugin extends AbstractEC2InstancePlugin {
     }
 
     private Optional<String> getKeyName(final EC2InstanceContext context) {
-        try {
-            return Optional.ofNullable(trimToNull(JsonPath.read(context.getInstanceJson(), "$.keyName")));
-        } catch (final JsonPathException ignored) {
-            return Optional.empty();
-        }
+        return Optional.ofNullable(trimToNull(context.getInstance().getKeyName()));
     }
 
 
@@ -5,6 +5,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContext;
+import org.zalando.stups.fullstop.plugin.EC2InstanceItem;
 import org.zalando.stups.fullstop.plugin.EC2InstanceContextProvider;
 import org.zalando.stups.fullstop.violation.Violation;
 import org.zalando.stups.fullstop.violation.ViolationBuilder;
@@ -57,10 +58,10 @@ public class KeyPairPluginTest {
     public void testProcessWithKeypair() throws Exception {
         when(mockContext.getAmiId()).thenReturn(Optional.of("ami-123456"));
         when(mockContext.getAmi()).thenReturn(Optional.of(new Image().withName("An AMI").withOwnerId("me")));
-        when(mockContext.getInstanceJson()).thenReturn("{\"keyName\": \"the-key\"}");
+        when(mockContext.getInstance()).thenReturn(EC2InstanceItem.of("{\"keyName\": \"the-key\"}"));
         keyPairPlugin.process(mockContext);
 
-        verify(mockContext).getInstanceJson();
+        verify(mockContext).getInstance();
         verify(mockContext).violation();
         verify(mockContext, times(2)).getAmi();
         verify(mockContext).getAmiId();
@@ -69,28 +70,28 @@ public class KeyPairPluginTest {
 
     @Test
     public void testProcessNullKeypair() throws Exception {
-        when(mockContext.getInstanceJson()).thenReturn("{\"keyName\": null}");
+        when(mockContext.getInstance()).thenReturn(EC2InstanceItem.of("{\"keyName\": null}"));
         keyPairPlugin.process(mockContext);
 
-        verify(mockContext).getInstanceJson();
+        verify(mockContext).getInstance();
         verify(mockViolationSink, never()).put(any(Violation.class));
     }
 
     @Test
     public void testProcessBlankKeypair() throws Exception {
-        when(mockContext.getInstanceJson()).thenReturn("{\"keyName\": \" \"}");
+        when(mockContext.getInstance()).thenReturn(EC2InstanceItem.of("{\"keyName\": \" \"}"));
         keyPairPlugin.process(mockContext);
 
-        verify(mockContext).getInstanceJson();
+        verify(mockContext).getInstance();
         verify(mockViolationSink, never()).put(any(Violation.class));
     }
 
     @Test
     public void testProcessMissingKeypair() throws Exception {
-        when(mockContext.getInstanceJson()).thenReturn("{}");
+        when(mockContext.getInstance()).thenReturn(EC2InstanceItem.of("{}"));
         keyPairPlugin.process(mockContext);
 
-        verify(mockContext).getInstanceJson();
+        verify(mockContext).getInstance();
         verify(mockViolationSink, never()).put(any(Violation.class));
     }
 }
@@ -0,0 +1,93 @@
+package org.zalando.stups.fullstop.plugin.recheck;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import com.jayway.jsonpath.JsonPathException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.stups.fullstop.events.JsonDocuments;
+import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventSelector;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getAccountId;
+import static org.zalando.stups.fullstop.events.CloudTrailEventSupport.getRegionAsString;
+
+/**
+ * Turns CloudTrail events that change a resource into recheck requests, so that the jobs check the resource right
+ * away instead of on their next full sweep. Failed API calls are ignored.
+ */
+public abstract class AbstractRecheckPlugin extends AbstractFullstopPlugin {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final RecheckRequestService recheckRequestService;
+
+    private final EventSelector eventSelector;
+
+    protected AbstractRecheckPlugin(final RecheckRequestService recheckRequestService, final String eventSource,
+                                    final Collection<String> eventNames) {
+        this.recheckRequestService = recheckRequestService;
+        this.eventSelector = EventSelector.of(eventSource, eventNames);
+    }
+
+    @Override
+    public EventSelector getEventSelector() {
+        return eventSelector;
+    }
+
+    @Override
+    public boolean supports(final CloudTrailEvent event) {
+        final CloudTrailEventData eventData = event.getEventData();
+        return eventSelector.getEventSource().equals(eventData.getEventSource())
+                && eventSelector.getEventNames().contains(eventData.getEventName())
+                && eventData.getErrorCode() == null;
+    }
+
+    @Override
+    public void processEvent(final CloudTrailEvent event) {
+        final CloudTrailEventData eventData = event.getEventData();
+        final String requestParameters = eventData.getRequestParameters();
+        if (isNullOrEmpty(requestParameters)) {
+            return;
+        }
+
+        final String accountId = getAccountId(event);
+        final String region = getRegionAsString(event);
+        getResources(eventData.getEventName(), requestParameters).forEach((resourceType, resourceIds) ->
+                resourceIds.forEach(resourceId -> {
+                    log.debug("{} of {} {} in {}/{}, requesting recheck", eventData.getEventName(), resourceType,
+                            resourceId, accountId, region);
+                    recheckRequestService.request(accountId, region, resourceType, resourceId);
+                }));
+    }
+
+    /**
+     * @return the ids of the changed resources by their type
+     */
+    protected abstract Map<RecheckResourceType, List<String>> getResources(String eventName, String requestParameters);
+
+    /**
+     * @return the string or strings at the given path, empty if the path does not exist
+     */
+    @SuppressWarnings("unchecked")
+    protected static List<String> read(final String json, final String path) {
+        try {
+            final Object value = JsonDocuments.read(json, path);
+            if (value instanceof String) {
+                return singletonList((String) value);
+            }
+            return value instanceof List ? (List<String>) value : emptyList();
+        } catch (final JsonPathException ignored) {
+            return emptyList();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.zalando.stups.fullstop.plugin.recheck;
+
+import com.google.common.collect.ImmutableMap;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.DB_INSTANCE;
+
+/**
+ * An RDS instance was created, restored or modified, e.g. made publicly accessible.
+ */
+public class DBInstanceRecheckPlugin extends AbstractRecheckPlugin {
+
+    static final String RDS_SOURCE = "rds.amazonaws.com";
+
+    static final String RESTORE_DB_INSTANCE_TO_POINT_IN_TIME = "RestoreDBInstanceToPointInTime";
+
+    public DBInstanceRecheckPlugin(final RecheckRequestService recheckRequestService) {
+        super(recheckRequestService, RDS_SOURCE, asList(
+                "CreateDBInstance",
+                "ModifyDBInstance",
+                "RestoreDBInstanceFromDBSnapshot",
+                RESTORE_DB_INSTANCE_TO_POINT_IN_TIME));
+    }
+
+    @Override
+    protected Map<RecheckResourceType, List<String>> getResources(final String eventName, final String requestParameters) {
+        if (RESTORE_DB_INSTANCE_TO_POINT_IN_TIME.equals(eventName)) {
+            return ImmutableMap.of(DB_INSTANCE, read(requestParameters, "$.targetDBInstanceIdentifier"));
+        }
+        return ImmutableMap.of(DB_INSTANCE, read(requestParameters, "$.dBInstanceIdentifier"));
+    }
+}
@@ -0,0 +1,33 @@
+package org.zalando.stups.fullstop.plugin.recheck;
+
+import com.google.common.collect.ImmutableMap;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.LOAD_BALANCER;
+
+/**
+ * An ELB was created, or its listeners or security groups changed.
+ */
+public class LoadBalancerRecheckPlugin extends AbstractRecheckPlugin {
+
+    static final String ELB_SOURCE = "elasticloadbalancing.amazonaws.com";
+
+    public LoadBalancerRecheckPlugin(final RecheckRequestService recheckRequestService) {
+        super(recheckRequestService, ELB_SOURCE, asList(
+                "CreateLoadBalancer",
+                "CreateLoadBalancerListeners",
+                "DeleteLoadBalancerListeners",
+                "ApplySecurityGroupsToLoadBalancer",
+                "RegisterInstancesWithLoadBalancer"));
+    }
+
+    @Override
+    protected Map<RecheckResourceType, List<String>> getResources(final String eventName, final String requestParameters) {
+        return ImmutableMap.of(LOAD_BALANCER, read(requestParameters, "$.loadBalancerName"));
+    }
+}
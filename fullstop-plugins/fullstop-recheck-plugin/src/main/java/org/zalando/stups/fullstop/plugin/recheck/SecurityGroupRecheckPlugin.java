@@ -0,0 +1,39 @@
+package org.zalando.stups.fullstop.plugin.recheck;
+
+import com.google.common.collect.ImmutableMap;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.SECURITY_GROUP;
+
+/**
+ * Security group rules were changed, or an instance got other security groups.
+ */
+public class SecurityGroupRecheckPlugin extends AbstractRecheckPlugin {
+
+    static final String EC2_SOURCE = "ec2.amazonaws.com";
+
+    static final String AUTHORIZE_SECURITY_GROUP_INGRESS = "AuthorizeSecurityGroupIngress";
+
+    static final String REVOKE_SECURITY_GROUP_INGRESS = "RevokeSecurityGroupIngress";
+
+    static final String MODIFY_INSTANCE_ATTRIBUTE = "ModifyInstanceAttribute";
+
+    public SecurityGroupRecheckPlugin(final RecheckRequestService recheckRequestService) {
+        super(recheckRequestService, EC2_SOURCE,
+                asList(AUTHORIZE_SECURITY_GROUP_INGRESS, REVOKE_SECURITY_GROUP_INGRESS, MODIFY_INSTANCE_ATTRIBUTE));
+    }
+
+    @Override
+    protected Map<RecheckResourceType, List<String>> getResources(final String eventName, final String requestParameters) {
+        if (MODIFY_INSTANCE_ATTRIBUTE.equals(eventName)) {
+            return ImmutableMap.of(INSTANCE, read(requestParameters, "$.instanceId"));
+        }
+        return ImmutableMap.of(SECURITY_GROUP, read(requestParameters, "$.groupId"));
+    }
+}
@@ -0,0 +1,27 @@
+package org.zalando.stups.fullstop.plugin.recheck.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.stups.fullstop.plugin.recheck.DBInstanceRecheckPlugin;
+import org.zalando.stups.fullstop.plugin.recheck.LoadBalancerRecheckPlugin;
+import org.zalando.stups.fullstop.plugin.recheck.SecurityGroupRecheckPlugin;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+@Configuration
+public class RecheckPluginAutoConfiguration {
+
+    @Bean
+    SecurityGroupRecheckPlugin securityGroupRecheckPlugin(final RecheckRequestService recheckRequestService) {
+        return new SecurityGroupRecheckPlugin(recheckRequestService);
+    }
+
+    @Bean
+    LoadBalancerRecheckPlugin loadBalancerRecheckPlugin(final RecheckRequestService recheckRequestService) {
+        return new LoadBalancerRecheckPlugin(recheckRequestService);
+    }
+
+    @Bean
+    DBInstanceRecheckPlugin dbInstanceRecheckPlugin(final RecheckRequestService recheckRequestService) {
+        return new DBInstanceRecheckPlugin(recheckRequestService);
+    }
+}
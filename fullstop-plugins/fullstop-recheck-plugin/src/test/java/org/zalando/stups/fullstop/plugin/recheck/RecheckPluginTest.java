@@ -0,0 +1,114 @@
+package org.zalando.stups.fullstop.plugin.recheck;
+
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEventData;
+import com.amazonaws.services.cloudtrail.processinglibrary.model.internal.UserIdentity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.DB_INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.LOAD_BALANCER;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.SECURITY_GROUP;
+
+public class RecheckPluginTest {
+
+    private static final String ACCOUNT_ID = "123456789012";
+
+    private static final String REGION = "eu-west-1";
+
+    private RecheckRequestService recheckRequestServiceMock;
+
+    @Before
+    public void setUp() throws Exception {
+        recheckRequestServiceMock = mock(RecheckRequestService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(recheckRequestServiceMock);
+    }
+
+    @Test
+    public void testSecurityGroupIngressChange() throws Exception {
+        final SecurityGroupRecheckPlugin plugin = new SecurityGroupRecheckPlugin(recheckRequestServiceMock);
+        final CloudTrailEvent event = event("ec2.amazonaws.com", "AuthorizeSecurityGroupIngress",
+                "{\"groupId\":\"sg-1\",\"ipPermissions\":{\"items\":[{\"groups\":{\"items\":[{\"groupId\":\"sg-2\"}]}}]}}");
+
+        assertThat(plugin.supports(event)).isTrue();
+        plugin.processEvent(event);
+
+        verify(recheckRequestServiceMock).request(ACCOUNT_ID, REGION, SECURITY_GROUP, "sg-1");
+    }
+
+    @Test
+    public void testInstanceAttributeChange() throws Exception {
+        final SecurityGroupRecheckPlugin plugin = new SecurityGroupRecheckPlugin(recheckRequestServiceMock);
+
+        plugin.processEvent(event("ec2.amazonaws.com", "ModifyInstanceAttribute", "{\"instanceId\":\"i-1\"}"));
+
+        verify(recheckRequestServiceMock).request(ACCOUNT_ID, REGION, INSTANCE, "i-1");
+    }
+
+    @Test
+    public void testLoadBalancerListenerChange() throws Exception {
+        final LoadBalancerRecheckPlugin plugin = new LoadBalancerRecheckPlugin(recheckRequestServiceMock);
+        final CloudTrailEvent event = event("elasticloadbalancing.amazonaws.com", "CreateLoadBalancerListeners",
+                "{\"loadBalancerName\":\"my-elb\"}");
+
+        assertThat(plugin.supports(event)).isTrue();
+        plugin.processEvent(event);
+
+        verify(recheckRequestServiceMock).request(ACCOUNT_ID, REGION, LOAD_BALANCER, "my-elb");
+    }
+
+    @Test
+    public void testDBInstanceRestore() throws Exception {
+        final DBInstanceRecheckPlugin plugin = new DBInstanceRecheckPlugin(recheckRequestServiceMock);
+
+        plugin.processEvent(event("rds.amazonaws.com", "RestoreDBInstanceToPointInTime",
+                "{\"sourceDBInstanceIdentifier\":\"db-1\",\"targetDBInstanceIdentifier\":\"db-2\"}"));
+
+        verify(recheckRequestServiceMock).request(ACCOUNT_ID, REGION, DB_INSTANCE, "db-2");
+    }
+
+    @Test
+    public void testIgnoresFailedCallsAndOtherEvents() throws Exception {
+        final SecurityGroupRecheckPlugin plugin = new SecurityGroupRecheckPlugin(recheckRequestServiceMock);
+
+        final CloudTrailEvent failed = event("ec2.amazonaws.com", "AuthorizeSecurityGroupIngress", "{\"groupId\":\"sg-1\"}");
+        when(failed.getEventData().getErrorCode()).thenReturn("Client.UnauthorizedOperation");
+
+        assertThat(plugin.supports(failed)).isFalse();
+        assertThat(plugin.supports(event("ec2.amazonaws.com", "RunInstances", "{}"))).isFalse();
+        assertThat(plugin.supports(event("rds.amazonaws.com", "ModifyInstanceAttribute", "{}"))).isFalse();
+    }
+
+    @Test
+    public void testIgnoresMissingResourceIds() throws Exception {
+        final LoadBalancerRecheckPlugin plugin = new LoadBalancerRecheckPlugin(recheckRequestServiceMock);
+
+        plugin.processEvent(event("elasticloadbalancing.amazonaws.com", "CreateLoadBalancer", "{}"));
+        plugin.processEvent(event("elasticloadbalancing.amazonaws.com", "CreateLoadBalancer", null));
+    }
+
+    private static CloudTrailEvent event(final String eventSource, final String eventName, final String requestParameters) {
+        final UserIdentity userIdentity = mock(UserIdentity.class);
+        when(userIdentity.getAccountId()).thenReturn(ACCOUNT_ID);
+
+        final CloudTrailEventData eventData = mock(CloudTrailEventData.class);
+        when(eventData.getEventSource()).thenReturn(eventSource);
+        when(eventData.getEventName()).thenReturn(eventName);
+        when(eventData.getRequestParameters()).thenReturn(requestParameters);
+        when(eventData.getAwsRegion()).thenReturn(REGION);
+        when(eventData.getUserIdentity()).thenReturn(userIdentity);
+        return new CloudTrailEvent(eventData, null);
+    }
+}
@@ -55,6 +55,11 @@ public class SaveSecurityGroupsPlugin extends AbstractFullstopPlugin {
         this.bucketName = bucketName;
     }
 
+    @Override
+    public EventSelector getEventSelector() {
+        return EventSelector.of(EC2_SOURCE_EVENTS, EVENT_NAME);
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         final CloudTrailEventData cloudTrailEventData = event.getEventData();
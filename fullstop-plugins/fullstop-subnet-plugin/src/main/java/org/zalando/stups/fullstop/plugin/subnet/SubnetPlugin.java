@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.zalando.stups.fullstop.aws.ClientProvider;
 import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventSelector;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
 import java.util.List;
@@ -44,6 +45,11 @@ public class SubnetPlugin extends AbstractFullstopPlugin {
         this.violationSink = violationSink;
     }
 
+    @Override
+    public EventSelector getEventSelector() {
+        return EventSelector.of(EC2_SOURCE_EVENTS, EVENT_NAME);
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         final CloudTrailEventData cloudTrailEventData = event.getEventData();
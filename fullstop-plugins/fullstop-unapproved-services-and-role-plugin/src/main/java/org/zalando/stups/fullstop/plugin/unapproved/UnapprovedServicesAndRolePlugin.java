@@ -5,13 +5,14 @@ import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
-import com.jayway.jsonpath.JsonPath;
 import io.fabric8.zjsonpatch.JsonDiff;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.zalando.stups.fullstop.events.JsonDocuments;
 import org.zalando.stups.fullstop.plugin.AbstractFullstopPlugin;
+import org.zalando.stups.fullstop.plugin.EventSelector;
 import org.zalando.stups.fullstop.plugin.unapproved.config.UnapprovedServicesAndRoleProperties;
 import org.zalando.stups.fullstop.violation.ViolationSink;
 
@@ -62,6 +63,11 @@ public class UnapprovedServicesAndRolePlugin extends AbstractFullstopPlugin {
         }
     }
 
+    @Override
+    public EventSelector getEventSelector() {
+        return EventSelector.of(EVENT_SOURCE, unapprovedServicesAndRoleProperties.getEventNames());
+    }
+
     @Override
     public boolean supports(final CloudTrailEvent event) {
         final CloudTrailEventData cloudTrailEventData = event.getEventData();
@@ -146,7 +152,7 @@ public class UnapprovedServicesAndRolePlugin extends AbstractFullstopPlugin {
                 && event.getEventData().getRequestParameters() != null
                 && !event.getEventData().getRequestParameters().isEmpty()) {
 
-            return JsonPath.read(event.getEventData().getRequestParameters(), "$.roleName");
+            return JsonDocuments.read(event.getEventData().getRequestParameters(), "$.roleName");
 
         } else {
             return null;
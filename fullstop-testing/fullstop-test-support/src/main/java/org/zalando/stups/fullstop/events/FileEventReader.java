@@ -5,25 +5,42 @@ import com.amazonaws.services.cloudtrail.processinglibrary.interfaces.EventsProc
 import com.amazonaws.services.cloudtrail.processinglibrary.model.CloudTrailEvent;
 import com.amazonaws.services.cloudtrail.processinglibrary.serializer.EventSerializer;
 import com.amazonaws.services.cloudtrail.processinglibrary.utils.EventBuffer;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 public class FileEventReader {
 
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // thread safe and expensive to create, so it is shared by all readers
+    private static final JsonFactory JSON_FACTORY = new ObjectMapper().getFactory();
+
     private final EventsProcessor eventsProcessor;
 
-    private final ObjectMapper mapper;
+    private final int batchSize;
 
-    public FileEventReader(final EventsProcessor eventsProcessor) {
+    public FileEventReader(final EventsProcessor eventsProcessor, final int batchSize) {
         this.eventsProcessor = eventsProcessor;
-        this.mapper = new ObjectMapper();
+        this.batchSize = batchSize;
     }
 
+    public FileEventReader(final EventsProcessor eventsProcessor) {
+        this(eventsProcessor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Reads plain or gzipped log files. The events are parsed as a stream, the file is never read as a whole.
+     */
     public void readEvents(final InputStream is) throws CallbackException {
-        try (final TestCloudTrailEventSerializer serializer = new TestCloudTrailEventSerializer(mapper.getFactory().createParser(is))) {
+        try (final TestCloudTrailEventSerializer serializer = new TestCloudTrailEventSerializer(JSON_FACTORY.createParser(decompressed(is)))) {
             this.emitEvents(serializer);
         } catch (final IOException e) {
             throw new RuntimeException(e);
@@ -31,7 +48,7 @@ public class FileEventReader {
     }
 
     protected void emitEvents(final EventSerializer serializer) throws CallbackException, IOException {
-        final EventBuffer<CloudTrailEvent> eventBuffer = new EventBuffer<>(10);
+        final EventBuffer<CloudTrailEvent> eventBuffer = new EventBuffer<>(batchSize);
         while (serializer.hasNextEvent()) {
             final CloudTrailEvent event = serializer.getNextEvent();
             eventBuffer.addEvent(event);
@@ -46,4 +63,17 @@ public class FileEventReader {
             this.eventsProcessor.process(events);
         }
     }
+
+    private static InputStream decompressed(final InputStream is) throws IOException {
+        final PushbackInputStream in = new PushbackInputStream(is, 2);
+        final byte[] magic = new byte[2];
+        final int read = in.read(magic);
+        if (read > 0) {
+            in.unread(magic, 0, read);
+        }
+        if (read == 2 && (magic[0] & 0xff | (magic[1] & 0xff) << 8) == GZIPInputStream.GZIP_MAGIC) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return in;
+    }
 }
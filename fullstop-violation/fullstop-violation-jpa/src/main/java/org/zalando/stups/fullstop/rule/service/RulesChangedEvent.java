@@ -0,0 +1,19 @@
+package org.zalando.stups.fullstop.rule.service;
+
+import org.springframework.context.ApplicationEvent;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+
+/**
+ * Published by {@link RuleEntityService} whenever a whitelisting rule has been created, updated or expired.
+ * Consumers caching the set of active rules should drop their copy when receiving it.
+ */
+public class RulesChangedEvent extends ApplicationEvent {
+
+    public RulesChangedEvent(final RuleEntity ruleEntity) {
+        super(ruleEntity);
+    }
+
+    public RuleEntity getRuleEntity() {
+        return (RuleEntity) getSource();
+    }
+}
@@ -0,0 +1,109 @@
+package org.zalando.stups.fullstop.violation.entity;
+
+import org.joda.time.DateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Progress of a long running job that walks through a table by id. Allows the job to continue where it stopped
+ * after a restart.
+ */
+@Table(name = "job_checkpoint", schema = "fullstop_data")
+@Entity
+public class JobCheckpointEntity {
+
+    @Id
+    private String jobName;
+
+    /**
+     * The highest id that has been processed completely.
+     */
+    @Column(nullable = false)
+    private long lastId;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long updated;
+
+    @Column(nullable = false)
+    private DateTime started;
+
+    @Column(nullable = false)
+    private DateTime lastModified;
+
+    public JobCheckpointEntity() {
+    }
+
+    public JobCheckpointEntity(final String jobName) {
+        this.jobName = jobName;
+        this.started = DateTime.now();
+        this.lastModified = started;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(final String jobName) {
+        this.jobName = jobName;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(final long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(final long processed) {
+        this.processed = processed;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(final long updated) {
+        this.updated = updated;
+    }
+
+    public DateTime getStarted() {
+        return started;
+    }
+
+    public void setStarted(final DateTime started) {
+        this.started = started;
+    }
+
+    public DateTime getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(final DateTime lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("jobName", jobName)
+                .add("lastId", lastId)
+                .add("processed", processed)
+                .add("updated", updated)
+                .add("started", started)
+                .add("lastModified", lastModified)
+                .toString();
+    }
+}
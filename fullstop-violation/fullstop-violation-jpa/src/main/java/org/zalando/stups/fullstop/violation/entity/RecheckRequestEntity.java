@@ -0,0 +1,128 @@
+package org.zalando.stups.fullstop.violation.entity;
+
+import org.joda.time.DateTime;
+import org.zalando.stups.fullstop.domain.AbstractEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Table;
+
+import static com.google.common.base.MoreObjects.ToStringHelper;
+
+/**
+ * A resource that changed according to a CloudTrail event and should be rechecked by the jobs.
+ */
+@Table(name = "recheck_request", schema = "fullstop_data")
+@Entity
+public class RecheckRequestEntity extends AbstractEntity {
+
+    @Column(nullable = false)
+    private String accountId;
+
+    @Column(nullable = false)
+    private String region;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private RecheckResourceType resourceType;
+
+    @Column(nullable = false)
+    private String resourceId;
+
+    @Column(nullable = false)
+    private DateTime created;
+
+    /**
+     * Failed rechecks of the request so far.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * The request is not rechecked before, it is postponed after a failed recheck.
+     */
+    @Column(nullable = false)
+    private DateTime nextAttempt;
+
+    public RecheckRequestEntity() {
+    }
+
+    public RecheckRequestEntity(final String accountId, final String region, final RecheckResourceType resourceType,
+                                final String resourceId) {
+        this.accountId = accountId;
+        this.region = region;
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+        this.created = DateTime.now();
+        this.nextAttempt = created;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(final String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(final String region) {
+        this.region = region;
+    }
+
+    public RecheckResourceType getResourceType() {
+        return resourceType;
+    }
+
+    public void setResourceType(final RecheckResourceType resourceType) {
+        this.resourceType = resourceType;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(final String resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public DateTime getCreated() {
+        return created;
+    }
+
+    public void setCreated(final DateTime created) {
+        this.created = created;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(final int attempts) {
+        this.attempts = attempts;
+    }
+
+    public DateTime getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(final DateTime nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+
+    @Override
+    protected void addToStringFields(final ToStringHelper helper) {
+        helper.add("accountId", accountId);
+        helper.add("region", region);
+        helper.add("resourceType", resourceType);
+        helper.add("resourceId", resourceId);
+        helper.add("created", created);
+        helper.add("attempts", attempts);
+        helper.add("nextAttempt", nextAttempt);
+    }
+}
@@ -0,0 +1,15 @@
+package org.zalando.stups.fullstop.violation.entity;
+
+/**
+ * Kinds of resources the jobs can recheck individually.
+ */
+public enum RecheckResourceType {
+
+    INSTANCE,
+
+    SECURITY_GROUP,
+
+    LOAD_BALANCER,
+
+    DB_INSTANCE
+}
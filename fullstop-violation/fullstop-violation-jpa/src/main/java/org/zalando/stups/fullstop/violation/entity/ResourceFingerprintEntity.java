@@ -0,0 +1,112 @@
+package org.zalando.stups.fullstop.violation.entity;
+
+import org.joda.time.DateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Fingerprint of the properties a scheduled job checks on one resource, e.g. an EC2 instance, recorded once the
+ * resource has been checked. As long as the fingerprint stays the same, the job does not need to check it again.
+ */
+@Table(name = "resource_fingerprint", schema = "fullstop_data")
+@Entity
+@IdClass(ResourceFingerprintKey.class)
+public class ResourceFingerprintEntity {
+
+    @Id
+    private String jobName;
+
+    @Id
+    private String accountId;
+
+    @Id
+    private String region;
+
+    @Id
+    private String resourceId;
+
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private DateTime lastModified;
+
+    public ResourceFingerprintEntity() {
+    }
+
+    public ResourceFingerprintEntity(final String jobName, final String accountId, final String region,
+                                     final String resourceId, final String fingerprint) {
+        this.jobName = jobName;
+        this.accountId = accountId;
+        this.region = region;
+        this.resourceId = resourceId;
+        this.fingerprint = fingerprint;
+        this.lastModified = DateTime.now();
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(final String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(final String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(final String region) {
+        this.region = region;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(final String resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(final String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public DateTime getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(final DateTime lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("jobName", jobName)
+                .add("accountId", accountId)
+                .add("region", region)
+                .add("resourceId", resourceId)
+                .add("fingerprint", fingerprint)
+                .add("lastModified", lastModified)
+                .toString();
+    }
+}
@@ -0,0 +1,63 @@
+package org.zalando.stups.fullstop.violation.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link ResourceFingerprintEntity}.
+ */
+public class ResourceFingerprintKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String jobName;
+
+    private String accountId;
+
+    private String region;
+
+    private String resourceId;
+
+    public ResourceFingerprintKey() {
+    }
+
+    public ResourceFingerprintKey(final String jobName, final String accountId, final String region,
+                                  final String resourceId) {
+        this.jobName = jobName;
+        this.accountId = accountId;
+        this.region = region;
+        this.resourceId = resourceId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ResourceFingerprintKey that = (ResourceFingerprintKey) o;
+        return Objects.equals(jobName, that.jobName) &&
+                Objects.equals(accountId, that.accountId) &&
+                Objects.equals(region, that.region) &&
+                Objects.equals(resourceId, that.resourceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobName, accountId, region, resourceId);
+    }
+}
@@ -0,0 +1,10 @@
+package org.zalando.stups.fullstop.violation.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.zalando.stups.fullstop.violation.entity.JobCheckpointEntity;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpointEntity, String> {
+
+}
@@ -0,0 +1,66 @@
+package org.zalando.stups.fullstop.violation.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.zalando.stups.fullstop.violation.entity.RecheckRequestEntity;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RecheckRequestRepository extends JpaRepository<RecheckRequestEntity, Long> {
+
+    /**
+     * Returns the oldest requests of the regions that are due. Requests of the delayed resource type are due only, if
+     * they were created before delayedCreatedBefore.
+     */
+    @Query(value = "SELECT * FROM fullstop_data.recheck_request " +
+            "WHERE next_attempt <= now() AND region IN (?1) AND (resource_type <> ?2 OR created <= ?3) " +
+            "ORDER BY id LIMIT ?4", nativeQuery = true)
+    List<RecheckRequestEntity> findDue(Collection<String> regions, String delayedResourceType,
+                                       Timestamp delayedCreatedBefore, int limit);
+
+    /**
+     * Queues the resource, or moves the created timestamp of its queued request forward, so that a request that is
+     * being processed already is not removed by {@link #dequeue(Long, Timestamp)}. The attempts of a queued request
+     * are kept, a resource that changes all the time does not escape the backoff.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO fullstop_data.recheck_request " +
+            "(account_id, region, resource_type, resource_id, created, attempts, next_attempt) " +
+            "VALUES (?1, ?2, ?3, ?4, now(), 0, now()) " +
+            "ON CONFLICT (account_id, region, resource_type, resource_id) DO UPDATE SET created = EXCLUDED.created",
+            nativeQuery = true)
+    int enqueue(String accountId, String region, String resourceType, String resourceId);
+
+    /**
+     * Removes the request, unless it was queued again after created. The column is compared in milliseconds, the
+     * precision of the entity.
+     *
+     * @return 0, if the request was queued again
+     */
+    @Modifying
+    @Query(value = "DELETE FROM fullstop_data.recheck_request " +
+            "WHERE id = ?1 AND date_trunc('milliseconds', created) <= ?2", nativeQuery = true)
+    int dequeue(Long id, Timestamp created);
+
+    /**
+     * Counts a failed attempt of the request and postpones it until nextAttempt.
+     */
+    @Modifying
+    @Query(value = "UPDATE fullstop_data.recheck_request SET attempts = attempts + 1, next_attempt = ?2 WHERE id = ?1",
+            nativeQuery = true)
+    int postpone(Long id, Timestamp nextAttempt);
+
+    /**
+     * Removes the requests of all regions except the given ones.
+     *
+     * @return the number of removed requests
+     */
+    @Modifying
+    @Query(value = "DELETE FROM fullstop_data.recheck_request WHERE region NOT IN (?1)", nativeQuery = true)
+    int deleteByRegionNotIn(Collection<String> regions);
+}
@@ -0,0 +1,14 @@
+package org.zalando.stups.fullstop.violation.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.zalando.stups.fullstop.violation.entity.ResourceFingerprintEntity;
+import org.zalando.stups.fullstop.violation.entity.ResourceFingerprintKey;
+
+import java.util.List;
+
+@Repository
+public interface ResourceFingerprintRepository extends JpaRepository<ResourceFingerprintEntity, ResourceFingerprintKey> {
+
+    List<ResourceFingerprintEntity> findByJobNameAndAccountIdAndRegion(String jobName, String accountId, String region);
+}
@@ -1,16 +1,21 @@
 package org.zalando.stups.fullstop.violation.repository;
 
 import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
 import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Created by gkneitschel.
@@ -24,12 +29,108 @@ public interface ViolationRepositoryCustom {
                                           List<String> applicationIds, List<String> applicationVersionIds,
                                           Pageable pageable);
 
+    /**
+     * Keyset pagination variant of {@link #queryViolations}: returns the next violations with an id greater than
+     * afterViolation, ordered by id. Neither counts nor skips rows, so the costs do not grow with the position.
+     */
+    Slice<ViolationEntity> queryViolationsAfter(List<String> accounts, DateTime from, DateTime to, Long afterViolation,
+                                                boolean checked, Integer severity, Integer priority,
+                                                Boolean auditRelevant, List<String> types, boolean whitelisted,
+                                                List<String> applicationIds, List<String> applicationVersionIds,
+                                                int size);
+
+    /**
+     * Counts the violations matching the filters of {@link #queryViolations}.
+     *
+     * @param limit stop counting at this number, to bound the costs. Values &lt;= 0 count exactly.
+     */
+    long countViolations(List<String> accounts, DateTime from, DateTime to, boolean checked, Integer severity,
+                         Integer priority, Boolean auditRelevant, List<String> types, boolean whitelisted,
+                         List<String> applicationIds, List<String> applicationVersionIds, long limit);
+
+    /**
+     * Passes all violations matching the filters of {@link #queryViolations} to the consumer, ordered by id.
+     * Rows are read with a forward-only cursor and detached from the persistence context batch by batch, so
+     * memory usage does not depend on the number of violations. Has to be called within a transaction.
+     *
+     * @param fetchSize number of rows fetched from the database at once
+     */
+    void streamViolations(List<String> accounts, DateTime from, DateTime to, boolean checked, Integer severity,
+                          Integer priority, Boolean auditRelevant, List<String> types, boolean whitelisted,
+                          List<String> applicationIds, List<String> applicationVersionIds, int fetchSize,
+                          Consumer<ViolationEntity> consumer);
+
     boolean violationExists(String accountId, String region, String eventId, String instanceId, String violationType);
 
+    /**
+     * Checks many violations for existence with a single query.
+     *
+     * @return the subset of the given keys that are already persisted
+     */
+    Set<ViolationKey> findExistingViolations(Collection<ViolationKey> keys);
+
+    /**
+     * @return the keys of the most recently created violations, newest first
+     */
+    List<ViolationKey> findLatestViolationKeys(int limit);
+
+    /**
+     * Inserts all violations with one JDBC batch in the current transaction. Rows conflicting with the
+     * unique_violation indexes are skipped silently. Referenced entities have to be persisted already.
+     *
+     * @return the number of inserted rows
+     */
+    int insertIgnoringDuplicates(List<ViolationEntity> violations);
+
+    /**
+     * Keyset pagination over open (neither resolved nor whitelisted) violations. Application, version and
+     * violation type are fetched along with the violations.
+     *
+     * @param afterId only violations with a greater id are returned
+     * @param limit   max. number of violations
+     * @return open violations ordered by id
+     */
+    List<ViolationEntity> findOpenViolations(long afterId, int limit);
+
+    /**
+     * Stores rule and comment of the given violations with one JDBC batch in the current transaction. Violations
+     * that have been resolved or whitelisted in the meantime are left untouched.
+     *
+     * @return the number of updated rows
+     */
+    int whitelistViolations(List<ViolationEntity> violations, String modifiedBy);
+
     List<CountByAccountAndType> countByAccountAndType(Set<String> accountIds, Optional<DateTime> from,
                                                       Optional<DateTime> to, boolean resolved, boolean whitelisted);
 
     List<CountByAppVersionAndType> countByAppVersionAndType(String account, Optional<DateTime> from,
                                                             Optional<DateTime> to, boolean resolved,
                                                             boolean whitelisted);
+
+    /**
+     * Same as {@link #countByAccountAndType(Set, Optional, Optional, boolean, boolean)}, but sums up the daily
+     * counts maintained by the database instead of grouping the violations.
+     *
+     * @param fromDay first day to count (inclusive), empty for no lower bound
+     * @param toDay   day to stop at (exclusive), empty for no upper bound
+     */
+    List<CountByAccountAndType> countByAccountAndTypeFromRollup(Set<String> accountIds, Optional<LocalDate> fromDay,
+                                                                Optional<LocalDate> toDay, boolean resolved,
+                                                                boolean whitelisted);
+
+    /**
+     * Same as {@link #countByAppVersionAndType(String, Optional, Optional, boolean, boolean)}, but sums up the
+     * daily counts maintained by the database for the whole days. The violations from fromDate until fromDay and
+     * from toDay until toDate are counted in the same query, so that the result has the same order.
+     *
+     * @param fromDate start of the first partial day (inclusive), only used with fromDay
+     * @param toDate   end of the last partial day (inclusive), only used with toDay
+     * @param fromDay  first day to count (inclusive), empty for no lower bound
+     * @param toDay    day to stop at (exclusive), empty for no upper bound
+     */
+    List<CountByAppVersionAndType> countByAppVersionAndTypeFromRollup(String account, Optional<DateTime> fromDate,
+                                                                      Optional<DateTime> toDate,
+                                                                      Optional<LocalDate> fromDay,
+                                                                      Optional<LocalDate> toDay, boolean resolved,
+                                                                      boolean whitelisted);
 }
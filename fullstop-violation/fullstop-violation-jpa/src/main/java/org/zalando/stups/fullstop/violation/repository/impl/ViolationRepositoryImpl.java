@@ -2,23 +2,38 @@ package org.zalando.stups.fullstop.violation.repository.impl;
 
 import com.mysema.query.jpa.JPQLQuery;
 import com.mysema.query.types.Predicate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.support.QueryDslRepositorySupport;
 import org.springframework.util.Assert;
+import org.zalando.stups.fullstop.domain.AbstractEntity;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.violation.converter.ViolationObjectConverter;
 import org.zalando.stups.fullstop.violation.entity.*;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepositoryCustom;
 
 import javax.persistence.Query;
 import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static com.google.common.collect.Iterables.isEmpty;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.partition;
 import static com.mysema.query.types.ExpressionUtils.allOf;
+import static com.mysema.query.types.ExpressionUtils.anyOf;
 import static com.mysema.query.types.Projections.constructor;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
+import static javax.persistence.TemporalType.DATE;
 import static javax.persistence.TemporalType.TIMESTAMP;
 
 @SuppressWarnings("unused")
@@ -28,6 +43,21 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
 
     private static final Sort SORT_BY_ID = new Sort(ID);
 
+    private static final int MAX_KEYS_PER_QUERY = 500;
+
+    private static final String INSERT_IGNORING_DUPLICATES = "INSERT INTO fullstop_data.violation " +
+            "(event_id, account_id, region, instance_id, meta_info, comment, plugin_fully_qualified_class_name, " +
+            "username, violation_type_entity_id, application_id, application_version_id, rule_entity_id, " +
+            "created, created_by, last_modified, last_modified_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String WHITELIST_VIOLATION = "UPDATE fullstop_data.violation " +
+            "SET rule_entity_id = ?, comment = ?, last_modified = ?, last_modified_by = ?, version = version + 1 " +
+            "WHERE id = ? AND rule_entity_id IS NULL AND comment IS NULL";
+
+    private final ViolationObjectConverter metaInfoConverter = new ViolationObjectConverter();
+
     public ViolationRepositoryImpl() {
         super(ViolationEntity.class);
     }
@@ -52,6 +82,157 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
 
         final JPQLQuery query = from(qViolationEntity).leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity);
 
+        final List<Predicate> predicates = violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from,
+                to, checked, severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds);
+
+        if (lastViolation != null) {
+            predicates.add(qViolationEntity.id.goe(lastViolation));
+        }
+
+        final long total = query.where(allOf(predicates)).count();
+
+        final Sort sort = pageable.getSort();
+        final Sort fixedSort = (sort == null || isEmpty(sort)) ? SORT_BY_ID : sort;
+        final PageRequest fixedPage = new PageRequest(pageable.getPageNumber(), pageable.getPageSize(), fixedSort);
+
+        getQuerydsl().applyPagination(fixedPage, query);
+
+        final List<ViolationEntity> list;
+        list = total > 0 ? query.where(allOf(predicates)).list(qViolationEntity) : emptyList();
+
+        return new PageImpl<>(list, fixedPage, total);
+    }
+
+    @Override
+    public Slice<ViolationEntity> queryViolationsAfter(final List<String> accounts,
+                                                       final DateTime from,
+                                                       final DateTime to,
+                                                       final Long afterViolation,
+                                                       final boolean checked,
+                                                       final Integer severity,
+                                                       final Integer priority,
+                                                       final Boolean auditRelevant,
+                                                       final List<String> types,
+                                                       final boolean whitelisted,
+                                                       final List<String> applicationIds,
+                                                       final List<String> applicationVersionIds,
+                                                       final int size) {
+        Assert.isTrue(size > 0, "size must be positive");
+
+        final QViolationEntity qViolationEntity = QViolationEntity.violationEntity;
+        final QViolationTypeEntity qViolationTypeEntity = QViolationTypeEntity.violationTypeEntity;
+
+        final List<Predicate> predicates = violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from,
+                to, checked, severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds);
+
+        if (afterViolation != null) {
+            predicates.add(qViolationEntity.id.gt(afterViolation));
+        }
+
+        // one more row than requested tells whether there is a next slice, without counting
+        final List<ViolationEntity> list = from(qViolationEntity)
+                .leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity)
+                .where(allOf(predicates))
+                .orderBy(qViolationEntity.id.asc())
+                .limit(size + 1)
+                .list(qViolationEntity);
+
+        final boolean hasNext = list.size() > size;
+        return new SliceImpl<>(hasNext ? list.subList(0, size) : list, new PageRequest(0, size, SORT_BY_ID), hasNext);
+    }
+
+    @Override
+    public long countViolations(final List<String> accounts,
+                                final DateTime from,
+                                final DateTime to,
+                                final boolean checked,
+                                final Integer severity,
+                                final Integer priority,
+                                final Boolean auditRelevant,
+                                final List<String> types,
+                                final boolean whitelisted,
+                                final List<String> applicationIds,
+                                final List<String> applicationVersionIds,
+                                final long limit) {
+
+        final QViolationEntity qViolationEntity = QViolationEntity.violationEntity;
+        final QViolationTypeEntity qViolationTypeEntity = QViolationTypeEntity.violationTypeEntity;
+
+        final JPQLQuery query = from(qViolationEntity)
+                .leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity)
+                .where(allOf(violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from, to, checked,
+                        severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds)));
+
+        if (limit <= 0) {
+            return query.count();
+        }
+
+        // reading at most limit ids keeps the costs bounded, no matter how many rows match
+        return query.orderBy(qViolationEntity.id.asc()).limit(limit).list(qViolationEntity.id).size();
+    }
+
+    @Override
+    public void streamViolations(final List<String> accounts,
+                                 final DateTime from,
+                                 final DateTime to,
+                                 final boolean checked,
+                                 final Integer severity,
+                                 final Integer priority,
+                                 final Boolean auditRelevant,
+                                 final List<String> types,
+                                 final boolean whitelisted,
+                                 final List<String> applicationIds,
+                                 final List<String> applicationVersionIds,
+                                 final int fetchSize,
+                                 final Consumer<ViolationEntity> consumer) {
+        Assert.isTrue(fetchSize > 0, "fetchSize must be positive");
+
+        final QViolationEntity qViolationEntity = QViolationEntity.violationEntity;
+        final QViolationTypeEntity qViolationTypeEntity = QViolationTypeEntity.violationTypeEntity;
+
+        final List<Predicate> predicates = violationPredicates(qViolationEntity, qViolationTypeEntity, accounts, from,
+                to, checked, severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds);
+
+        final Query query = getQuerydsl().createQuery(qViolationEntity)
+                .leftJoin(qViolationEntity.violationTypeEntity, qViolationTypeEntity).fetch()
+                .leftJoin(qViolationEntity.application).fetch()
+                .leftJoin(qViolationEntity.applicationVersion).fetch()
+                .leftJoin(qViolationEntity.ruleEntity).fetch()
+                .where(allOf(predicates))
+                .orderBy(qViolationEntity.id.asc())
+                .createQuery(qViolationEntity);
+
+        final Session session = getEntityManager().unwrap(Session.class);
+        final ScrollableResults results = query.unwrap(org.hibernate.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            int count = 0;
+            while (results.next()) {
+                consumer.accept((ViolationEntity) results.get(0));
+                if (++count % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        } finally {
+            results.close();
+        }
+    }
+
+    private static List<Predicate> violationPredicates(final QViolationEntity qViolationEntity,
+                                                       final QViolationTypeEntity qViolationTypeEntity,
+                                                       final List<String> accounts,
+                                                       final DateTime from,
+                                                       final DateTime to,
+                                                       final boolean checked,
+                                                       final Integer severity,
+                                                       final Integer priority,
+                                                       final Boolean auditRelevant,
+                                                       final List<String> types,
+                                                       final boolean whitelisted,
+                                                       final List<String> applicationIds,
+                                                       final List<String> applicationVersionIds) {
         final List<Predicate> predicates = newArrayList();
 
         if (accounts != null) {
@@ -66,10 +247,6 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
             predicates.add(qViolationEntity.created.before(to));
         }
 
-        if (lastViolation != null) {
-            predicates.add(qViolationEntity.id.goe(lastViolation));
-        }
-
         if (whitelisted) {
             predicates.add(qViolationEntity.ruleEntity.isNotNull());
         } else if (checked) {
@@ -105,18 +282,7 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
             predicates.add(qViolationEntity.applicationVersion.name.in(applicationVersionIds));
         }
 
-        final long total = query.where(allOf(predicates)).count();
-
-        final Sort sort = pageable.getSort();
-        final Sort fixedSort = (sort == null || isEmpty(sort)) ? SORT_BY_ID : sort;
-        final PageRequest fixedPage = new PageRequest(pageable.getPageNumber(), pageable.getPageSize(), fixedSort);
-
-        getQuerydsl().applyPagination(fixedPage, query);
-
-        final List<ViolationEntity> list;
-        list = total > 0 ? query.where(allOf(predicates)).list(qViolationEntity) : emptyList();
-
-        return new PageImpl<>(list, fixedPage, total);
+        return predicates;
     }
 
     @Override
@@ -132,6 +298,149 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
                 .exists();
     }
 
+    @Override
+    public Set<ViolationKey> findExistingViolations(final Collection<ViolationKey> keys) {
+        final QViolationEntity qViolation = new QViolationEntity("v");
+        final Set<ViolationKey> existing = new HashSet<>();
+
+        for (final List<ViolationKey> chunk : partition(newArrayList(keys), MAX_KEYS_PER_QUERY)) {
+            final List<Predicate> anyKey = chunk.stream()
+                    .map(k -> allOf(
+                            qViolation.accountId.eq(k.getAccountId()),
+                            qViolation.region.eq(k.getRegion()),
+                            qViolation.eventId.eq(k.getEventId()),
+                            k.getInstanceId() == null
+                                    ? qViolation.instanceId.isNull()
+                                    : qViolation.instanceId.eq(k.getInstanceId()),
+                            qViolation.violationTypeEntity.id.eq(k.getViolationType())))
+                    .collect(toList());
+
+            existing.addAll(from(qViolation)
+                    .where(anyOf(anyKey))
+                    .list(constructor(ViolationKey.class,
+                            qViolation.accountId,
+                            qViolation.region,
+                            qViolation.eventId,
+                            qViolation.instanceId,
+                            qViolation.violationTypeEntity.id)));
+        }
+
+        return existing;
+    }
+
+    @Override
+    public List<ViolationKey> findLatestViolationKeys(final int limit) {
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        return from(qViolation)
+                .orderBy(qViolation.id.desc())
+                .limit(limit)
+                .list(constructor(ViolationKey.class,
+                        qViolation.accountId,
+                        qViolation.region,
+                        qViolation.eventId,
+                        qViolation.instanceId,
+                        qViolation.violationTypeEntity.id));
+    }
+
+    @Override
+    public int insertIgnoringDuplicates(final List<ViolationEntity> violations) {
+        if (violations.isEmpty()) {
+            return 0;
+        }
+
+        final int[] inserted = {0};
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_IGNORING_DUPLICATES)) {
+                for (final ViolationEntity v : violations) {
+                    Assert.notNull(v.getViolationTypeEntity(), "violationTypeEntity must not be null");
+                    Assert.hasText(v.getCreatedBy(), "createdBy must not be blank");
+                    final Timestamp created = new Timestamp(
+                            Optional.ofNullable(v.getCreated()).orElseGet(DateTime::now).getMillis());
+
+                    statement.setString(1, v.getEventId());
+                    statement.setString(2, v.getAccountId());
+                    statement.setString(3, v.getRegion());
+                    statement.setString(4, v.getInstanceId());
+                    statement.setString(5, metaInfoConverter.convertToDatabaseColumn(v.getMetaInfo()));
+                    statement.setString(6, v.getComment());
+                    statement.setString(7, v.getPluginFullyQualifiedClassName());
+                    statement.setString(8, v.getUsername());
+                    statement.setString(9, v.getViolationTypeEntity().getId());
+                    setId(statement, 10, Optional.ofNullable(v.getApplication()).map(AbstractEntity::getId));
+                    setId(statement, 11, Optional.ofNullable(v.getApplicationVersion()).map(AbstractEntity::getId));
+                    setId(statement, 12, Optional.ofNullable(v.getRuleEntity()).map(RuleEntity::getId));
+                    statement.setTimestamp(13, created);
+                    statement.setString(14, v.getCreatedBy());
+                    statement.setTimestamp(15, created);
+                    statement.setString(16, v.getCreatedBy());
+                    statement.addBatch();
+                }
+
+                for (final int count : statement.executeBatch()) {
+                    // drivers may report SUCCESS_NO_INFO (-2) instead of the row count
+                    inserted[0] += Math.max(count, 0);
+                }
+            }
+        });
+        return inserted[0];
+    }
+
+    @Override
+    public List<ViolationEntity> findOpenViolations(final long afterId, final int limit) {
+        final QViolationEntity qViolation = new QViolationEntity("v");
+
+        return from(qViolation)
+                .leftJoin(qViolation.application).fetch()
+                .leftJoin(qViolation.applicationVersion).fetch()
+                .leftJoin(qViolation.violationTypeEntity).fetch()
+                .where(qViolation.id.gt(afterId),
+                        qViolation.comment.isNull(),
+                        qViolation.ruleEntity.isNull())
+                .orderBy(qViolation.id.asc())
+                .limit(limit)
+                .list(qViolation);
+    }
+
+    @Override
+    public int whitelistViolations(final List<ViolationEntity> violations, final String modifiedBy) {
+        if (violations.isEmpty()) {
+            return 0;
+        }
+
+        final int[] updated = {0};
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(WHITELIST_VIOLATION)) {
+                final Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (final ViolationEntity v : violations) {
+                    Assert.notNull(v.getId(), "id must not be null");
+                    Assert.notNull(v.getRuleEntity(), "ruleEntity must not be null");
+
+                    statement.setLong(1, v.getRuleEntity().getId());
+                    statement.setString(2, v.getComment());
+                    statement.setTimestamp(3, now);
+                    statement.setString(4, modifiedBy);
+                    statement.setLong(5, v.getId());
+                    statement.addBatch();
+                }
+
+                for (final int count : statement.executeBatch()) {
+                    updated[0] += Math.max(count, 0);
+                }
+            }
+        });
+        return updated[0];
+    }
+
+    private static void setId(final PreparedStatement statement, final int index, final Optional<Long> id)
+            throws SQLException {
+        if (id.isPresent()) {
+            statement.setLong(index, id.get());
+        } else {
+            statement.setNull(index, Types.BIGINT);
+        }
+    }
+
     @Override
     public List<CountByAccountAndType> countByAccountAndType(final Set<String> accountIds,
                                                              final Optional<DateTime> fromDate,
@@ -177,18 +486,7 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
                                                                    final Optional<DateTime> toDate, final boolean resolved, final boolean whitelisted) {
         Assert.hasText(account, "account must not be blank");
 
-        final String whitelistedOrResolvedPredicate;
-
-        if (whitelisted) {
-            whitelistedOrResolvedPredicate = "AND vio.rule_entity_id IS NOT NULL ";
-        } else if (resolved) {
-            whitelistedOrResolvedPredicate = "AND vio.comment IS NOT NULL " +
-                    "AND vio.rule_entity_id IS NULL ";
-
-        } else {
-            whitelistedOrResolvedPredicate = "AND vio.comment IS NULL " +
-                    "AND vio.rule_entity_id IS NULL ";
-        }
+        final String whitelistedOrResolvedPredicate = statusPredicate(resolved, whitelisted);
 
         final String sql = "SELECT app.name AS application, ver.name AS version, vio.violation_type_entity_id AS type, count(DISTINCT vio.id) AS quantity " +
                 "FROM fullstop_data.violation vio " +
@@ -212,4 +510,122 @@ public class ViolationRepositoryImpl extends QueryDslRepositorySupport implement
                 .map(row -> new CountByAppVersionAndType((String) row[0], (String) row[1], (String) row[2], ((BigInteger) row[3]).longValue()))
                 .collect(toList());
     }
+
+    @Override
+    public List<CountByAccountAndType> countByAccountAndTypeFromRollup(final Set<String> accountIds,
+                                                                       final Optional<LocalDate> fromDay,
+                                                                       final Optional<LocalDate> toDay,
+                                                                       final boolean resolved,
+                                                                       final boolean whitelisted) {
+        final String sql = "SELECT c.account_id, c.violation_type_entity_id, sum(c.quantity) AS quantity " +
+                "FROM fullstop_data.violation_count_by_account c " +
+                "WHERE c.status = :status " +
+                (accountIds.isEmpty() ? "" : "AND c.account_id IN (:accounts) ") +
+                (fromDay.isPresent() ? "AND c.day >= :from_day " : "") +
+                (toDay.isPresent() ? "AND c.day < :to_day " : "") +
+                "GROUP BY c.account_id, c.violation_type_entity_id " +
+                "HAVING sum(c.quantity) > 0 " +
+                "ORDER BY c.account_id ASC, c.violation_type_entity_id ASC";
+
+        final Query query = getEntityManager().createNativeQuery(sql);
+        query.setParameter("status", rollupStatus(resolved, whitelisted));
+        if (!accountIds.isEmpty()) {
+            query.setParameter("accounts", accountIds);
+        }
+        fromDay.ifPresent((d) -> query.setParameter("from_day", d.toDate(), DATE));
+        toDay.ifPresent((d) -> query.setParameter("to_day", d.toDate(), DATE));
+
+        final List<?> results = query.getResultList();
+        return results.stream()
+                .map((o) -> (Object[]) o)
+                .map(row -> new CountByAccountAndType((String) row[0], (String) row[1], ((Number) row[2]).longValue()))
+                .collect(toList());
+    }
+
+    @Override
+    public List<CountByAppVersionAndType> countByAppVersionAndTypeFromRollup(final String account,
+                                                                             final Optional<DateTime> fromDate,
+                                                                             final Optional<DateTime> toDate,
+                                                                             final Optional<LocalDate> fromDay,
+                                                                             final Optional<LocalDate> toDay,
+                                                                             final boolean resolved,
+                                                                             final boolean whitelisted) {
+        Assert.hasText(account, "account must not be blank");
+
+        // the partial first and last day are counted from the violations, in the same query, so that the result
+        // keeps the order of countByAppVersionAndType
+        final List<String> partialDays = newArrayList();
+        if (fromDate.isPresent() && fromDay.isPresent()) {
+            partialDays.add("(vio.created >= :from_date AND vio.created < :from_day)");
+        }
+        if (toDate.isPresent() && toDay.isPresent()) {
+            partialDays.add("(vio.created >= :to_day AND vio.created <= :to_date)");
+        }
+
+        final String sql = "SELECT app.name AS application, ver.name AS version, c.type, sum(c.quantity) AS quantity " +
+                "FROM (" +
+                "SELECT r.application_id, r.application_version_id, r.violation_type_entity_id AS type, r.quantity " +
+                "FROM fullstop_data.violation_count_by_app_version r " +
+                "WHERE r.account_id = :account " +
+                "AND r.status = :status " +
+                (fromDay.isPresent() ? "AND r.day >= :from_day " : "") +
+                (toDay.isPresent() ? "AND r.day < :to_day " : "") +
+                (partialDays.isEmpty() ? "" :
+                        "UNION ALL " +
+                        "SELECT COALESCE(vio.application_id, 0), COALESCE(vio.application_version_id, 0), " +
+                        "vio.violation_type_entity_id, CAST(1 AS BIGINT) " +
+                        "FROM fullstop_data.violation vio " +
+                        "WHERE vio.account_id = :account " +
+                        statusPredicate(resolved, whitelisted) +
+                        "AND (" + String.join(" OR ", partialDays) + ") ") +
+                ") c " +
+                "LEFT JOIN fullstop_data.application app ON app.id = c.application_id " +
+                "LEFT JOIN fullstop_data.app_version ver ON ver.id = c.application_version_id " +
+                "GROUP BY app.id, ver.id, c.type " +
+                "HAVING sum(c.quantity) > 0 " +
+                "ORDER BY app.name ASC NULLS LAST, ver.created DESC NULLS LAST, c.type ASC ";
+
+        final Query query = getEntityManager().createNativeQuery(sql);
+        query.setParameter("account", account);
+        query.setParameter("status", rollupStatus(resolved, whitelisted));
+        fromDay.ifPresent((d) -> query.setParameter("from_day", d.toDate(), DATE));
+        toDay.ifPresent((d) -> query.setParameter("to_day", d.toDate(), DATE));
+        if (fromDate.isPresent() && fromDay.isPresent()) {
+            query.setParameter("from_date", fromDate.get().toDate(), TIMESTAMP);
+        }
+        if (toDate.isPresent() && toDay.isPresent()) {
+            query.setParameter("to_date", toDate.get().toDate(), TIMESTAMP);
+        }
+
+        final List<?> results = query.getResultList();
+        return results.stream()
+                .map((o) -> (Object[]) o)
+                .map(row -> new CountByAppVersionAndType((String) row[0], (String) row[1], (String) row[2], ((Number) row[3]).longValue()))
+                .collect(toList());
+    }
+
+    /**
+     * Same semantics as the filters of the count queries, see V16__create_violation_count_rollups.sql
+     */
+    private static String rollupStatus(final boolean resolved, final boolean whitelisted) {
+        if (whitelisted) {
+            return "WHITELISTED";
+        } else if (resolved) {
+            return "RESOLVED";
+        } else {
+            return "OPEN";
+        }
+    }
+
+    private static String statusPredicate(final boolean resolved, final boolean whitelisted) {
+        if (whitelisted) {
+            return "AND vio.rule_entity_id IS NOT NULL ";
+        } else if (resolved) {
+            return "AND vio.comment IS NOT NULL " +
+                    "AND vio.rule_entity_id IS NULL ";
+        } else {
+            return "AND vio.comment IS NULL " +
+                    "AND vio.rule_entity_id IS NULL ";
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package org.zalando.stups.fullstop.violation.service;
+
+import org.joda.time.DateTime;
+import org.zalando.stups.fullstop.violation.entity.RecheckRequestEntity;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Queue of resources to recheck, filled by the CloudTrail event processing and drained by the jobs.
+ */
+public interface RecheckRequestService {
+
+    /**
+     * Queues a recheck of the resource. A resource that is queued already keeps its place in the queue.
+     */
+    void request(String accountId, String region, RecheckResourceType resourceType, String resourceId);
+
+    /**
+     * Returns the oldest requests that are due, without removing them. A request stays queued until it is
+     * {@link #done(Collection) done}, a failed recheck is retried after it was {@link #failed(Collection, int, long)
+     * postponed}.
+     *
+     * @param regions              only requests of these regions are returned
+     * @param delayedResourceType  requests of this type are due only once they were created before
+     *                             delayedCreatedBefore
+     * @return at most limit requests, in the order they were queued
+     */
+    List<RecheckRequestEntity> peek(int limit, Collection<String> regions, RecheckResourceType delayedResourceType,
+                                    DateTime delayedCreatedBefore);
+
+    /**
+     * Removes the requests from the queue. A request that was queued again since it was peeked stays queued.
+     */
+    void done(Collection<RecheckRequestEntity> requests);
+
+    /**
+     * Postpones the requests after a failed recheck, the backoff doubles with every attempt. Requests that failed
+     * maxAttempts times are removed.
+     */
+    void failed(Collection<RecheckRequestEntity> requests, int maxAttempts, long backoffMillis);
+
+    /**
+     * Removes the requests of all regions except the given ones.
+     *
+     * @return the number of removed requests
+     */
+    int discardOtherRegions(Collection<String> regions);
+}
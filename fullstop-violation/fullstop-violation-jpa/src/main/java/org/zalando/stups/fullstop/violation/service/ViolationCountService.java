@@ -0,0 +1,32 @@
+package org.zalando.stups.fullstop.violation.service;
+
+import org.joda.time.DateTime;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Violation counts, answered from the daily rollups where possible.
+ */
+public interface ViolationCountService {
+
+    /**
+     * @param from exclusive
+     * @param to   exclusive
+     * @see org.zalando.stups.fullstop.violation.repository.ViolationRepositoryCustom#countByAccountAndType
+     */
+    List<CountByAccountAndType> countByAccountAndType(Set<String> accountIds, Optional<DateTime> from,
+                                                      Optional<DateTime> to, boolean resolved, boolean whitelisted);
+
+    /**
+     * @param from inclusive
+     * @param to   inclusive
+     * @see org.zalando.stups.fullstop.violation.repository.ViolationRepositoryCustom#countByAppVersionAndType
+     */
+    List<CountByAppVersionAndType> countByAppVersionAndType(String account, Optional<DateTime> from,
+                                                            Optional<DateTime> to, boolean resolved,
+                                                            boolean whitelisted);
+}
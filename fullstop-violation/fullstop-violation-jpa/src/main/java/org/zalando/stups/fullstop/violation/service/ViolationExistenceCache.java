@@ -0,0 +1,28 @@
+package org.zalando.stups.fullstop.violation.service;
+
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Remembers which violations are already persisted, so that the existence checks of jobs and persisters only go to
+ * the database for violations that were not seen before.
+ * <p>
+ * Only existing violations are remembered. Violations are never deleted, but they may be inserted by another instance
+ * at any time, so a negative answer is always confirmed by the database.
+ */
+public interface ViolationExistenceCache {
+
+    boolean exists(ViolationKey key);
+
+    /**
+     * @return the subset of the given keys that are already persisted
+     */
+    Set<ViolationKey> findExisting(Collection<ViolationKey> keys);
+
+    /**
+     * To be called once the violation has been persisted.
+     */
+    void add(ViolationKey key);
+}
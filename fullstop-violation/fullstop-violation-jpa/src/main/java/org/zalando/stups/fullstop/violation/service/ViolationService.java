@@ -3,9 +3,11 @@ package org.zalando.stups.fullstop.violation.service;
 import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Created by mrandi.
@@ -25,5 +27,20 @@ public interface ViolationService {
                                           boolean whitelisted, final List<String> applicationIds,
                                           final List<String> applicationVersionIds, Pageable pageable);
 
+    Slice<ViolationEntity> queryViolationsAfter(List<String> accounts, DateTime from, DateTime to, Long afterViolation,
+                                                boolean checked, Integer severity, Integer priority,
+                                                Boolean auditRelevant, List<String> types, boolean whitelisted,
+                                                List<String> applicationIds, List<String> applicationVersionIds,
+                                                int size);
+
+    long countViolations(List<String> accounts, DateTime from, DateTime to, boolean checked, Integer severity,
+                         Integer priority, Boolean auditRelevant, List<String> types, boolean whitelisted,
+                         List<String> applicationIds, List<String> applicationVersionIds, long limit);
+
+    void streamViolations(List<String> accounts, DateTime from, DateTime to, boolean checked, Integer severity,
+                          Integer priority, Boolean auditRelevant, List<String> types, boolean whitelisted,
+                          List<String> applicationIds, List<String> applicationVersionIds, int fetchSize,
+                          Consumer<ViolationEntity> consumer);
+
     boolean violationExists(String accountId, String region, String eventId, String instanceId, String violationTypeId);
 }
@@ -0,0 +1,80 @@
+package org.zalando.stups.fullstop.violation.service.impl;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.zalando.stups.fullstop.violation.entity.RecheckRequestEntity;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+import org.zalando.stups.fullstop.violation.repository.RecheckRequestRepository;
+import org.zalando.stups.fullstop.violation.service.RecheckRequestService;
+
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static javax.transaction.Transactional.TxType.REQUIRES_NEW;
+
+@Service
+public class RecheckRequestServiceImpl implements RecheckRequestService {
+
+    private final Logger log = LoggerFactory.getLogger(RecheckRequestServiceImpl.class);
+
+    @Autowired
+    private RecheckRequestRepository recheckRequestRepository;
+
+    @Override
+    @Transactional(REQUIRES_NEW)
+    public void request(final String accountId, final String region, final RecheckResourceType resourceType,
+                        final String resourceId) {
+        recheckRequestRepository.enqueue(accountId, region, resourceType.name(), resourceId);
+    }
+
+    @Override
+    public List<RecheckRequestEntity> peek(final int limit, final Collection<String> regions,
+                                           final RecheckResourceType delayedResourceType,
+                                           final DateTime delayedCreatedBefore) {
+        if (regions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return recheckRequestRepository.findDue(regions, delayedResourceType.name(),
+                new Timestamp(delayedCreatedBefore.getMillis()), limit);
+    }
+
+    @Override
+    @Transactional(REQUIRES_NEW)
+    public void done(final Collection<RecheckRequestEntity> requests) {
+        for (final RecheckRequestEntity request : requests) {
+            recheckRequestRepository.dequeue(request.getId(), new Timestamp(request.getCreated().getMillis()));
+        }
+    }
+
+    @Override
+    @Transactional(REQUIRES_NEW)
+    public void failed(final Collection<RecheckRequestEntity> requests, final int maxAttempts,
+                       final long backoffMillis) {
+        for (final RecheckRequestEntity request : requests) {
+            final int attempts = request.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                log.warn("Dropping {} after {} failed attempts", request, attempts);
+                recheckRequestRepository.dequeue(request.getId(), new Timestamp(request.getCreated().getMillis()));
+            } else {
+                final long backoff = backoffMillis << Math.min(attempts - 1, 16);
+                recheckRequestRepository.postpone(request.getId(),
+                        new Timestamp(DateTime.now().plus(backoff).getMillis()));
+            }
+        }
+    }
+
+    @Override
+    @Transactional(REQUIRES_NEW)
+    public int discardOtherRegions(final Collection<String> regions) {
+        if (regions.isEmpty()) {
+            return 0;
+        }
+        return recheckRequestRepository.deleteByRegionNotIn(regions);
+    }
+}
@@ -0,0 +1,122 @@
+package org.zalando.stups.fullstop.violation.service.impl;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.service.ViolationCountService;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Splits the requested time range into whole days, which are summed up from the rollup tables, and the partial
+ * first and last day, which are still counted from the violations. Counts by application version are merged by the
+ * repository, because they are ordered by the creation of the version.
+ * <p>
+ * The rollups are keyed by {@code created::date}. Timestamps are stored without time zone in the zone of the JVM,
+ * so day boundaries are computed in the JVM's default zone as well.
+ */
+@Service
+public class ViolationCountServiceImpl implements ViolationCountService {
+
+    private static final Comparator<CountByAccountAndType> BY_ACCOUNT_AND_TYPE =
+            Comparator.comparing(CountByAccountAndType::getAccount, nullsLast(naturalOrder()))
+                    .thenComparing(CountByAccountAndType::getType, nullsLast(naturalOrder()));
+
+    private final ViolationRepository violationRepository;
+
+    private final boolean useRollups;
+
+    @Autowired
+    public ViolationCountServiceImpl(final ViolationRepository violationRepository,
+                                     @Value("${fullstop.violations.count.useRollups:true}") final boolean useRollups) {
+        this.violationRepository = violationRepository;
+        this.useRollups = useRollups;
+    }
+
+    @Override
+    public List<CountByAccountAndType> countByAccountAndType(final Set<String> accountIds,
+                                                             final Optional<DateTime> from,
+                                                             final Optional<DateTime> to,
+                                                             final boolean resolved,
+                                                             final boolean whitelisted) {
+        // from is exclusive, so the day it falls on is never complete
+        final Optional<LocalDate> firstDay = from.map(f -> local(f).toLocalDate().plusDays(1));
+        final Optional<LocalDate> endDay = to.map(t -> local(t).toLocalDate());
+        if (!useRollups || !hasWholeDays(firstDay, endDay)) {
+            return violationRepository.countByAccountAndType(accountIds, from, to, resolved, whitelisted);
+        }
+
+        final Map<List<String>, Long> counts = newLinkedHashMap();
+        violationRepository.countByAccountAndTypeFromRollup(accountIds, firstDay, endDay, resolved, whitelisted)
+                .forEach(c -> add(counts, c));
+
+        if (from.isPresent()) {
+            final Optional<DateTime> headEnd = firstDay.map(LocalDate::toDateTimeAtStartOfDay);
+            violationRepository.countByAccountAndType(accountIds, from, headEnd, resolved, whitelisted)
+                    .forEach(c -> add(counts, c));
+        }
+
+        if (to.isPresent() && !isStartOfDay(local(to.get()))) {
+            final Optional<DateTime> tailStart = endDay.map(d -> d.toDateTimeAtStartOfDay().minusMillis(1));
+            violationRepository.countByAccountAndType(accountIds, tailStart, to, resolved, whitelisted)
+                    .forEach(c -> add(counts, c));
+        }
+
+        return counts.entrySet().stream()
+                .map(e -> new CountByAccountAndType(e.getKey().get(0), e.getKey().get(1), e.getValue()))
+                .sorted(BY_ACCOUNT_AND_TYPE)
+                .collect(toList());
+    }
+
+    @Override
+    public List<CountByAppVersionAndType> countByAppVersionAndType(final String account,
+                                                                   final Optional<DateTime> from,
+                                                                   final Optional<DateTime> to,
+                                                                   final boolean resolved,
+                                                                   final boolean whitelisted) {
+        // from is inclusive, a day starting exactly at from is complete
+        final Optional<LocalDate> firstDay = from.map(f -> isStartOfDay(local(f))
+                ? local(f).toLocalDate()
+                : local(f).toLocalDate().plusDays(1));
+        final Optional<LocalDate> endDay = to.map(t -> local(t).toLocalDate());
+        if (!useRollups || !hasWholeDays(firstDay, endDay)) {
+            return violationRepository.countByAppVersionAndType(account, from, to, resolved, whitelisted);
+        }
+
+        // the repository merges the partial days itself, only it knows the order of the versions
+        return violationRepository.countByAppVersionAndTypeFromRollup(account, from, to, firstDay, endDay,
+                resolved, whitelisted);
+    }
+
+    private static boolean hasWholeDays(final Optional<LocalDate> firstDay, final Optional<LocalDate> endDay) {
+        return !firstDay.isPresent() || !endDay.isPresent() || firstDay.get().isBefore(endDay.get());
+    }
+
+    private static DateTime local(final DateTime dateTime) {
+        return dateTime.withZone(DateTimeZone.getDefault());
+    }
+
+    private static boolean isStartOfDay(final DateTime dateTime) {
+        return dateTime.getMillisOfDay() == 0;
+    }
+
+    private static void add(final Map<List<String>, Long> counts, final CountByAccountAndType count) {
+        counts.merge(asList(count.getAccount(), count.getType()), count.getQuantity(), Long::sum);
+    }
+}
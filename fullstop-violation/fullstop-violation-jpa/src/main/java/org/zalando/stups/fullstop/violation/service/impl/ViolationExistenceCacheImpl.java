@@ -0,0 +1,99 @@
+package org.zalando.stups.fullstop.violation.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.service.ViolationExistenceCache;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Bounded to the most recently used keys. The cache is split into independently locked segments, so that jobs
+ * scanning in parallel do not contend on a single lock.
+ */
+@Service
+public class ViolationExistenceCacheImpl implements ViolationExistenceCache {
+
+    private final Logger log = LoggerFactory.getLogger(ViolationExistenceCacheImpl.class);
+
+    private final ViolationRepository violationRepository;
+
+    private final int warmUpSize;
+
+    private final Cache<ViolationKey, Boolean> existing;
+
+    @Autowired
+    public ViolationExistenceCacheImpl(final ViolationRepository violationRepository,
+                                       @Value("${fullstop.violations.existenceCache.maxSize:500000}") final long maxSize,
+                                       @Value("${fullstop.violations.existenceCache.shards:16}") final int shards,
+                                       @Value("${fullstop.violations.existenceCache.warmUpSize:100000}") final int warmUpSize) {
+        this.violationRepository = violationRepository;
+        this.warmUpSize = warmUpSize;
+        this.existing = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .concurrencyLevel(shards)
+                .build();
+    }
+
+    /**
+     * Loads the latest violations, those are the ones the jobs are most likely to find again. A failure only
+     * leaves the cache cold.
+     */
+    @PostConstruct
+    public void warmUp() {
+        if (warmUpSize <= 0) {
+            return;
+        }
+
+        try {
+            final List<ViolationKey> keys = violationRepository.findLatestViolationKeys(warmUpSize);
+            keys.forEach(this::add);
+            log.info("Warmed up violation existence cache with {} violations", keys.size());
+        } catch (final RuntimeException e) {
+            log.warn("Could not warm up violation existence cache", e);
+        }
+    }
+
+    @Override
+    public boolean exists(final ViolationKey key) {
+        if (existing.getIfPresent(key) != null) {
+            return true;
+        }
+
+        final boolean exists = violationRepository.violationExists(key.getAccountId(), key.getRegion(),
+                key.getEventId(), key.getInstanceId(), key.getViolationType());
+        if (exists) {
+            add(key);
+        }
+        return exists;
+    }
+
+    @Override
+    public Set<ViolationKey> findExisting(final Collection<ViolationKey> keys) {
+        final Set<ViolationKey> result = new HashSet<>(existing.getAllPresent(keys).keySet());
+        final List<ViolationKey> unknown = keys.stream().filter(k -> !result.contains(k)).collect(toList());
+        if (!unknown.isEmpty()) {
+            final Set<ViolationKey> persisted = violationRepository.findExistingViolations(unknown);
+            persisted.forEach(this::add);
+            result.addAll(persisted);
+        }
+        return result;
+    }
+
+    @Override
+    public void add(final ViolationKey key) {
+        existing.put(key, Boolean.TRUE);
+    }
+}
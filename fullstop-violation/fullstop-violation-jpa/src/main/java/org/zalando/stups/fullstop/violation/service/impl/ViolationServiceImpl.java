@@ -4,12 +4,17 @@ import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.service.ViolationExistenceCache;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Created by mrandi.
@@ -20,6 +25,9 @@ public class ViolationServiceImpl implements ViolationService {
     @Autowired
     private ViolationRepository violationRepository;
 
+    @Autowired
+    private ViolationExistenceCache violationExistenceCache;
+
     @Override
     public Page<ViolationEntity> findAll(final Pageable pageable) {
         return violationRepository.findAll(pageable);
@@ -58,12 +66,69 @@ public class ViolationServiceImpl implements ViolationService {
                 auditRelevant, types, whitelisted, applicationIds, applicationVersionIds, pageable);
     }
 
+    @Override
+    public Slice<ViolationEntity> queryViolationsAfter(final List<String> accounts,
+                                                       final DateTime from,
+                                                       final DateTime to,
+                                                       final Long afterViolation,
+                                                       final boolean checked,
+                                                       final Integer severity,
+                                                       final Integer priority,
+                                                       final Boolean auditRelevant,
+                                                       final List<String> types,
+                                                       final boolean whitelisted,
+                                                       final List<String> applicationIds,
+                                                       final List<String> applicationVersionIds,
+                                                       final int size) {
+        return violationRepository.queryViolationsAfter(accounts, from, to, afterViolation, checked, severity, priority,
+                auditRelevant, types, whitelisted, applicationIds, applicationVersionIds, size);
+    }
+
+    @Override
+    public long countViolations(final List<String> accounts,
+                                final DateTime from,
+                                final DateTime to,
+                                final boolean checked,
+                                final Integer severity,
+                                final Integer priority,
+                                final Boolean auditRelevant,
+                                final List<String> types,
+                                final boolean whitelisted,
+                                final List<String> applicationIds,
+                                final List<String> applicationVersionIds,
+                                final long limit) {
+        return violationRepository.countViolations(accounts, from, to, checked, severity, priority, auditRelevant,
+                types, whitelisted, applicationIds, applicationVersionIds, limit);
+    }
+
+    /**
+     * The transaction keeps the database cursor open while streaming.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamViolations(final List<String> accounts,
+                                 final DateTime from,
+                                 final DateTime to,
+                                 final boolean checked,
+                                 final Integer severity,
+                                 final Integer priority,
+                                 final Boolean auditRelevant,
+                                 final List<String> types,
+                                 final boolean whitelisted,
+                                 final List<String> applicationIds,
+                                 final List<String> applicationVersionIds,
+                                 final int fetchSize,
+                                 final Consumer<ViolationEntity> consumer) {
+        violationRepository.streamViolations(accounts, from, to, checked, severity, priority, auditRelevant, types,
+                whitelisted, applicationIds, applicationVersionIds, fetchSize, consumer);
+    }
+
     @Override
     public boolean violationExists(final String accountId,
                                    final String region,
                                    final String eventId,
                                    final String instanceId,
                                    final String violationTypeId) {
-        return violationRepository.violationExists(accountId, region, eventId, instanceId, violationTypeId);
+        return violationExistenceCache.exists(new ViolationKey(accountId, region, eventId, instanceId, violationTypeId));
     }
 }
@@ -0,0 +1,90 @@
+package org.zalando.stups.fullstop.violation.repository;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.zalando.stups.fullstop.violation.EmbeddedPostgresJpaConfig;
+import org.zalando.stups.fullstop.violation.entity.RecheckRequestEntity;
+import org.zalando.stups.fullstop.violation.entity.RecheckResourceType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.DB_INSTANCE;
+import static org.zalando.stups.fullstop.violation.entity.RecheckResourceType.INSTANCE;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = EmbeddedPostgresJpaConfig.class)
+@Transactional
+public class RecheckRequestRepositoryTest {
+
+    private static final String REGION = "eu-west-1";
+
+    @Autowired
+    private RecheckRequestRepository recheckRequestRepository;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Test
+    public void testFindsDueRequestsOnly() throws Exception {
+        // now() is the start of the test transaction
+        final DateTime before = DateTime.now().minusMinutes(1);
+        final RecheckRequestEntity instance = save(REGION, INSTANCE, before);
+        save("us-east-1", INSTANCE, before);
+        save(REGION, DB_INSTANCE, before);
+        final RecheckRequestEntity postponed = save(REGION, INSTANCE, before);
+        recheckRequestRepository.postpone(postponed.getId(), timestamp(DateTime.now().plusMinutes(1)));
+        final RecheckRequestEntity dbInstance = save(REGION, DB_INSTANCE, DateTime.now().minusMinutes(20));
+
+        assertThat(recheckRequestRepository.findDue(singletonList(REGION), DB_INSTANCE.name(),
+                timestamp(DateTime.now().minusMinutes(15)), 10))
+                .extracting("id")
+                .containsExactly(instance.getId(), dbInstance.getId());
+    }
+
+    @Test
+    public void testPostponeCountsAttempts() throws Exception {
+        final RecheckRequestEntity request = save(REGION, INSTANCE, DateTime.now());
+        final DateTime nextAttempt = DateTime.now().plusMinutes(2);
+
+        assertThat(recheckRequestRepository.postpone(request.getId(), timestamp(nextAttempt))).isEqualTo(1);
+        assertThat(recheckRequestRepository.postpone(request.getId(), timestamp(nextAttempt))).isEqualTo(1);
+        em.clear();
+
+        final RecheckRequestEntity postponed = recheckRequestRepository.findOne(request.getId());
+        assertThat(postponed.getAttempts()).isEqualTo(2);
+        assertThat(postponed.getNextAttempt().getMillis()).isEqualTo(nextAttempt.getMillis());
+    }
+
+    @Test
+    public void testDeletesRequestsOfOtherRegions() throws Exception {
+        final RecheckRequestEntity request = save(REGION, INSTANCE, DateTime.now());
+        save("us-east-1", INSTANCE, DateTime.now());
+
+        assertThat(recheckRequestRepository.deleteByRegionNotIn(singletonList(REGION))).isEqualTo(1);
+        em.clear();
+
+        assertThat(recheckRequestRepository.findAll()).extracting("id").containsExactly(request.getId());
+    }
+
+    private RecheckRequestEntity save(final String region, final RecheckResourceType resourceType,
+                                      final DateTime created) {
+        final RecheckRequestEntity request = new RecheckRequestEntity("123456", region, resourceType,
+                resourceType.name() + "-" + recheckRequestRepository.count());
+        request.setCreated(created);
+        request.setNextAttempt(created);
+        return recheckRequestRepository.saveAndFlush(request);
+    }
+
+    private static Timestamp timestamp(final DateTime dateTime) {
+        return new Timestamp(dateTime.getMillis());
+    }
+}
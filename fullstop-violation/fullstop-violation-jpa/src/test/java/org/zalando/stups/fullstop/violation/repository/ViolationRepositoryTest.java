@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 import org.zalando.stups.fullstop.rule.repository.RuleEntityRepository;
@@ -15,6 +16,7 @@ import org.zalando.stups.fullstop.violation.EmbeddedPostgresJpaConfig;
 import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
 import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
 import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
 
 import javax.persistence.EntityManager;
@@ -23,12 +25,15 @@ import javax.transaction.Transactional;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonMap;
 import static java.util.Optional.empty;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.joda.time.DateTime.now;
 import static org.springframework.data.domain.Sort.Direction.ASC;
 
@@ -57,6 +62,8 @@ public class ViolationRepositoryTest {
 
     private ViolationEntity vio5;
 
+    private RuleEntity rule1;
+
     private final Map<String, String> metaInfoMap = singletonMap("test", "jsonSerialization");
 
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -66,7 +73,7 @@ public class ViolationRepositoryTest {
         final ViolationTypeEntity type1 = violationTypeRepository.saveAndFlush(new ViolationTypeEntity("SOMETHING_WENT_WRONG"));
         final ViolationTypeEntity type2 = violationTypeRepository.saveAndFlush(new ViolationTypeEntity("YOU_SCREWED_UP"));
 
-        final RuleEntity rule1 = ruleEntityRepository.saveAndFlush(new RuleEntity());
+        rule1 = ruleEntityRepository.saveAndFlush(new RuleEntity());
 
         vio1 = save(new ViolationEntity("run01", "acc1", "germany-east-1", "i-1234", metaInfoMap, "a comment", "username", null, null, null), type1); // -> RESOLVED
         vio2 = save(new ViolationEntity("run02", "acc1", "germany-east-1", "i-5678", metaInfoMap, null, "username", null, null, null), type1); // -> NOT RESOLVED
@@ -196,6 +203,40 @@ public class ViolationRepositoryTest {
                 .isEqualTo(newArrayList(vio2.getId(), vio5.getId()));
     }
 
+    @Test
+    public void testQueryViolationsAfter() throws Exception {
+        final Slice<ViolationEntity> first = violationRepository
+                .queryViolationsAfter(null, null, null, null, false, null, null, null, null, false, null, null, 1);
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.getContent()).extracting("id", Long.class).isEqualTo(newArrayList(vio2.getId()));
+
+        final Slice<ViolationEntity> second = violationRepository
+                .queryViolationsAfter(null, null, null, vio2.getId(), false, null, null, null, null, false, null, null, 1);
+
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.getContent()).extracting("id", Long.class).isEqualTo(newArrayList(vio5.getId()));
+    }
+
+    @Test
+    public void testCountViolations() throws Exception {
+        assertThat(violationRepository.countViolations(null, null, null, true, null, null, null, null, false, null, null, 0))
+                .isEqualTo(2);
+        assertThat(violationRepository.countViolations(null, null, null, true, null, null, null, null, false, null, null, 1))
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void testStreamViolations() throws Exception {
+        final List<ViolationEntity> streamed = newArrayList();
+        violationRepository.streamViolations(null, null, null, true, null, null, null, null, false, null, null, 1,
+                streamed::add);
+
+        assertThat(streamed).extracting("id", Long.class).isEqualTo(newArrayList(vio1.getId(), vio3.getId()));
+        assertThat(streamed).extracting("violationTypeEntity.id", String.class)
+                .isEqualTo(newArrayList("SOMETHING_WENT_WRONG", "YOU_SCREWED_UP"));
+    }
+
     @Test
     public void testCountViolationsByAccountAndType() throws Exception {
         final List<CountByAccountAndType> result = violationRepository.countByAccountAndType(emptySet(), empty(), empty(), false, false);
@@ -212,4 +253,85 @@ public class ViolationRepositoryTest {
                 false);
         assertThat(result).hasSize(1);
     }
+
+    @Test
+    public void testFindExistingViolations() throws Exception {
+        final ViolationKey existing1 = new ViolationKey("acc1", "germany-east-1", "run01", "i-1234", "SOMETHING_WENT_WRONG");
+        final ViolationKey existing2 = new ViolationKey("acc3", "germany-east-1", "run05", "i-5678", "YOU_SCREWED_UP");
+        final ViolationKey otherType = new ViolationKey("acc1", "germany-east-1", "run01", "i-1234", "YOU_SCREWED_UP");
+        final ViolationKey noInstance = new ViolationKey("acc1", "germany-east-1", "run01", null, "SOMETHING_WENT_WRONG");
+
+        final Set<ViolationKey> result = violationRepository.findExistingViolations(
+                newArrayList(existing1, existing2, otherType, noInstance));
+
+        assertThat(result).containsOnly(existing1, existing2);
+    }
+
+    @Test
+    public void testDatabaseSupportsOnConflict() throws Exception {
+        // INSERT ... ON CONFLICT of the batch insert and the recheck queue needs PostgreSQL 9.5
+        final Number version = (Number) em
+                .createNativeQuery("SELECT CAST(current_setting('server_version_num') AS INTEGER)")
+                .getSingleResult();
+        assertThat(version.intValue()).isGreaterThanOrEqualTo(90500);
+    }
+
+    @Test
+    public void testInsertIgnoringDuplicates() throws Exception {
+        // the unique indexes of V1__initial.sql, which treat a missing instance id as a value of its own
+        em.createNativeQuery("ALTER TABLE fullstop_data.violation DROP CONSTRAINT unique_violation").executeUpdate();
+        em.createNativeQuery("CREATE UNIQUE INDEX unique_violation_instance_null ON fullstop_data.violation " +
+                "(account_id, region, event_id, violation_type_entity_id) WHERE instance_id IS NULL").executeUpdate();
+        em.createNativeQuery("CREATE UNIQUE INDEX unique_violation ON fullstop_data.violation " +
+                "(account_id, region, event_id, violation_type_entity_id, instance_id) WHERE instance_id IS NOT NULL")
+                .executeUpdate();
+
+        final ViolationTypeEntity type = violationTypeRepository.findOne("SOMETHING_WENT_WRONG");
+        final int inserted = violationRepository.insertIgnoringDuplicates(newArrayList(
+                newViolation("run10", "i-1", type),
+                newViolation("run10", "i-1", type),
+                newViolation("run10", null, type),
+                newViolation("run10", null, type),
+                newViolation("run02", "i-5678", type))); // vio2
+
+        assertThat(inserted).isEqualTo(2);
+        em.clear();
+        final List<ViolationEntity> all = violationRepository.findAll();
+        assertThat(all.stream().filter(v -> "run10".equals(v.getEventId())).collect(toList()))
+                .extracting("instanceId", "accountId", "violationTypeEntity.id", "createdBy")
+                .containsOnly(
+                        tuple("i-1", "acc1", "SOMETHING_WENT_WRONG", "FULLSTOP"),
+                        tuple(null, "acc1", "SOMETHING_WENT_WRONG", "FULLSTOP"));
+        assertThat(all.stream().filter(v -> "run02".equals(v.getEventId())).count()).isEqualTo(1);
+    }
+
+    private static ViolationEntity newViolation(final String eventId, final String instanceId,
+                                                final ViolationTypeEntity type) {
+        final ViolationEntity violation = new ViolationEntity(eventId, "acc1", "germany-east-1", instanceId, null, null,
+                "username", null, null, null);
+        violation.setViolationTypeEntity(type);
+        violation.setCreatedBy("FULLSTOP");
+        return violation;
+    }
+
+    @Test
+    public void testFindOpenViolationsAndWhitelist() throws Exception {
+        assertThat(violationRepository.findOpenViolations(0, 10)).extracting("id", Long.class)
+                .containsExactly(vio2.getId(), vio5.getId());
+        assertThat(violationRepository.findOpenViolations(vio2.getId(), 10)).extracting("id", Long.class)
+                .containsExactly(vio5.getId());
+
+        final List<ViolationEntity> open = violationRepository.findOpenViolations(0, 1);
+        open.get(0).setRuleEntity(rule1);
+        open.get(0).setComment("whitelisted");
+        vio4.setRuleEntity(rule1);
+        vio4.setComment("already whitelisted");
+
+        assertThat(violationRepository.whitelistViolations(newArrayList(open.get(0), vio4), "FULLSTOP")).isEqualTo(1);
+        em.clear();
+
+        assertThat(violationRepository.findOpenViolations(0, 10)).extracting("id", Long.class)
+                .containsExactly(vio5.getId());
+        assertThat(violationRepository.findOne(vio2.getId()).getRuleEntity().getId()).isEqualTo(rule1.getId());
+    }
 }
@@ -0,0 +1,108 @@
+package org.zalando.stups.fullstop.violation.service.impl;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
+import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptySet;
+import static java.util.Optional.empty;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+public class ViolationCountServiceImplTest {
+
+    private static final LocalDate DAY = new LocalDate(2016, 5, 10);
+
+    private ViolationRepository mockViolationRepository;
+
+    @Before
+    public void setUp() throws Exception {
+        mockViolationRepository = mock(ViolationRepository.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(mockViolationRepository);
+    }
+
+    @Test
+    public void testCountsFromViolationsIfRollupsAreDisabled() throws Exception {
+        new ViolationCountServiceImpl(mockViolationRepository, false)
+                .countByAccountAndType(emptySet(), empty(), empty(), false, false);
+
+        verify(mockViolationRepository).countByAccountAndType(emptySet(), empty(), empty(), false, false);
+    }
+
+    @Test
+    public void testCountsFromViolationsWithinOneDay() throws Exception {
+        final Optional<DateTime> from = Optional.of(DAY.toDateTimeAtStartOfDay().plusHours(1));
+        final Optional<DateTime> to = Optional.of(DAY.toDateTimeAtStartOfDay().plusHours(5));
+
+        new ViolationCountServiceImpl(mockViolationRepository, true)
+                .countByAppVersionAndType("acc01", from, to, true, false);
+
+        verify(mockViolationRepository).countByAppVersionAndType("acc01", from, to, true, false);
+    }
+
+    @Test
+    public void testMergesWholeDaysWithPartialDaysByAccountAndType() throws Exception {
+        final DateTime from = DAY.toDateTimeAtStartOfDay().plusHours(10);
+        final DateTime to = DAY.plusDays(3).toDateTimeAtStartOfDay().plusHours(2);
+        final Optional<LocalDate> firstDay = Optional.of(DAY.plusDays(1));
+        final Optional<LocalDate> endDay = Optional.of(DAY.plusDays(3));
+        final Optional<DateTime> headEnd = Optional.of(DAY.plusDays(1).toDateTimeAtStartOfDay());
+        final Optional<DateTime> tailStart = Optional.of(DAY.plusDays(3).toDateTimeAtStartOfDay().minusMillis(1));
+
+        when(mockViolationRepository.countByAccountAndTypeFromRollup(emptySet(), firstDay, endDay, false, false))
+                .thenReturn(newArrayList(new CountByAccountAndType("acc02", "OOPS", 10)));
+        when(mockViolationRepository.countByAccountAndType(emptySet(), Optional.of(from), headEnd, false, false))
+                .thenReturn(newArrayList(new CountByAccountAndType("acc01", "OOPS", 1), new CountByAccountAndType("acc02", "OOPS", 2)));
+        when(mockViolationRepository.countByAccountAndType(emptySet(), tailStart, Optional.of(to), false, false))
+                .thenReturn(newArrayList(new CountByAccountAndType("acc02", "BLA", 3)));
+
+        final List<CountByAccountAndType> counts = new ViolationCountServiceImpl(mockViolationRepository, true)
+                .countByAccountAndType(emptySet(), Optional.of(from), Optional.of(to), false, false);
+
+        assertThat(counts).extracting("account", "type", "quantity").containsExactly(
+                tuple("acc01", "OOPS", 1L),
+                tuple("acc02", "BLA", 3L),
+                tuple("acc02", "OOPS", 12L));
+
+        verify(mockViolationRepository).countByAccountAndTypeFromRollup(emptySet(), firstDay, endDay, false, false);
+        verify(mockViolationRepository).countByAccountAndType(emptySet(), Optional.of(from), headEnd, false, false);
+        verify(mockViolationRepository).countByAccountAndType(emptySet(), tailStart, Optional.of(to), false, false);
+    }
+
+    @Test
+    public void testMergesWholeDaysWithLastDayByAppVersionAndType() throws Exception {
+        final DateTime from = DAY.toDateTimeAtStartOfDay();
+        final DateTime to = DAY.plusDays(2).toDateTimeAtStartOfDay().plusHours(2);
+        final Optional<LocalDate> firstDay = Optional.of(DAY);
+        final Optional<LocalDate> endDay = Optional.of(DAY.plusDays(2));
+
+        final List<CountByAppVersionAndType> merged = newArrayList(
+                new CountByAppVersionAndType("app1", "1.0", "OOPS", 5),
+                new CountByAppVersionAndType(null, null, "OOPS", 8));
+        when(mockViolationRepository.countByAppVersionAndTypeFromRollup(
+                "acc01", Optional.of(from), Optional.of(to), firstDay, endDay, false, true))
+                .thenReturn(merged);
+
+        final List<CountByAppVersionAndType> counts = new ViolationCountServiceImpl(mockViolationRepository, true)
+                .countByAppVersionAndType("acc01", Optional.of(from), Optional.of(to), false, true);
+
+        assertThat(counts).isSameAs(merged);
+
+        verify(mockViolationRepository).countByAppVersionAndTypeFromRollup(
+                "acc01", Optional.of(from), Optional.of(to), firstDay, endDay, false, true);
+    }
+}
@@ -0,0 +1,85 @@
+package org.zalando.stups.fullstop.violation.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ViolationExistenceCacheImplTest {
+
+    private static final ViolationKey KNOWN = new ViolationKey("123", "eu-west-1", "event-1", "i-1", "SOME_TYPE");
+
+    private static final ViolationKey UNKNOWN = new ViolationKey("123", "eu-west-1", "event-1", null, "SOME_TYPE");
+
+    private ViolationRepository mockViolationRepository;
+
+    private ViolationExistenceCacheImpl cache;
+
+    @Before
+    public void setUp() throws Exception {
+        mockViolationRepository = mock(ViolationRepository.class);
+        cache = new ViolationExistenceCacheImpl(mockViolationRepository, 100, 4, 10);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        verifyNoMoreInteractions(mockViolationRepository);
+    }
+
+    @Test
+    public void testWarmedUpViolationsAreNotQueried() throws Exception {
+        when(mockViolationRepository.findLatestViolationKeys(10)).thenReturn(singletonList(KNOWN));
+
+        cache.warmUp();
+
+        assertThat(cache.exists(KNOWN)).isTrue();
+        verify(mockViolationRepository).findLatestViolationKeys(10);
+    }
+
+    @Test
+    public void testOnlyExistingViolationsAreRemembered() throws Exception {
+        when(mockViolationRepository.violationExists("123", "eu-west-1", "event-1", "i-1", "SOME_TYPE")).thenReturn(true);
+
+        assertThat(cache.exists(KNOWN)).isTrue();
+        assertThat(cache.exists(KNOWN)).isTrue();
+        assertThat(cache.exists(UNKNOWN)).isFalse();
+        assertThat(cache.exists(UNKNOWN)).isFalse();
+
+        verify(mockViolationRepository).violationExists("123", "eu-west-1", "event-1", "i-1", "SOME_TYPE");
+        verify(mockViolationRepository, times(2)).violationExists("123", "eu-west-1", "event-1", null, "SOME_TYPE");
+    }
+
+    @Test
+    public void testAddedViolationsExist() throws Exception {
+        cache.add(KNOWN);
+
+        assertThat(cache.exists(KNOWN)).isTrue();
+    }
+
+    @Test
+    public void testFindExistingOnlyQueriesUnknownKeys() throws Exception {
+        cache.add(KNOWN);
+        when(mockViolationRepository.findExistingViolations(singletonList(UNKNOWN))).thenReturn(newHashSet(UNKNOWN));
+
+        assertThat(cache.findExisting(newArrayList(KNOWN, UNKNOWN))).containsOnly(KNOWN, UNKNOWN);
+        assertThat(cache.exists(UNKNOWN)).isTrue();
+
+        verify(mockViolationRepository).findExistingViolations(singletonList(UNKNOWN));
+    }
+
+    @Test
+    public void testWarmUpFailureLeavesCacheCold() throws Exception {
+        when(mockViolationRepository.findLatestViolationKeys(10)).thenThrow(new IllegalStateException("no database"));
+
+        cache.warmUp();
+
+        verify(mockViolationRepository).findLatestViolationKeys(10);
+    }
+}
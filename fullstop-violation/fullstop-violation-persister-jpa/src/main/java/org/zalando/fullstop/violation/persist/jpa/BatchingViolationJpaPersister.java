@@ -0,0 +1,246 @@
+package org.zalando.fullstop.violation.persist.jpa;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.zalando.fullstop.violation.persist.jpa.config.ViolationPersisterProperties;
+import org.zalando.stups.fullstop.violation.Violation;
+import org.zalando.stups.fullstop.violation.entity.Stack;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
+import org.zalando.stups.fullstop.violation.service.ApplicationVersionService;
+import org.zalando.stups.fullstop.violation.service.ViolationExistenceCache;
+import org.zalando.stups.fullstop.whitelist.WhitelistRules;
+import reactor.bus.EventBus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Drains the violations from the {@link EventBus} into micro-batches, closed either by size or by time.
+ * Every batch costs one existence query, one JDBC batch insert and a single commit.
+ * If a batch fails, its violations are persisted one by one, like {@link ViolationJpaPersister} does.
+ */
+public class BatchingViolationJpaPersister extends ViolationJpaPersister {
+
+    static final String VIOLATIONS_PERSISTED_JPA_BATCHES = "violations.persisted.jpa.batches";
+
+    private static final String AUDITOR = "FULLSTOP";
+
+    private final Logger log = LoggerFactory.getLogger(BatchingViolationJpaPersister.class);
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ViolationPersisterProperties properties;
+
+    private final BlockingQueue<Violation> queue;
+
+    // only used on the drainer thread while a batch transaction is open, its entities are gone after a rollback
+    private final Map<List<String>, Stack> batchStacks = new HashMap<>();
+
+    private final Map<String, ViolationTypeEntity> batchViolationTypes = new HashMap<>();
+
+    private boolean inBatchTransaction;
+
+    private volatile Thread drainer;
+
+    public BatchingViolationJpaPersister(final EventBus eventBus, final ViolationRepository violationRepository,
+                                         final ViolationTypeRepository violationTypeRepository,
+                                         final CounterService counterService, final WhitelistRules whitelistRules,
+                                         final ApplicationVersionService applicationVersionService,
+                                         final ViolationExistenceCache violationExistenceCache,
+                                         final TransactionTemplate transactionTemplate,
+                                         final ViolationPersisterProperties properties) {
+        super(eventBus, violationRepository, violationTypeRepository, counterService, whitelistRules,
+                applicationVersionService, violationExistenceCache);
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    /**
+     * Called on the event bus thread, blocks when the queue is full to push back on the producers.
+     */
+    @Override
+    public void handleViolation(final Violation violation) {
+        counterService.decrement(VIOLATIONS_EVENTBUS_QUEUED);
+        if (violation == null) {
+            return;
+        }
+
+        try {
+            queue.put(violation);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queueing violation {}, persisting it directly", violation);
+            persist(violation);
+        }
+    }
+
+    @Override
+    public void start() {
+        synchronized (this) {
+            if (drainer == null) {
+                drainer = new Thread(this::drain, "violation-batch-persister");
+                drainer.setDaemon(true);
+                drainer.start();
+            }
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        synchronized (this) {
+            if (drainer != null) {
+                drainer.interrupt();
+                try {
+                    drainer.join(properties.getBatchMaxWaitMillis() * 10);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drainer = null;
+            }
+        }
+    }
+
+    private void drain() {
+        final List<Violation> batch = new ArrayList<>(properties.getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                final Violation first = queue.take();
+                batch.add(first);
+
+                final long deadline = System.currentTimeMillis() + properties.getBatchMaxWaitMillis();
+                while (batch.size() < properties.getBatchSize()) {
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                    final long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    final Violation next = queue.poll(remaining, MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            // flush whatever is left on shutdown, too
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            if (!batch.isEmpty()) {
+                persistBatch(new ArrayList<>(batch));
+                batch.clear();
+            }
+        }
+
+        final List<Violation> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            persistBatch(remaining);
+        }
+    }
+
+    protected void persistBatch(final List<Violation> violations) {
+        try {
+            final int inserted = transactionTemplate.execute(status -> insertBatchCachingLookups(violations));
+            // committed, every violation of the batch exists now, either inserted by us or by someone else before
+            violations.stream()
+                    .filter(v -> v.getViolationType() != null)
+                    .forEach(v -> violationExistenceCache.add(keyOf(v)));
+            log.debug("Persisted batch of {} violations, {} new", violations.size(), inserted);
+            counterService.increment(VIOLATIONS_PERSISTED_JPA_BATCHES);
+            violations.forEach(v -> counterService.increment(VIOLATIONS_PERSISTED_JPA));
+        } catch (final RuntimeException e) {
+            log.error("Could not persist batch of " + violations.size() + " violations, retrying one by one", e);
+            for (final Violation violation : violations) {
+                try {
+                    persist(violation);
+                } catch (final RuntimeException ex) {
+                    log.error("Could not persist violation " + violation, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stacks and violation types are looked up once per batch. The lookups are forgotten before the transaction
+     * ends, so that the one by one retry of a rolled back batch does not use types or stacks that were never stored.
+     */
+    private int insertBatchCachingLookups(final List<Violation> violations) {
+        inBatchTransaction = true;
+        try {
+            return insertBatch(violations);
+        } finally {
+            inBatchTransaction = false;
+            batchStacks.clear();
+            batchViolationTypes.clear();
+        }
+    }
+
+    private int insertBatch(final List<Violation> violations) {
+        // dedupe inside the batch before asking the database
+        final Map<ViolationKey, Violation> byKey = new LinkedHashMap<>();
+        violations.stream()
+                .filter(v -> v.getViolationType() != null)
+                .forEach(v -> byKey.putIfAbsent(keyOf(v), v));
+
+        final Set<ViolationKey> existing = violationExistenceCache.findExisting(byKey.keySet());
+        existing.forEach(byKey::remove);
+
+        final DateTime now = DateTime.now();
+        final List<ViolationEntity> entities = byKey.values().stream()
+                .map(this::createViolationEntity)
+                .filter(Objects::nonNull)
+                .peek(e -> {
+                    e.setCreated(now);
+                    e.setCreatedBy(AUDITOR);
+                })
+                .collect(toList());
+
+        whitelistRules.execute(entities);
+
+        return violationRepository.insertIgnoringDuplicates(entities);
+    }
+
+    @Override
+    protected Stack getStack(final String applicationId, final String applicationVersion) {
+        if (!isCachingLookups()) {
+            return super.getStack(applicationId, applicationVersion);
+        }
+        return batchStacks.computeIfAbsent(
+                asList(applicationId, applicationVersion),
+                k -> super.getStack(applicationId, applicationVersion));
+    }
+
+    @Override
+    protected ViolationTypeEntity getViolationType(final String violationTypeId) {
+        if (!isCachingLookups()) {
+            return super.getViolationType(violationTypeId);
+        }
+        return batchViolationTypes.computeIfAbsent(violationTypeId, super::getViolationType);
+    }
+
+    private boolean isCachingLookups() {
+        return Thread.currentThread() == drainer && inBatchTransaction;
+    }
+}
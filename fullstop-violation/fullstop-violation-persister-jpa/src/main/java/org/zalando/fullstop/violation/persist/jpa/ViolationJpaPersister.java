@@ -6,53 +6,70 @@ import org.springframework.boot.actuate.metrics.CounterService;
 import org.zalando.stups.fullstop.violation.Violation;
 import org.zalando.stups.fullstop.violation.entity.Stack;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
 import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
 import org.zalando.stups.fullstop.violation.reactor.EventBusViolationHandler;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
 import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
 import org.zalando.stups.fullstop.violation.service.ApplicationVersionService;
+import org.zalando.stups.fullstop.violation.service.ViolationExistenceCache;
 import org.zalando.stups.fullstop.whitelist.WhitelistRules;
 import reactor.bus.EventBus;
 
 
 public class ViolationJpaPersister extends EventBusViolationHandler {
 
-    private static final String VIOLATIONS_EVENTBUS_QUEUED = "violations.eventbus.queued";
+    static final String VIOLATIONS_EVENTBUS_QUEUED = "violations.eventbus.queued";
 
-    private static final String VIOLATIONS_PERSISTED_JPA = "violations.persisted.jpa";
+    static final String VIOLATIONS_PERSISTED_JPA = "violations.persisted.jpa";
 
     private final Logger log = LoggerFactory.getLogger(ViolationJpaPersister.class);
 
-    private final ViolationRepository violationRepository;
+    protected final ViolationRepository violationRepository;
 
     private final ViolationTypeRepository violationTypeRepository;
 
-    private final CounterService counterService;
+    protected final CounterService counterService;
 
-    private final WhitelistRules whitelistRules;
+    protected final WhitelistRules whitelistRules;
 
     private final ApplicationVersionService applicationVersionService;
 
+    protected final ViolationExistenceCache violationExistenceCache;
+
     public ViolationJpaPersister(final EventBus eventBus, final ViolationRepository violationRepository,
                                  final ViolationTypeRepository violationTypeRepository,
                                  final CounterService counterService, final WhitelistRules whitelistRules,
-                                 final ApplicationVersionService applicationVersionService) {
+                                 final ApplicationVersionService applicationVersionService,
+                                 final ViolationExistenceCache violationExistenceCache) {
         super(eventBus);
         this.violationRepository = violationRepository;
         this.violationTypeRepository = violationTypeRepository;
         this.counterService = counterService;
         this.whitelistRules = whitelistRules;
         this.applicationVersionService = applicationVersionService;
+        this.violationExistenceCache = violationExistenceCache;
     }
 
     protected ViolationEntity buildViolationEntity(final Violation violation) {
+        final ViolationEntity entity = createViolationEntity(violation);
+
+        whitelistRules.execute(entity);
+
+        return entity;
+    }
+
+    /**
+     * Maps the violation without applying whitelist rules.
+     */
+    protected ViolationEntity createViolationEntity(final Violation violation) {
 
         if (violation == null || violation.getViolationType() == null) {
             log.warn("Violation/Violation-Type must not be null!");
             return null;
         }
 
-        final Stack stack = applicationVersionService.saveStack(violation.getApplicationId(), violation.getApplicationVersion());
+        final Stack stack = getStack(violation.getApplicationId(), violation.getApplicationVersion());
 
         final String violationTypeId = violation.getViolationType();
 
@@ -67,42 +84,56 @@ public class ViolationJpaPersister extends EventBusViolationHandler {
 
         entity.setUsername(violation.getUsername());
 
-        final ViolationTypeEntity violationTypeEntity = violationTypeRepository.findOne(violationTypeId);
+        entity.setViolationTypeEntity(getViolationType(violationTypeId));
 
-        if (violationTypeEntity != null) {
-            entity.setViolationTypeEntity(violationTypeEntity);
-        } else {
-            final ViolationTypeEntity vte = new ViolationTypeEntity();
-            vte.setId(violationTypeId);
-            vte.setViolationSeverity(0);
-            vte.setIsAuditRelevant(false);
-            vte.setHelpText("This is only a default message");
+        entity.setMetaInfo(violation.getMetaInfo());
 
-            final ViolationTypeEntity savedViolationTypeEntity = violationTypeRepository.save(vte);
+        entity.setRegion(violation.getRegion());
 
-            entity.setViolationTypeEntity(savedViolationTypeEntity);
-        }
+        return entity;
+    }
 
-        entity.setMetaInfo(violation.getMetaInfo());
+    protected Stack getStack(final String applicationId, final String applicationVersion) {
+        return applicationVersionService.saveStack(applicationId, applicationVersion);
+    }
 
-        entity.setRegion(violation.getRegion());
+    protected ViolationTypeEntity getViolationType(final String violationTypeId) {
+        final ViolationTypeEntity violationTypeEntity = violationTypeRepository.findOne(violationTypeId);
 
-        whitelistRules.execute(entity);
+        if (violationTypeEntity != null) {
+            return violationTypeEntity;
+        }
 
-        return entity;
+        final ViolationTypeEntity vte = new ViolationTypeEntity();
+        vte.setId(violationTypeId);
+        vte.setViolationSeverity(0);
+        vte.setIsAuditRelevant(false);
+        vte.setHelpText("This is only a default message");
+
+        return violationTypeRepository.save(vte);
     }
 
     @Override
     public void handleViolation(final Violation violation) {
         this.counterService.decrement(VIOLATIONS_EVENTBUS_QUEUED);
 
-        if (violationRepository.violationExists(violation.getAccountId(), violation.getRegion(), violation.getEventId(), violation.getInstanceId(), violation.getViolationType())) {
+        persist(violation);
+    }
+
+    protected void persist(final Violation violation) {
+        final ViolationKey key = keyOf(violation);
+        if (violationExistenceCache.exists(key)) {
             log.debug("Violation {} does already exist", violation);
         } else {
             violationRepository.saveAndFlush(buildViolationEntity(violation));
+            violationExistenceCache.add(key);
         }
 
         this.counterService.increment(VIOLATIONS_PERSISTED_JPA);
     }
 
+    protected static ViolationKey keyOf(final Violation violation) {
+        return new ViolationKey(violation.getAccountId(), violation.getRegion(), violation.getEventId(),
+                violation.getInstanceId(), violation.getViolationType());
+    }
 }
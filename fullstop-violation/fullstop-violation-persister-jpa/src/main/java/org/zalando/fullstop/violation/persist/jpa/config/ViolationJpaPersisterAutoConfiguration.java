@@ -2,14 +2,19 @@ package org.zalando.fullstop.violation.persist.jpa.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.zalando.fullstop.violation.persist.jpa.BatchingViolationJpaPersister;
 import org.zalando.fullstop.violation.persist.jpa.ViolationJpaPersister;
 import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
 import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
 import org.zalando.stups.fullstop.violation.service.ApplicationVersionService;
+import org.zalando.stups.fullstop.violation.service.ViolationExistenceCache;
 import org.zalando.stups.fullstop.whitelist.WhitelistRules;
 import reactor.bus.EventBus;
 
@@ -21,6 +26,7 @@ import reactor.bus.EventBus;
 @Configuration
 @EnableJpaRepositories("org.zalando.stups.fullstop.violation.repository")
 @EnableSpringDataWebSupport
+@EnableConfigurationProperties(ViolationPersisterProperties.class)
 public class ViolationJpaPersisterAutoConfiguration {
 
     @Autowired
@@ -41,9 +47,23 @@ public class ViolationJpaPersisterAutoConfiguration {
     @Autowired
     private ApplicationVersionService applicationVersionService;
 
+    @Autowired
+    private ViolationExistenceCache violationExistenceCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ViolationPersisterProperties violationPersisterProperties;
+
     @Bean
     public ViolationJpaPersister violationJpaPersister() {
+        if (violationPersisterProperties.isBatchEnabled()) {
+            return new BatchingViolationJpaPersister(eventBus, violationRepository, violationTypeRepository,
+                    counterService, whitelistRules, applicationVersionService, violationExistenceCache,
+                    new TransactionTemplate(transactionManager), violationPersisterProperties);
+        }
         return new ViolationJpaPersister(eventBus, violationRepository, violationTypeRepository, counterService,
-                whitelistRules, applicationVersionService);
+                whitelistRules, applicationVersionService, violationExistenceCache);
     }
 }
@@ -0,0 +1,59 @@
+package org.zalando.fullstop.violation.persist.jpa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Switches between the one-by-one and the batching violation persister.
+ */
+@ConfigurationProperties(prefix = "fullstop.violations.persister")
+public class ViolationPersisterProperties {
+
+    private boolean batchEnabled = false;
+
+    /**
+     * A batch is written as soon as it contains this many violations...
+     */
+    private int batchSize = 200;
+
+    /**
+     * ... or after waiting this long for more violations.
+     */
+    private long batchMaxWaitMillis = 500;
+
+    /**
+     * Violations buffered in memory until the event bus thread blocks.
+     */
+    private int queueCapacity = 10_000;
+
+    public boolean isBatchEnabled() {
+        return batchEnabled;
+    }
+
+    public void setBatchEnabled(final boolean batchEnabled) {
+        this.batchEnabled = batchEnabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchMaxWaitMillis() {
+        return batchMaxWaitMillis;
+    }
+
+    public void setBatchMaxWaitMillis(final long batchMaxWaitMillis) {
+        this.batchMaxWaitMillis = batchMaxWaitMillis;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS fullstop_data.job_checkpoint (
+  job_name                          TEXT      NOT NULL PRIMARY KEY,
+  last_id                           BIGINT    NOT NULL,
+  processed                         BIGINT    NOT NULL,
+  updated                           BIGINT    NOT NULL,
+  started                           TIMESTAMP NOT NULL,
+  last_modified                     TIMESTAMP NOT NULL
+);
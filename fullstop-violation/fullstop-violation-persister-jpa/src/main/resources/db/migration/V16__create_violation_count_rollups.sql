@@ -0,0 +1,118 @@
+-- Daily violation counts, maintained by a trigger on fullstop_data.violation, so that every write path
+-- (persister, batch insert, resolving, whitelisting, manual fixes) keeps them in sync.
+-- status is one of OPEN, RESOLVED (comment set, no rule) or WHITELISTED (rule set).
+
+LOCK TABLE fullstop_data.violation IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TABLE IF NOT EXISTS fullstop_data.violation_count_by_account (
+  day                      DATE   NOT NULL,
+  account_id               TEXT   NOT NULL,
+  violation_type_entity_id TEXT   NOT NULL,
+  status                   TEXT   NOT NULL,
+  quantity                 BIGINT NOT NULL,
+  PRIMARY KEY (account_id, day, violation_type_entity_id, status)
+);
+
+CREATE INDEX violation_count_by_account_day ON fullstop_data.violation_count_by_account (day, status);
+
+-- application_id 0: no application, application_version_id 0: no version
+CREATE TABLE IF NOT EXISTS fullstop_data.violation_count_by_app_version (
+  day                      DATE   NOT NULL,
+  account_id               TEXT   NOT NULL,
+  application_id           BIGINT NOT NULL,
+  application_version_id   BIGINT NOT NULL,
+  violation_type_entity_id TEXT   NOT NULL,
+  status                   TEXT   NOT NULL,
+  quantity                 BIGINT NOT NULL,
+  PRIMARY KEY (account_id, day, application_id, application_version_id, violation_type_entity_id, status)
+);
+
+CREATE OR REPLACE FUNCTION fullstop_data.violation_status(comment TEXT, rule_entity_id BIGINT)
+  RETURNS TEXT AS $$
+SELECT CASE
+       WHEN rule_entity_id IS NOT NULL THEN 'WHITELISTED'
+       WHEN comment IS NOT NULL THEN 'RESOLVED'
+       ELSE 'OPEN' END
+$$ LANGUAGE SQL IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION fullstop_data.count_violation(v fullstop_data.violation, delta BIGINT)
+  RETURNS VOID AS $$
+BEGIN
+  IF v.account_id IS NULL OR v.created IS NULL THEN
+    RETURN;
+  END IF;
+
+  INSERT INTO fullstop_data.violation_count_by_account AS c
+  (day, account_id, violation_type_entity_id, status, quantity)
+  VALUES (v.created :: DATE, v.account_id, v.violation_type_entity_id,
+          fullstop_data.violation_status(v.comment, v.rule_entity_id), delta)
+  ON CONFLICT (account_id, day, violation_type_entity_id, status)
+    DO UPDATE SET quantity = c.quantity + EXCLUDED.quantity;
+
+  INSERT INTO fullstop_data.violation_count_by_app_version AS c
+  (day, account_id, application_id, application_version_id, violation_type_entity_id, status, quantity)
+  VALUES (v.created :: DATE, v.account_id, COALESCE(v.application_id, 0), COALESCE(v.application_version_id, 0),
+          v.violation_type_entity_id, fullstop_data.violation_status(v.comment, v.rule_entity_id), delta)
+  ON CONFLICT (account_id, day, application_id, application_version_id, violation_type_entity_id, status)
+    DO UPDATE SET quantity = c.quantity + EXCLUDED.quantity;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fullstop_data.violation_count_trigger()
+  RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') THEN
+    PERFORM fullstop_data.count_violation(OLD, -1);
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') THEN
+    PERFORM fullstop_data.count_violation(NEW, 1);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- The counts are updated per row, so concurrent transactions that write violations of the same account, day and
+-- type wait for each other on the same rollup rows until they commit. The persister writes one batch per
+-- transaction, so this serializes concurrent batches of one account only. Aggregating per statement would need
+-- transition tables, which PostgreSQL only has from version 10 on.
+CREATE TRIGGER violation_count_insert_delete
+AFTER INSERT OR DELETE ON fullstop_data.violation
+FOR EACH ROW EXECUTE PROCEDURE fullstop_data.violation_count_trigger();
+
+-- JPA updates write every column, only touch the counts if a counted column really changed
+CREATE TRIGGER violation_count_update
+AFTER UPDATE ON fullstop_data.violation
+FOR EACH ROW
+WHEN (OLD.account_id IS DISTINCT FROM NEW.account_id
+      OR OLD.created :: DATE IS DISTINCT FROM NEW.created :: DATE
+      OR OLD.violation_type_entity_id IS DISTINCT FROM NEW.violation_type_entity_id
+      OR OLD.application_id IS DISTINCT FROM NEW.application_id
+      OR OLD.application_version_id IS DISTINCT FROM NEW.application_version_id
+      OR (OLD.comment IS NULL) IS DISTINCT FROM (NEW.comment IS NULL)
+      OR (OLD.rule_entity_id IS NULL) IS DISTINCT FROM (NEW.rule_entity_id IS NULL))
+EXECUTE PROCEDURE fullstop_data.violation_count_trigger();
+
+INSERT INTO fullstop_data.violation_count_by_account (day, account_id, violation_type_entity_id, status, quantity)
+  SELECT
+    created :: DATE,
+    account_id,
+    violation_type_entity_id,
+    fullstop_data.violation_status(comment, rule_entity_id),
+    count(*)
+  FROM fullstop_data.violation
+  WHERE account_id IS NOT NULL AND created IS NOT NULL
+  GROUP BY 1, 2, 3, 4;
+
+INSERT INTO fullstop_data.violation_count_by_app_version
+(day, account_id, application_id, application_version_id, violation_type_entity_id, status, quantity)
+  SELECT
+    created :: DATE,
+    account_id,
+    COALESCE(application_id, 0),
+    COALESCE(application_version_id, 0),
+    violation_type_entity_id,
+    fullstop_data.violation_status(comment, rule_entity_id),
+    count(*)
+  FROM fullstop_data.violation
+  WHERE account_id IS NOT NULL AND created IS NOT NULL
+  GROUP BY 1, 2, 3, 4, 5, 6;
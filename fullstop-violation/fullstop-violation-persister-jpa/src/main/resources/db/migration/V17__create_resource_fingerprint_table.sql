@@ -0,0 +1,11 @@
+-- Fingerprint of the properties a scheduled job checks per resource, recorded after the resource has been checked.
+-- Jobs skip resources whose fingerprint did not change since.
+CREATE TABLE IF NOT EXISTS fullstop_data.resource_fingerprint (
+  job_name                          TEXT      NOT NULL,
+  account_id                        TEXT      NOT NULL,
+  region                            TEXT      NOT NULL,
+  resource_id                       TEXT      NOT NULL,
+  fingerprint                       TEXT      NOT NULL,
+  last_modified                     TIMESTAMP NOT NULL,
+  PRIMARY KEY (job_name, account_id, region, resource_id)
+);
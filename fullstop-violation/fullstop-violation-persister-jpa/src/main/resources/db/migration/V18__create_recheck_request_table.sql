@@ -0,0 +1,11 @@
+-- Resources that changed according to CloudTrail and are rechecked by the jobs before their next full sweep.
+-- A resource is queued only once, until the jobs picked it up.
+CREATE TABLE IF NOT EXISTS fullstop_data.recheck_request (
+  id                                BIGSERIAL NOT NULL PRIMARY KEY,
+  account_id                        TEXT      NOT NULL,
+  region                            TEXT      NOT NULL,
+  resource_type                     TEXT      NOT NULL,
+  resource_id                       TEXT      NOT NULL,
+  created                           TIMESTAMP NOT NULL,
+  UNIQUE (account_id, region, resource_type, resource_id)
+);
@@ -0,0 +1,6 @@
+-- A request whose recheck failed is retried with backoff, and dropped after too many attempts, so that it neither
+-- blocks newer requests nor makes every run fail on the same resources again.
+ALTER TABLE fullstop_data.recheck_request ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE fullstop_data.recheck_request ADD COLUMN next_attempt TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE INDEX ON fullstop_data.recheck_request(next_attempt);
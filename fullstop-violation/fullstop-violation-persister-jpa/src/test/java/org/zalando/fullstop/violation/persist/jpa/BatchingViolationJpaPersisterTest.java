@@ -0,0 +1,176 @@
+package org.zalando.fullstop.violation.persist.jpa;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.zalando.fullstop.violation.persist.jpa.config.ViolationPersisterProperties;
+import org.zalando.stups.fullstop.violation.Violation;
+import org.zalando.stups.fullstop.violation.ViolationBuilder;
+import org.zalando.stups.fullstop.violation.entity.Stack;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationKey;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.repository.ViolationTypeRepository;
+import org.zalando.stups.fullstop.violation.service.ApplicationVersionService;
+import org.zalando.stups.fullstop.violation.service.ViolationExistenceCache;
+import org.zalando.stups.fullstop.whitelist.WhitelistRules;
+import reactor.bus.EventBus;
+import reactor.bus.registry.Registration;
+import reactor.bus.selector.Selector;
+import reactor.fn.Consumer;
+
+import java.util.List;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.zalando.fullstop.violation.persist.jpa.BatchingViolationJpaPersister.VIOLATIONS_PERSISTED_JPA_BATCHES;
+
+public class BatchingViolationJpaPersisterTest {
+
+    private ViolationRepository violationRepository;
+
+    private ViolationTypeRepository violationTypeRepository;
+
+    private ViolationExistenceCache violationExistenceCache;
+
+    private CounterService counterService;
+
+    private BatchingViolationJpaPersister persister;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        final EventBus eventBus = mock(EventBus.class);
+        when(eventBus.on(any(Selector.class), any(Consumer.class))).thenReturn(mock(Registration.class));
+
+        violationTypeRepository = mock(ViolationTypeRepository.class);
+        when(violationTypeRepository.findOne("TYPE")).thenReturn(new ViolationTypeEntity("TYPE"));
+
+        final ApplicationVersionService applicationVersionService = mock(ApplicationVersionService.class);
+        when(applicationVersionService.saveStack(any(), any())).thenReturn(new Stack(null, null));
+
+        final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArguments()[0]).doInTransaction(null));
+
+        violationRepository = mock(ViolationRepository.class);
+        violationExistenceCache = mock(ViolationExistenceCache.class);
+        when(violationExistenceCache.findExisting(anyCollectionOf(ViolationKey.class))).thenReturn(emptySet());
+        counterService = mock(CounterService.class);
+
+        final ViolationPersisterProperties properties = new ViolationPersisterProperties();
+        properties.setBatchSize(2);
+        properties.setBatchMaxWaitMillis(50);
+
+        persister = new BatchingViolationJpaPersister(eventBus, violationRepository, violationTypeRepository,
+                counterService, mock(WhitelistRules.class), applicationVersionService, violationExistenceCache,
+                transactionTemplate, properties);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        persister.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDrainsIntoBatchesBySizeAndTime() throws Exception {
+        when(violationRepository.insertIgnoringDuplicates(anyListOf(ViolationEntity.class)))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArguments()[0]).size());
+
+        // queued before the drainer starts, so that the first batch is closed by size
+        persister.handleViolation(violation("e1"));
+        persister.handleViolation(violation("e2"));
+        persister.handleViolation(violation("e3"));
+        persister.start();
+
+        final ArgumentCaptor<List> batches = ArgumentCaptor.forClass(List.class);
+        verify(violationRepository, timeout(5000).times(2)).insertIgnoringDuplicates(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+
+        verify(violationExistenceCache, timeout(5000).times(3)).add(any(ViolationKey.class));
+        verify(counterService, timeout(5000).times(2)).increment(VIOLATIONS_PERSISTED_JPA_BATCHES);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSkipsDuplicatesAndExistingViolations() throws Exception {
+        final Violation existing = violation("e2");
+        when(violationExistenceCache.findExisting(anyCollectionOf(ViolationKey.class)))
+                .thenReturn(singleton(BatchingViolationJpaPersister.keyOf(existing)));
+
+        persister.handleViolation(violation("e1"));
+        persister.handleViolation(violation("e1"));
+        persister.handleViolation(existing);
+        persister.start();
+
+        final ArgumentCaptor<List> batches = ArgumentCaptor.forClass(List.class);
+        verify(violationRepository, timeout(5000).times(2)).insertIgnoringDuplicates(batches.capture());
+        final List<ViolationEntity> first = batches.getAllValues().get(0);
+        final List<ViolationEntity> second = batches.getAllValues().get(1);
+        assertThat(first).extracting("eventId").containsExactly("e1");
+        assertThat(first).extracting("createdBy").containsExactly("FULLSTOP");
+        assertThat(second).isEmpty();
+    }
+
+    @Test
+    public void testPersistsOneByOneIfTheBatchFails() throws Exception {
+        when(violationRepository.insertIgnoringDuplicates(anyListOf(ViolationEntity.class)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        persister.handleViolation(violation("e1"));
+        persister.handleViolation(violation("e2"));
+        persister.start();
+
+        verify(violationRepository, timeout(5000).times(2)).saveAndFlush(any(ViolationEntity.class));
+        verify(violationExistenceCache, timeout(5000).times(2)).add(any(ViolationKey.class));
+        verify(counterService, never()).increment(VIOLATIONS_PERSISTED_JPA_BATCHES);
+    }
+
+    @Test
+    public void testLooksUpNewTypesAgainIfTheBatchFails() throws Exception {
+        when(violationTypeRepository.save(any(ViolationTypeEntity.class)))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+        when(violationRepository.insertIgnoringDuplicates(anyListOf(ViolationEntity.class)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        persister.handleViolation(violation("e1", "NEW_TYPE"));
+        persister.start();
+
+        // the type created inside the rolled back batch does not exist, the retry has to create it again
+        final ArgumentCaptor<ViolationEntity> persisted = ArgumentCaptor.forClass(ViolationEntity.class);
+        verify(violationRepository, timeout(5000)).saveAndFlush(persisted.capture());
+        verify(violationTypeRepository, times(2)).findOne("NEW_TYPE");
+        verify(violationTypeRepository, times(2)).save(any(ViolationTypeEntity.class));
+        assertThat(persisted.getValue().getViolationTypeEntity().getId()).isEqualTo("NEW_TYPE");
+    }
+
+    private static Violation violation(final String eventId) {
+        return violation(eventId, "TYPE");
+    }
+
+    private static Violation violation(final String eventId, final String type) {
+        return new ViolationBuilder()
+                .withEventId(eventId)
+                .withAccountId("123456789012")
+                .withRegion("eu-west-1")
+                .withInstanceId("i-1234")
+                .withType(type)
+                .build();
+    }
+}
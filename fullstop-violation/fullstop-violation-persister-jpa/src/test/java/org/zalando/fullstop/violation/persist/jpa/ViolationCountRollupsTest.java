@@ -0,0 +1,159 @@
+package org.zalando.fullstop.violation.persist.jpa;
+
+import com.opentable.db.postgres.embedded.EmbeddedPostgreSQL;
+import org.flywaydb.core.Flyway;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static java.sql.Timestamp.valueOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies all migrations to a real database and checks that the rollup tables of V16 always add up to the
+ * violations they were maintained from.
+ */
+public class ViolationCountRollupsTest {
+
+    private static final Timestamp MONDAY = valueOf(LocalDateTime.of(2016, 4, 4, 10, 0));
+
+    private static final Timestamp TUESDAY = valueOf(LocalDateTime.of(2016, 4, 5, 23, 59));
+
+    private static EmbeddedPostgreSQL postgres;
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        postgres = EmbeddedPostgreSQL.start();
+
+        final Flyway flyway = new Flyway();
+        flyway.setDataSource(postgres.getPostgresDatabase());
+        flyway.setSchemas("fullstop_data");
+        flyway.migrate();
+
+        jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbc.update("INSERT INTO fullstop_data.violation_type (id, version) VALUES ('TYPE_A', 0), ('TYPE_B', 0)");
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        postgres.close();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // truncate does not fire the row triggers
+        jdbc.execute("TRUNCATE fullstop_data.violation, fullstop_data.violation_count_by_account, " +
+                "fullstop_data.violation_count_by_app_version");
+    }
+
+    @Test
+    public void testInsert() throws Exception {
+        insert("e1", "acc1", "TYPE_A", MONDAY, null, null);
+        insert("e2", "acc1", "TYPE_A", MONDAY, 1L, 10L);
+        insert("e3", "acc1", "TYPE_B", TUESDAY, 1L, 10L);
+        insert("e4", "acc2", "TYPE_A", TUESDAY, 2L, null);
+        insert("e5", null, "TYPE_A", TUESDAY, null, null);
+
+        assertRollupsMatchViolations();
+        assertThat(jdbc.queryForObject("SELECT sum(quantity) FROM fullstop_data.violation_count_by_account",
+                Long.class)).isEqualTo(4L);
+    }
+
+    @Test
+    public void testInsertIgnoringDuplicates() throws Exception {
+        insert("e1", "acc1", "TYPE_A", MONDAY, null, null);
+        final int inserted = jdbc.update("INSERT INTO fullstop_data.violation " +
+                "(event_id, account_id, region, instance_id, violation_type_entity_id, created, version) " +
+                "VALUES ('e1', 'acc1', 'eu-west-1', 'i-1', 'TYPE_A', ?, 0), " +
+                "('e2', 'acc1', 'eu-west-1', 'i-1', 'TYPE_A', ?, 0) ON CONFLICT DO NOTHING", MONDAY, MONDAY);
+
+        assertThat(inserted).isEqualTo(1);
+        assertRollupsMatchViolations();
+    }
+
+    @Test
+    public void testResolveAndWhitelist() throws Exception {
+        final long resolved = insert("e1", "acc1", "TYPE_A", MONDAY, 1L, 10L);
+        final long whitelisted = insert("e2", "acc1", "TYPE_A", MONDAY, 1L, 10L);
+        insert("e3", "acc1", "TYPE_A", MONDAY, 1L, 10L);
+
+        jdbc.update("UPDATE fullstop_data.violation SET comment = 'fixed', version = version + 1 WHERE id = ?",
+                resolved);
+        final long rule = jdbc.queryForObject("INSERT INTO fullstop_data.rule " +
+                "(reason, expiry_date, created, created_by, version) VALUES ('test', now(), now(), 'test', 0) " +
+                "RETURNING id", Long.class);
+        jdbc.update("UPDATE fullstop_data.violation SET rule_entity_id = ? WHERE id = ?", rule, whitelisted);
+
+        assertRollupsMatchViolations();
+        assertThat(jdbc.queryForList("SELECT status FROM fullstop_data.violation_count_by_account " +
+                "WHERE quantity > 0 ORDER BY status", String.class)).containsExactly("OPEN", "RESOLVED", "WHITELISTED");
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        final long id = insert("e1", "acc1", "TYPE_A", MONDAY, null, null);
+
+        // like JPA, which writes every column, even if nothing counted changed
+        jdbc.update("UPDATE fullstop_data.violation SET meta_info = 'new', last_modified = now() WHERE id = ?", id);
+        assertRollupsMatchViolations();
+
+        jdbc.update("UPDATE fullstop_data.violation SET created = ?, violation_type_entity_id = 'TYPE_B', " +
+                "application_id = 3, application_version_id = 30 WHERE id = ?", TUESDAY, id);
+        assertRollupsMatchViolations();
+
+        jdbc.update("UPDATE fullstop_data.violation SET comment = 'fixed' WHERE id = ?", id);
+        jdbc.update("UPDATE fullstop_data.violation SET comment = 'fixed again' WHERE id = ?", id);
+        jdbc.update("UPDATE fullstop_data.violation SET comment = NULL WHERE id = ?", id);
+        assertRollupsMatchViolations();
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        final long id = insert("e1", "acc1", "TYPE_A", MONDAY, 1L, 10L);
+        insert("e2", "acc1", "TYPE_A", MONDAY, 1L, 10L);
+
+        jdbc.update("DELETE FROM fullstop_data.violation WHERE id = ?", id);
+        assertRollupsMatchViolations();
+
+        jdbc.update("DELETE FROM fullstop_data.violation");
+        assertRollupsMatchViolations();
+    }
+
+    private long insert(final String eventId, final String accountId, final String type, final Timestamp created,
+                        final Long applicationId, final Long applicationVersionId) {
+        return jdbc.queryForObject("INSERT INTO fullstop_data.violation " +
+                "(event_id, account_id, region, instance_id, violation_type_entity_id, created, version, " +
+                "application_id, application_version_id) VALUES (?, ?, 'eu-west-1', 'i-1', ?, ?, 0, ?, ?) " +
+                "RETURNING id", Long.class, eventId, accountId, type, created, applicationId, applicationVersionId);
+    }
+
+    /**
+     * Rows that were counted down to zero are left in the rollups, they do not change any sum.
+     */
+    private void assertRollupsMatchViolations() {
+        assertThat(jdbc.queryForList("SELECT day, account_id, violation_type_entity_id, status, quantity " +
+                "FROM fullstop_data.violation_count_by_account WHERE quantity <> 0 ORDER BY 1, 2, 3, 4"))
+                .isEqualTo(jdbc.queryForList("SELECT CAST(created AS DATE) AS day, account_id, " +
+                        "violation_type_entity_id, fullstop_data.violation_status(comment, rule_entity_id) " +
+                        "AS status, count(*) AS quantity FROM fullstop_data.violation " +
+                        "WHERE account_id IS NOT NULL AND created IS NOT NULL " +
+                        "GROUP BY 1, 2, 3, 4 ORDER BY 1, 2, 3, 4"));
+
+        assertThat(jdbc.queryForList("SELECT day, account_id, application_id, application_version_id, " +
+                "violation_type_entity_id, status, quantity " +
+                "FROM fullstop_data.violation_count_by_app_version WHERE quantity <> 0 ORDER BY 1, 2, 3, 4, 5, 6"))
+                .isEqualTo(jdbc.queryForList("SELECT CAST(created AS DATE) AS day, account_id, " +
+                        "COALESCE(application_id, 0) AS application_id, " +
+                        "COALESCE(application_version_id, 0) AS application_version_id, violation_type_entity_id, " +
+                        "fullstop_data.violation_status(comment, rule_entity_id) AS status, count(*) AS quantity " +
+                        "FROM fullstop_data.violation WHERE account_id IS NOT NULL AND created IS NOT NULL " +
+                        "GROUP BY 1, 2, 3, 4, 5, 6 ORDER BY 1, 2, 3, 4, 5, 6"));
+    }
+}
@@ -3,6 +3,7 @@ package org.zalando.stups.fullstop.controller;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.cloudtrail.processinglibrary.exceptions.CallbackException;
+import com.amazonaws.services.cloudtrail.processinglibrary.impl.DefaultEventFilter;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.model.*;
 import org.slf4j.Logger;
@@ -20,6 +21,8 @@ import org.zalando.stups.fullstop.filereader.FileEventReader;
 import java.io.*;
 import java.util.List;
 
+import static java.util.Arrays.asList;
+
 /**
  * Created by gkneitschel.
  */
@@ -40,6 +43,12 @@ public class S3Controller {
     @Value("${fullstop.logging.dir}")
     private String fullstopLoggingDir;
 
+    @Value("${fullstop.logging.readerThreads:4}")
+    private int readerThreads;
+
+    @Value("${fullstop.logging.readerBatchSize:" + FileEventReader.DEFAULT_BATCH_SIZE + "}")
+    private int readerBatchSize;
+
     @Autowired
     public S3Controller(final PluginEventsProcessor pluginEventsProcessor,
                         final CloudTrailProcessingLibraryProperties cloudTrailProcessingLibraryProperties) {
@@ -66,12 +75,9 @@ public class S3Controller {
             throw new FileNotFoundException("Directory is empty");
         }
 
-        for (final File file : files) {
-            log.info("Process file: {}", file.getAbsolutePath());
-
-            final FileEventReader reader = new FileEventReader(pluginEventsProcessor);
-            reader.readEvents(file, null);
-        }
+        final FileEventReader reader = new FileEventReader(pluginEventsProcessor, new DefaultEventFilter(),
+                readerBatchSize, false);
+        reader.readEvents(asList(files), readerThreads);
     }
 
     @RequestMapping(method = RequestMethod.GET, value = "/download")
@@ -0,0 +1,44 @@
+package org.zalando.stups.fullstop.web.controller;
+
+import org.zalando.stups.fullstop.web.api.BadRequestException;
+
+import java.util.Base64;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Opaque continuation token of the violations API. It wraps the id of the last violation a client has seen, so
+ * the next slice can be fetched by id instead of by offset.
+ */
+final class ViolationCursor {
+
+    private static final String VERSION_PREFIX = "v1:";
+
+    private ViolationCursor() {
+    }
+
+    static String encode(final long lastViolation) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((VERSION_PREFIX + lastViolation).getBytes(UTF_8));
+    }
+
+    /**
+     * @return the id of the last violation seen, or null for a blank cursor (i.e. the first slice)
+     */
+    static Long decode(final String cursor) throws BadRequestException {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), UTF_8);
+            if (!decoded.startsWith(VERSION_PREFIX)) {
+                throw new BadRequestException(format("Invalid cursor: %s", cursor));
+            }
+            return Long.valueOf(decoded.substring(VERSION_PREFIX.length()));
+        } catch (final IllegalArgumentException e) {
+            // also covers NumberFormatException
+            throw new BadRequestException(format("Invalid cursor: %s", cursor));
+        }
+    }
+}
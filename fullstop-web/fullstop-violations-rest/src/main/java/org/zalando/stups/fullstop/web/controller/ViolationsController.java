@@ -1,13 +1,18 @@
 package org.zalando.stups.fullstop.web.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.*;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -16,19 +21,28 @@ import org.zalando.stups.fullstop.teams.Account;
 import org.zalando.stups.fullstop.teams.TeamOperations;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
 import org.zalando.stups.fullstop.violation.service.ViolationService;
+import org.zalando.stups.fullstop.web.api.BadRequestException;
 import org.zalando.stups.fullstop.web.api.ForbiddenException;
 import org.zalando.stups.fullstop.web.api.NotFoundException;
 import org.zalando.stups.fullstop.web.model.Violation;
+import org.zalando.stups.fullstop.web.model.ViolationSlice;
 import springfox.documentation.annotations.ApiIgnore;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 import static org.springframework.data.domain.Sort.Direction.ASC;
 import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
@@ -38,6 +52,28 @@ import static org.springframework.web.bind.annotation.RequestMethod.POST;
 @Api(value = "/api/violations", description = "the violations API")
 public class ViolationsController {
 
+    /**
+     * Max. number of violations counted when an estimated total is requested.
+     */
+    static final long ESTIMATED_COUNT_LIMIT = 1000;
+
+    static final int MAX_SLICE_SIZE = 1000;
+
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
+    /**
+     * Rows fetched from the database at once while exporting.
+     */
+    static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private enum CountMode {
+        NONE, EXACT, ESTIMATE
+    }
+
     @Autowired
     private ViolationService violationService;
 
@@ -47,6 +83,9 @@ public class ViolationsController {
     @Autowired
     private Converter<ViolationEntity, Violation> entityToDto;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @ApiOperation(
             value = "violations", notes = "Get one violation", response = Violation.class
     )
@@ -135,11 +174,7 @@ public class ViolationsController {
             to = DateTime.now();
         }
 
-        if (types != null && !types.isEmpty()) {
-            types.add(type);
-        } else if (type != null) {
-            types = newArrayList(type);
-        }
+        types = mergeTypes(type, types);
 
         return mapBackendToFrontendViolations(
                 violationService.queryViolations(
@@ -147,6 +182,224 @@ public class ViolationsController {
                         checked, severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds, pageable));
     }
 
+    @ApiOperation(
+            value = "violations", notes = "Get violations slice by slice. Unlike the paged variant this neither " +
+            "skips nor (by default) counts rows, so it is cheap for deep positions and frequent polling. " +
+            "Pass an empty cursor for the first slice and the returned next_cursor for the following ones.",
+            response = ViolationSlice.class
+    )
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Slice of violations")})
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "from", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened after this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\""),
+            @ApiImplicitParam(name = "to", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened up to this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\"")
+    })
+    @RequestMapping(method = GET, params = "cursor")
+    public ViolationSlice violationsByCursor(
+            @ApiParam(value = "Continuation token returned as next_cursor, empty for the first slice")
+            @RequestParam(value = "cursor")
+            final String cursor,
+            @ApiParam(value = "Number of violations per slice")
+            @RequestParam(value = "size", required = false, defaultValue = "10")
+            final int size,
+            @ApiParam(value = "How to determine total_elements: none (default), exact or estimate")
+            @RequestParam(value = "count", required = false, defaultValue = "none")
+            final String count,
+            @ApiParam(value = "Include only violations in these accounts")
+            @RequestParam(value = "accounts", required = false)
+            final List<String> accounts,
+            @ApiIgnore
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime from,
+            @ApiIgnore
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime to,
+            @ApiParam(value = "Start the first slice with the violation with this id, ignored if a cursor is given")
+            @RequestParam(value = "last-violation", required = false)
+            final Long lastViolation,
+            @ApiParam(value = "Include only violations where checked field equals this value (i.e. resolved violations)")
+            @RequestParam(value = "checked", required = false, defaultValue = "false")
+            final boolean checked,
+            @ApiParam(value = "Include only violations with a certain severity")
+            @RequestParam(value = "severity", required = false)
+            final Integer severity,
+            @ApiParam(value = "Include only violations with a certain priority")
+            @RequestParam(value = "priority", required = false)
+            final Integer priority,
+            @ApiParam(value = "Include only violations that are audit relevant")
+            @RequestParam(value = "audit-relevant", required = false)
+            final Boolean auditRelevant,
+            @ApiParam(value = "Include only violations with a certain type")
+            @RequestParam(value = "type", required = false)
+            final String type,
+            @ApiParam(value = "Include only violations with a certain types")
+            @RequestParam(value = "types", required = false)
+            List<String> types,
+            @ApiParam(value = "Include only violations with a certain application name")
+            @RequestParam(value = "application-ids", required = false)
+            final List<String> applicationIds,
+            @ApiParam(value = "Include only violations with a certain application version")
+            @RequestParam(value = "application-version-ids", required = false)
+            final List<String> applicationVersionIds,
+            @ApiParam(value = "show also whitelisted vioaltions")
+            @RequestParam(value = "whitelisted", required = false, defaultValue = "false")
+            final boolean whitelisted) throws BadRequestException {
+
+        if (size < 1 || size > MAX_SLICE_SIZE) {
+            throw new BadRequestException(format("size must be between 1 and %d", MAX_SLICE_SIZE));
+        }
+
+        final CountMode countMode = parseCountMode(count);
+
+        if (from == null) {
+            from = DateTime.now().minusWeeks(1);
+        }
+
+        if (to == null) {
+            to = DateTime.now();
+        }
+
+        types = mergeTypes(type, types);
+
+        final Long afterViolation = Optional.ofNullable(ViolationCursor.decode(cursor))
+                .orElse(lastViolation != null ? lastViolation - 1 : null);
+
+        final Slice<ViolationEntity> slice = violationService.queryViolationsAfter(
+                accounts, from, to, afterViolation,
+                checked, severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds, size);
+
+        final List<ViolationEntity> content = slice.getContent();
+        final ViolationSlice result = new ViolationSlice();
+        result.setContent(content.stream().map(entityToDto::convert).collect(toList()));
+        result.setSize(size);
+        result.setHasNext(slice.hasNext());
+
+        // an exhausted slice keeps the position, so clients can poll for new violations with the same cursor
+        final Long position = content.isEmpty() ? afterViolation : content.get(content.size() - 1).getId();
+        result.setNextCursor(ViolationCursor.encode(position != null ? position : 0));
+
+        if (countMode != CountMode.NONE) {
+            final long limit = countMode == CountMode.ESTIMATE ? ESTIMATED_COUNT_LIMIT : 0;
+            final long total = violationService.countViolations(
+                    accounts, from, to,
+                    checked, severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds, limit);
+            result.setTotalElements(total);
+            result.setTotalElementsEstimated(limit > 0 && total >= limit);
+        }
+
+        return result;
+    }
+
+    @ApiOperation(
+            value = "violations", notes = "Export all matching violations as newline delimited JSON, one violation " +
+            "per line. The violations are streamed while being read from the database, so there is no limit on " +
+            "the size of the export."
+    )
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Violations, one per line")})
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "from", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened after this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\""),
+            @ApiImplicitParam(name = "to", dataType = "date-time", paramType = "query",
+                    value = "Include only violations that happened up to this point in time. " +
+                            "Example: \"2015-05-21T10:24:47.788-02:00\"")
+    })
+    @RequestMapping(value = "/export", method = GET, produces = NDJSON_VALUE)
+    public void exportViolations(
+            @ApiParam(value = "Compress the response with gzip")
+            @RequestParam(value = "gzip", required = false, defaultValue = "false")
+            final boolean gzip,
+            @ApiParam(value = "Include only violations in these accounts")
+            @RequestParam(value = "accounts", required = false)
+            final List<String> accounts,
+            @ApiIgnore
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime from,
+            @ApiIgnore
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DATE_TIME)
+            DateTime to,
+            @ApiParam(value = "Include only violations where checked field equals this value (i.e. resolved violations)")
+            @RequestParam(value = "checked", required = false, defaultValue = "false")
+            final boolean checked,
+            @ApiParam(value = "Include only violations with a certain severity")
+            @RequestParam(value = "severity", required = false)
+            final Integer severity,
+            @ApiParam(value = "Include only violations with a certain priority")
+            @RequestParam(value = "priority", required = false)
+            final Integer priority,
+            @ApiParam(value = "Include only violations that are audit relevant")
+            @RequestParam(value = "audit-relevant", required = false)
+            final Boolean auditRelevant,
+            @ApiParam(value = "Include only violations with a certain type")
+            @RequestParam(value = "type", required = false)
+            final String type,
+            @ApiParam(value = "Include only violations with a certain types")
+            @RequestParam(value = "types", required = false)
+            List<String> types,
+            @ApiParam(value = "Include only violations with a certain application name")
+            @RequestParam(value = "application-ids", required = false)
+            final List<String> applicationIds,
+            @ApiParam(value = "Include only violations with a certain application version")
+            @RequestParam(value = "application-version-ids", required = false)
+            final List<String> applicationVersionIds,
+            @ApiParam(value = "show also whitelisted vioaltions")
+            @RequestParam(value = "whitelisted", required = false, defaultValue = "false")
+            final boolean whitelisted,
+            @ApiIgnore
+            final HttpServletResponse response) throws IOException {
+
+        if (from == null) {
+            from = DateTime.now().minusWeeks(1);
+        }
+
+        if (to == null) {
+            to = DateTime.now();
+        }
+
+        types = mergeTypes(type, types);
+
+        response.setContentType(NDJSON_VALUE);
+        if (gzip) {
+            response.setHeader(CONTENT_ENCODING, "gzip");
+        }
+
+        final OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE)
+                : new BufferedOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE);
+
+        final int[] exported = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // lines are separated explicitly below
+            generator.setRootValueSeparator(null);
+
+            violationService.streamViolations(
+                    accounts, from, to,
+                    checked, severity, priority, auditRelevant, types, whitelisted, applicationIds, applicationVersionIds,
+                    EXPORT_FETCH_SIZE,
+                    violation -> {
+                        try {
+                            generator.writeObject(entityToDto.convert(violation));
+                            generator.writeRaw('\n');
+                            exported[0]++;
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (final UncheckedIOException e) {
+            log.warn("Export of violations aborted after {} violations: {}", exported[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        log.debug("Exported {} violations", exported[0]);
+    }
+
     @ApiOperation(
             value = "Resolve and explain this violation", notes = "Resolve and explain violation", response = Void.class
     )
@@ -189,6 +442,24 @@ public class ViolationsController {
         return false;
     }
 
+    private static List<String> mergeTypes(final String type, final List<String> types) {
+        if (types != null && !types.isEmpty()) {
+            types.add(type);
+            return types;
+        } else if (type != null) {
+            return newArrayList(type);
+        }
+        return types;
+    }
+
+    private static CountMode parseCountMode(final String count) throws BadRequestException {
+        try {
+            return CountMode.valueOf(count.trim().toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            throw new BadRequestException(format("Invalid count: %s", count));
+        }
+    }
+
     private Page<Violation> mapBackendToFrontendViolations(final Page<ViolationEntity> backendViolations) {
         final PageRequest currentPageRequest = new PageRequest(
                 backendViolations.getNumber(),
@@ -10,7 +10,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
 import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
-import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.service.ViolationCountService;
 import springfox.documentation.annotations.ApiIgnore;
 
 import java.util.Collections;
@@ -27,11 +27,11 @@ import static org.springframework.web.bind.annotation.RequestMethod.GET;
 @Api(value = "/api/violation-count", description = "the violations count API")
 public class ViolationsCountController {
 
-    private final ViolationRepository violationRepository;
+    private final ViolationCountService violationCountService;
 
     @Autowired
-    public ViolationsCountController(final ViolationRepository violationRepository) {
-        this.violationRepository = violationRepository;
+    public ViolationsCountController(final ViolationCountService violationCountService) {
+        this.violationCountService = violationCountService;
     }
 
     @RequestMapping(method = GET)
@@ -63,7 +63,7 @@ public class ViolationsCountController {
             @ApiParam("count only violations that have been whitelisted (true), or that are not whitelisted (false)")
             @RequestParam(value = "whitelisted",required = false, defaultValue = "false")
             final boolean whitelisted){
-        return violationRepository.countByAccountAndType(accounts.orElseGet(Collections::emptySet), from, to, resolved, whitelisted);
+        return violationCountService.countByAccountAndType(accounts.orElseGet(Collections::emptySet), from, to, resolved, whitelisted);
     }
 
     @RequestMapping(value = "/{account}", method = GET)
@@ -95,6 +95,6 @@ public class ViolationsCountController {
             @ApiParam("count only violations that have been whitelisted (true), or that are not whitelisted (false)")
             @RequestParam(value = "whitelisted",required = false, defaultValue = "false")
             final boolean whitelisted) {
-        return violationRepository.countByAppVersionAndType(account, from, to, resolved, whitelisted);
+        return violationCountService.countByAppVersionAndType(account, from, to, resolved, whitelisted);
     }
 }
@@ -0,0 +1,90 @@
+package org.zalando.stups.fullstop.web.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+@ApiModel(description = "A slice of violations, continued by passing next_cursor as cursor")
+public class ViolationSlice {
+
+    private List<Violation> content = null;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor = null;
+
+    private Long totalElements = null;
+
+    private boolean totalElementsEstimated;
+
+    @ApiModelProperty(value = "")
+    public List<Violation> getContent() {
+        return content;
+    }
+
+    public void setContent(final List<Violation> content) {
+        this.content = content;
+    }
+
+    @ApiModelProperty(value = "Requested number of violations")
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(final int size) {
+        this.size = size;
+    }
+
+    @ApiModelProperty(value = "Whether there are more violations")
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(final boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    @ApiModelProperty(value = "Opaque token to retrieve the next violations, always present to allow polling for new ones")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(final String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @ApiModelProperty(value = "Number of violations matching the filter, only present if requested")
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(final Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    @ApiModelProperty(value = "true if the number of violations has not been counted exactly, but is a lower bound")
+    public boolean isTotalElementsEstimated() {
+        return totalElementsEstimated;
+    }
+
+    public void setTotalElementsEstimated(final boolean totalElementsEstimated) {
+        this.totalElementsEstimated = totalElementsEstimated;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("content", content)
+                .add("size", size)
+                .add("hasNext", hasNext)
+                .add("nextCursor", nextCursor)
+                .add("totalElements", totalElements)
+                .add("totalElementsEstimated", totalElementsEstimated)
+                .toString();
+    }
+}
@@ -13,12 +13,14 @@ import org.springframework.context.annotation.Import;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
@@ -29,17 +31,28 @@ import org.zalando.stups.fullstop.violation.service.ViolationService;
 import org.zalando.stups.fullstop.web.model.Violation;
 import org.zalando.stups.fullstop.web.test.ControllerTestConfig;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.mockito.Mockito.*;
 import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.zalando.stups.fullstop.web.test.MatcherHelper.hasSize;
@@ -187,6 +200,110 @@ public class ViolationsControllerTest {
         verify(mockViolationConverter).convert(any(ViolationEntity.class));
     }
 
+    @Test
+    public void testViolationsByCursor() throws Exception {
+        violationResult.setId(42L);
+        when(violationServiceMock.queryViolationsAfter(any(), any(), any(), any(), anyBoolean(), any(), any(), any(), any(), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(new SliceImpl<>(newArrayList(violationResult), new PageRequest(0, 1), true));
+
+        final ResultActions resultActions = this.mockMvc.perform(
+                get("/api/violations?cursor=" + ViolationCursor.encode(41L) + "&size=1"))
+                .andExpect(status().isOk());
+
+        resultActions.andExpect(jsonPath("$.content").value(hasSize(1)));
+        resultActions.andExpect(jsonPath("$.hasNext").value(true));
+        resultActions.andExpect(jsonPath("$.nextCursor").value(ViolationCursor.encode(42L)));
+        resultActions.andExpect(jsonPath("$.totalElements").value(nullValue()));
+
+        verify(violationServiceMock).queryViolationsAfter(
+                isNull(List.class), any(DateTime.class), any(DateTime.class), eq(41L), eq(false), isNull(Integer.class),
+                isNull(Integer.class), isNull(Boolean.class), isNull(List.class), eq(false), isNull(List.class),
+                isNull(List.class), eq(1));
+        verify(mockViolationConverter).convert(any(ViolationEntity.class));
+    }
+
+    @Test
+    public void testViolationsByCursorStartsAtLastViolationAndEstimatesCount() throws Exception {
+        when(violationServiceMock.queryViolationsAfter(any(), any(), any(), any(), anyBoolean(), any(), any(), any(), any(), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(new SliceImpl<>(newArrayList(), new PageRequest(0, 10), false));
+        when(violationServiceMock.countViolations(any(), any(), any(), anyBoolean(), any(), any(), any(), any(), anyBoolean(), any(), any(), anyLong()))
+                .thenReturn(ViolationsController.ESTIMATED_COUNT_LIMIT);
+
+        final ResultActions resultActions = this.mockMvc.perform(
+                get("/api/violations?cursor=&last-violation=100&count=estimate"))
+                .andExpect(status().isOk());
+
+        resultActions.andExpect(jsonPath("$.content").value(hasSize(0)));
+        resultActions.andExpect(jsonPath("$.nextCursor").value(ViolationCursor.encode(99L)));
+        resultActions.andExpect(jsonPath("$.totalElements").value((int) ViolationsController.ESTIMATED_COUNT_LIMIT));
+        resultActions.andExpect(jsonPath("$.totalElementsEstimated").value(true));
+
+        verify(violationServiceMock).queryViolationsAfter(
+                any(), any(), any(), eq(99L), anyBoolean(), any(), any(), any(), any(), anyBoolean(), any(), any(), eq(10));
+        verify(violationServiceMock).countViolations(
+                any(), any(), any(), anyBoolean(), any(), any(), any(), any(), anyBoolean(), any(), any(),
+                eq(ViolationsController.ESTIMATED_COUNT_LIMIT));
+    }
+
+    @Test
+    public void testViolationsByInvalidCursor() throws Exception {
+        this.mockMvc.perform(get("/api/violations?cursor=foo")).andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/api/violations?cursor=&count=maybe")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportViolations() throws Exception {
+        final ViolationEntity other = INITIALIZER.create(violation().id(2L).version(0L));
+        doAnswer(invocation -> {
+            final Consumer<ViolationEntity> consumer = (Consumer<ViolationEntity>) invocation.getArguments()[12];
+            consumer.accept(violationResult);
+            consumer.accept(other);
+            return null;
+        }).when(violationServiceMock).streamViolations(any(), any(), any(), anyBoolean(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), anyInt(), any());
+
+        final MvcResult result = this.mockMvc.perform(get("/api/violations/export?accounts=123"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ViolationsController.NDJSON_VALUE))
+                .andReturn();
+
+        final String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(0L);
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong()).isEqualTo(2L);
+
+        verify(violationServiceMock).streamViolations(eq(newArrayList("123")), any(DateTime.class), any(DateTime.class),
+                eq(false), isNull(Integer.class), isNull(Integer.class), isNull(Boolean.class), isNull(List.class),
+                eq(false), isNull(List.class), isNull(List.class), eq(ViolationsController.EXPORT_FETCH_SIZE), any());
+        verify(mockViolationConverter, times(2)).convert(any(ViolationEntity.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportViolationsGzipped() throws Exception {
+        doAnswer(invocation -> {
+            ((Consumer<ViolationEntity>) invocation.getArguments()[12]).accept(violationResult);
+            return null;
+        }).when(violationServiceMock).streamViolations(any(), any(), any(), anyBoolean(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), anyInt(), any());
+
+        final MvcResult result = this.mockMvc.perform(get("/api/violations/export?gzip=true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())), UTF_8))) {
+            assertThat(objectMapper.readTree(reader.readLine()).get("id").asLong()).isEqualTo(0L);
+            assertThat(reader.readLine()).isNull();
+        }
+
+        verify(violationServiceMock).streamViolations(any(), any(), any(), anyBoolean(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), anyInt(), any());
+        verify(mockViolationConverter).convert(any(ViolationEntity.class));
+    }
+
     @Test
     public void testResolveViolation() throws Exception {
         when(violationServiceMock.findOne(anyLong())).thenReturn(violationResult);
@@ -273,6 +390,11 @@ public class ViolationsControllerTest {
             return new ApiExceptionHandler();
         }
 
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
         @Bean
         public ViolationService violationService() {
             return mock(ViolationService.class);
@@ -17,7 +17,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.zalando.stups.fullstop.violation.entity.CountByAccountAndType;
 import org.zalando.stups.fullstop.violation.entity.CountByAppVersionAndType;
-import org.zalando.stups.fullstop.violation.repository.ViolationRepository;
+import org.zalando.stups.fullstop.violation.service.ViolationCountService;
 import org.zalando.stups.fullstop.web.test.ControllerTestConfig;
 
 import java.util.Optional;
@@ -42,24 +42,24 @@ public class ViolationsCountControllerTest {
     private WebApplicationContext wac;
 
     @Autowired
-    private ViolationRepository mockViolationRepository;
+    private ViolationCountService mockViolationCountService;
 
     private MockMvc mockMvc;
 
     @Before
     public void setUp() throws Exception {
-        reset(mockViolationRepository);
+        reset(mockViolationCountService);
         mockMvc = MockMvcBuilders.webAppContextSetup(wac).alwaysDo(print()).build();
     }
 
     @After
     public void tearDown() throws Exception {
-        verifyNoMoreInteractions(mockViolationRepository);
+        verifyNoMoreInteractions(mockViolationCountService);
     }
 
     @Test
     public void testCountAllByAccountAndType() throws Exception {
-        when(mockViolationRepository.countByAccountAndType(any(), any(), any(), eq(false), eq(false)))
+        when(mockViolationCountService.countByAccountAndType(any(), any(), any(), eq(false), eq(false)))
                 .thenReturn(newArrayList(
                         new CountByAccountAndType("acc01", "oops", 40),
                         new CountByAccountAndType("acc01", "bla", 10),
@@ -70,7 +70,7 @@ public class ViolationsCountControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$", hasSize(3)));
 
-        verify(mockViolationRepository).countByAccountAndType(eq(emptySet()), eq(empty()), eq(empty()), eq(false), eq(false));
+        verify(mockViolationCountService).countByAccountAndType(eq(emptySet()), eq(empty()), eq(empty()), eq(false), eq(false));
     }
 
     @Test
@@ -78,7 +78,7 @@ public class ViolationsCountControllerTest {
         final DateTime from = DateTime.now();
         final DateTime to = DateTime.now();
 
-        when(mockViolationRepository.countByAccountAndType(any(), any(), any(), eq(false), eq(false)))
+        when(mockViolationCountService.countByAccountAndType(any(), any(), any(), eq(false), eq(false)))
                 .thenReturn(newArrayList(
                         new CountByAccountAndType("acc01", "oops", 40),
                         new CountByAccountAndType("acc01", "bla", 10),
@@ -90,7 +90,7 @@ public class ViolationsCountControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$", hasSize(3)));
 
-        verify(mockViolationRepository).countByAccountAndType(eq(newHashSet("acc01", "acc02")), eq(Optional.of(from)), eq(Optional.of(to)), eq(false), eq(false));
+        verify(mockViolationCountService).countByAccountAndType(eq(newHashSet("acc01", "acc02")), eq(Optional.of(from)), eq(Optional.of(to)), eq(false), eq(false));
     }
 
     @Test
@@ -98,7 +98,7 @@ public class ViolationsCountControllerTest {
         final DateTime from = DateTime.now();
         final DateTime to = DateTime.now();
 
-        when(mockViolationRepository.countByAppVersionAndType(anyString(), any(), any(), eq(true), eq(false)))
+        when(mockViolationCountService.countByAppVersionAndType(anyString(), any(), any(), eq(true), eq(false)))
                 .thenReturn(newArrayList(
                         new CountByAppVersionAndType("app1", "1.0", "OOPS", 40),
                         new CountByAppVersionAndType("app1", "2.0", "OOPS", 10),
@@ -110,7 +110,7 @@ public class ViolationsCountControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$", hasSize(3)));
 
-        verify(mockViolationRepository).countByAppVersionAndType(eq("account001"), eq(Optional.of(from)), eq(Optional.of(to)), eq(true), eq(false));
+        verify(mockViolationCountService).countByAppVersionAndType(eq("account001"), eq(Optional.of(from)), eq(Optional.of(to)), eq(true), eq(false));
 
     }
 
@@ -119,13 +119,13 @@ public class ViolationsCountControllerTest {
     static class TestConfig {
 
         @Bean
-        ViolationRepository violationRepository() {
-            return mock(ViolationRepository.class);
+        ViolationCountService violationCountService() {
+            return mock(ViolationCountService.class);
         }
 
         @Bean
-        ViolationsCountController violationsCountController(final ViolationRepository violationRepository) {
-            return new ViolationsCountController(violationRepository);
+        ViolationsCountController violationsCountController(final ViolationCountService violationCountService) {
+            return new ViolationsCountController(violationCountService);
         }
     }
 }
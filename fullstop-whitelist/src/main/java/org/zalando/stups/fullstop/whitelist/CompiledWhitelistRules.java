@@ -0,0 +1,175 @@
+package org.zalando.stups.fullstop.whitelist;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.stups.fullstop.rule.entity.RuleEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
+import org.zalando.stups.fullstop.violation.entity.ViolationTypeEntity;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.PatternSyntaxException;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableMap;
+import static org.zalando.stups.fullstop.whitelist.WhitelistRulesEvaluator.trimOptional;
+
+/**
+ * Immutable snapshot of the active whitelisting rules.
+ * <p>
+ * Every rule is compiled once into a predicate and indexed by its (account, violation type, region) criteria.
+ * Criteria a rule leaves empty act as wildcards, so a violation only has to be tested against the rules of at
+ * most eight buckets instead of against every active rule. Rules are still tested in the order in which they were
+ * loaded, hence the result is the same as evaluating the plain list with {@link WhitelistRulesEvaluator}.
+ */
+public final class CompiledWhitelistRules {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledWhitelistRules.class);
+
+    private static final Comparator<CompiledRule> BY_POSITION = Comparator.comparingInt(r -> r.position);
+
+    private final Map<IndexKey, List<CompiledRule>> index;
+
+    private final int size;
+
+    private CompiledWhitelistRules(final Map<IndexKey, List<CompiledRule>> index, final int size) {
+        this.index = unmodifiableMap(index);
+        this.size = size;
+    }
+
+    public static CompiledWhitelistRules compile(final Collection<RuleEntity> rules, final WhitelistRulesEvaluator evaluator) {
+        final Map<IndexKey, List<CompiledRule>> index = newHashMap();
+        int position = 0;
+        for (final RuleEntity rule : rules) {
+            final Predicate<ViolationEntity> predicate;
+            try {
+                predicate = evaluator.compile(rule);
+            } catch (final PatternSyntaxException e) {
+                log.warn("Ignoring whitelisting rule {}: invalid image name pattern: {}", rule.getId(), e.getMessage());
+                continue;
+            }
+
+            final IndexKey key = new IndexKey(
+                    trimOptional(rule.getAccountId()).orElse(null),
+                    trimOptional(rule.getViolationTypeEntityId()).orElse(null),
+                    trimOptional(rule.getRegion()).orElse(null));
+            index.computeIfAbsent(key, k -> newArrayList()).add(new CompiledRule(rule, predicate, position++));
+        }
+        return new CompiledWhitelistRules(index, position);
+    }
+
+    /**
+     * @return the first (active) rule matching the given violation
+     */
+    public Optional<RuleEntity> findMatchingRule(final ViolationEntity violation) {
+        if (size == 0) {
+            return Optional.empty();
+        }
+
+        final List<CompiledRule> candidates = candidatesFor(violation);
+        final long now = System.currentTimeMillis();
+        for (final CompiledRule candidate : candidates) {
+            if (candidate.isActive(now) && candidate.predicate.test(violation)) {
+                return Optional.of(candidate.rule);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private List<CompiledRule> candidatesFor(final ViolationEntity violation) {
+        final String violationType = Optional.ofNullable(violation.getViolationTypeEntity())
+                .map(ViolationTypeEntity::getId)
+                .orElse(null);
+
+        final List<CompiledRule> candidates = newArrayList();
+        int buckets = 0;
+        for (final String account : wildcardOr(violation.getAccountId())) {
+            for (final String type : wildcardOr(violationType)) {
+                for (final String region : wildcardOr(violation.getRegion())) {
+                    final List<CompiledRule> bucket = index.getOrDefault(new IndexKey(account, type, region), emptyList());
+                    if (!bucket.isEmpty()) {
+                        candidates.addAll(bucket);
+                        buckets++;
+                    }
+                }
+            }
+        }
+
+        if (buckets > 1) {
+            candidates.sort(BY_POSITION);
+        }
+        return candidates;
+    }
+
+    private static List<String> wildcardOr(final String value) {
+        final List<String> keys = newArrayList();
+        keys.add(null);
+        if (value != null) {
+            keys.add(value);
+        }
+        return keys;
+    }
+
+    private static final class CompiledRule {
+
+        private final RuleEntity rule;
+
+        private final Predicate<ViolationEntity> predicate;
+
+        private final int position;
+
+        private final long expiresAt;
+
+        private CompiledRule(final RuleEntity rule, final Predicate<ViolationEntity> predicate, final int position) {
+            this.rule = rule;
+            this.predicate = predicate;
+            this.position = position;
+            this.expiresAt = rule.getExpiryDate() != null ? rule.getExpiryDate().getMillis() : Long.MAX_VALUE;
+        }
+
+        private boolean isActive(final long now) {
+            return expiresAt > now;
+        }
+    }
+
+    private static final class IndexKey {
+
+        private final String accountId;
+
+        private final String violationType;
+
+        private final String region;
+
+        private IndexKey(final String accountId, final String violationType, final String region) {
+            this.accountId = accountId;
+            this.violationType = violationType;
+            this.region = region;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final IndexKey that = (IndexKey) o;
+            return Objects.equals(accountId, that.accountId) &&
+                    Objects.equals(violationType, that.violationType) &&
+                    Objects.equals(region, that.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, violationType, region);
+        }
+    }
+}
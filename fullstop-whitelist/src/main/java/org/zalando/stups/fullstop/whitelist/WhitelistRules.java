@@ -1,44 +1,135 @@
 package org.zalando.stups.fullstop.whitelist;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
 import org.zalando.stups.fullstop.rule.entity.RuleEntity;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
+import org.zalando.stups.fullstop.rule.service.RulesChangedEvent;
 import org.zalando.stups.fullstop.violation.entity.ViolationEntity;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class WhitelistRules {
+public class WhitelistRules implements ApplicationListener<RulesChangedEvent> {
+
+    static final long DEFAULT_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final WhitelistRulesEvaluator whitelistRulesEvaluator;
 
     private final RuleEntityService ruleEntityService;
 
+    /**
+     * Rules changed through another fullstop instance are not announced, so the compiled rules are reloaded
+     * at least this often.
+     */
+    private final long refreshIntervalMillis;
+
+    private volatile CompiledWhitelistRules compiledRules;
+
+    private volatile long compiledAt;
+
+    /**
+     * Bumped on every invalidation, so a load racing with a rule change does not store stale rules.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
     @Autowired
     public WhitelistRules(final WhitelistRulesEvaluator whitelistRulesEvaluator, final RuleEntityService ruleEntityService) {
+        this(whitelistRulesEvaluator, ruleEntityService, DEFAULT_REFRESH_INTERVAL_MILLIS);
+    }
+
+    public WhitelistRules(final WhitelistRulesEvaluator whitelistRulesEvaluator, final RuleEntityService ruleEntityService,
+                          final long refreshIntervalMillis) {
         this.whitelistRulesEvaluator = whitelistRulesEvaluator;
         this.ruleEntityService = ruleEntityService;
+        this.refreshIntervalMillis = refreshIntervalMillis;
     }
 
     public void execute(final ViolationEntity violationEntity) {
 
         if (violationEntity != null) {
 
-            final List<RuleEntity> rules = ruleEntityService.findByNotExpired();
+            final CompiledWhitelistRules rules = getCompiledRules();
             if (rules == null) {
                 return;
             }
 
-            for (final RuleEntity rule : rules) {
+            execute(violationEntity, rules);
+        }
+    }
 
-                if (whitelistRulesEvaluator.apply(rule, violationEntity)){
-                    violationEntity.setRuleEntity(rule);
-                    violationEntity.setComment("Whitelisted automatically because of:" + rule.getReason());
-                    return;
-                }
+    /**
+     * Same as {@link #execute(ViolationEntity)} for a bunch of violations.
+     */
+    public void execute(final Collection<ViolationEntity> violationEntities) {
+        if (violationEntities == null || violationEntities.isEmpty()) {
+            return;
+        }
 
+        final CompiledWhitelistRules rules = getCompiledRules();
+        if (rules == null) {
+            return;
+        }
+
+        violationEntities.stream().filter(v -> v != null).forEach(v -> execute(v, rules));
+    }
+
+    /**
+     * Drops the compiled rules, the next evaluation will load them again.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        compiledRules = null;
+    }
+
+    @Override
+    public void onApplicationEvent(final RulesChangedEvent event) {
+        log.debug("Whitelisting rules changed ({}), invalidating compiled rules", event.getRuleEntity());
+        invalidate();
+    }
+
+    /**
+     * @return the compiled active rules, loads them if necessary
+     */
+    public CompiledWhitelistRules getCompiledRules() {
+        final CompiledWhitelistRules current = compiledRules;
+        if (current != null && System.currentTimeMillis() - compiledAt < refreshIntervalMillis) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (compiledRules != null && System.currentTimeMillis() - compiledAt < refreshIntervalMillis) {
+                return compiledRules;
             }
 
+            final long loadGeneration = generation.get();
+            final long loadStarted = System.currentTimeMillis();
+            final List<RuleEntity> rules = ruleEntityService.findByNotExpired();
+            if (rules == null) {
+                return null;
+            }
+
+            final CompiledWhitelistRules compiled = CompiledWhitelistRules.compile(rules, whitelistRulesEvaluator);
+            if (generation.get() == loadGeneration) {
+                compiledAt = loadStarted;
+                compiledRules = compiled;
+            }
+            log.debug("Compiled {} active whitelisting rules", compiled.size());
+            return compiled;
         }
     }
 
+    private void execute(final ViolationEntity violationEntity, final CompiledWhitelistRules rules) {
+        rules.findMatchingRule(violationEntity).ifPresent(rule -> {
+            violationEntity.setRuleEntity(rule);
+            violationEntity.setComment("Whitelisted automatically because of:" + rule.getReason());
+        });
+    }
+
 }
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import static com.google.common.collect.Lists.newArrayList;
 
@@ -23,8 +24,17 @@ public class WhitelistRulesEvaluator implements BiFunction<RuleEntity, Violation
      */
     @Override
     public Boolean apply(final RuleEntity ruleEntity, final ViolationEntity violationEntity) {
-        final List<Predicate<ViolationEntity>> predicates = newArrayList();
+        return compile(ruleEntity).test(violationEntity);
+    }
 
+    /**
+     * Translates a rule into a reusable predicate, so that the rule's fields are trimmed and its image name
+     * pattern is compiled only once. A rule without any criteria never matches.
+     *
+     * @throws java.util.regex.PatternSyntaxException if the rule's image name is not a valid regular expression
+     */
+    public Predicate<ViolationEntity> compile(final RuleEntity ruleEntity) {
+        final List<Predicate<ViolationEntity>> predicates = newArrayList();
 
         trimOptional(ruleEntity.getAccountId())
                 .map(WhitelistRulesEvaluator::accountIsEqual)
@@ -39,6 +49,7 @@ public class WhitelistRulesEvaluator implements BiFunction<RuleEntity, Violation
                 .ifPresent(predicates::add);
 
         trimOptional(ruleEntity.getImageName())
+                .map(Pattern::compile)
                 .map(WhitelistRulesEvaluator::imageNameMatches)
                 .ifPresent(predicates::add);
 
@@ -54,9 +65,7 @@ public class WhitelistRulesEvaluator implements BiFunction<RuleEntity, Violation
                 .map(WhitelistRulesEvaluator::applicationVersionIsEqual)
                 .ifPresent(predicates::add);
 
-        final Optional<Predicate<ViolationEntity>> whiteListTest = predicates.stream().reduce(Predicate::and);
-
-        return whiteListTest.isPresent() && whiteListTest.get().test(violationEntity);
+        return predicates.stream().reduce(Predicate::and).orElse(v -> false);
     }
 
     private static Predicate<ViolationEntity> accountIsEqual(final String account) {
@@ -71,14 +80,14 @@ public class WhitelistRulesEvaluator implements BiFunction<RuleEntity, Violation
         return v -> violationTypeId.equals(v.getViolationTypeEntity().getId());
     }
 
-    private static Predicate<ViolationEntity> imageNameMatches(final String imageNamePattern) {
+    private static Predicate<ViolationEntity> imageNameMatches(final Pattern imageNamePattern) {
         return v -> {
             if(v.getMetaInfo() instanceof Map) {
                 final Map<String,String> map = (Map<String, String>) v.getMetaInfo();
                 if (map == null || map.get("ami_name") == null) {
                     return false;
                 }
-                return map.get("ami_name").matches(imageNamePattern);
+                return imageNamePattern.matcher(map.get("ami_name")).matches();
             } else {
                 return false;
             }
@@ -113,7 +122,7 @@ public class WhitelistRulesEvaluator implements BiFunction<RuleEntity, Violation
     }
 
 
-    private static Optional<String> trimOptional(final String value) {
+    static Optional<String> trimOptional(final String value) {
         return Optional.ofNullable(value).map(String::trim).filter(string -> !string.isEmpty());
     }
 
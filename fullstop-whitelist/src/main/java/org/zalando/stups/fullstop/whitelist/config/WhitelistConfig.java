@@ -1,6 +1,7 @@
 package org.zalando.stups.fullstop.whitelist.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.stups.fullstop.rule.service.RuleEntityService;
@@ -14,6 +15,9 @@ public class WhitelistConfig {
     @Autowired
     private RuleEntityService ruleEntityService;
 
+    @Value("${fullstop.whitelist.rules.refreshIntervalMillis:60000}")
+    private long rulesRefreshIntervalMillis;
+
     @Bean
     WhitelistRulesEvaluator whitelistRulesEvaluator() {
         return new WhitelistRulesEvaluator();
@@ -21,6 +25,6 @@ public class WhitelistConfig {
 
     @Bean
     WhitelistRules whitelistRules() {
-        return new WhitelistRules(whitelistRulesEvaluator(), ruleEntityService);
+        return new WhitelistRules(whitelistRulesEvaluator(), ruleEntityService, rulesRefreshIntervalMillis);
     }
 }
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestOperations;
@@ -16,6 +17,8 @@ import org.zalando.stups.clients.kio.spring.KioClientResponseErrorHandler;
 import org.zalando.stups.clients.kio.spring.RestTemplateKioOperations;
 import org.zalando.stups.fullstop.hystrix.HystrixKioOperations;
 import org.zalando.stups.fullstop.hystrix.HystrixTeamOperations;
+import org.zalando.stups.fullstop.kio.CachingKioOperations;
+import org.zalando.stups.fullstop.kio.KioCacheProperties;
 import org.zalando.stups.fullstop.teams.RestTemplateTeamOperations;
 import org.zalando.stups.fullstop.teams.TeamOperations;
 import org.zalando.stups.oauth2.spring.client.StupsOAuth2RestTemplate;
@@ -51,13 +54,27 @@ public class ClientConfig {
     private String pieroneUrls;
 
     @Bean
-    public KioOperations kioOperations() {
+    @Primary
+    public CachingKioOperations kioOperations() {
+        return new CachingKioOperations(hystrixKioOperations(), kioCacheProperties());
+    }
+
+    /**
+     * A bean of its own, so that the hystrix aspect applies.
+     */
+    @Bean
+    public KioOperations hystrixKioOperations() {
         return new HystrixKioOperations(
                 new RestTemplateKioOperations(
                         buildOAuth2RestTemplate("kio", new KioClientResponseErrorHandler()),
                         kioBaseUrl));
     }
 
+    @Bean
+    public KioCacheProperties kioCacheProperties() {
+        return new KioCacheProperties();
+    }
+
     @Bean
     public TeamOperations teamOperations() {
         return new HystrixTeamOperations(
@@ -1,11 +1,18 @@
 package org.zalando.stups.fullstop.config;
 
 import org.springframework.cloud.netflix.hystrix.EnableHystrix;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.zalando.stups.fullstop.hystrix.HystrixMetrics;
 
 @Configuration
 @EnableHystrix
 @EnableAspectJAutoProxy
 public class HystrixConfiguration {
+
+    @Bean
+    public HystrixMetrics hystrixMetrics() {
+        return new HystrixMetrics();
+    }
 }
@@ -8,8 +8,13 @@ import org.zalando.stups.fullstop.teams.TeamOperations;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * All calls run on the thread pool "teamService", so that a slow Team Service cannot take the threads of other services.
+ */
 public class HystrixTeamOperations implements TeamOperations {
 
+    static final String TEAM_SERVICE = "teamService";
+
     private final TeamOperations delegate;
 
     public HystrixTeamOperations(final TeamOperations delegate) {
@@ -17,19 +22,19 @@ public class HystrixTeamOperations implements TeamOperations {
     }
 
     @Override
-    @HystrixCommand(ignoreExceptions = {HttpClientErrorException.class, IllegalArgumentException.class})
+    @HystrixCommand(groupKey = TEAM_SERVICE, threadPoolKey = TEAM_SERVICE, ignoreExceptions = {HttpClientErrorException.class, IllegalArgumentException.class})
     public List<Account> getAwsAccountsByUser(final String userId) {
         return delegate.getAwsAccountsByUser(userId);
     }
 
     @Override
-    @HystrixCommand(ignoreExceptions = {HttpClientErrorException.class, IllegalArgumentException.class})
+    @HystrixCommand(groupKey = TEAM_SERVICE, threadPoolKey = TEAM_SERVICE, ignoreExceptions = {HttpClientErrorException.class, IllegalArgumentException.class})
     public Set<String> getTeamIdsByUser(final String userId) {
         return delegate.getTeamIdsByUser(userId);
     }
 
     @Override
-    @HystrixCommand(ignoreExceptions = HttpClientErrorException.class)
+    @HystrixCommand(groupKey = TEAM_SERVICE, threadPoolKey = TEAM_SERVICE, ignoreExceptions = HttpClientErrorException.class)
     public List<Account> getActiveAccounts() {
         return delegate.getActiveAccounts();
     }
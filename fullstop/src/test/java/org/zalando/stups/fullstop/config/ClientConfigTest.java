@@ -2,7 +2,9 @@ package org.zalando.stups.fullstop.config;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -12,6 +14,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.zalando.kontrolletti.KontrollettiOperations;
 import org.zalando.stups.clients.kio.KioOperations;
+import org.zalando.stups.fullstop.kio.CachingKioOperations;
 import org.zalando.stups.fullstop.teams.TeamOperations;
 import org.zalando.stups.pierone.client.PieroneOperations;
 import org.zalando.stups.tokens.AccessTokens;
@@ -20,6 +23,7 @@ import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration
@@ -28,6 +32,10 @@ public class ClientConfigTest {
     @Autowired(required = false)
     private KioOperations kioOperations;
 
+    @Autowired(required = false)
+    @Qualifier("hystrixKioOperations")
+    private KioOperations hystrixKioOperations;
+
     @Autowired(required = false)
     private Function<String, PieroneOperations> pieroneOperationsProvider;
 
@@ -39,7 +47,13 @@ public class ClientConfigTest {
 
     @Test
     public void testKioOperations() throws Exception {
-        assertThat(kioOperations).isNotNull();
+        assertThat(kioOperations).isInstanceOf(CachingKioOperations.class);
+    }
+
+    @Test
+    public void testKioOperationsAreCachedAroundHystrix() throws Exception {
+        assertThat(AopUtils.isAopProxy(hystrixKioOperations)).isTrue();
+        assertThat(getField(kioOperations, "delegate")).isSameAs(hystrixKioOperations);
     }
 
     @Test
@@ -61,7 +75,7 @@ public class ClientConfigTest {
     }
 
     @Configuration
-    @Import(ClientConfig.class)
+    @Import({ClientConfig.class, HystrixConfiguration.class})
     @PropertySource("classpath:config/application-ClientConfigTest.properties")
     static class TestConfig {
 